@@ -69,6 +69,8 @@ public class RabbitMQConfig {
     public static final String FUNDS_EXCHANGE = "funds.exchange";
     public static final String LEDGER_EXCHANGE = "ledger.exchange";
     public static final String DLQ_EXCHANGE = "dlq.exchange";
+    // x-consistent-hash exchange fanning order.validated.<userId> out to funds-service shards
+    public static final String ORDER_VALIDATED_FUNDS_EXCHANGE = "order.validated.funds.exchange";
 
     // Queues
     public static final String USER_CREATED_QUEUE = "user.created.queue";
@@ -88,10 +90,12 @@ public class RabbitMQConfig {
     public static final String ORDER_CREATED_TRADE_QUEUE = "order.created.trade.queue";
 
     // Order Service specific queues
+    // Prefix of the funds-service shard queues, order.validated.funds.queue.<shard>
     public static final String ORDER_VALIDATED_FUNDS_QUEUE = "order.validated.funds.queue";
     public static final String ORDER_REJECTED_ORDER_QUEUE = "order.rejected.order.queue";
     public static final String ORDER_CANCELLED_FUNDS_QUEUE = "order.cancelled.funds.queue";
     public static final String ORDER_CANCELLED_TRADE_QUEUE = "order.cancelled.trade.queue";
+    public static final String ORDER_TRIGGERED_TRADE_QUEUE = "order.triggered.trade.queue";
     public static final String FUNDS_LOCKED_ORDER_QUEUE = "funds.locked.order.queue";
     public static final String TRADE_EXECUTED_ORDER_QUEUE = "trade.executed.order.queue";
 
@@ -154,10 +158,21 @@ public class RabbitMQConfig {
     public static final String ORDER_REJECTED_ROUTING_KEY = "order.rejected";
     public static final String ORDER_EXPIRED_ROUTING_KEY = "order.expired";
     public static final String ORDER_FILLED_ROUTING_KEY = "order.filled";
+    public static final String ORDER_TRIGGERED_ROUTING_KEY = "order.triggered";
     public static final String FUNDS_RELEASED_ROUTING_KEY = "funds.released";
     public static final String FUNDS_DEPOSITED_ROUTING_KEY = "funds.deposited";
     public static final String FUNDS_WITHDRAWN_ROUTING_KEY = "funds.withdrawn";
     public static final String LEDGER_ENTRY_RECORDED_ROUTING_KEY = "ledger.entry.recorded";
+    public static final String LEDGER_ENTRY_REQUESTED_ROUTING_KEY = "ledger.entry.requested";
+
+    /**
+     * Routing key an OrderValidatedEvent is published with: order.validated
+     * plus the user id, which the consistent-hash exchange hashes so all of a
+     * user's orders reach the same funds-service shard.
+     */
+    public static String orderValidatedRoutingKey(Long userId) {
+        return ORDER_VALIDATED_ROUTING_KEY + "." + userId;
+    }
 
     // Payment Routing Keys for Notification Service
     public static final String PAYMENT_SUCCESS_ROUTING_KEY = "payment.success";
@@ -575,15 +590,6 @@ public class RabbitMQConfig {
     }
 
     // Order Service Queues
-    @Bean
-    public Queue orderValidatedFundsQueue() {
-        return QueueBuilder.durable(ORDER_VALIDATED_FUNDS_QUEUE)
-                .withArgument("x-dead-letter-exchange", DLQ_EXCHANGE)
-                .withArgument("x-dead-letter-routing-key", ORDER_VALIDATED_FUNDS_QUEUE + ".dlq")
-                .withArgument("x-message-ttl", 3600000)
-                .build();
-    }
-
     @Bean
     public Queue fundsLockedOrderQueue() {
         return QueueBuilder.durable(FUNDS_LOCKED_ORDER_QUEUE)
@@ -629,14 +635,19 @@ public class RabbitMQConfig {
                 .build();
     }
 
-    // Order Service Bindings
+    /**
+     * Triggered orders waiting to be executed. No TTL: a dropped trigger
+     * would leave its order resting forever.
+     */
     @Bean
-    public Binding orderValidatedFundsBinding() {
-        return BindingBuilder.bind(orderValidatedFundsQueue())
-                .to(orderExchange())
-                .with(ORDER_VALIDATED_ROUTING_KEY);
+    public Queue orderTriggeredTradeQueue() {
+        return QueueBuilder.durable(ORDER_TRIGGERED_TRADE_QUEUE)
+                .withArgument("x-dead-letter-exchange", DLQ_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", ORDER_TRIGGERED_TRADE_QUEUE + ".dlq")
+                .build();
     }
 
+    // Order Service Bindings
     @Bean
     public Binding fundsLockedOrderBinding() {
         return BindingBuilder.bind(fundsLockedOrderQueue())
@@ -672,6 +683,13 @@ public class RabbitMQConfig {
                 .with(ORDER_CANCELLED_ROUTING_KEY);
     }
 
+    @Bean
+    public Binding orderTriggeredTradeBinding() {
+        return BindingBuilder.bind(orderTriggeredTradeQueue())
+                .to(orderExchange())
+                .with(ORDER_TRIGGERED_ROUTING_KEY);
+    }
+
     // =====================================================
     // Notification Service Queues and Bindings
     // =====================================================
@@ -22,6 +22,8 @@ import java.time.Instant;
 public class LedgerEntryEvent extends BaseEvent {
     private Long id;
     private Long walletId;
+    /** Per-wallet sequence assigned by funds-service; null for entries recorded directly */
+    private Long walletSequence;
     private LedgerEntryType entryType;
     private BigDecimal amount;
     private BigDecimal balanceBefore;
@@ -0,0 +1,35 @@
+package in.winvestco.common.event;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+
+/**
+ * Event captured by funds-service for every wallet movement, asking
+ * ledger-service to append the matching entry.
+ *
+ * walletSequence numbers the entries of one wallet (1, 2, 3, ...); the ledger
+ * records entries of a wallet in that order and ignores redeliveries of a
+ * sequence it already holds.
+ */
+@Data
+@SuperBuilder
+@NoArgsConstructor
+@AllArgsConstructor
+@EqualsAndHashCode(callSuper = false)
+public class LedgerEntryRequestedEvent extends BaseEvent {
+    private Long walletId;
+    private Long walletSequence;
+    private LedgerEntryType entryType;
+    private BigDecimal amount;
+    private BigDecimal balanceBefore;
+    private BigDecimal balanceAfter;
+    private String referenceId;
+    private String referenceType;
+    private String description;
+}
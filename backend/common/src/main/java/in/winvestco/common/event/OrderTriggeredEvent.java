@@ -0,0 +1,35 @@
+package in.winvestco.common.event;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.enums.OrderType;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+import lombok.experimental.SuperBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Event emitted when the market price crosses a resting LIMIT, STOP_LOSS or
+ * STOP_LIMIT order's price and the order becomes eligible for execution.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@SuperBuilder
+@EqualsAndHashCode(callSuper = true)
+public class OrderTriggeredEvent extends BaseEvent {
+
+    private String orderId;
+    private Long userId;
+    private String symbol;
+    private OrderSide side;
+    private OrderType orderType;
+    private BigDecimal quantity;
+    private BigDecimal price;
+    private BigDecimal stopPrice;
+    private BigDecimal marketPrice;
+    private Instant triggeredAt;
+}
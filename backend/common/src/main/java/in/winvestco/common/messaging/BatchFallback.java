@@ -0,0 +1,79 @@
+package in.winvestco.common.messaging;
+
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.messaging.idempotency.DuplicateEventException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.TransientDataAccessException;
+import org.springframework.transaction.CannotCreateTransactionException;
+
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Failure handling shared by batch listeners.
+ *
+ * When a batch is rejected, its events are applied again one at a time.
+ * Outages (see {@link #isUnavailable}) are rethrown so the container
+ * requeues the whole batch; any other failure dead-letters just the event
+ * that caused it.
+ */
+@Slf4j
+public final class BatchFallback {
+
+    private BatchFallback() {
+    }
+
+    /**
+     * Whether a failure means the database is unreachable rather than the
+     * event being bad, so the event should be retried, not dead-lettered.
+     */
+    public static boolean isUnavailable(Throwable e) {
+        return e instanceof TransientDataAccessException
+                || e instanceof DataAccessResourceFailureException
+                || e instanceof CannotCreateTransactionException;
+    }
+
+    /**
+     * Apply each event on its own, dead-lettering the ones that fail.
+     */
+    public static <T> void applyIndividually(List<T> events, Consumer<T> apply, Function<T, String> describe,
+            RabbitTemplate rabbitTemplate) {
+        applyIndividually(events, apply, BatchFallback::isUnavailable, describe, rabbitTemplate);
+    }
+
+    /**
+     * Apply each event on its own, dead-lettering the ones that fail. Failures
+     * matching {@code unavailable} are rethrown instead.
+     */
+    public static <T> void applyIndividually(List<T> events, Consumer<T> apply,
+            Predicate<Throwable> unavailable, Function<T, String> describe, RabbitTemplate rabbitTemplate) {
+        for (T event : events) {
+            try {
+                apply.accept(event);
+            } catch (RuntimeException e) {
+                handleFailure(event, e, unavailable, describe, rabbitTemplate);
+            }
+        }
+    }
+
+    /**
+     * Settle one event that failed on its own: rethrow outages, skip events
+     * processed concurrently and dead-letter the rest.
+     */
+    public static <T> void handleFailure(T event, RuntimeException failure, Predicate<Throwable> unavailable,
+            Function<T, String> describe, RabbitTemplate rabbitTemplate) {
+        if (unavailable.test(failure)) {
+            throw failure;
+        }
+        if (failure instanceof DuplicateEventException) {
+            log.debug("Processed concurrently, skipping {}", describe.apply(event));
+            return;
+        }
+        log.error("Dead-lettering {}", describe.apply(event), failure);
+        rabbitTemplate.convertAndSend(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, event);
+    }
+}
@@ -0,0 +1,15 @@
+package in.winvestco.common.messaging.idempotency;
+
+import in.winvestco.common.exception.NonRetryableException;
+
+/**
+ * Thrown by {@link IdempotencyService#markAsProcessed} when another consumer
+ * already recorded the event. Rolls back the duplicate's work; the redelivery
+ * is then skipped by {@link IdempotencyService#exists}.
+ */
+public class DuplicateEventException extends NonRetryableException {
+
+    public DuplicateEventException(String correlationId) {
+        super("Event already processed: " + correlationId);
+    }
+}
@@ -0,0 +1,36 @@
+package in.winvestco.common.messaging.idempotency;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the processed-event cache (app.messaging.idempotency.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.messaging.idempotency")
+@Getter
+@Setter
+public class IdempotencyProperties {
+
+    /**
+     * Most recent processed correlation ids kept in memory.
+     */
+    private int cacheSize = 100000;
+
+    /**
+     * Ids the Bloom filter is sized for before its false-positive rate degrades.
+     */
+    private long bloomExpectedInsertions = 1000000;
+
+    /**
+     * Target false-positive rate of the Bloom filter.
+     */
+    private double bloomFalsePositiveRate = 0.01;
+
+    /**
+     * Load recent processed_events rows into the cache and filter at startup.
+     */
+    private boolean warmupEnabled = true;
+}
@@ -1,42 +1,319 @@
 package in.winvestco.common.messaging.idempotency;
 
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Consumer-side idempotency over processed_events.
+ *
+ * - exists() answers from memory where it can: a bounded LRU of recently
+ * processed ids says "processed", and a Bloom filter of every id seen says
+ * "definitely not processed". Only Bloom positives that miss the LRU go to
+ * the database
+ * - markAsProcessed() is a single INSERT ... ON CONFLICT DO NOTHING on the
+ * unique correlation_id. Losing the insert means another consumer (another
+ * replica, or a redelivery) got there first, and DuplicateEventException
+ * rolls back this one's work
+ * - Ids enter the cache only after their transaction commits
+ * - Batch consumers use findProcessed() and markAllAsProcessed(), which need
+ * one query and one batched insert per batch
+ *
+ * The filter only knows ids this instance has loaded or recorded, so an event
+ * first processed by another replica can pass exists(); the ON CONFLICT guard
+ * then stops it. If the startup warm-up could not load every row, Bloom
+ * negatives are confirmed against the database instead.
+ *
+ * Lookups are counted in idempotency.lookups{result=cache_hit|bloom_negative|db_hit|db_miss}.
+ */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class IdempotencyService {
 
+    private static final String INSERT_IF_ABSENT = "INSERT INTO processed_events (correlation_id, consumer_name, "
+            + "processed_at) VALUES (?, ?, CURRENT_TIMESTAMP) ON CONFLICT DO NOTHING";
+    private static final String RECENT_IDS = "SELECT correlation_id FROM processed_events ORDER BY id DESC";
+
     private final ProcessedEventRepository processedEventRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final IdempotencyProperties properties;
+    private final boolean postgres;
+
+    private final BloomFilter bloomFilter;
+    private final Map<String, Boolean> recent;
+    private volatile boolean bloomComplete;
+
+    private final Counter cacheHits;
+    private final Counter bloomNegatives;
+    private final Counter dbHits;
+    private final Counter dbMisses;
+    private final Counter conflicts;
+
+    public IdempotencyService(ProcessedEventRepository processedEventRepository, DataSource dataSource,
+            IdempotencyProperties properties, MeterRegistry meterRegistry) {
+        this(processedEventRepository, new JdbcTemplate(dataSource), properties, meterRegistry,
+                isPostgres(dataSource));
+    }
+
+    IdempotencyService(ProcessedEventRepository processedEventRepository, JdbcTemplate jdbcTemplate,
+            IdempotencyProperties properties, MeterRegistry meterRegistry, boolean postgres) {
+        this.processedEventRepository = processedEventRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.postgres = postgres;
+        this.bloomFilter = new BloomFilter(properties.getBloomExpectedInsertions(),
+                properties.getBloomFalsePositiveRate());
+        int cacheSize = properties.getCacheSize();
+        this.recent = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Boolean> eldest) {
+                return size() > cacheSize;
+            }
+        };
+        // Empty table until the warm-up says otherwise
+        this.bloomComplete = !properties.isWarmupEnabled();
+
+        this.cacheHits = meterRegistry.counter("idempotency.lookups", "result", "cache_hit");
+        this.bloomNegatives = meterRegistry.counter("idempotency.lookups", "result", "bloom_negative");
+        this.dbHits = meterRegistry.counter("idempotency.lookups", "result", "db_hit");
+        this.dbMisses = meterRegistry.counter("idempotency.lookups", "result", "db_miss");
+        this.conflicts = meterRegistry.counter("idempotency.conflicts");
+        meterRegistry.gauge("idempotency.cache.size", this, IdempotencyService::cacheSize);
+    }
+
+    /**
+     * Load the most recent processed ids: all of them into the Bloom filter (up
+     * to its capacity), the newest cache-size of them into the LRU.
+     */
+    @PostConstruct
+    public void warmUp() {
+        if (!properties.isWarmupEnabled()) {
+            return;
+        }
+        long capacity = properties.getBloomExpectedInsertions();
+        long[] loaded = { 0L };
+        List<String> newest = new ArrayList<>();
+        try {
+            jdbcTemplate.query(connection -> {
+                var statement = connection.prepareStatement(RECENT_IDS);
+                statement.setFetchSize(10000);
+                statement.setMaxRows((int) Math.min(Integer.MAX_VALUE, capacity + 1));
+                return statement;
+            }, rs -> {
+                String id = rs.getString(1);
+                if (loaded[0] < capacity) {
+                    bloomFilter.put(id);
+                    if (newest.size() < properties.getCacheSize()) {
+                        newest.add(id);
+                    }
+                }
+                loaded[0]++;
+            });
+            // Rows come newest first; insert oldest first so the newest are evicted last
+            synchronized (recent) {
+                for (int i = newest.size() - 1; i >= 0; i--) {
+                    recent.put(newest.get(i), Boolean.TRUE);
+                }
+            }
+            bloomComplete = loaded[0] <= capacity;
+            log.info("Idempotency cache warmed with {} processed events (bloom filter complete: {})",
+                    Math.min(loaded[0], capacity), bloomComplete);
+        } catch (Exception e) {
+            bloomComplete = false;
+            log.warn("Idempotency cache warm-up failed, falling back to database lookups: {}", e.getMessage());
+        }
+    }
 
     /**
      * Checks if an event has already been processed.
      */
     public boolean exists(String correlationId) {
-        return processedEventRepository.existsByCorrelationId(correlationId);
+        if (cacheContains(correlationId)) {
+            cacheHits.increment();
+            return true;
+        }
+        if (bloomComplete && !bloomFilter.mightContain(correlationId)) {
+            bloomNegatives.increment();
+            return false;
+        }
+
+        boolean processed = processedEventRepository.existsByCorrelationId(correlationId);
+        if (processed) {
+            dbHits.increment();
+            remember(correlationId);
+        } else {
+            dbMisses.increment();
+        }
+        return processed;
+    }
+
+    /**
+     * Returns those of the given events that have already been processed.
+     * Ids the cache cannot answer are looked up in a single query.
+     */
+    public Set<String> findProcessed(Collection<String> correlationIds) {
+        Set<String> processed = new HashSet<>();
+        Set<String> unknown = new LinkedHashSet<>();
+        for (String correlationId : correlationIds) {
+            if (cacheContains(correlationId)) {
+                cacheHits.increment();
+                processed.add(correlationId);
+            } else if (bloomComplete && !bloomFilter.mightContain(correlationId)) {
+                bloomNegatives.increment();
+            } else {
+                unknown.add(correlationId);
+            }
+        }
+        if (unknown.isEmpty()) {
+            return processed;
+        }
+
+        List<String> found = processedEventRepository.findCorrelationIdsIn(unknown);
+        for (String correlationId : found) {
+            remember(correlationId);
+        }
+        processed.addAll(found);
+        dbHits.increment(found.size());
+        dbMisses.increment(unknown.size() - found.size());
+        return processed;
+    }
+
+    /**
+     * Marks events as processed with one batched insert.
+     * Should be called within the same transaction as the consumer logic.
+     *
+     * @throws DuplicateEventException if any of the events was already recorded
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void markAllAsProcessed(Collection<String> correlationIds, String consumerName) {
+        if (correlationIds.isEmpty()) {
+            return;
+        }
+        List<String> ids = List.copyOf(correlationIds);
+        String duplicate = null;
+        if (postgres) {
+            int[] inserted = jdbcTemplate.batchUpdate(INSERT_IF_ABSENT,
+                    ids.stream().map(id -> new Object[] { id, consumerName }).toList());
+            for (int i = 0; i < ids.size(); i++) {
+                if (inserted[i] == 0) {
+                    // Committed by someone else, so safe to cache right away
+                    remember(ids.get(i));
+                    conflicts.increment();
+                    duplicate = duplicate != null ? duplicate : ids.get(i);
+                }
+            }
+        } else {
+            for (String id : ids) {
+                if (!insertIfAbsent(id, consumerName)) {
+                    remember(id);
+                    conflicts.increment();
+                    duplicate = duplicate != null ? duplicate : id;
+                }
+            }
+        }
+        if (duplicate != null) {
+            log.warn("Attempting to mark already processed event: {}", duplicate);
+            throw new DuplicateEventException(duplicate);
+        }
+
+        ids.forEach(this::rememberAfterCommit);
+        log.debug("Marked {} events as processed by consumer: {}", ids.size(), consumerName);
     }
 
     /**
      * Marks an event as processed.
      * Should be called within the same transaction as the consumer logic.
+     *
+     * @throws DuplicateEventException if the event was already recorded
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public void markAsProcessed(String correlationId, String consumerName) {
-        if (exists(correlationId)) {
+        if (!insertIfAbsent(correlationId, consumerName)) {
+            // Committed by someone else, so safe to cache right away
+            remember(correlationId);
+            conflicts.increment();
             log.warn("Attempting to mark already processed event: {}", correlationId);
-            return;
+            throw new DuplicateEventException(correlationId);
         }
 
-        ProcessedEvent processedEvent = ProcessedEvent.builder()
+        rememberAfterCommit(correlationId);
+        log.debug("Marked event as processed: {} by consumer: {}", correlationId, consumerName);
+    }
+
+    private boolean insertIfAbsent(String correlationId, String consumerName) {
+        if (postgres) {
+            return jdbcTemplate.update(INSERT_IF_ABSENT, correlationId, consumerName) > 0;
+        }
+        // Portable path for databases without ON CONFLICT (H2 in tests)
+        if (processedEventRepository.existsByCorrelationId(correlationId)) {
+            return false;
+        }
+        processedEventRepository.save(ProcessedEvent.builder()
                 .correlationId(correlationId)
                 .consumerName(consumerName)
-                .build();
+                .build());
+        return true;
+    }
 
-        processedEventRepository.save(processedEvent);
-        log.debug("Marked event as processed: {} by consumer: {}", correlationId, consumerName);
+    private void rememberAfterCommit(String correlationId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            remember(correlationId);
+            return;
+        }
+        // A rolled-back consumer must not leave its id in the cache, or the retry would be skipped
+        bloomFilter.put(correlationId);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                remember(correlationId);
+            }
+        });
+    }
+
+    private void remember(String correlationId) {
+        bloomFilter.put(correlationId);
+        synchronized (recent) {
+            recent.put(correlationId, Boolean.TRUE);
+        }
+    }
+
+    private boolean cacheContains(String correlationId) {
+        synchronized (recent) {
+            return recent.get(correlationId) != null;
+        }
+    }
+
+    int cacheSize() {
+        synchronized (recent) {
+            return recent.size();
+        }
+    }
+
+    private static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            return false;
+        }
     }
 }
@@ -1,8 +1,12 @@
 package in.winvestco.common.messaging.idempotency;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 @Repository
@@ -10,4 +14,7 @@ public interface ProcessedEventRepository extends JpaRepository<ProcessedEvent,
     Optional<ProcessedEvent> findByCorrelationId(String correlationId);
 
     boolean existsByCorrelationId(String correlationId);
+
+    @Query("SELECT p.correlationId FROM ProcessedEvent p WHERE p.correlationId IN :correlationIds")
+    List<String> findCorrelationIdsIn(@Param("correlationIds") Collection<String> correlationIds);
 }
@@ -48,6 +48,9 @@ public class OutboxEvent {
 
     private String lastError;
 
+    // Earliest time a FAILED event is retried by the relay
+    private Instant nextAttemptAt;
+
     @CreationTimestamp
     private Instant createdAt;
 
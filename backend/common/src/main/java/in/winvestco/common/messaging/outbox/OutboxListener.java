@@ -0,0 +1,112 @@
+package in.winvestco.common.messaging.outbox;
+
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.Statement;
+
+/**
+ * LISTENs on the outbox channel and wakes the relay as soon as an outbox
+ * insert commits, so events reach the broker in milliseconds instead of on
+ * the next sweep.
+ *
+ * Holds one pooled connection for the lifetime of the service. If it drops,
+ * the relay keeps running on its sweep until the listener reconnects.
+ */
+@Component
+@Slf4j
+public class OutboxListener {
+
+    private static final int WAIT_MS = 1000;
+
+    private final DataSource dataSource;
+    private final OutboxNotifier notifier;
+    private final OutboxProcessor relay;
+    private final OutboxProperties properties;
+
+    private volatile boolean running;
+    private volatile Thread thread;
+
+    public OutboxListener(DataSource dataSource, OutboxNotifier notifier, OutboxProcessor relay,
+            OutboxProperties properties) {
+        this.dataSource = dataSource;
+        this.notifier = notifier;
+        this.relay = relay;
+        this.properties = properties;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!notifier.isEnabled() || running) {
+            return;
+        }
+        running = true;
+        thread = Thread.ofVirtual().name("outbox-listener").start(this::listenLoop);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread current = thread;
+        if (current != null) {
+            current.interrupt();
+        }
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = dataSource.getConnection()) {
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + OutboxNotifier.CHANNEL);
+                }
+                log.info("Listening for outbox notifications on channel {}", OutboxNotifier.CHANNEL);
+
+                // Events inserted while we were not listening
+                relay.wakeUp();
+
+                try {
+                    PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                    while (running) {
+                        PGNotification[] notifications = pgConnection.getNotifications(WAIT_MS);
+                        if (notifications != null && notifications.length > 0) {
+                            relay.wakeUp();
+                        }
+                    }
+                } finally {
+                    unlisten(connection);
+                }
+            } catch (Exception e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Outbox LISTEN connection lost, retrying in {} ms: {}",
+                        properties.getListenReconnectDelayMs(), e.getMessage());
+                try {
+                    Thread.sleep(properties.getListenReconnectDelayMs());
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+
+    /**
+     * The connection goes back to the pool; stop queueing notifications on it.
+     */
+    private static void unlisten(Connection connection) {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("UNLISTEN *");
+        } catch (Exception e) {
+            log.debug("Failed to UNLISTEN outbox connection: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,54 @@
+package in.winvestco.common.messaging.outbox;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+
+/**
+ * Sends a Postgres NOTIFY on the outbox channel from the capturing transaction.
+ *
+ * NOTIFY is transactional: it is delivered only when the insert commits, and
+ * repeated notifications in one transaction collapse into one. On any other
+ * database (H2 in tests) this is a no-op and the relay falls back to its sweep.
+ */
+@Component
+@Slf4j
+public class OutboxNotifier {
+
+    public static final String CHANNEL = "outbox_events";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    public OutboxNotifier(DataSource dataSource, OutboxProperties properties) {
+        this.jdbcTemplate = new JdbcTemplate(dataSource);
+        this.enabled = properties.isNotifyEnabled() && isPostgres(dataSource);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Must run inside the transaction that inserted the outbox row.
+     */
+    public void notifyPending() {
+        if (enabled) {
+            jdbcTemplate.execute("NOTIFY " + CHANNEL);
+        }
+    }
+
+    static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            log.warn("Could not determine outbox database type, LISTEN/NOTIFY disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+}
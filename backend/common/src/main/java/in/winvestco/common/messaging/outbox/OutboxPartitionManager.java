@@ -0,0 +1,260 @@
+package in.winvestco.common.messaging.outbox;
+
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.Objects;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Keeps outbox_events range-partitioned by day on created_at, so the relay's
+ * claim query only ever touches a few small partitions and a partial index of
+ * unpublished rows, however long the service has been running.
+ *
+ * - On startup the table is created partitioned. A plain table left by
+ * Hibernate's ddl-auto is converted once: its unpublished rows are copied
+ * over and the old table is moved to the archive schema
+ * - Every maintenance run creates the partitions for the next days and
+ * archives partitions older than the retention period (detached into the
+ * archive schema, or dropped). A partition that still holds relayable rows
+ * is kept until they are published
+ * - DDL runs under a transaction-scoped advisory lock, so replicas take turns
+ *
+ * PostgreSQL only; on other databases the table stays as Hibernate made it.
+ * Services running ddl-auto must set
+ * spring.jpa.properties.hibernate.hbm2ddl.extra_physical_table_types to
+ * PARTITIONED TABLE, or Hibernate does not see the partitioned table and
+ * tries to create it again on every start.
+ */
+@Component
+@Slf4j
+public class OutboxPartitionManager {
+
+    static final String TABLE = "outbox_events";
+    static final String DEFAULT_PARTITION = TABLE + "_default";
+    private static final String LEGACY_PREFIX = TABLE + "_legacy_";
+    private static final String ID_SEQUENCE = TABLE + "_seq";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final Pattern PARTITION_NAME = Pattern.compile(PARTITION_PREFIX + "(\\d{8})");
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final String LOCK_KEY = "outbox_events_partitioning";
+
+    private static final String COLUMNS = "id, aggregate_type, aggregate_id, event_type, payload, exchange, "
+            + "routing_key, status, retry_count, last_error, next_attempt_at, created_at, processed_at, correlation_id";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+    private final Clock clock;
+    private final boolean enabled;
+
+    public OutboxPartitionManager(DataSource dataSource, PlatformTransactionManager transactionManager,
+            OutboxProperties properties) {
+        this(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), properties,
+                Clock.systemUTC(), properties.isPartitioningEnabled() && OutboxNotifier.isPostgres(dataSource));
+    }
+
+    OutboxPartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            OutboxProperties properties, Clock clock, boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                lock();
+                ensurePartitionedTable();
+            });
+            maintain();
+        } catch (Exception e) {
+            // The relay works on any table layout; don't block startup on maintenance DDL
+            log.error("Failed to set up outbox partitioning", e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.messaging.outbox.maintenance-interval-ms:3600000}",
+            initialDelayString = "${app.messaging.outbox.maintenance-interval-ms:3600000}")
+    public void scheduledMaintenance() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            log.error("Outbox partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create upcoming partitions and archive expired ones.
+     */
+    void maintain() {
+        LocalDate today = LocalDate.now(clock);
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            if (!isPartitioned()) {
+                return;
+            }
+            createPartitions(today.minusDays(1), today.plusDays(properties.getPartitionsAhead()));
+        });
+
+        LocalDate archiveBefore = today.minusDays(properties.getRetentionDays());
+        for (String partition : listPartitions()) {
+            LocalDate day = partitionDay(partition);
+            if (day != null && day.isBefore(archiveBefore)) {
+                transactionTemplate.executeWithoutResult(status -> {
+                    lock();
+                    archive(partition);
+                });
+            }
+        }
+    }
+
+    private void ensurePartitionedTable() {
+        String kind = relationKind(TABLE);
+        if ("p".equals(kind)) {
+            return;
+        }
+
+        boolean convert = "r".equals(kind);
+        String legacyTable = LEGACY_PREFIX + clock.instant().getEpochSecond();
+        if (convert) {
+            log.info("Converting {} to a partitioned table", TABLE);
+            jdbcTemplate.execute("ALTER TABLE " + TABLE + " RENAME TO " + legacyTable);
+        }
+
+        jdbcTemplate.execute("CREATE SEQUENCE IF NOT EXISTS " + ID_SEQUENCE);
+        jdbcTemplate.execute("CREATE TABLE " + TABLE + " ("
+                + "id BIGINT NOT NULL DEFAULT nextval('" + ID_SEQUENCE + "'), "
+                + "aggregate_type VARCHAR(255) NOT NULL, "
+                + "aggregate_id VARCHAR(255) NOT NULL, "
+                + "event_type VARCHAR(255) NOT NULL, "
+                + "payload TEXT NOT NULL, "
+                + "exchange VARCHAR(255) NOT NULL, "
+                + "routing_key VARCHAR(255) NOT NULL, "
+                + "status VARCHAR(255), "
+                + "retry_count INTEGER NOT NULL DEFAULT 0, "
+                + "last_error TEXT, "
+                + "next_attempt_at TIMESTAMP(6) WITH TIME ZONE, "
+                + "created_at TIMESTAMP(6) WITH TIME ZONE NOT NULL DEFAULT now(), "
+                + "processed_at TIMESTAMP(6) WITH TIME ZONE, "
+                + "correlation_id VARCHAR(255), "
+                + "CONSTRAINT " + TABLE + "_part_pkey PRIMARY KEY (id, created_at)"
+                + ") PARTITION BY RANGE (created_at)");
+        jdbcTemplate.execute("ALTER SEQUENCE " + ID_SEQUENCE + " OWNED BY " + TABLE + ".id");
+        // Relay claims scan only this; published rows drop out of it
+        jdbcTemplate.execute("CREATE INDEX " + TABLE + "_unpublished_idx ON " + TABLE
+                + " (id) WHERE status IN ('PENDING', 'FAILED')");
+        jdbcTemplate.execute("CREATE TABLE " + DEFAULT_PARTITION + " PARTITION OF " + TABLE + " DEFAULT");
+
+        LocalDate today = LocalDate.now(clock);
+        LocalDate from = today.minusDays(1);
+        if (convert) {
+            Timestamp oldest = jdbcTemplate.queryForObject("SELECT min(created_at) FROM " + legacyTable
+                    + " WHERE status <> 'PUBLISHED'", Timestamp.class);
+            if (oldest != null) {
+                LocalDate oldestDay = oldest.toInstant().atOffset(ZoneOffset.UTC).toLocalDate();
+                from = oldestDay.isBefore(from) ? oldestDay : from;
+            }
+        }
+        createPartitions(from, today.plusDays(properties.getPartitionsAhead()));
+
+        if (convert) {
+            int moved = jdbcTemplate.update("INSERT INTO " + TABLE + " (" + COLUMNS + ") SELECT id, aggregate_type, "
+                    + "aggregate_id, event_type, payload, exchange, routing_key, status, retry_count, last_error, "
+                    + "next_attempt_at, COALESCE(created_at, now()), processed_at, correlation_id FROM "
+                    + legacyTable + " WHERE status <> 'PUBLISHED'");
+            jdbcTemplate.execute("SELECT setval('" + ID_SEQUENCE + "', GREATEST((SELECT COALESCE(max(id), 0) FROM "
+                    + legacyTable + "), 1))");
+            moveToArchiveSchema(legacyTable);
+            log.info("Outbox converted: {} unpublished events carried over, old table archived as {}.{}",
+                    moved, properties.getArchiveSchema(), legacyTable);
+        }
+    }
+
+    private void createPartitions(LocalDate from, LocalDate to) {
+        for (LocalDate day = from; !day.isAfter(to); day = day.plusDays(1)) {
+            jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(day) + " PARTITION OF " + TABLE
+                    + " FOR VALUES FROM ('" + day + " 00:00:00+00') TO ('" + day.plusDays(1) + " 00:00:00+00')");
+        }
+    }
+
+    private void archive(String partition) {
+        if (relationKind(partition) == null) {
+            return; // Archived by another replica meanwhile
+        }
+        Boolean live = jdbcTemplate.queryForObject("SELECT EXISTS (SELECT 1 FROM " + partition
+                + " WHERE status = 'PENDING' OR (status = 'FAILED' AND retry_count < ?))",
+                Boolean.class, properties.getMaxRetries());
+        if (Boolean.TRUE.equals(live)) {
+            log.warn("Keeping outbox partition {} past retention: it still has events to relay", partition);
+            return;
+        }
+
+        jdbcTemplate.execute("ALTER TABLE " + TABLE + " DETACH PARTITION " + partition);
+        if (properties.getArchiveMode() == OutboxProperties.ArchiveMode.DROP) {
+            jdbcTemplate.execute("DROP TABLE " + partition);
+            log.info("Dropped outbox partition {}", partition);
+        } else {
+            moveToArchiveSchema(partition);
+            log.info("Archived outbox partition {} to schema {}", partition, properties.getArchiveSchema());
+        }
+    }
+
+    private void moveToArchiveSchema(String table) {
+        jdbcTemplate.execute("CREATE SCHEMA IF NOT EXISTS " + properties.getArchiveSchema());
+        jdbcTemplate.execute("ALTER TABLE " + table + " SET SCHEMA " + properties.getArchiveSchema());
+    }
+
+    private boolean isPartitioned() {
+        return "p".equals(relationKind(TABLE));
+    }
+
+    private List<String> listPartitions() {
+        return jdbcTemplate.queryForList("SELECT c.relname FROM pg_inherits i JOIN pg_class c ON c.oid = i.inhrelid "
+                + "WHERE i.inhparent = to_regclass(?) ORDER BY c.relname", String.class, TABLE);
+    }
+
+    private String relationKind(String table) {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, table);
+        return kinds.isEmpty() ? null : kinds.get(0);
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext(?))::text", String.class, LOCK_KEY);
+    }
+
+    static String partitionName(LocalDate day) {
+        return PARTITION_PREFIX + PARTITION_DAY.format(day);
+    }
+
+    /**
+     * Day covered by a daily partition, or null for the default partition.
+     */
+    static LocalDate partitionDay(String partition) {
+        Matcher matcher = PARTITION_NAME.matcher(Objects.requireNonNull(partition));
+        return matcher.matches() ? LocalDate.parse(matcher.group(1), PARTITION_DAY) : null;
+    }
+}
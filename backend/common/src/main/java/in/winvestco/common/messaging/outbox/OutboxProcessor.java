@@ -1,64 +1,211 @@
 package in.winvestco.common.messaging.outbox;
 
-import com.fasterxml.jackson.databind.ObjectMapper;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageBuilder;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Relays captured outbox events to RabbitMQ.
+ *
+ * - Each batch is claimed with SELECT ... FOR UPDATE SKIP LOCKED inside one
+ * transaction, so replicas relay disjoint batches and throughput scales with them
+ * - The stored JSON payload is sent as-is, with the __TypeId__ header the
+ * Jackson converter would have set, so consumers are unchanged
+ * - The whole batch is sent before waiting on publisher confirms; only confirmed
+ * events are marked PUBLISHED (one bulk UPDATE). Nacked or unconfirmed events
+ * are retried with exponential backoff
+ * - Runs on a single relay thread, woken by {@link OutboxListener} on NOTIFY and
+ * by a fallback sweep every app.messaging.outbox.poll-interval ms
+ */
 @Component
 @Slf4j
-@RequiredArgsConstructor
 public class OutboxProcessor {
 
+    private static final String EVENT_PACKAGE = "in.winvestco.common.event.";
+    private static final String TYPE_ID_HEADER = "__TypeId__";
+
     private final OutboxRepository outboxRepository;
     private final RabbitTemplate rabbitTemplate;
-    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final OutboxProperties properties;
+
+    private final ExecutorService relayThread = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("outbox-relay").daemon().factory());
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final Counter published;
+    private final Counter failed;
+
+    public OutboxProcessor(OutboxRepository outboxRepository, RabbitTemplate rabbitTemplate,
+            PlatformTransactionManager transactionManager, OutboxProperties properties,
+            MeterRegistry meterRegistry) {
+        this.outboxRepository = outboxRepository;
+        this.rabbitTemplate = rabbitTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.published = meterRegistry.counter("outbox.relay.events", "outcome", "published");
+        this.failed = meterRegistry.counter("outbox.relay.events", "outcome", "failed");
+    }
 
+    /**
+     * Fallback sweep for due retries and missed notifications.
+     */
     @Scheduled(fixedDelayString = "${app.messaging.outbox.poll-interval:5000}")
-    @Transactional
     public void processOutboxEvents() {
-        List<OutboxEvent> events = outboxRepository.findPendingOrFailedEvents(PageRequest.of(0, 50));
+        wakeUp();
+    }
 
-        if (events.isEmpty()) {
-            return;
+    /**
+     * Ask the relay thread to drain the outbox. Wake-ups that arrive while a
+     * drain is already queued collapse into it.
+     */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                relayThread.execute(this::drain);
+            } catch (Exception e) {
+                wakeUpPending.set(false);
+                log.debug("Outbox relay not accepting work: {}", e.getMessage());
+            }
         }
+    }
 
-        log.debug("Processing {} outbox events", events.size());
+    @PreDestroy
+    public void shutdown() {
+        relayThread.shutdown();
+    }
 
-        for (OutboxEvent event : events) {
-            try {
-                // Determine the event class
-                Class<?> eventClass = Class.forName("in.winvestco.common.event." + event.getEventType());
-                Object eventData = objectMapper.readValue(event.getPayload(), eventClass);
+    private void drain() {
+        // Cleared first, so a NOTIFY arriving mid-drain schedules one more pass
+        wakeUpPending.set(false);
+        try {
+            int claimed;
+            do {
+                claimed = relayBatch();
+            } while (claimed >= properties.getBatchSize());
+        } catch (Exception e) {
+            log.error("Outbox relay pass failed", e);
+        }
+    }
+
+    /**
+     * Claim, publish and settle one batch. Returns the number of events claimed.
+     */
+    int relayBatch() {
+        Integer claimed = transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<OutboxEvent> events = outboxRepository.claimDueEvents(now, properties.getMaxRetries(),
+                    PageRequest.of(0, properties.getBatchSize()));
+            if (events.isEmpty()) {
+                return 0;
+            }
 
-                // Publish to RabbitMQ
-                rabbitTemplate.convertAndSend(event.getExchange(), event.getRoutingKey(), eventData, m -> {
-                    m.getMessageProperties().setCorrelationId(event.getCorrelationId());
-                    return m;
-                });
+            log.debug("Relaying {} outbox events", events.size());
+            List<Long> confirmed = publishAndConfirm(events);
+            if (!confirmed.isEmpty()) {
+                outboxRepository.markPublished(confirmed, Instant.now());
+            }
+            published.increment(confirmed.size());
+            failed.increment(events.size() - confirmed.size());
+            return events.size();
+        });
+        return claimed != null ? claimed : 0;
+    }
 
-                // Update status on success
-                event.setStatus(OutboxStatus.PUBLISHED);
-                event.setProcessedAt(Instant.now());
-                event.setLastError(null);
+    /**
+     * Send the whole batch, then collect confirms. Failed events are updated
+     * in place (the claimed entities are managed); returns the confirmed ids.
+     */
+    private List<Long> publishAndConfirm(List<OutboxEvent> events) {
+        boolean confirms = rabbitTemplate.getConnectionFactory().isPublisherConfirms();
+        List<CorrelationData> pending = new ArrayList<>(events.size());
 
-                log.debug("Successfully published outbox event: {} (id: {})", event.getEventType(), event.getId());
+        for (OutboxEvent event : events) {
+            CorrelationData correlation = new CorrelationData(String.valueOf(event.getId()));
+            try {
+                rabbitTemplate.send(event.getExchange(), event.getRoutingKey(), toMessage(event), correlation);
+                pending.add(correlation);
+            } catch (Exception e) {
+                markFailed(event, e.getMessage());
+                pending.add(null);
+            }
+        }
 
+        List<Long> confirmed = new ArrayList<>(events.size());
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(properties.getConfirmTimeoutMs());
+        for (int i = 0; i < events.size(); i++) {
+            OutboxEvent event = events.get(i);
+            CorrelationData correlation = pending.get(i);
+            if (correlation == null) {
+                continue;
+            }
+            if (!confirms) {
+                // Connection factory without publisher confirms: a successful send is all we get
+                confirmed.add(event.getId());
+                continue;
+            }
+            try {
+                CorrelationData.Confirm confirm = correlation.getFuture()
+                        .get(Math.max(0L, deadline - System.nanoTime()), TimeUnit.NANOSECONDS);
+                if (confirm.isAck()) {
+                    confirmed.add(event.getId());
+                } else {
+                    markFailed(event, "Broker nack: " + confirm.getReason());
+                }
+            } catch (TimeoutException e) {
+                markFailed(event, "No broker confirm within " + properties.getConfirmTimeoutMs() + " ms");
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                markFailed(event, "Interrupted while waiting for broker confirm");
             } catch (Exception e) {
-                log.error("Failed to process outbox event: {} (id: {})", event.getEventType(), event.getId(), e);
-                event.setRetryCount(event.getRetryCount() + 1);
-                event.setStatus(OutboxStatus.FAILED);
-                event.setLastError(e.getMessage());
+                markFailed(event, e.getMessage());
             }
         }
+        return confirmed;
+    }
+
+    private static Message toMessage(OutboxEvent event) {
+        return MessageBuilder.withBody(event.getPayload().getBytes(StandardCharsets.UTF_8))
+                .setContentType(MessageProperties.CONTENT_TYPE_JSON)
+                .setContentEncoding(StandardCharsets.UTF_8.name())
+                .setHeader(TYPE_ID_HEADER, EVENT_PACKAGE + event.getEventType())
+                .setMessageId("outbox-" + event.getId())
+                .setCorrelationId(event.getCorrelationId())
+                .build();
+    }
+
+    private void markFailed(OutboxEvent event, String error) {
+        int attempt = event.getRetryCount() + 1;
+        long backoffMs = Math.min(properties.getRetryMaxDelayMs(),
+                properties.getRetryInitialDelayMs() << Math.min(attempt - 1, 30));
+
+        event.setRetryCount(attempt);
+        event.setStatus(OutboxStatus.FAILED);
+        event.setLastError(error);
+        event.setNextAttemptAt(Instant.now().plusMillis(backoffMs));
 
-        outboxRepository.saveAll(events);
+        log.error("Failed to publish outbox event: {} (id: {}, attempt {}), retrying in {} ms: {}",
+                event.getEventType(), event.getId(), attempt, backoffMs, error);
     }
 }
@@ -0,0 +1,95 @@
+package in.winvestco.common.messaging.outbox;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the outbox relay (app.messaging.outbox.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "app.messaging.outbox")
+@Getter
+@Setter
+public class OutboxProperties {
+
+    /**
+     * Fallback sweep interval in ms. Picks up retries that became due and any
+     * inserts whose NOTIFY was missed; normal latency comes from NOTIFY.
+     */
+    private long pollInterval = 5000;
+
+    /**
+     * Max events claimed and published per relay transaction.
+     */
+    private int batchSize = 500;
+
+    /**
+     * Attempts after which a FAILED event is left for manual inspection.
+     */
+    private int maxRetries = 5;
+
+    /**
+     * Backoff before the first retry, doubled on every further failure.
+     */
+    private long retryInitialDelayMs = 1000;
+
+    /**
+     * Upper bound for the retry backoff.
+     */
+    private long retryMaxDelayMs = 300000;
+
+    /**
+     * How long to wait for broker confirms of one batch before treating the
+     * unconfirmed events as failed.
+     */
+    private long confirmTimeoutMs = 5000;
+
+    /**
+     * Wake the relay with Postgres LISTEN/NOTIFY. Ignored on other databases.
+     */
+    private boolean notifyEnabled = true;
+
+    /**
+     * Delay before re-opening the LISTEN connection after it dropped.
+     */
+    private long listenReconnectDelayMs = 5000;
+
+    /**
+     * Keep outbox_events range-partitioned by day (PostgreSQL only).
+     */
+    private boolean partitioningEnabled = true;
+
+    /**
+     * Daily partitions created ahead of today.
+     */
+    private int partitionsAhead = 3;
+
+    /**
+     * Days a partition is kept after its last day before it is archived.
+     */
+    private int retentionDays = 7;
+
+    /**
+     * What happens to a partition past retention.
+     */
+    private ArchiveMode archiveMode = ArchiveMode.DETACH;
+
+    /**
+     * Schema detached partitions are moved to (ArchiveMode.DETACH).
+     */
+    private String archiveSchema = "outbox_archive";
+
+    /**
+     * Interval in ms between partition maintenance runs.
+     */
+    private long maintenanceIntervalMs = 3600000;
+
+    public enum ArchiveMode {
+        /** Detach the partition and move it to the archive schema */
+        DETACH,
+        /** Detach and drop the partition */
+        DROP
+    }
+}
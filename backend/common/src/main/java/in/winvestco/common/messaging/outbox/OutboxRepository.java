@@ -1,10 +1,18 @@
 package in.winvestco.common.messaging.outbox;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
@@ -14,4 +22,23 @@ public interface OutboxRepository extends JpaRepository<OutboxEvent, Long> {
 
     @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' OR (e.status = 'FAILED' AND e.retryCount < 5)")
     List<OutboxEvent> findPendingOrFailedEvents(Pageable pageable);
+
+    /**
+     * Claim the next batch of due events, oldest first. Rows are locked with
+     * FOR UPDATE SKIP LOCKED (lock timeout -2), so concurrent relays on other
+     * replicas claim disjoint batches instead of blocking or double-publishing.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT e FROM OutboxEvent e WHERE e.status = 'PENDING' "
+            + "OR (e.status = 'FAILED' AND e.retryCount < :maxRetries "
+            + "AND (e.nextAttemptAt IS NULL OR e.nextAttemptAt <= :now)) "
+            + "ORDER BY e.id")
+    List<OutboxEvent> claimDueEvents(@Param("now") Instant now, @Param("maxRetries") int maxRetries,
+            Pageable pageable);
+
+    @Modifying
+    @Query("UPDATE OutboxEvent e SET e.status = in.winvestco.common.messaging.outbox.OutboxStatus.PUBLISHED, "
+            + "e.processedAt = :now, e.lastError = null, e.nextAttemptAt = null WHERE e.id IN :ids")
+    int markPublished(@Param("ids") Collection<Long> ids, @Param("now") Instant now);
 }
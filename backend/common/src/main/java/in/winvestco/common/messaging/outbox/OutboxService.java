@@ -5,10 +5,16 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import in.winvestco.common.event.BaseEvent;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
 @Service
 @Slf4j
 @RequiredArgsConstructor
@@ -16,10 +22,17 @@ public class OutboxService {
 
     private final OutboxRepository outboxRepository;
     private final ObjectMapper objectMapper;
+    private final OutboxNotifier outboxNotifier;
+    private final JdbcTemplate jdbcTemplate;
+
+    private static final String INSERT_PENDING = "INSERT INTO outbox_events (aggregate_type, aggregate_id, "
+            + "event_type, payload, exchange, routing_key, status, retry_count, created_at, processed_at, "
+            + "correlation_id) VALUES (?, ?, ?, ?, ?, ?, '" + OutboxStatus.PENDING.name() + "', 0, ?, ?, ?)";
 
     /**
      * Captures an event in the outbox table.
-     * Should be called within an existing transaction.
+     * Should be called within an existing transaction; the relay is notified
+     * when that transaction commits.
      */
     @Transactional(propagation = Propagation.REQUIRED)
     public void captureEvent(String aggregateType, String aggregateId, String exchange, String routingKey,
@@ -39,10 +52,51 @@ public class OutboxService {
                     .build();
 
             outboxRepository.save(outboxEvent);
+            outboxNotifier.notifyPending();
             log.debug("Event captured in outbox: {} for aggregate: {}", event.getClass().getSimpleName(), aggregateId);
         } catch (JsonProcessingException e) {
             log.error("Failed to serialize event for outbox: {}", event, e);
             throw new RuntimeException("Mapping error during event capture", e);
         }
     }
+
+    /**
+     * Captures several events for one aggregate with a single batched insert.
+     * Used when one step moves an aggregate through several states, each of
+     * which has to be announced. Events keep their order in the outbox.
+     */
+    @Transactional(propagation = Propagation.REQUIRED)
+    public void captureEvents(String aggregateType, String aggregateId, List<PendingEvent> events) {
+        if (events.isEmpty()) {
+            return;
+        }
+        if (events.size() == 1) {
+            PendingEvent only = events.get(0);
+            captureEvent(aggregateType, aggregateId, only.exchange(), only.routingKey(), only.event());
+            return;
+        }
+
+        Timestamp now = Timestamp.from(Instant.now());
+        List<Object[]> rows = new ArrayList<>(events.size());
+        for (PendingEvent pending : events) {
+            try {
+                rows.add(new Object[] { aggregateType, aggregateId, pending.event().getClass().getSimpleName(),
+                        objectMapper.writeValueAsString(pending.event()), pending.exchange(), pending.routingKey(),
+                        now, now, pending.event().getCorrelationId() });
+            } catch (JsonProcessingException e) {
+                log.error("Failed to serialize event for outbox: {}", pending.event(), e);
+                throw new RuntimeException("Mapping error during event capture", e);
+            }
+        }
+
+        jdbcTemplate.batchUpdate(INSERT_PENDING, rows);
+        outboxNotifier.notifyPending();
+        log.debug("{} events captured in outbox for aggregate: {}", events.size(), aggregateId);
+    }
+
+    /**
+     * An event waiting to be captured, with where it is to be published.
+     */
+    public record PendingEvent(String exchange, String routingKey, BaseEvent event) {
+    }
 }
@@ -0,0 +1,23 @@
+package in.winvestco.common.statemachine;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * One step in an aggregate's status history.
+ *
+ * Aggregates that pass through several statuses in one operation (e.g. an
+ * order going NEW → VALIDATED → PENDING) apply the steps in memory and are
+ * written once with every step recorded here, instead of being saved after
+ * each step.
+ *
+ * @param from previous status, null for the initial status
+ * @param to   new status
+ * @param at   when the step was applied
+ */
+public record StatusTransition(String from, String to, Instant at) implements Serializable {
+
+    public static StatusTransition of(Enum<?> from, Enum<?> to, Instant at) {
+        return new StatusTransition(from != null ? from.name() : null, to.name(), at);
+    }
+}
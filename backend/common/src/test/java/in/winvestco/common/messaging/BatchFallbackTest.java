@@ -0,0 +1,76 @@
+package in.winvestco.common.messaging;
+
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.messaging.idempotency.DuplicateEventException;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+
+/**
+ * Unit tests for the shared batch listener fallback.
+ */
+@ExtendWith(MockitoExtension.class)
+class BatchFallbackTest {
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Test
+    void applyIndividually_ShouldDeadLetterOnlyFailingEvents() {
+        List<String> applied = new ArrayList<>();
+
+        BatchFallback.applyIndividually(List.of("a", "bad", "c"), event -> {
+            if ("bad".equals(event)) {
+                throw new IllegalArgumentException("bad event");
+            }
+            applied.add(event);
+        }, event -> "event " + event, rabbitTemplate);
+
+        assertThat(applied).containsExactly("a", "c");
+        verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, "bad");
+    }
+
+    @Test
+    void applyIndividually_ShouldRethrowOutages() {
+        List<String> events = List.of("a", "b");
+
+        assertThatThrownBy(() -> BatchFallback.applyIndividually(events, event -> {
+            throw new DataAccessResourceFailureException("down");
+        }, event -> "event " + event, rabbitTemplate)).isInstanceOf(DataAccessResourceFailureException.class);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void applyIndividually_ShouldRethrowFailuresMatchingTheGivenPredicate() {
+        List<String> events = List.of("a");
+
+        assertThatThrownBy(() -> BatchFallback.applyIndividually(events, event -> {
+            throw new IllegalStateException("lock timeout");
+        }, e -> e instanceof IllegalStateException, event -> "event " + event, rabbitTemplate))
+                .isInstanceOf(IllegalStateException.class);
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    void applyIndividually_ShouldSkipEventsProcessedConcurrently() {
+        BatchFallback.applyIndividually(List.of("a"), event -> {
+            throw new DuplicateEventException(event);
+        }, event -> "event " + event, rabbitTemplate);
+
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), any(Object.class));
+    }
+}
@@ -0,0 +1,161 @@
+package in.winvestco.common.messaging.idempotency;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the cached IdempotencyService.
+ */
+@ExtendWith(MockitoExtension.class)
+class IdempotencyServiceTest {
+
+    @Mock
+    private ProcessedEventRepository processedEventRepository;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private IdempotencyService service;
+
+    @BeforeEach
+    void setUp() {
+        IdempotencyProperties properties = new IdempotencyProperties();
+        properties.setWarmupEnabled(false);
+        properties.setCacheSize(2);
+        properties.setBloomExpectedInsertions(1000);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new IdempotencyService(processedEventRepository, jdbcTemplate, properties, meterRegistry, true);
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.counter("idempotency.lookups", "result", result).count();
+    }
+
+    @Test
+    @DisplayName("Should answer unseen events from the bloom filter without a database lookup")
+    void shouldAnswerUnseenEventsFromBloomFilter() {
+        assertThat(service.exists("corr-1")).isFalse();
+
+        verify(processedEventRepository, never()).existsByCorrelationId(anyString());
+        assertThat(lookups("bloom_negative")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should insert with ON CONFLICT and serve later lookups from the cache")
+    void shouldInsertOnceAndCache() {
+        when(jdbcTemplate.update(contains("ON CONFLICT DO NOTHING"), eq("corr-1"), eq("FundsService")))
+                .thenReturn(1);
+
+        service.markAsProcessed("corr-1", "FundsService");
+
+        assertThat(service.exists("corr-1")).isTrue();
+        verify(processedEventRepository, never()).existsByCorrelationId(anyString());
+        assertThat(lookups("cache_hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should reject a duplicate insert and remember the event")
+    void shouldRejectDuplicateInsert() {
+        when(jdbcTemplate.update(contains("ON CONFLICT DO NOTHING"), eq("corr-1"), eq("FundsService")))
+                .thenReturn(0);
+
+        assertThatThrownBy(() -> service.markAsProcessed("corr-1", "FundsService"))
+                .isInstanceOf(DuplicateEventException.class);
+
+        assertThat(service.exists("corr-1")).isTrue();
+        assertThat(meterRegistry.counter("idempotency.conflicts").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should fall back to the database for evicted events")
+    void shouldFallBackToDatabaseForEvictedEvents() {
+        when(jdbcTemplate.update(contains("ON CONFLICT DO NOTHING"), anyString(), eq("FundsService")))
+                .thenReturn(1);
+        service.markAsProcessed("corr-1", "FundsService");
+        service.markAsProcessed("corr-2", "FundsService");
+        service.markAsProcessed("corr-3", "FundsService"); // evicts corr-1 from the LRU
+        when(processedEventRepository.existsByCorrelationId("corr-1")).thenReturn(true);
+
+        assertThat(service.exists("corr-1")).isTrue();
+        assertThat(lookups("db_hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should look up a batch in one query, skipping ids the cache can answer")
+    void shouldFindProcessedBatchWithOneQuery() {
+        when(jdbcTemplate.update(contains("ON CONFLICT DO NOTHING"), anyString(), eq("FundsService")))
+                .thenReturn(1);
+        service.markAsProcessed("corr-1", "FundsService");
+        service.markAsProcessed("corr-2", "FundsService");
+        service.markAsProcessed("corr-3", "FundsService"); // evicts corr-1 from the LRU
+        when(processedEventRepository.findCorrelationIdsIn(Set.of("corr-1"))).thenReturn(List.of("corr-1"));
+
+        assertThat(service.findProcessed(List.of("corr-1", "corr-3", "corr-4")))
+                .containsExactlyInAnyOrder("corr-1", "corr-3");
+        assertThat(lookups("cache_hit")).isEqualTo(1.0);
+        assertThat(lookups("bloom_negative")).isEqualTo(1.0);
+        assertThat(lookups("db_hit")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should mark a batch with one batched insert")
+    void shouldMarkBatchWithOneBatchedInsert() {
+        when(jdbcTemplate.batchUpdate(contains("ON CONFLICT DO NOTHING"), anyList())).thenReturn(new int[] { 1, 1 });
+
+        service.markAllAsProcessed(List.of("corr-1", "corr-2"), "FundsService");
+
+        assertThat(service.exists("corr-1")).isTrue();
+        assertThat(service.exists("corr-2")).isTrue();
+        verify(jdbcTemplate, never()).update(anyString(), anyString(), anyString());
+    }
+
+    @Test
+    @DisplayName("Should reject a batch containing an already recorded event")
+    void shouldRejectBatchWithDuplicate() {
+        when(jdbcTemplate.batchUpdate(contains("ON CONFLICT DO NOTHING"), anyList())).thenReturn(new int[] { 1, 0 });
+
+        assertThatThrownBy(() -> service.markAllAsProcessed(List.of("corr-1", "corr-2"), "FundsService"))
+                .isInstanceOf(DuplicateEventException.class)
+                .hasMessageContaining("corr-2");
+
+        assertThat(meterRegistry.counter("idempotency.conflicts").count()).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Bloom filter should never report a stored value as absent")
+    void bloomFilterShouldHaveNoFalseNegatives() {
+        BloomFilter filter = new BloomFilter(10000, 0.01);
+        for (int i = 0; i < 10000; i++) {
+            filter.put("event-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < 10000; i++) {
+            assertThat(filter.mightContain("event-" + i)).isTrue();
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        assertThat(falsePositives).isLessThan(300);
+    }
+}
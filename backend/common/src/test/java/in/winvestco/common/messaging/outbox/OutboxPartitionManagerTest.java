@@ -0,0 +1,89 @@
+package in.winvestco.common.messaging.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for outbox partition naming and archival decisions.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxPartitionManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-10-16T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        manager = new OutboxPartitionManager(jdbcTemplate, new TransactionTemplate(transactionManager),
+                new OutboxProperties(), CLOCK, true);
+    }
+
+    @Test
+    @DisplayName("Should map days to partition names and back")
+    void shouldRoundTripPartitionNames() {
+        LocalDate day = LocalDate.of(2026, 10, 16);
+
+        assertThat(OutboxPartitionManager.partitionName(day)).isEqualTo("outbox_events_p20261016");
+        assertThat(OutboxPartitionManager.partitionDay("outbox_events_p20261016")).isEqualTo(day);
+        assertThat(OutboxPartitionManager.partitionDay(OutboxPartitionManager.DEFAULT_PARTITION)).isNull();
+    }
+
+    @Test
+    @DisplayName("Should create upcoming partitions and archive only expired partitions without relayable events")
+    void shouldArchiveExpiredPartitionsWithoutLiveEvents() {
+        when(jdbcTemplate.queryForObject(contains("pg_advisory_xact_lock"), eq(String.class),
+                eq("outbox_events_partitioning"))).thenReturn("");
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("outbox_events")))
+                .thenReturn(List.of("p"));
+        when(jdbcTemplate.queryForList(contains("pg_inherits"), eq(String.class), eq("outbox_events")))
+                .thenReturn(List.of("outbox_events_default", "outbox_events_p20261001",
+                        "outbox_events_p20261005", "outbox_events_p20261015"));
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("outbox_events_p20261001")))
+                .thenReturn(List.of("r"));
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("outbox_events_p20261005")))
+                .thenReturn(List.of("r"));
+        when(jdbcTemplate.queryForObject(contains("FROM outbox_events_p20261001 "), eq(Boolean.class), eq(5)))
+                .thenReturn(false);
+        when(jdbcTemplate.queryForObject(contains("FROM outbox_events_p20261005 "), eq(Boolean.class), eq(5)))
+                .thenReturn(true);
+
+        manager.maintain();
+
+        verify(jdbcTemplate).execute(contains("outbox_events_p20261019 PARTITION OF outbox_events "
+                + "FOR VALUES FROM ('2026-10-19 00:00:00+00') TO ('2026-10-20 00:00:00+00')"));
+        verify(jdbcTemplate).execute("ALTER TABLE outbox_events DETACH PARTITION outbox_events_p20261001");
+        verify(jdbcTemplate).execute("ALTER TABLE outbox_events_p20261001 SET SCHEMA outbox_archive");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE outbox_events DETACH PARTITION outbox_events_p20261005");
+        verify(jdbcTemplate, never()).execute("ALTER TABLE outbox_events DETACH PARTITION outbox_events_p20261015");
+    }
+}
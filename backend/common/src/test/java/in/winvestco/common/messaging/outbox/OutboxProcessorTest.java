@@ -0,0 +1,149 @@
+package in.winvestco.common.messaging.outbox;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Unit tests for the batched outbox relay.
+ */
+@ExtendWith(MockitoExtension.class)
+class OutboxProcessorTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private ConnectionFactory connectionFactory;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private OutboxProperties properties;
+    private OutboxProcessor processor;
+
+    @BeforeEach
+    void setUp() {
+        properties = new OutboxProperties();
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        processor = new OutboxProcessor(outboxRepository, rabbitTemplate, transactionManager, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        processor.shutdown();
+    }
+
+    private static OutboxEvent event(long id) {
+        return OutboxEvent.builder()
+                .id(id)
+                .aggregateType("Order")
+                .aggregateId("ORD-" + id)
+                .eventType("OrderCreatedEvent")
+                .payload("{\"orderId\":\"ORD-" + id + "\"}")
+                .exchange("order.exchange")
+                .routingKey("order.created")
+                .correlationId("corr-" + id)
+                .status(OutboxStatus.PENDING)
+                .build();
+    }
+
+    private void brokerConfirms(boolean ack) {
+        when(rabbitTemplate.getConnectionFactory()).thenReturn(connectionFactory);
+        when(connectionFactory.isPublisherConfirms()).thenReturn(true);
+        doAnswer(invocation -> {
+            CorrelationData correlation = invocation.getArgument(3);
+            correlation.getFuture().complete(new CorrelationData.Confirm(ack, ack ? null : "queue full"));
+            return null;
+        }).when(rabbitTemplate).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    @DisplayName("Should return zero when nothing is due")
+    void shouldReturnZeroWhenNothingIsDue() {
+        when(outboxRepository.claimDueEvents(any(Instant.class), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of());
+
+        assertThat(processor.relayBatch()).isZero();
+        verify(rabbitTemplate, never()).send(anyString(), anyString(), any(Message.class), any(CorrelationData.class));
+    }
+
+    @Test
+    @DisplayName("Should send stored payload as-is and mark confirmed events published in bulk")
+    @SuppressWarnings("unchecked")
+    void shouldPublishStoredPayloadAndMarkConfirmed() {
+        OutboxEvent first = event(1L);
+        OutboxEvent second = event(2L);
+        when(outboxRepository.claimDueEvents(any(Instant.class), eq(5), any(Pageable.class)))
+                .thenReturn(List.of(first, second));
+        brokerConfirms(true);
+
+        assertThat(processor.relayBatch()).isEqualTo(2);
+
+        ArgumentCaptor<Message> messages = ArgumentCaptor.forClass(Message.class);
+        verify(rabbitTemplate, times(2)).send(eq("order.exchange"), eq("order.created"), messages.capture(),
+                any(CorrelationData.class));
+        Message sent = messages.getAllValues().get(1);
+        assertThat(new String(sent.getBody(), StandardCharsets.UTF_8)).isEqualTo(second.getPayload());
+        assertThat(sent.getMessageProperties().getHeaders().get("__TypeId__"))
+                .isEqualTo("in.winvestco.common.event.OrderCreatedEvent");
+        assertThat(sent.getMessageProperties().getCorrelationId()).isEqualTo("corr-2");
+
+        ArgumentCaptor<Collection<Long>> ids = ArgumentCaptor.forClass(Collection.class);
+        verify(outboxRepository).markPublished(ids.capture(), any(Instant.class));
+        assertThat(ids.getValue()).containsExactly(1L, 2L);
+    }
+
+    @Test
+    @DisplayName("Should mark nacked events failed with backoff")
+    void shouldMarkNackedEventsFailedWithBackoff() {
+        OutboxEvent event = event(7L);
+        event.setRetryCount(2);
+        when(outboxRepository.claimDueEvents(any(Instant.class), anyInt(), any(Pageable.class)))
+                .thenReturn(List.of(event));
+        brokerConfirms(false);
+
+        Instant before = Instant.now();
+        processor.relayBatch();
+
+        assertThat(event.getStatus()).isEqualTo(OutboxStatus.FAILED);
+        assertThat(event.getRetryCount()).isEqualTo(3);
+        assertThat(event.getLastError()).contains("queue full");
+        // Third attempt: 1000 ms doubled twice
+        assertThat(event.getNextAttemptAt()).isAfterOrEqualTo(before.plusMillis(4000));
+        verify(outboxRepository, never()).markPublished(any(), any());
+    }
+}
@@ -0,0 +1,79 @@
+package in.winvestco.common.messaging.outbox;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import in.winvestco.common.event.OrderCreatedEvent;
+import in.winvestco.common.event.OrderValidatedEvent;
+import in.winvestco.common.messaging.outbox.OutboxService.PendingEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OutboxService Tests")
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxRepository outboxRepository;
+
+    @Mock
+    private OutboxNotifier outboxNotifier;
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    private OutboxService outboxService;
+
+    @BeforeEach
+    void setUp() {
+        outboxService = new OutboxService(outboxRepository, new ObjectMapper().registerModule(new JavaTimeModule()),
+                outboxNotifier, jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should capture several events with one batched insert, in order")
+    @SuppressWarnings("unchecked")
+    void captureEvents_ShouldInsertInOneBatch() {
+        outboxService.captureEvents("Order", "ORD-1", List.of(
+                new PendingEvent("order.exchange", "order.created", OrderCreatedEvent.builder().orderId("ORD-1").build()),
+                new PendingEvent("order.exchange", "order.validated",
+                        OrderValidatedEvent.builder().orderId("ORD-1").build())));
+
+        ArgumentCaptor<List<Object[]>> rows = ArgumentCaptor.forClass(List.class);
+        verify(jdbcTemplate).batchUpdate(startsWith("INSERT INTO outbox_events"), rows.capture());
+        assertEquals(2, rows.getValue().size());
+        assertEquals("OrderCreatedEvent", rows.getValue().get(0)[2]);
+        assertEquals("order.validated", rows.getValue().get(1)[5]);
+        verify(outboxNotifier, times(1)).notifyPending();
+        verifyNoInteractions(outboxRepository);
+    }
+
+    @Test
+    @DisplayName("Should save a single event through the repository")
+    void captureEvents_Single_ShouldUseRepository() {
+        outboxService.captureEvents("Order", "ORD-1", List.of(
+                new PendingEvent("order.exchange", "order.created", OrderCreatedEvent.builder().orderId("ORD-1").build())));
+
+        verify(outboxRepository).save(any(OutboxEvent.class));
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should do nothing for no events")
+    void captureEvents_Empty_ShouldNotWrite() {
+        outboxService.captureEvents("Order", "ORD-1", List.of());
+
+        verifyNoInteractions(outboxRepository, jdbcTemplate, outboxNotifier);
+    }
+}
@@ -1,16 +1,29 @@
 package in.winvestco.funds_service.config;
 
+import org.springframework.amqp.core.AcknowledgeMode;
 import org.springframework.amqp.core.Binding;
 import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.CustomExchange;
+import org.springframework.amqp.core.Declarable;
+import org.springframework.amqp.core.Declarables;
 import org.springframework.amqp.core.Queue;
 import org.springframework.amqp.core.QueueBuilder;
 import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.ArrayList;
+import java.util.List;
+
 import static in.winvestco.common.config.RabbitMQConfig.DLQ_EXCHANGE;
+import static in.winvestco.common.config.RabbitMQConfig.ORDER_VALIDATED_FUNDS_EXCHANGE;
+import static in.winvestco.common.config.RabbitMQConfig.ORDER_VALIDATED_FUNDS_QUEUE;
+import static in.winvestco.common.config.RabbitMQConfig.ORDER_VALIDATED_ROUTING_KEY;
 
 /**
  * Funds-service specific RabbitMQ configuration.
@@ -21,6 +34,23 @@ import static in.winvestco.common.config.RabbitMQConfig.DLQ_EXCHANGE;
 public class RabbitMQConfig {
 
     public static final String LEDGER_RECORDED_FUNDS_QUEUE = "ledger.recorded.funds.queue";
+    public static final String ORDER_VALIDATED_BATCH_CONTAINER_FACTORY = "orderValidatedBatchListenerContainerFactory";
+
+    /**
+     * Queue of one validated order intake shard.
+     */
+    public static String orderValidatedFundsShard(int shard) {
+        return ORDER_VALIDATED_FUNDS_QUEUE + "." + shard;
+    }
+
+    @Value("${funds.order-intake.batch-size:100}")
+    private int orderIntakeBatchSize;
+
+    @Value("${funds.order-intake.batch-receive-timeout-ms:20}")
+    private long orderIntakeBatchReceiveTimeoutMs;
+
+    @Value("${funds.order-intake.shards:4}")
+    private int orderIntakeShards;
 
     @Value("${rabbitmq.queues.user-created:user.created.funds}")
     private String userCreatedQueue;
@@ -76,4 +106,78 @@ public class RabbitMQConfig {
                 .to(ledgerExchange)
                 .with(in.winvestco.common.config.RabbitMQConfig.LEDGER_ENTRY_RECORDED_ROUTING_KEY);
     }
+
+    /**
+     * Consistent-hash exchange for validated orders. It hashes the
+     * order.validated.<userId> routing key, so every order of a user lands
+     * on the same shard queue. Needs the rabbitmq_consistent_hash_exchange
+     * plugin.
+     */
+    @Bean("orderValidatedFundsExchange")
+    public CustomExchange orderValidatedFundsExchange() {
+        return new CustomExchange(ORDER_VALIDATED_FUNDS_EXCHANGE, "x-consistent-hash", true, false);
+    }
+
+    /**
+     * Forwards validated orders from the order exchange to the consistent-hash
+     * exchange. order.validated.# also matches keys without a user id, which
+     * all hash to one shard.
+     */
+    @Bean("orderValidatedFundsExchangeBinding")
+    public Binding orderValidatedFundsExchangeBinding(
+            @Qualifier("orderValidatedFundsExchange") CustomExchange orderValidatedFundsExchange,
+            @Qualifier("orderExchange") TopicExchange orderExchange) {
+        return BindingBuilder.bind(orderValidatedFundsExchange)
+                .to(orderExchange)
+                .with(ORDER_VALIDATED_ROUTING_KEY + ".#");
+    }
+
+    /**
+     * Validated order shard queues, each bound with equal weight. A shard has
+     * a single active consumer across all replicas, so a user's orders are
+     * only ever handled by one consumer and its wallet lock stripe.
+     */
+    @Bean("orderValidatedFundsShards")
+    public Declarables orderValidatedFundsShards(
+            @Qualifier("orderValidatedFundsExchange") CustomExchange orderValidatedFundsExchange) {
+        List<Declarable> declarables = new ArrayList<>();
+        for (int shard = 0; shard < Math.max(1, orderIntakeShards); shard++) {
+            String name = orderValidatedFundsShard(shard);
+            Queue queue = QueueBuilder.durable(name)
+                    .withArgument("x-dead-letter-exchange", DLQ_EXCHANGE)
+                    .withArgument("x-dead-letter-routing-key", name + ".dlq")
+                    .withArgument("x-message-ttl", 3600000)
+                    .singleActiveConsumer()
+                    .build();
+            declarables.add(queue);
+            declarables.add(BindingBuilder.bind(queue).to(orderValidatedFundsExchange).with("1").noargs());
+        }
+        return new Declarables(declarables);
+    }
+
+    /**
+     * Batch container for validated orders, one per shard: up to batch-size
+     * messages, or whatever arrived within batch-receive-timeout-ms, are
+     * handed to the listener as one list and acked together. A batch-size of
+     * 1 processes orders one at a time. Failed batches are requeued, not
+     * dead-lettered; the listener dead-letters individual bad orders itself.
+     */
+    @Bean(ORDER_VALIDATED_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory orderValidatedBatchListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, orderIntakeBatchSize));
+        factory.setPrefetchCount(Math.max(1, orderIntakeBatchSize));
+        factory.setReceiveTimeout(orderIntakeBatchReceiveTimeoutMs);
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
 }
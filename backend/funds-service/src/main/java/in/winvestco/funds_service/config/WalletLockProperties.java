@@ -0,0 +1,27 @@
+package in.winvestco.funds_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the in-process wallet lock stripes (funds.wallet-lock.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "funds.wallet-lock")
+@Getter
+@Setter
+public class WalletLockProperties {
+
+    /**
+     * Number of lock stripes; wallets are mapped to one by walletId mod stripes.
+     * Each stripe gets its own wait-time histogram.
+     */
+    private int stripes = 64;
+
+    /**
+     * Longest a caller waits for its stripe before giving up.
+     */
+    private long acquireTimeoutMs = 10000;
+}
@@ -0,0 +1,53 @@
+package in.winvestco.funds_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * How each wallet balance operation is applied (funds.wallet-update.*).
+ *
+ * - PESSIMISTIC: load the wallet with SELECT ... FOR UPDATE, change the
+ * entity and save it
+ * - ATOMIC: one conditional UPDATE ... RETURNING, no lock wait unless another
+ * writer is updating the same row right now. Falls back to OPTIMISTIC on
+ * databases without UPDATE ... RETURNING
+ * - OPTIMISTIC: read the wallet unlocked and write it back only if its
+ * version is unchanged, retrying on conflict
+ */
+@Component
+@ConfigurationProperties(prefix = "funds.wallet-update")
+@Getter
+@Setter
+public class WalletUpdateProperties {
+
+    public enum Mode {
+        PESSIMISTIC, ATOMIC, OPTIMISTIC
+    }
+
+    public enum Operation {
+        LOCK, RELEASE, SETTLE, CREDIT, DEBIT
+    }
+
+    private Mode lock = Mode.PESSIMISTIC;
+    private Mode release = Mode.PESSIMISTIC;
+    private Mode settle = Mode.PESSIMISTIC;
+    private Mode credit = Mode.PESSIMISTIC;
+    private Mode debit = Mode.PESSIMISTIC;
+
+    /**
+     * Version-checked writes tried before giving up in OPTIMISTIC mode.
+     */
+    private int optimisticMaxAttempts = 10;
+
+    public Mode modeFor(Operation operation) {
+        return switch (operation) {
+            case LOCK -> lock;
+            case RELEASE -> release;
+            case SETTLE -> settle;
+            case CREDIT -> credit;
+            case DEBIT -> debit;
+        };
+    }
+}
@@ -0,0 +1,15 @@
+package in.winvestco.funds_service.exception;
+
+/**
+ * Exception thrown when a wallet's in-process lock stripe could not be taken in time
+ */
+public class WalletLockTimeoutException extends RuntimeException {
+
+    public WalletLockTimeoutException(Long walletId, long timeoutMs) {
+        super("Timed out after " + timeoutMs + " ms waiting for the lock on wallet: " + walletId);
+    }
+
+    public WalletLockTimeoutException(Long walletId, InterruptedException cause) {
+        super("Interrupted while waiting for the lock on wallet: " + walletId, cause);
+    }
+}
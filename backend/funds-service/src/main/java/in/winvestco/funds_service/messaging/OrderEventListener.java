@@ -3,21 +3,48 @@ package in.winvestco.funds_service.messaging;
 import in.winvestco.common.config.RabbitMQConfig;
 import in.winvestco.common.event.OrderCancelledEvent;
 import in.winvestco.common.event.OrderValidatedEvent;
+import in.winvestco.common.messaging.BatchFallback;
 import in.winvestco.common.messaging.idempotency.IdempotencyService;
 import in.winvestco.funds_service.dto.FundsLockDTO;
 import in.winvestco.funds_service.exception.InsufficientFundsException;
+import in.winvestco.funds_service.exception.WalletLockTimeoutException;
+import in.winvestco.funds_service.repository.FundsLockRepository;
 import in.winvestco.funds_service.repository.WalletRepository;
 import in.winvestco.funds_service.service.FundsEventPublisher;
 import in.winvestco.funds_service.service.FundsLockService;
+import in.winvestco.funds_service.service.FundsLockService.BatchLockResult;
+import in.winvestco.funds_service.service.FundsLockService.OrderLock;
+import in.winvestco.funds_service.service.WalletLockManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 /**
  * Listener for order-related events from RabbitMQ.
  * Handles funds locking for BUY orders when orders are validated.
+ *
+ * Each event takes its wallet's lock stripe before the transaction opens, so
+ * a burst of orders from one user waits in the JVM rather than on pooled
+ * connections blocked on the wallet row lock.
+ *
+ * Validated orders are hashed by user onto shard queues with a single
+ * active consumer each, so one user's orders are never handled by two
+ * replicas at once. They arrive in batches and are grouped by user (one
+ * wallet each). A group is locked, recorded and marked processed in one transaction.
+ * If a group fails, its orders are processed one by one and only the bad ones
+ * are dead-lettered. Database outages are rethrown so the whole batch is
+ * requeued; groups already committed are then skipped as processed.
  */
 @Component
 @Slf4j
@@ -27,18 +54,128 @@ public class OrderEventListener {
     private final FundsLockService fundsLockService;
     private final FundsEventPublisher fundsEventPublisher;
     private final WalletRepository walletRepository;
+    private final FundsLockRepository fundsLockRepository;
     private final IdempotencyService idempotencyService;
+    private final WalletLockManager walletLockManager;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
+
+    /**
+     * Handle a batch of OrderValidatedEvents - lock funds for BUY orders, one
+     * transaction per user. Fed by one container per shard queue, see
+     * {@link OrderValidatedShardListeners}.
+     */
+    public void handleOrderValidatedBatch(List<OrderValidatedEvent> events) {
+        log.debug("Received batch of {} OrderValidatedEvents", events.size());
+
+        Set<String> processed = idempotencyService.findProcessed(
+                events.stream().map(OrderValidatedEvent::getCorrelationId).toList());
+        Set<String> seen = new HashSet<>();
+        Map<Long, List<OrderValidatedEvent>> byUser = new LinkedHashMap<>();
+        for (OrderValidatedEvent event : events) {
+            if (processed.contains(event.getCorrelationId()) || !seen.add(event.getCorrelationId())) {
+                log.warn("Skipping already processed event: {}", event.getCorrelationId());
+                continue;
+            }
+            byUser.computeIfAbsent(event.getUserId(), userId -> new ArrayList<>()).add(event);
+        }
+        if (byUser.isEmpty()) {
+            return;
+        }
+
+        Map<Long, Long> walletIds = new HashMap<>();
+        for (Object[] row : walletRepository.findIdsByUserIds(byUser.keySet())) {
+            walletIds.put((Long) row[0], (Long) row[1]);
+        }
+
+        for (Map.Entry<Long, List<OrderValidatedEvent>> group : byUser.entrySet()) {
+            try {
+                walletLockManager.withWalletLock(walletIds.get(group.getKey()),
+                        () -> transactionTemplate.executeWithoutResult(
+                                status -> processWalletGroup(group.getKey(), group.getValue())));
+            } catch (RuntimeException e) {
+                if (isUnavailable(e)) {
+                    throw e;
+                }
+                log.warn("Batch of {} orders for user {} rejected ({}), processing them one by one",
+                        group.getValue().size(), group.getKey(), e.getMessage());
+                processIndividually(group.getValue());
+            }
+        }
+    }
 
     /**
      * Handle OrderValidatedEvent - lock funds for BUY orders.
      * If insufficient funds, publishes OrderRejectedEvent.
      */
-    @RabbitListener(queues = RabbitMQConfig.ORDER_VALIDATED_FUNDS_QUEUE)
-    @Transactional
     public void handleOrderValidated(OrderValidatedEvent event) {
         log.info("Received OrderValidatedEvent for order: {}, correlationId: {}",
                 event.getOrderId(), event.getCorrelationId());
 
+        Long walletId = walletRepository.findIdByUserId(event.getUserId()).orElse(null);
+        walletLockManager.withWalletLock(walletId,
+                () -> transactionTemplate.executeWithoutResult(status -> processOrderValidated(event)));
+    }
+
+    /**
+     * Handle OrderCancelledEvent - release locked funds for the order.
+     */
+    @RabbitListener(queues = RabbitMQConfig.ORDER_CANCELLED_FUNDS_QUEUE)
+    public void handleOrderCancelled(OrderCancelledEvent event) {
+        log.info("Received OrderCancelledEvent for order: {}, correlationId: {}",
+                event.getOrderId(), event.getCorrelationId());
+
+        Long walletId = fundsLockRepository.findWalletIdByOrderId(event.getOrderId()).orElse(null);
+        walletLockManager.withWalletLock(walletId,
+                () -> transactionTemplate.executeWithoutResult(status -> processOrderCancelled(event)));
+    }
+
+    private void processWalletGroup(Long userId, List<OrderValidatedEvent> group) {
+        List<OrderLock> orders = group.stream()
+                .map(event -> new OrderLock(event.getOrderId(), event.getTotalAmount(),
+                        "Order placed: " + event.getSymbol() + " " + event.getSide()))
+                .toList();
+        BatchLockResult result = fundsLockService.lockFundsBatch(userId, orders);
+
+        List<String> lockedIds = new ArrayList<>();
+        List<String> rejectedIds = new ArrayList<>();
+        for (OrderValidatedEvent event : group) {
+            FundsLockDTO lock = result.locked().get(event.getOrderId());
+            if (lock != null) {
+                fundsEventPublisher.publishFundsLockedWithDetails(
+                        userId,
+                        result.wallet(),
+                        lock,
+                        event.getSymbol(),
+                        event.getSide(),
+                        event.getOrderType(),
+                        event.getQuantity(),
+                        event.getPrice());
+                lockedIds.add(event.getCorrelationId());
+            } else {
+                publishRejected(event, result.rejected().get(event.getOrderId()));
+                rejectedIds.add(event.getCorrelationId());
+            }
+        }
+
+        idempotencyService.markAllAsProcessed(lockedIds, "FundsService-OrderValidated");
+        idempotencyService.markAllAsProcessed(rejectedIds, "FundsService-OrderValidated-Rejected");
+        log.info("Locked funds for {} and rejected {} orders of user {}", lockedIds.size(), rejectedIds.size(),
+                userId);
+    }
+
+    private void processIndividually(List<OrderValidatedEvent> group) {
+        BatchFallback.applyIndividually(group, this::handleOrderValidated, OrderEventListener::isUnavailable,
+                event -> "OrderValidatedEvent for order: " + event.getOrderId(), rabbitTemplate);
+    }
+
+    // A wallet lock timeout is contention, not a bad event
+    private static boolean isUnavailable(Throwable e) {
+        return BatchFallback.isUnavailable(e) || e instanceof WalletLockTimeoutException;
+    }
+
+    private void processOrderValidated(OrderValidatedEvent event) {
+
         if (idempotencyService.exists(event.getCorrelationId())) {
             log.warn("Skipping already processed event: {}", event.getCorrelationId());
             return;
@@ -70,20 +207,7 @@ public class OrderEventListener {
             log.info("Successfully locked funds for order: {}", event.getOrderId());
 
         } catch (InsufficientFundsException e) {
-            log.warn("Insufficient funds for order: {}. Requested: {}, Available: {}",
-                    event.getOrderId(), e.getRequested(), e.getAvailable());
-
-            // Publish order rejected event
-            fundsEventPublisher.publishOrderRejected(
-                    event.getOrderId(),
-                    event.getUserId(),
-                    event.getSymbol(),
-                    event.getSide(),
-                    event.getOrderType(),
-                    event.getQuantity(),
-                    event.getPrice(),
-                    String.format("Insufficient funds: requested %.2f, available %.2f",
-                            e.getRequested(), e.getAvailable()));
+            publishRejected(event, e);
 
             // Still mark as processed even if rejected (business logic success)
             idempotencyService.markAsProcessed(event.getCorrelationId(), "FundsService-OrderValidated-Rejected");
@@ -93,15 +217,24 @@ public class OrderEventListener {
         }
     }
 
-    /**
-     * Handle OrderCancelledEvent - release locked funds for the order.
-     */
-    @RabbitListener(queues = RabbitMQConfig.ORDER_CANCELLED_FUNDS_QUEUE)
-    @Transactional
-    public void handleOrderCancelled(OrderCancelledEvent event) {
-        log.info("Received OrderCancelledEvent for order: {}, correlationId: {}",
-                event.getOrderId(), event.getCorrelationId());
+    private void publishRejected(OrderValidatedEvent event, InsufficientFundsException e) {
+        log.warn("Insufficient funds for order: {}. Requested: {}, Available: {}",
+                event.getOrderId(), e.getRequested(), e.getAvailable());
+
+        // Publish order rejected event
+        fundsEventPublisher.publishOrderRejected(
+                event.getOrderId(),
+                event.getUserId(),
+                event.getSymbol(),
+                event.getSide(),
+                event.getOrderType(),
+                event.getQuantity(),
+                event.getPrice(),
+                String.format("Insufficient funds: requested %.2f, available %.2f",
+                        e.getRequested(), e.getAvailable()));
+    }
 
+    private void processOrderCancelled(OrderCancelledEvent event) {
         if (idempotencyService.exists(event.getCorrelationId())) {
             log.warn("Skipping already processed event: {}", event.getCorrelationId());
             return;
@@ -0,0 +1,90 @@
+package in.winvestco.funds_service.messaging;
+
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.event.OrderValidatedEvent;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.core.BatchMessageListener;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.rabbit.annotation.RabbitListenerConfigurer;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.MessageConversionException;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static in.winvestco.funds_service.config.RabbitMQConfig.ORDER_VALIDATED_BATCH_CONTAINER_FACTORY;
+import static in.winvestco.funds_service.config.RabbitMQConfig.orderValidatedFundsShard;
+
+/**
+ * Registers one batch listener container per validated order shard, each
+ * feeding {@link OrderEventListener#handleOrderValidatedBatch}.
+ *
+ * Shards have a single active consumer, so a container per shard lets a
+ * replica work on several shards at once, while any replica can take a shard
+ * over when its active consumer goes away.
+ */
+@Component
+@Slf4j
+public class OrderValidatedShardListeners implements RabbitListenerConfigurer {
+
+    private final OrderEventListener orderEventListener;
+    private final MessageConverter messageConverter;
+    private final RabbitTemplate rabbitTemplate;
+    private final SimpleRabbitListenerContainerFactory containerFactory;
+    private final int shards;
+
+    public OrderValidatedShardListeners(OrderEventListener orderEventListener, MessageConverter messageConverter,
+            RabbitTemplate rabbitTemplate,
+            @Qualifier(ORDER_VALIDATED_BATCH_CONTAINER_FACTORY) SimpleRabbitListenerContainerFactory containerFactory,
+            @Value("${funds.order-intake.shards:4}") int shards) {
+        this.orderEventListener = orderEventListener;
+        this.messageConverter = messageConverter;
+        this.rabbitTemplate = rabbitTemplate;
+        this.containerFactory = containerFactory;
+        this.shards = Math.max(1, shards);
+    }
+
+    @Override
+    public void configureRabbitListeners(RabbitListenerEndpointRegistrar registrar) {
+        for (int shard = 0; shard < shards; shard++) {
+            SimpleRabbitListenerEndpoint endpoint = new SimpleRabbitListenerEndpoint();
+            endpoint.setId("orderValidatedFunds-" + shard);
+            endpoint.setQueueNames(orderValidatedFundsShard(shard));
+            endpoint.setBatchListener(true);
+            endpoint.setMessageListener((BatchMessageListener) this::onMessageBatch);
+            registrar.registerEndpoint(endpoint, containerFactory);
+        }
+    }
+
+    void onMessageBatch(List<Message> messages) {
+        List<OrderValidatedEvent> events = new ArrayList<>(messages.size());
+        for (Message message : messages) {
+            OrderValidatedEvent event = toEvent(message);
+            if (event != null) {
+                events.add(event);
+            }
+        }
+        if (!events.isEmpty()) {
+            orderEventListener.handleOrderValidatedBatch(events);
+        }
+    }
+
+    // Unreadable messages are dead-lettered on their own rather than failing the batch
+    private OrderValidatedEvent toEvent(Message message) {
+        message.getMessageProperties().setInferredArgumentType(OrderValidatedEvent.class);
+        try {
+            return (OrderValidatedEvent) messageConverter.fromMessage(message);
+        } catch (MessageConversionException | ClassCastException e) {
+            log.error("Dead-lettering unreadable OrderValidatedEvent message", e);
+            rabbitTemplate.send(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, message);
+            return null;
+        }
+    }
+}
@@ -3,7 +3,9 @@ package in.winvestco.funds_service.messaging;
 import com.rabbitmq.client.Channel;
 import in.winvestco.common.config.RabbitMQConfig;
 import in.winvestco.common.event.TradeFailedEvent;
+import in.winvestco.funds_service.repository.FundsLockRepository;
 import in.winvestco.funds_service.service.FundsLockService;
+import in.winvestco.funds_service.service.WalletLockManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
@@ -21,6 +23,8 @@ import org.springframework.stereotype.Component;
 public class TradeEventListener {
 
     private final FundsLockService fundsLockService;
+    private final FundsLockRepository fundsLockRepository;
+    private final WalletLockManager walletLockManager;
 
     /**
      * Handle TradeFailedEvent - release locked funds for the order.
@@ -32,10 +36,11 @@ public class TradeEventListener {
                 event.getOrderId(), event.getUserId(), event.getFailureReason());
 
         try {
-            // compensation: release locked funds
-            fundsLockService.releaseFunds(
+            // compensation: release locked funds under the wallet's lock stripe
+            Long walletId = fundsLockRepository.findWalletIdByOrderId(event.getOrderId()).orElse(null);
+            walletLockManager.withWalletLock(walletId, () -> fundsLockService.releaseFunds(
                     event.getOrderId(),
-                    "Trade failed: " + event.getFailureReason());
+                    "Trade failed: " + event.getFailureReason()));
 
             // Acknowledge message
             channel.basicAck(deliveryTag, false);
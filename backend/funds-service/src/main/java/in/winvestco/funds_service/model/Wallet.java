@@ -75,6 +75,24 @@ public class Wallet implements Serializable {
     @Column(name = "last_processed_ledger_id")
     private Long lastProcessedLedgerId;
 
+    /**
+     * Sequence of the last ledger entry requested for this wallet. Advanced
+     * under the wallet row lock, so entries of one wallet are numbered in
+     * the order their balance changes were made.
+     */
+    @Column(name = "ledger_sequence", nullable = false)
+    @Builder.Default
+    private Long ledgerSequence = 0L;
+
+    /**
+     * Optimistic lock version. Bumped by every balance update, including the
+     * lock-free ones in WalletBalanceWriter.
+     */
+    @Version
+    @Column(name = "version", nullable = false)
+    @Builder.Default
+    private Long version = 0L;
+
     /**
      * Get total balance (available + locked)
      */
@@ -121,6 +139,14 @@ public class Wallet implements Serializable {
         this.availableBalance = this.availableBalance.add(amount);
     }
 
+    /**
+     * Reserve the sequence number for the next ledger entry of this wallet
+     */
+    public long nextLedgerSequence() {
+        this.ledgerSequence = (ledgerSequence != null ? ledgerSequence : 0L) + 1;
+        return ledgerSequence;
+    }
+
     /**
      * Settle locked funds (deduct from locked without returning to available)
      */
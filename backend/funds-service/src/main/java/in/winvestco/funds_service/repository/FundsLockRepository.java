@@ -3,8 +3,11 @@ package in.winvestco.funds_service.repository;
 import in.winvestco.common.enums.LockStatus;
 import in.winvestco.funds_service.model.FundsLock;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -19,6 +22,18 @@ public interface FundsLockRepository extends JpaRepository<FundsLock, Long> {
      */
     Optional<FundsLock> findByOrderId(String orderId);
 
+    /**
+     * Find the wallet ID of an order's lock, without loading the lock
+     */
+    @Query("SELECT l.walletId FROM FundsLock l WHERE l.orderId = :orderId")
+    Optional<Long> findWalletIdByOrderId(@Param("orderId") String orderId);
+
+    /**
+     * Find which of the given orders already have a lock
+     */
+    @Query("SELECT l.orderId FROM FundsLock l WHERE l.orderId IN :orderIds")
+    List<String> findOrderIdsIn(@Param("orderIds") Collection<String> orderIds);
+
     /**
      * Check if lock exists for order
      */
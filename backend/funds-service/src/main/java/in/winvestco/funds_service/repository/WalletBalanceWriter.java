@@ -0,0 +1,240 @@
+package in.winvestco.funds_service.repository;
+
+import in.winvestco.common.enums.WalletStatus;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Mode;
+import in.winvestco.funds_service.exception.InsufficientFundsException;
+import in.winvestco.funds_service.exception.WalletNotFoundException;
+import in.winvestco.funds_service.model.Wallet;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.sql.DatabaseMetaData;
+import java.time.Clock;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.function.BiConsumer;
+import java.util.function.Function;
+
+/**
+ * Lock-free balance updates for wallets, as an alternative to loading the
+ * wallet with SELECT ... FOR UPDATE.
+ *
+ * - ATOMIC: a single conditional UPDATE ... RETURNING applies the change and
+ * its balance check in one round trip. Needs PostgreSQL; elsewhere (tests) it
+ * runs as OPTIMISTIC
+ * - OPTIMISTIC: read the row unlocked, apply the change with the Wallet
+ * methods and write it back only if the version is unchanged, retrying up
+ * to funds.wallet-update.optimistic-max-attempts times
+ *
+ * Both advance ledger_sequence and version along with the balances, so they
+ * interleave safely with the entity path (Wallet is @Version-ed).
+ *
+ * Returns a detached snapshot of the updated wallet. Joins the caller's
+ * transaction; callers should not hold a managed Wallet for the same row.
+ */
+@Component
+@Slf4j
+public class WalletBalanceWriter {
+
+    private static final String COLUMNS = "id, user_id, available_balance, locked_balance, currency, status, "
+            + "ledger_sequence, version";
+
+    private static final RowMapper<Wallet> SNAPSHOT = (rs, rowNum) -> Wallet.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getLong("user_id"))
+            .availableBalance(rs.getBigDecimal("available_balance"))
+            .lockedBalance(rs.getBigDecimal("locked_balance"))
+            .currency(rs.getString("currency"))
+            .status(WalletStatus.valueOf(rs.getString("status")))
+            .ledgerSequence(rs.getLong("ledger_sequence"))
+            .version(rs.getLong("version"))
+            .build();
+
+    /**
+     * A balance change: its SQL SET clause, the balance it must not take
+     * below zero, and the same change on the entity.
+     */
+    private enum Change {
+        LOCK("available_balance = available_balance - :amount, locked_balance = locked_balance + :amount",
+                "available_balance", Wallet::getAvailableBalance, Wallet::lockFunds),
+        UNLOCK("locked_balance = locked_balance - :amount, available_balance = available_balance + :amount",
+                "locked_balance", Wallet::getLockedBalance, Wallet::unlockFunds),
+        SETTLE("locked_balance = locked_balance - :amount",
+                "locked_balance", Wallet::getLockedBalance, Wallet::settleFunds),
+        CREDIT("available_balance = available_balance + :amount",
+                null, null, Wallet::credit),
+        DEBIT("available_balance = available_balance - :amount",
+                "available_balance", Wallet::getAvailableBalance, Wallet::debit);
+
+        private final String set;
+        private final String guardColumn;
+        private final Function<Wallet, BigDecimal> guardBalance;
+        private final BiConsumer<Wallet, BigDecimal> apply;
+
+        Change(String set, String guardColumn, Function<Wallet, BigDecimal> guardBalance,
+                BiConsumer<Wallet, BigDecimal> apply) {
+            this.set = set;
+            this.guardColumn = guardColumn;
+            this.guardBalance = guardBalance;
+            this.apply = apply;
+        }
+    }
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final WalletUpdateProperties properties;
+    private final Clock clock;
+    private final boolean postgres;
+
+    public WalletBalanceWriter(DataSource dataSource, WalletUpdateProperties properties) {
+        this(new NamedParameterJdbcTemplate(dataSource), properties, Clock.systemUTC(), isPostgres(dataSource));
+    }
+
+    WalletBalanceWriter(NamedParameterJdbcTemplate jdbcTemplate, WalletUpdateProperties properties, Clock clock,
+            boolean postgres) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.postgres = postgres;
+    }
+
+    /**
+     * Move funds from available to locked balance of the user's wallet
+     */
+    public Wallet lockFunds(Long userId, BigDecimal amount, Mode mode) {
+        return apply(Change.LOCK, "user_id", userId, amount, mode);
+    }
+
+    /**
+     * Move funds from locked back to available balance
+     */
+    public Wallet unlockFunds(Long walletId, BigDecimal amount, Mode mode) {
+        return apply(Change.UNLOCK, "id", walletId, amount, mode);
+    }
+
+    /**
+     * Remove settled funds from locked balance
+     */
+    public Wallet settleFunds(Long walletId, BigDecimal amount, Mode mode) {
+        return apply(Change.SETTLE, "id", walletId, amount, mode);
+    }
+
+    /**
+     * Add funds to the available balance of the user's wallet
+     */
+    public Wallet credit(Long userId, BigDecimal amount, Mode mode) {
+        return apply(Change.CREDIT, "user_id", userId, amount, mode);
+    }
+
+    /**
+     * Take funds from the available balance of the user's wallet
+     */
+    public Wallet debit(Long userId, BigDecimal amount, Mode mode) {
+        return apply(Change.DEBIT, "user_id", userId, amount, mode);
+    }
+
+    private Wallet apply(Change change, String keyColumn, Long key, BigDecimal amount, Mode mode) {
+        if (mode == Mode.ATOMIC && postgres) {
+            return applyAtomic(change, keyColumn, key, amount);
+        }
+        if (mode == Mode.PESSIMISTIC) {
+            throw new IllegalArgumentException("Pessimistic wallet updates go through WalletRepository");
+        }
+        return applyOptimistic(change, keyColumn, key, amount);
+    }
+
+    private Wallet applyAtomic(Change change, String keyColumn, Long key, BigDecimal amount) {
+        String sql = "UPDATE wallets SET " + change.set
+                + ", ledger_sequence = ledger_sequence + 1, version = version + 1, updated_at = :now"
+                + " WHERE " + keyColumn + " = :key"
+                + (change.guardColumn != null ? " AND " + change.guardColumn + " >= :amount" : "")
+                + " RETURNING " + COLUMNS;
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("amount", amount)
+                .addValue("key", key)
+                .addValue("now", now());
+
+        List<Wallet> updated = jdbcTemplate.query(sql, params, SNAPSHOT);
+        if (!updated.isEmpty()) {
+            return updated.get(0);
+        }
+        // Nothing matched: the wallet is missing or the balance check failed
+        throw rejected(change, keyColumn, key, amount, read(keyColumn, key));
+    }
+
+    private Wallet applyOptimistic(Change change, String keyColumn, Long key, BigDecimal amount) {
+        int maxAttempts = Math.max(1, properties.getOptimisticMaxAttempts());
+        for (int attempt = 1; attempt <= maxAttempts; attempt++) {
+            Wallet wallet = read(keyColumn, key);
+            if (wallet == null || (change.guardBalance != null
+                    && change.guardBalance.apply(wallet).compareTo(amount) < 0)) {
+                throw rejected(change, keyColumn, key, amount, wallet);
+            }
+
+            long version = wallet.getVersion();
+            change.apply.accept(wallet, amount);
+            wallet.nextLedgerSequence();
+
+            int rows = jdbcTemplate.update("UPDATE wallets SET available_balance = :available, "
+                    + "locked_balance = :locked, ledger_sequence = :sequence, version = version + 1, "
+                    + "updated_at = :now WHERE id = :id AND version = :version",
+                    new MapSqlParameterSource()
+                            .addValue("available", wallet.getAvailableBalance())
+                            .addValue("locked", wallet.getLockedBalance())
+                            .addValue("sequence", wallet.getLedgerSequence())
+                            .addValue("now", now())
+                            .addValue("id", wallet.getId())
+                            .addValue("version", version));
+            if (rows == 1) {
+                wallet.setVersion(version + 1);
+                return wallet;
+            }
+            log.debug("Wallet {} changed concurrently (attempt {}/{}), retrying", wallet.getId(), attempt,
+                    maxAttempts);
+        }
+        throw new OptimisticLockingFailureException(
+                "Wallet " + keyColumn + " " + key + " kept changing; gave up after " + maxAttempts + " attempts");
+    }
+
+    private Wallet read(String keyColumn, Long key) {
+        List<Wallet> wallets = jdbcTemplate.query(
+                "SELECT " + COLUMNS + " FROM wallets WHERE " + keyColumn + " = :key",
+                new MapSqlParameterSource("key", key), SNAPSHOT);
+        return wallets.isEmpty() ? null : wallets.get(0);
+    }
+
+    private static RuntimeException rejected(Change change, String keyColumn, Long key, BigDecimal amount,
+            Wallet wallet) {
+        if (wallet == null) {
+            return new WalletNotFoundException("id".equals(keyColumn) ? "walletId" : "userId", key);
+        }
+        if ("available_balance".equals(change.guardColumn)) {
+            return new InsufficientFundsException(amount, wallet.getAvailableBalance());
+        }
+        return new IllegalStateException("Locked balance " + wallet.getLockedBalance() + " of wallet "
+                + wallet.getId() + " is below " + amount);
+    }
+
+    // Bound the way Hibernate binds Instant, so both paths store the same wall time
+    private OffsetDateTime now() {
+        return OffsetDateTime.ofInstant(clock.instant(), ZoneOffset.UTC);
+    }
+
+    static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            log.warn("Could not determine funds database type, atomic wallet updates disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+}
@@ -8,6 +8,8 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 
 /**
@@ -21,6 +23,18 @@ public interface WalletRepository extends JpaRepository<Wallet, Long> {
      */
     Optional<Wallet> findByUserId(Long userId);
 
+    /**
+     * Find the wallet ID of a user, without loading or locking the wallet
+     */
+    @Query("SELECT w.id FROM Wallet w WHERE w.userId = :userId")
+    Optional<Long> findIdByUserId(@Param("userId") Long userId);
+
+    /**
+     * Find the wallets of several users as (userId, walletId) pairs
+     */
+    @Query("SELECT w.userId, w.id FROM Wallet w WHERE w.userId IN :userIds")
+    List<Object[]> findIdsByUserIds(@Param("userIds") Collection<Long> userIds);
+
     /**
      * Check if wallet exists for user
      */
@@ -1,12 +1,14 @@
 package in.winvestco.funds_service.service;
 
 import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.event.FundsDepositedEvent;
 import in.winvestco.common.event.FundsLockedEvent;
 import in.winvestco.common.event.FundsReleasedEvent;
 import in.winvestco.common.event.FundsWithdrawnEvent;
+import in.winvestco.common.event.LedgerEntryRequestedEvent;
 import in.winvestco.common.event.OrderRejectedEvent;
 import in.winvestco.common.messaging.outbox.OutboxService;
 import in.winvestco.funds_service.dto.FundsLockDTO;
@@ -174,4 +176,33 @@ public class FundsEventPublisher {
                 RabbitMQConfig.ORDER_REJECTED_ROUTING_KEY,
                 event);
     }
+
+    /**
+     * Publish LedgerEntryRequestedEvent using outbox pattern.
+     * The relay may ship a wallet's entries out of order (retried rows, several
+     * replicas); ledger-service holds an entry until the wallet sequence before
+     * it is recorded.
+     */
+    public void publishLedgerEntryRequested(Long walletId, long walletSequence, LedgerEntryType entryType,
+                    BigDecimal amount, BigDecimal balanceBefore, BigDecimal balanceAfter,
+                    String referenceId, String referenceType, String description) {
+        LedgerEntryRequestedEvent event = LedgerEntryRequestedEvent.builder()
+                .walletId(walletId)
+                .walletSequence(walletSequence)
+                .entryType(entryType)
+                .amount(amount)
+                .balanceBefore(balanceBefore)
+                .balanceAfter(balanceAfter)
+                .referenceId(referenceId)
+                .referenceType(referenceType)
+                .description(description)
+                .build();
+
+        log.debug("Capturing LedgerEntryRequestedEvent in outbox: wallet={}, seq={}, type={}, amount={}",
+                walletId, walletSequence, entryType, amount);
+        outboxService.captureEvent("Wallet", walletId.toString(),
+                RabbitMQConfig.LEDGER_EXCHANGE,
+                RabbitMQConfig.LEDGER_ENTRY_REQUESTED_ROUTING_KEY,
+                event);
+    }
 }
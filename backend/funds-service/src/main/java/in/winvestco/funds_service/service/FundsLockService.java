@@ -2,8 +2,9 @@ package in.winvestco.funds_service.service;
 
 import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.enums.LockStatus;
-import in.winvestco.funds_service.client.LedgerClient;
-import in.winvestco.funds_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Mode;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Operation;
 import in.winvestco.funds_service.dto.FundsLockDTO;
 import in.winvestco.funds_service.exception.DuplicateLockException;
 import in.winvestco.funds_service.exception.FundsLockNotFoundException;
@@ -12,6 +13,7 @@ import in.winvestco.funds_service.mapper.FundsMapper;
 import in.winvestco.funds_service.model.FundsLock;
 import in.winvestco.funds_service.model.Wallet;
 import in.winvestco.funds_service.repository.FundsLockRepository;
+import in.winvestco.funds_service.repository.WalletBalanceWriter;
 import in.winvestco.funds_service.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,12 +24,19 @@ import io.micrometer.core.instrument.MeterRegistry;
 import java.math.BigDecimal;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 
 /**
  * Service for managing funds locks.
- * Uses LedgerClient to record all lock/unlock/settle operations to
- * ledger-service (SOURCE OF TRUTH).
+ * All lock/unlock/settle operations are captured in the outbox as ledger
+ * entries for ledger-service (SOURCE OF TRUTH), so the wallet row lock is
+ * only held for the local update.
+ *
+ * The wallet change itself is applied pessimistically, atomically or
+ * optimistically per operation, as set in funds.wallet-update.*.
  */
 @Service
 @Slf4j
@@ -36,15 +45,17 @@ public class FundsLockService {
 
     private final FundsLockRepository fundsLockRepository;
     private final WalletRepository walletRepository;
-    private final LedgerClient ledgerClient;
+    private final WalletBalanceWriter walletBalanceWriter;
+    private final WalletUpdateProperties walletUpdateProperties;
     private final FundsMapper fundsMapper;
     private final FundsEventPublisher fundsEventPublisher;
     private final MeterRegistry meterRegistry;
 
     /**
-     * Lock funds for an order
+     * Lock funds for an order. Insufficient funds are thrown before anything
+     * is written, so they leave the caller's transaction committable.
      */
-    @Transactional
+    @Transactional(noRollbackFor = InsufficientFundsException.class)
     public FundsLockDTO lockFunds(Long userId, String orderId, BigDecimal amount, String reason) {
         log.info("Locking {} for order {} (user {})", amount, orderId, userId);
 
@@ -53,20 +64,27 @@ public class FundsLockService {
             throw new DuplicateLockException(orderId);
         }
 
-        // Get wallet with lock
-        Wallet wallet = walletRepository.findByUserIdForUpdate(userId)
-                .orElseThrow(() -> new RuntimeException("Wallet not found for user: " + userId));
-
-        // Check sufficient balance
-        if (!wallet.hasSufficientBalance(amount)) {
-            throw new InsufficientFundsException(amount, wallet.getAvailableBalance());
+        Mode mode = walletUpdateProperties.modeFor(Operation.LOCK);
+        Wallet wallet;
+        if (mode == Mode.PESSIMISTIC) {
+            // Get wallet with lock
+            wallet = walletRepository.findByUserIdForUpdate(userId)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found for user: " + userId));
+
+            // Check sufficient balance
+            if (!wallet.hasSufficientBalance(amount)) {
+                throw new InsufficientFundsException(amount, wallet.getAvailableBalance());
+            }
+
+            // Lock the funds
+            wallet.lockFunds(amount);
+            wallet.nextLedgerSequence();
+            walletRepository.save(wallet);
+        } else {
+            // Balance check and lock in one conditional update
+            wallet = walletBalanceWriter.lockFunds(userId, amount, mode);
         }
-
-        BigDecimal balanceBefore = wallet.getAvailableBalance();
-
-        // Lock the funds
-        wallet.lockFunds(amount);
-        walletRepository.save(wallet);
+        BigDecimal balanceBefore = wallet.getAvailableBalance().add(amount);
 
         // Create lock record
         FundsLock lock = FundsLock.builder()
@@ -79,9 +97,9 @@ public class FundsLockService {
 
         FundsLock saved = fundsLockRepository.save(lock);
 
-        // Record to ledger-service (SOURCE OF TRUTH)
+        // Capture ledger entry for ledger-service (SOURCE OF TRUTH)
         recordToLedger(
-                wallet.getId(),
+                wallet,
                 LedgerEntryType.LOCK,
                 amount,
                 balanceBefore,
@@ -94,6 +112,79 @@ public class FundsLockService {
         return fundsMapper.toFundsLockDTO(saved);
     }
 
+    /**
+     * Lock funds for several orders of one user in one transaction, in the
+     * given order. The wallet is locked and saved once and the lock rows are
+     * inserted together. Orders the balance cannot cover are left out and
+     * returned as rejections; a duplicate order fails the whole batch.
+     */
+    @Transactional
+    public BatchLockResult lockFundsBatch(Long userId, List<OrderLock> orders) {
+        log.info("Locking funds for {} orders of user {}", orders.size(), userId);
+
+        List<String> duplicates = fundsLockRepository.findOrderIdsIn(orders.stream().map(OrderLock::orderId).toList());
+        if (!duplicates.isEmpty()) {
+            throw new DuplicateLockException(duplicates.get(0));
+        }
+
+        Mode mode = walletUpdateProperties.modeFor(Operation.LOCK);
+        Wallet wallet = null;
+        if (mode == Mode.PESSIMISTIC) {
+            wallet = walletRepository.findByUserIdForUpdate(userId)
+                    .orElseThrow(() -> new RuntimeException("Wallet not found for user: " + userId));
+        }
+
+        List<FundsLock> locks = new ArrayList<>(orders.size());
+        Map<String, InsufficientFundsException> rejected = new LinkedHashMap<>();
+        for (OrderLock order : orders) {
+            if (mode == Mode.PESSIMISTIC) {
+                if (!wallet.hasSufficientBalance(order.amount())) {
+                    rejected.put(order.orderId(),
+                            new InsufficientFundsException(order.amount(), wallet.getAvailableBalance()));
+                    continue;
+                }
+                wallet.lockFunds(order.amount());
+                wallet.nextLedgerSequence();
+            } else {
+                try {
+                    wallet = walletBalanceWriter.lockFunds(userId, order.amount(), mode);
+                } catch (InsufficientFundsException e) {
+                    rejected.put(order.orderId(), e);
+                    continue;
+                }
+            }
+
+            recordToLedger(
+                    wallet,
+                    LedgerEntryType.LOCK,
+                    order.amount(),
+                    wallet.getAvailableBalance().add(order.amount()),
+                    wallet.getAvailableBalance(),
+                    order.orderId(),
+                    "ORDER",
+                    "Funds locked for order: " + order.orderId());
+
+            locks.add(FundsLock.builder()
+                    .walletId(wallet.getId())
+                    .orderId(order.orderId())
+                    .amount(order.amount())
+                    .status(LockStatus.LOCKED)
+                    .reason(order.reason() != null ? order.reason() : "Order placed")
+                    .build());
+        }
+
+        if (mode == Mode.PESSIMISTIC && !locks.isEmpty()) {
+            walletRepository.save(wallet);
+        }
+        Map<String, FundsLockDTO> locked = new LinkedHashMap<>();
+        for (FundsLock saved : fundsLockRepository.saveAll(locks)) {
+            locked.put(saved.getOrderId(), fundsMapper.toFundsLockDTO(saved));
+        }
+
+        log.info("Locked funds for {} of {} orders of user {}", locked.size(), orders.size(), userId);
+        return new BatchLockResult(wallet, locked, rejected);
+    }
+
     /**
      * Release locked funds (on cancel/reject)
      */
@@ -109,15 +200,21 @@ public class FundsLockService {
             return fundsMapper.toFundsLockDTO(lock);
         }
 
-        // Get wallet with lock
-        Wallet wallet = walletRepository.findByIdForUpdate(lock.getWalletId())
-                .orElseThrow(() -> new RuntimeException("Wallet not found: " + lock.getWalletId()));
-
-        BigDecimal balanceBefore = wallet.getAvailableBalance();
-
-        // Unlock the funds
-        wallet.unlockFunds(lock.getAmount());
-        walletRepository.save(wallet);
+        Mode mode = walletUpdateProperties.modeFor(Operation.RELEASE);
+        Wallet wallet;
+        if (mode == Mode.PESSIMISTIC) {
+            // Get wallet with lock
+            wallet = walletRepository.findByIdForUpdate(lock.getWalletId())
+                    .orElseThrow(() -> new RuntimeException("Wallet not found: " + lock.getWalletId()));
+
+            // Unlock the funds
+            wallet.unlockFunds(lock.getAmount());
+            wallet.nextLedgerSequence();
+            walletRepository.save(wallet);
+        } else {
+            wallet = walletBalanceWriter.unlockFunds(lock.getWalletId(), lock.getAmount(), mode);
+        }
+        BigDecimal balanceBefore = wallet.getAvailableBalance().subtract(lock.getAmount());
 
         // Update lock status
         lock.release(reason != null ? reason : "Order cancelled/rejected");
@@ -127,9 +224,9 @@ public class FundsLockService {
         meterRegistry.timer("funds.lock.duration", "status", "RELEASED")
                 .record(Duration.between(lock.getCreatedAt(), Instant.now()));
 
-        // Record to ledger-service (SOURCE OF TRUTH)
+        // Capture ledger entry for ledger-service (SOURCE OF TRUTH)
         recordToLedger(
-                wallet.getId(),
+                wallet,
                 LedgerEntryType.UNLOCK,
                 lock.getAmount(),
                 balanceBefore,
@@ -164,15 +261,21 @@ public class FundsLockService {
             return fundsMapper.toFundsLockDTO(lock);
         }
 
-        // Get wallet with lock
-        Wallet wallet = walletRepository.findByIdForUpdate(lock.getWalletId())
-                .orElseThrow(() -> new RuntimeException("Wallet not found: " + lock.getWalletId()));
-
-        BigDecimal lockedBefore = wallet.getLockedBalance();
-
-        // Settle the funds (remove from locked, don't add back to available)
-        wallet.settleFunds(lock.getAmount());
-        walletRepository.save(wallet);
+        Mode mode = walletUpdateProperties.modeFor(Operation.SETTLE);
+        Wallet wallet;
+        if (mode == Mode.PESSIMISTIC) {
+            // Get wallet with lock
+            wallet = walletRepository.findByIdForUpdate(lock.getWalletId())
+                    .orElseThrow(() -> new RuntimeException("Wallet not found: " + lock.getWalletId()));
+
+            // Settle the funds (remove from locked, don't add back to available)
+            wallet.settleFunds(lock.getAmount());
+            wallet.nextLedgerSequence();
+            walletRepository.save(wallet);
+        } else {
+            wallet = walletBalanceWriter.settleFunds(lock.getWalletId(), lock.getAmount(), mode);
+        }
+        BigDecimal lockedBefore = wallet.getLockedBalance().add(lock.getAmount());
 
         // Update lock status
         lock.settle(reason != null ? reason : "Trade executed");
@@ -182,9 +285,9 @@ public class FundsLockService {
         meterRegistry.timer("funds.lock.duration", "status", "SETTLED")
                 .record(Duration.between(lock.getCreatedAt(), Instant.now()));
 
-        // Record to ledger-service (SOURCE OF TRUTH)
+        // Capture ledger entry for ledger-service (SOURCE OF TRUTH)
         recordToLedger(
-                wallet.getId(),
+                wallet,
                 LedgerEntryType.TRADE_BUY,
                 lock.getAmount(),
                 lockedBefore,
@@ -226,10 +329,13 @@ public class FundsLockService {
     }
 
     /**
-     * Record entry to ledger-service (SOURCE OF TRUTH)
+     * Capture the ledger entry for this change in the outbox. It commits with
+     * the wallet update and is shipped to ledger-service (SOURCE OF TRUTH)
+     * after the wallet lock is released. The wallet's ledger sequence has
+     * already been advanced together with its balances.
      */
     private void recordToLedger(
-            Long walletId,
+            Wallet wallet,
             LedgerEntryType entryType,
             BigDecimal amount,
             BigDecimal balanceBefore,
@@ -238,23 +344,29 @@ public class FundsLockService {
             String referenceType,
             String description) {
 
-        try {
-            CreateLedgerEntryRequest request = CreateLedgerEntryRequest.builder()
-                    .walletId(walletId)
-                    .entryType(entryType)
-                    .amount(amount)
-                    .balanceBefore(balanceBefore)
-                    .balanceAfter(balanceAfter)
-                    .referenceId(referenceId)
-                    .referenceType(referenceType)
-                    .description(description)
-                    .build();
-
-            ledgerClient.recordEntry(request);
-            log.debug("Recorded ledger entry: wallet={}, type={}, amount={}", walletId, entryType, amount);
-        } catch (Exception e) {
-            log.error("Failed to record ledger entry: wallet={}, type={}, amount={}", walletId, entryType, amount, e);
-            throw new RuntimeException("Failed to record ledger entry", e);
-        }
+        fundsEventPublisher.publishLedgerEntryRequested(
+                wallet.getId(),
+                wallet.getLedgerSequence(),
+                entryType,
+                amount,
+                balanceBefore,
+                balanceAfter,
+                referenceId,
+                referenceType,
+                description);
+    }
+
+    /**
+     * One order of a batch lock
+     */
+    public record OrderLock(String orderId, BigDecimal amount, String reason) {
+    }
+
+    /**
+     * Outcome of a batch lock: the wallet after it, the created locks and the
+     * orders rejected for insufficient funds, each keyed by order ID
+     */
+    public record BatchLockResult(Wallet wallet, Map<String, FundsLockDTO> locked,
+            Map<String, InsufficientFundsException> rejected) {
     }
 }
@@ -3,13 +3,16 @@ package in.winvestco.funds_service.service;
 import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.enums.WalletStatus;
 import in.winvestco.funds_service.client.LedgerClient;
-import in.winvestco.funds_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Mode;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Operation;
 import in.winvestco.funds_service.dto.LedgerEntryDTO;
 import in.winvestco.funds_service.dto.WalletDTO;
 import in.winvestco.funds_service.exception.InsufficientFundsException;
 import in.winvestco.funds_service.exception.WalletNotFoundException;
 import in.winvestco.funds_service.mapper.FundsMapper;
 import in.winvestco.funds_service.model.Wallet;
+import in.winvestco.funds_service.repository.WalletBalanceWriter;
 import in.winvestco.funds_service.repository.WalletRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,8 +25,9 @@ import java.util.List;
 
 /**
  * Service for managing user wallets and balances.
- * Uses LedgerClient to record all transactions to the ledger-service (SOURCE OF
- * TRUTH).
+ * All transactions are captured in the outbox as ledger entries for
+ * ledger-service (SOURCE OF TRUTH); LedgerClient is used for reads only.
+ * Credits and debits are applied in the mode set in funds.wallet-update.*.
  */
 @Service
 @Slf4j
@@ -31,6 +35,8 @@ import java.util.List;
 public class WalletService {
 
     private final WalletRepository walletRepository;
+    private final WalletBalanceWriter walletBalanceWriter;
+    private final WalletUpdateProperties walletUpdateProperties;
     private final LedgerClient ledgerClient;
     private final FundsMapper fundsMapper;
     private final FundsEventPublisher fundsEventPublisher;
@@ -105,22 +111,29 @@ public class WalletService {
 
     /**
      * Credit funds to wallet (e.g., deposit confirmation)
-     * Records entry to ledger-service (SOURCE OF TRUTH)
+     * Captures the entry for ledger-service (SOURCE OF TRUTH)
      */
     @Transactional
     public Wallet creditFunds(Long userId, BigDecimal amount, String referenceId, String referenceType,
             String description) {
         log.info("Crediting {} to user {} wallet", amount, userId);
 
-        Wallet wallet = getWalletForUpdate(userId);
-        BigDecimal balanceBefore = wallet.getAvailableBalance();
-
-        wallet.credit(amount);
-        Wallet saved = walletRepository.save(wallet);
+        Mode mode = walletUpdateProperties.modeFor(Operation.CREDIT);
+        Wallet wallet;
+        Wallet saved;
+        if (mode == Mode.PESSIMISTIC) {
+            wallet = getWalletForUpdate(userId);
+            wallet.credit(amount);
+            wallet.nextLedgerSequence();
+            saved = walletRepository.save(wallet);
+        } else {
+            wallet = saved = walletBalanceWriter.credit(userId, amount, mode);
+        }
+        BigDecimal balanceBefore = wallet.getAvailableBalance().subtract(amount);
 
-        // Record to ledger-service (SOURCE OF TRUTH)
+        // Capture ledger entry for ledger-service (SOURCE OF TRUTH)
         recordToLedger(
-                wallet.getId(),
+                wallet,
                 LedgerEntryType.DEPOSIT,
                 amount,
                 balanceBefore,
@@ -138,26 +151,35 @@ public class WalletService {
 
     /**
      * Debit funds from wallet (e.g., withdrawal)
-     * Records entry to ledger-service (SOURCE OF TRUTH)
+     * Captures the entry for ledger-service (SOURCE OF TRUTH)
      */
     @Transactional
     public Wallet debitFunds(Long userId, BigDecimal amount, String referenceId, String referenceType,
             String description) {
         log.info("Debiting {} from user {} wallet", amount, userId);
 
-        Wallet wallet = getWalletForUpdate(userId);
+        Mode mode = walletUpdateProperties.modeFor(Operation.DEBIT);
+        Wallet wallet;
+        Wallet saved;
+        if (mode == Mode.PESSIMISTIC) {
+            wallet = getWalletForUpdate(userId);
 
-        if (!wallet.hasSufficientBalance(amount)) {
-            throw new InsufficientFundsException(amount, wallet.getAvailableBalance());
-        }
+            if (!wallet.hasSufficientBalance(amount)) {
+                throw new InsufficientFundsException(amount, wallet.getAvailableBalance());
+            }
 
-        BigDecimal balanceBefore = wallet.getAvailableBalance();
-        wallet.debit(amount);
-        Wallet saved = walletRepository.save(wallet);
+            wallet.debit(amount);
+            wallet.nextLedgerSequence();
+            saved = walletRepository.save(wallet);
+        } else {
+            // Balance check and debit in one conditional update
+            wallet = saved = walletBalanceWriter.debit(userId, amount, mode);
+        }
+        BigDecimal balanceBefore = wallet.getAvailableBalance().add(amount);
 
-        // Record to ledger-service (SOURCE OF TRUTH)
+        // Capture ledger entry for ledger-service (SOURCE OF TRUTH)
         recordToLedger(
-                wallet.getId(),
+                wallet,
                 LedgerEntryType.WITHDRAWAL,
                 amount,
                 balanceBefore,
@@ -215,10 +237,13 @@ public class WalletService {
     }
 
     /**
-     * Record entry to ledger-service (SOURCE OF TRUTH)
+     * Capture the ledger entry for this change in the outbox. It commits with
+     * the wallet update and is shipped to ledger-service (SOURCE OF TRUTH)
+     * after the wallet lock is released. The wallet's ledger sequence has
+     * already been advanced together with its balances.
      */
     private void recordToLedger(
-            Long walletId,
+            Wallet wallet,
             LedgerEntryType entryType,
             BigDecimal amount,
             BigDecimal balanceBefore,
@@ -227,25 +252,16 @@ public class WalletService {
             String referenceType,
             String description) {
 
-        try {
-            CreateLedgerEntryRequest request = CreateLedgerEntryRequest.builder()
-                    .walletId(walletId)
-                    .entryType(entryType)
-                    .amount(amount)
-                    .balanceBefore(balanceBefore)
-                    .balanceAfter(balanceAfter)
-                    .referenceId(referenceId)
-                    .referenceType(referenceType)
-                    .description(description)
-                    .build();
-
-            ledgerClient.recordEntry(request);
-            log.debug("Recorded ledger entry: wallet={}, type={}, amount={}", walletId, entryType, amount);
-        } catch (Exception e) {
-            log.error("Failed to record ledger entry: wallet={}, type={}, amount={}", walletId, entryType, amount, e);
-            // In production, you might want to use a fallback or retry mechanism
-            throw new RuntimeException("Failed to record ledger entry", e);
-        }
+        fundsEventPublisher.publishLedgerEntryRequested(
+                wallet.getId(),
+                wallet.getLedgerSequence(),
+                entryType,
+                amount,
+                balanceBefore,
+                balanceAfter,
+                referenceId,
+                referenceType,
+                description);
     }
 
     /**
@@ -264,6 +280,16 @@ public class WalletService {
             return;
         }
 
+        if (event.getWalletSequence() != null) {
+            // Requested by this service: the change was applied locally when it was
+            // captured, and later changes may already have followed it
+            wallet.setLastProcessedLedgerId(event.getId());
+            walletRepository.save(wallet);
+            log.debug("Ledger event {} (seq {}) confirms a local change to wallet {}",
+                    event.getId(), event.getWalletSequence(), wallet.getId());
+            return;
+        }
+
         // Update balance from event (Source of Truth)
         // Since the ledger event contains balanceAfter, we just set it
         wallet.setAvailableBalance(event.getBalanceAfter());
@@ -0,0 +1,8 @@
+-- V2__Wallet_ledger_sequence.sql
+-- Ledger entries are captured in the outbox and applied by ledger-service
+-- asynchronously. Each wallet numbers its entries so the ledger can apply
+-- them in order and drop redeliveries.
+
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS ledger_sequence BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN wallets.ledger_sequence IS 'Sequence of the last ledger entry requested for this wallet';
@@ -0,0 +1,8 @@
+-- V3__Wallet_version.sql
+-- Wallet balances can be updated without SELECT ... FOR UPDATE, either by one
+-- conditional UPDATE or by a version-checked write. Every writer bumps the
+-- version, so the entity path and the lock-free paths can be mixed.
+
+ALTER TABLE wallets ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+
+COMMENT ON COLUMN wallets.version IS 'Optimistic lock version, bumped by every balance update';
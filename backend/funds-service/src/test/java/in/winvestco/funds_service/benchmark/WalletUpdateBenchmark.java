@@ -0,0 +1,130 @@
+package in.winvestco.funds_service.benchmark;
+
+import com.zaxxer.hikari.HikariDataSource;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
+import in.winvestco.funds_service.repository.WalletBalanceWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Balance updates per second with many threads hammering ONE wallet, against
+ * a real PostgreSQL funds schema (Flyway-migrated winvestco_funds_db or a
+ * scratch copy). Each invocation locks one unit and releases it again, in two
+ * transactions, so the balance stays put.
+ *
+ * - PESSIMISTIC: SELECT ... FOR UPDATE then UPDATE, the round trips of the
+ * entity path; every writer queues on the row lock for its whole transaction
+ * - ATOMIC: WalletBalanceWriter's single conditional UPDATE ... RETURNING
+ * - OPTIMISTIC: WalletBalanceWriter's version-checked write, retrying on
+ * conflict; shows how retries grow with contention
+ *
+ * Uses a wallet for a user id far above real ones and resets its balance on
+ * setup. Not run by surefire. Run with:
+ * mvn -pl funds-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=in.winvestco.funds_service.benchmark.WalletUpdateBenchmark
+ * -Dfunds.benchmark.url=jdbc:postgresql://127.0.0.1:5432/winvestco_funds_db
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Threads(32)
+@Fork(1)
+public class WalletUpdateBenchmark {
+
+    private static final long BENCHMARK_USER = 9_000_000_000L;
+    private static final BigDecimal AMOUNT = BigDecimal.ONE;
+
+    @Param({ "PESSIMISTIC", "ATOMIC", "OPTIMISTIC" })
+    private String mode;
+
+    private HikariDataSource dataSource;
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private WalletBalanceWriter writer;
+    private WalletUpdateProperties.Mode updateMode;
+    private long walletId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new HikariDataSource();
+        dataSource.setJdbcUrl(System.getProperty("funds.benchmark.url",
+                "jdbc:postgresql://127.0.0.1:5432/winvestco_funds_db"));
+        dataSource.setUsername(System.getProperty("funds.benchmark.username", "postgres"));
+        dataSource.setPassword(System.getProperty("funds.benchmark.password", "postgres"));
+        dataSource.setMaximumPoolSize(32);
+
+        WalletUpdateProperties properties = new WalletUpdateProperties();
+        properties.setOptimisticMaxAttempts(1000);
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new WalletBalanceWriter(dataSource, properties);
+        updateMode = WalletUpdateProperties.Mode.valueOf(mode);
+        walletId = jdbcTemplate.queryForObject(
+                "INSERT INTO wallets (user_id, available_balance, locked_balance, currency, status, created_at) "
+                        + "VALUES (?, 1000000, 0, 'INR', 'ACTIVE', now()) "
+                        + "ON CONFLICT (user_id) DO UPDATE SET available_balance = 1000000, locked_balance = 0 "
+                        + "RETURNING id",
+                Long.class, BENCHMARK_USER);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        dataSource.close();
+    }
+
+    /**
+     * Reported per balance update: a lock and its release.
+     */
+    @Benchmark
+    @OperationsPerInvocation(2)
+    public void lockAndRelease() {
+        if (updateMode == WalletUpdateProperties.Mode.PESSIMISTIC) {
+            transactionTemplate.executeWithoutResult(status -> lockedUpdate(
+                    "available_balance = available_balance - ?, locked_balance = locked_balance + ?"));
+            transactionTemplate.executeWithoutResult(status -> lockedUpdate(
+                    "locked_balance = locked_balance - ?, available_balance = available_balance + ?"));
+        } else {
+            transactionTemplate.executeWithoutResult(
+                    status -> writer.lockFunds(BENCHMARK_USER, AMOUNT, updateMode));
+            transactionTemplate.executeWithoutResult(
+                    status -> writer.unlockFunds(walletId, AMOUNT, updateMode));
+        }
+    }
+
+    private void lockedUpdate(String set) {
+        jdbcTemplate.queryForMap("SELECT * FROM wallets WHERE id = ? FOR UPDATE", walletId);
+        jdbcTemplate.update("UPDATE wallets SET " + set + ", ledger_sequence = ledger_sequence + 1, "
+                + "version = version + 1, updated_at = now() WHERE id = ?", AMOUNT, AMOUNT, walletId);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(WalletUpdateBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
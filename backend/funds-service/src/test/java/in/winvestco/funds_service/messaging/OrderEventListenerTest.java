@@ -1,17 +1,23 @@
 package in.winvestco.funds_service.messaging;
 
+import in.winvestco.common.config.RabbitMQConfig;
 import in.winvestco.common.enums.LockStatus;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.event.OrderCancelledEvent;
 import in.winvestco.common.event.OrderValidatedEvent;
 import in.winvestco.common.messaging.idempotency.IdempotencyService;
+import in.winvestco.funds_service.config.WalletLockProperties;
 import in.winvestco.funds_service.dto.FundsLockDTO;
 import in.winvestco.funds_service.exception.InsufficientFundsException;
 import in.winvestco.funds_service.model.Wallet;
+import in.winvestco.funds_service.repository.FundsLockRepository;
 import in.winvestco.funds_service.repository.WalletRepository;
 import in.winvestco.funds_service.service.FundsEventPublisher;
 import in.winvestco.funds_service.service.FundsLockService;
+import in.winvestco.funds_service.service.FundsLockService.BatchLockResult;
+import in.winvestco.funds_service.service.WalletLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -19,10 +25,18 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.*;
@@ -45,9 +59,23 @@ class OrderEventListenerTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private FundsLockRepository fundsLockRepository;
+
     @Mock
     private IdempotencyService idempotencyService;
 
+    @Spy
+    private WalletLockManager walletLockManager =
+            new WalletLockManager(new WalletLockProperties(), new SimpleMeterRegistry());
+
+    @Spy
+    private TransactionTemplate transactionTemplate =
+            new TransactionTemplate(mock(PlatformTransactionManager.class));
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
     @InjectMocks
     private OrderEventListener orderEventListener;
 
@@ -166,6 +194,129 @@ class OrderEventListenerTest {
 
             verify(idempotencyService, never()).markAsProcessed(anyString(), anyString());
         }
+
+        @Test
+        @DisplayName("Should take the wallet lock stripe before opening the transaction")
+        void handleOrderValidated_ShouldLockWalletBeforeTransaction() {
+            // Arrange
+            when(walletRepository.findIdByUserId(100L)).thenReturn(Optional.of(1L));
+            when(idempotencyService.exists(anyString())).thenReturn(true);
+
+            // Act
+            orderEventListener.handleOrderValidated(validatedEvent);
+
+            // Assert
+            var inOrder = inOrder(walletLockManager, transactionTemplate);
+            inOrder.verify(walletLockManager).withWalletLock(eq(1L), any(Runnable.class));
+            inOrder.verify(transactionTemplate).executeWithoutResult(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("handleOrderValidatedBatch tests")
+    class HandleOrderValidatedBatchTests {
+
+        private OrderValidatedEvent otherOrder;
+
+        @BeforeEach
+        void setUpBatch() {
+            otherOrder = OrderValidatedEvent.builder()
+                    .orderId("ORD-456")
+                    .userId(100L)
+                    .symbol("TCS")
+                    .side(OrderSide.BUY)
+                    .orderType(OrderType.LIMIT)
+                    .quantity(new BigDecimal("10"))
+                    .price(new BigDecimal("4000.00"))
+                    .totalAmount(new BigDecimal("40000.00"))
+                    .correlationId(UUID.randomUUID().toString())
+                    .build();
+            lenient().when(idempotencyService.findProcessed(anyList())).thenReturn(Set.of());
+            lenient().when(walletRepository.findIdsByUserIds(anyCollection()))
+                    .thenReturn(List.<Object[]>of(new Object[] { 100L, 1L }));
+        }
+
+        @Test
+        @DisplayName("Should lock one user's orders together and mark them processed in bulk")
+        void handleOrderValidatedBatch_ShouldGroupByWallet() {
+            // Arrange - the second order does not fit in the balance
+            InsufficientFundsException insufficient =
+                    new InsufficientFundsException(new BigDecimal("40000.00"), new BigDecimal("25000.00"));
+            when(fundsLockService.lockFundsBatch(eq(100L), anyList())).thenReturn(new BatchLockResult(
+                    testWallet, Map.of("ORD-123", testLockDTO), Map.of("ORD-456", insufficient)));
+
+            // Act
+            orderEventListener.handleOrderValidatedBatch(List.of(validatedEvent, otherOrder));
+
+            // Assert
+            verify(fundsLockService, times(1)).lockFundsBatch(eq(100L), argThat(orders -> orders.size() == 2));
+            verify(walletLockManager, times(1)).withWalletLock(eq(1L), any(Runnable.class));
+            verify(transactionTemplate, times(1)).executeWithoutResult(any());
+            verify(fundsEventPublisher).publishFundsLockedWithDetails(
+                    eq(100L), eq(testWallet), eq(testLockDTO),
+                    eq("RELIANCE"), eq(OrderSide.BUY), eq(OrderType.LIMIT),
+                    eq(new BigDecimal("10")), eq(new BigDecimal("2500.00")));
+            verify(fundsEventPublisher).publishOrderRejected(eq("ORD-456"), eq(100L), anyString(), any(), any(),
+                    any(), any(), contains("Insufficient funds"));
+            verify(idempotencyService).markAllAsProcessed(List.of(validatedEvent.getCorrelationId()),
+                    "FundsService-OrderValidated");
+            verify(idempotencyService).markAllAsProcessed(List.of(otherOrder.getCorrelationId()),
+                    "FundsService-OrderValidated-Rejected");
+            verify(fundsLockService, never()).lockFunds(anyLong(), anyString(), any(), anyString());
+        }
+
+        @Test
+        @DisplayName("Should skip processed events and redeliveries within the batch")
+        void handleOrderValidatedBatch_ShouldSkipProcessed() {
+            // Arrange
+            when(idempotencyService.findProcessed(anyList())).thenReturn(Set.of(otherOrder.getCorrelationId()));
+            when(fundsLockService.lockFundsBatch(eq(100L), anyList()))
+                    .thenReturn(new BatchLockResult(testWallet, Map.of("ORD-123", testLockDTO), Map.of()));
+
+            // Act
+            orderEventListener.handleOrderValidatedBatch(List.of(validatedEvent, otherOrder, validatedEvent));
+
+            // Assert
+            verify(fundsLockService).lockFundsBatch(eq(100L),
+                    argThat(orders -> orders.size() == 1 && orders.get(0).orderId().equals("ORD-123")));
+        }
+
+        @Test
+        @DisplayName("Should fall back to one-by-one and dead-letter the failing order")
+        void handleOrderValidatedBatch_OnRejectedGroup_ShouldProcessIndividually() {
+            // Arrange
+            when(fundsLockService.lockFundsBatch(eq(100L), anyList()))
+                    .thenThrow(new IllegalStateException("Wallet is frozen"));
+            when(walletRepository.findIdByUserId(100L)).thenReturn(Optional.of(1L));
+            when(idempotencyService.exists(anyString())).thenReturn(false);
+            when(fundsLockService.lockFunds(eq(100L), eq("ORD-123"), any(), anyString())).thenReturn(testLockDTO);
+            when(fundsLockService.lockFunds(eq(100L), eq("ORD-456"), any(), anyString()))
+                    .thenThrow(new IllegalStateException("Wallet is frozen"));
+            when(walletRepository.findByUserId(100L)).thenReturn(Optional.of(testWallet));
+
+            // Act
+            orderEventListener.handleOrderValidatedBatch(List.of(validatedEvent, otherOrder));
+
+            // Assert
+            verify(idempotencyService).markAsProcessed(validatedEvent.getCorrelationId(), "FundsService-OrderValidated");
+            verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, otherOrder);
+            verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), eq(validatedEvent));
+        }
+
+        @Test
+        @DisplayName("Should rethrow when the database is unavailable so the batch is requeued")
+        void handleOrderValidatedBatch_DatabaseDown_ShouldRethrow() {
+            // Arrange
+            when(fundsLockService.lockFundsBatch(eq(100L), anyList()))
+                    .thenThrow(new DataAccessResourceFailureException("Connection refused"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> orderEventListener.handleOrderValidatedBatch(List.of(validatedEvent)))
+                    .isInstanceOf(DataAccessResourceFailureException.class);
+
+            verify(fundsLockService, never()).lockFunds(anyLong(), anyString(), any(), anyString());
+            verifyNoInteractions(rabbitTemplate);
+        }
     }
 
     @Nested
@@ -187,6 +338,20 @@ class OrderEventListenerTest {
             verify(idempotencyService).markAsProcessed(anyString(), anyString());
         }
 
+        @Test
+        @DisplayName("Should lock the stripe of the wallet holding the order's funds")
+        void handleOrderCancelled_ShouldLockLockedWallet() {
+            // Arrange
+            when(fundsLockRepository.findWalletIdByOrderId("ORD-123")).thenReturn(Optional.of(7L));
+            when(idempotencyService.exists(anyString())).thenReturn(true);
+
+            // Act
+            orderEventListener.handleOrderCancelled(cancelledEvent);
+
+            // Assert
+            verify(walletLockManager).withWalletLock(eq(7L), any(Runnable.class));
+        }
+
         @Test
         @DisplayName("Should skip duplicate cancellation events")
         void handleOrderCancelled_DuplicateEvent_ShouldSkip() {
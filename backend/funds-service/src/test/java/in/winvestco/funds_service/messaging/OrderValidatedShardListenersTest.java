@@ -0,0 +1,122 @@
+package in.winvestco.funds_service.messaging;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.event.OrderValidatedEvent;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.core.Message;
+import org.springframework.amqp.core.MessageProperties;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerEndpoint;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.amqp.rabbit.listener.RabbitListenerEndpointRegistrar;
+import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
+
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("OrderValidatedShardListeners Tests")
+class OrderValidatedShardListenersTest {
+
+    @Mock
+    private OrderEventListener orderEventListener;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @Mock
+    private SimpleRabbitListenerContainerFactory containerFactory;
+
+    @Mock
+    private RabbitListenerEndpointRegistrar registrar;
+
+    private Jackson2JsonMessageConverter messageConverter;
+    private OrderValidatedShardListeners listeners;
+
+    @BeforeEach
+    void setUp() {
+        messageConverter = new Jackson2JsonMessageConverter(new ObjectMapper().registerModule(new JavaTimeModule()));
+        listeners = new OrderValidatedShardListeners(orderEventListener, messageConverter, rabbitTemplate,
+                containerFactory, 3);
+    }
+
+    @Test
+    @DisplayName("Should register one batch container per shard queue")
+    void configureRabbitListeners_ShouldRegisterEachShard() {
+        // When
+        listeners.configureRabbitListeners(registrar);
+
+        // Then
+        ArgumentCaptor<SimpleRabbitListenerEndpoint> endpoints =
+                ArgumentCaptor.forClass(SimpleRabbitListenerEndpoint.class);
+        verify(registrar, times(3)).registerEndpoint(endpoints.capture(), eq(containerFactory));
+        assertThat(endpoints.getAllValues())
+                .extracting(endpoint -> endpoint.getQueueNames().iterator().next())
+                .containsExactly("order.validated.funds.queue.0", "order.validated.funds.queue.1",
+                        "order.validated.funds.queue.2");
+        assertThat(endpoints.getAllValues()).allMatch(SimpleRabbitListenerEndpoint::isBatchListener);
+    }
+
+    @Test
+    @DisplayName("Should convert a batch and hand it to the order listener")
+    @SuppressWarnings("unchecked")
+    void onMessageBatch_ShouldForwardEvents() {
+        // When
+        listeners.onMessageBatch(List.of(message(event("ORD-1")), message(event("ORD-2"))));
+
+        // Then
+        ArgumentCaptor<List<OrderValidatedEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(orderEventListener).handleOrderValidatedBatch(events.capture());
+        assertThat(events.getValue()).extracting(OrderValidatedEvent::getOrderId).containsExactly("ORD-1", "ORD-2");
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter an unreadable message and process the rest")
+    @SuppressWarnings("unchecked")
+    void onMessageBatch_ShouldDeadLetterUnreadableMessage() {
+        // Given
+        MessageProperties properties = new MessageProperties();
+        properties.setContentType(MessageProperties.CONTENT_TYPE_JSON);
+        Message unreadable = new Message("{not json".getBytes(StandardCharsets.UTF_8), properties);
+
+        // When
+        listeners.onMessageBatch(List.of(unreadable, message(event("ORD-1"))));
+
+        // Then
+        verify(rabbitTemplate).send(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, unreadable);
+        ArgumentCaptor<List<OrderValidatedEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(orderEventListener).handleOrderValidatedBatch(events.capture());
+        assertThat(events.getValue()).extracting(OrderValidatedEvent::getOrderId).containsExactly("ORD-1");
+    }
+
+    private Message message(OrderValidatedEvent event) {
+        return messageConverter.toMessage(event, new MessageProperties());
+    }
+
+    private static OrderValidatedEvent event(String orderId) {
+        return OrderValidatedEvent.builder()
+                .orderId(orderId)
+                .userId(1L)
+                .symbol("RELIANCE")
+                .side(OrderSide.BUY)
+                .totalAmount(new BigDecimal("1000.00"))
+                .validatedAt(Instant.now())
+                .build();
+    }
+}
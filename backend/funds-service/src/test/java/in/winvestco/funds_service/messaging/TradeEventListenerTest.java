@@ -3,14 +3,19 @@ package in.winvestco.funds_service.messaging;
 import com.rabbitmq.client.Channel;
 import in.winvestco.common.enums.LockStatus;
 import in.winvestco.common.event.TradeFailedEvent;
+import in.winvestco.funds_service.config.WalletLockProperties;
 import in.winvestco.funds_service.dto.FundsLockDTO;
+import in.winvestco.funds_service.repository.FundsLockRepository;
 import in.winvestco.funds_service.service.FundsLockService;
+import in.winvestco.funds_service.service.WalletLockManager;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.io.IOException;
@@ -30,6 +35,13 @@ class TradeEventListenerTest {
     @Mock
     private FundsLockService fundsLockService;
 
+    @Mock
+    private FundsLockRepository fundsLockRepository;
+
+    @Spy
+    private WalletLockManager walletLockManager =
+            new WalletLockManager(new WalletLockProperties(), new SimpleMeterRegistry());
+
     @Mock
     private Channel channel;
 
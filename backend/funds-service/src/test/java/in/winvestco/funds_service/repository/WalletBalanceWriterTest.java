@@ -0,0 +1,186 @@
+package in.winvestco.funds_service.repository;
+
+import in.winvestco.common.enums.WalletStatus;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
+import in.winvestco.funds_service.config.WalletUpdateProperties.Mode;
+import in.winvestco.funds_service.exception.InsufficientFundsException;
+import in.winvestco.funds_service.exception.WalletNotFoundException;
+import in.winvestco.funds_service.model.Wallet;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.OptimisticLockingFailureException;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+
+import java.math.BigDecimal;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("WalletBalanceWriter Tests")
+class WalletBalanceWriterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T10:00:00Z");
+
+    @Mock
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private WalletUpdateProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new WalletUpdateProperties();
+        properties.setOptimisticMaxAttempts(3);
+    }
+
+    @Test
+    @DisplayName("Should lock funds with one conditional UPDATE ... RETURNING on PostgreSQL")
+    @SuppressWarnings("unchecked")
+    void lockFunds_Atomic_ShouldIssueSingleConditionalUpdate() {
+        // Given
+        Wallet updated = wallet(new BigDecimal("900"), new BigDecimal("100"), 4L, 7L);
+        when(jdbcTemplate.query(startsWith("UPDATE"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(updated));
+
+        // When
+        Wallet result = writer(true).lockFunds(100L, new BigDecimal("100"), Mode.ATOMIC);
+
+        // Then
+        assertSame(updated, result);
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate).query(sql.capture(), any(SqlParameterSource.class), any(RowMapper.class));
+        assertTrue(sql.getValue().contains("WHERE user_id = :key AND available_balance >= :amount"));
+        assertTrue(sql.getValue().contains("ledger_sequence = ledger_sequence + 1"));
+        assertTrue(sql.getValue().contains("RETURNING"));
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Should report insufficient funds when the conditional update matches nothing")
+    @SuppressWarnings("unchecked")
+    void debit_AtomicRejected_ShouldThrowInsufficientFunds() {
+        // Given
+        when(jdbcTemplate.query(startsWith("UPDATE"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+        when(jdbcTemplate.query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(wallet(new BigDecimal("50"), BigDecimal.ZERO, 1L, 1L)));
+
+        // When / Then
+        InsufficientFundsException e = assertThrows(InsufficientFundsException.class,
+                () -> writer(true).debit(100L, new BigDecimal("100"), Mode.ATOMIC));
+        assertEquals(new BigDecimal("50"), e.getAvailable());
+    }
+
+    @Test
+    @DisplayName("Should report a missing wallet when the conditional update matches nothing")
+    @SuppressWarnings("unchecked")
+    void settleFunds_AtomicMissingWallet_ShouldThrowNotFound() {
+        // Given
+        when(jdbcTemplate.query(anyString(), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of());
+
+        // When / Then
+        assertThrows(WalletNotFoundException.class,
+                () -> writer(true).settleFunds(1L, new BigDecimal("100"), Mode.ATOMIC));
+    }
+
+    @Test
+    @DisplayName("Should write back only if the version is unchanged, retrying on conflict")
+    @SuppressWarnings("unchecked")
+    void credit_Optimistic_ShouldRetryOnVersionConflict() {
+        // Given - the first write loses to a concurrent update
+        when(jdbcTemplate.query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(wallet(new BigDecimal("1000"), BigDecimal.ZERO, 4L, 7L)),
+                        List.of(wallet(new BigDecimal("1200"), BigDecimal.ZERO, 5L, 8L)));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(0, 1);
+
+        // When
+        Wallet result = writer(true).credit(100L, new BigDecimal("100"), Mode.OPTIMISTIC);
+
+        // Then
+        assertEquals(new BigDecimal("1300"), result.getAvailableBalance());
+        assertEquals(6L, result.getLedgerSequence());
+        assertEquals(9L, result.getVersion());
+        ArgumentCaptor<SqlParameterSource> params = ArgumentCaptor.forClass(SqlParameterSource.class);
+        verify(jdbcTemplate, times(2)).update(contains("AND version = :version"), params.capture());
+        assertEquals(7L, params.getAllValues().get(0).getValue("version"));
+        assertEquals(8L, params.getAllValues().get(1).getValue("version"));
+    }
+
+    @Test
+    @DisplayName("Should give up after the configured number of version conflicts")
+    @SuppressWarnings("unchecked")
+    void lockFunds_OptimisticKeepsConflicting_ShouldFail() {
+        // Given
+        when(jdbcTemplate.query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> List.of(wallet(new BigDecimal("1000"), BigDecimal.ZERO, 1L, 1L)));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(0);
+
+        // When / Then
+        assertThrows(OptimisticLockingFailureException.class,
+                () -> writer(true).lockFunds(100L, new BigDecimal("100"), Mode.OPTIMISTIC));
+        verify(jdbcTemplate, times(3)).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Should check the balance before writing in OPTIMISTIC mode")
+    @SuppressWarnings("unchecked")
+    void unlockFunds_OptimisticInsufficientLocked_ShouldNotWrite() {
+        // Given
+        when(jdbcTemplate.query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(wallet(new BigDecimal("1000"), new BigDecimal("50"), 1L, 1L)));
+
+        // When / Then
+        assertThrows(IllegalStateException.class,
+                () -> writer(true).unlockFunds(1L, new BigDecimal("100"), Mode.OPTIMISTIC));
+        verify(jdbcTemplate, never()).update(anyString(), any(SqlParameterSource.class));
+    }
+
+    @Test
+    @DisplayName("Should run ATOMIC as a version-checked write without UPDATE ... RETURNING")
+    @SuppressWarnings("unchecked")
+    void lockFunds_AtomicOnOtherDatabase_ShouldFallBackToOptimistic() {
+        // Given
+        when(jdbcTemplate.query(startsWith("SELECT"), any(SqlParameterSource.class), any(RowMapper.class)))
+                .thenReturn(List.of(wallet(new BigDecimal("1000"), BigDecimal.ZERO, 1L, 1L)));
+        when(jdbcTemplate.update(anyString(), any(SqlParameterSource.class))).thenReturn(1);
+
+        // When
+        Wallet result = writer(false).lockFunds(100L, new BigDecimal("100"), Mode.ATOMIC);
+
+        // Then
+        assertEquals(new BigDecimal("900"), result.getAvailableBalance());
+        assertEquals(new BigDecimal("100"), result.getLockedBalance());
+        verify(jdbcTemplate, never()).query(startsWith("UPDATE"), any(SqlParameterSource.class),
+                any(RowMapper.class));
+    }
+
+    private WalletBalanceWriter writer(boolean postgres) {
+        return new WalletBalanceWriter(jdbcTemplate, properties, Clock.fixed(NOW, ZoneOffset.UTC), postgres);
+    }
+
+    private static Wallet wallet(BigDecimal available, BigDecimal locked, long ledgerSequence, long version) {
+        return Wallet.builder()
+                .id(1L)
+                .userId(100L)
+                .availableBalance(available)
+                .lockedBalance(locked)
+                .currency("INR")
+                .status(WalletStatus.ACTIVE)
+                .ledgerSequence(ledgerSequence)
+                .version(version)
+                .build();
+    }
+}
@@ -10,6 +10,7 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -99,6 +100,15 @@ class WalletRepositoryTest {
         assertEquals(walletId, found.get().getId());
     }
 
+    @Test
+    void findIdsByUserIds_ShouldReturnUserAndWalletIdPairs() {
+        List<Object[]> rows = walletRepository.findIdsByUserIds(List.of(USER_ID_1, USER_ID_2, 999L));
+
+        assertEquals(2, rows.size());
+        assertTrue(rows.stream().anyMatch(row -> USER_ID_1.equals(row[0]) && wallet1.getId().equals(row[1])));
+        assertTrue(rows.stream().anyMatch(row -> USER_ID_2.equals(row[0]) && wallet2.getId().equals(row[1])));
+    }
+
     @Test
     void save_ShouldPersistWallet() {
         Wallet newWallet = Wallet.builder()
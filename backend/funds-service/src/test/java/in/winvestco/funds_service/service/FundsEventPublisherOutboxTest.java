@@ -1,16 +1,20 @@
 package in.winvestco.funds_service.service;
 
+import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.event.FundsDepositedEvent;
+import in.winvestco.common.event.LedgerEntryRequestedEvent;
 import in.winvestco.common.messaging.outbox.OutboxService;
 import in.winvestco.funds_service.model.Wallet;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -52,4 +56,25 @@ class FundsEventPublisherOutboxTest {
                 any(FundsDepositedEvent.class)
         );
     }
+
+    @Test
+    void shouldCaptureLedgerEntryRequestKeyedByWallet() {
+        // When
+        fundsEventPublisher.publishLedgerEntryRequested(456L, 7L, LedgerEntryType.LOCK,
+                new BigDecimal("100.00"), new BigDecimal("1000.00"), new BigDecimal("900.00"),
+                "ORD-1", "ORDER", "Funds locked for order: ORD-1");
+
+        // Then
+        ArgumentCaptor<LedgerEntryRequestedEvent> event = ArgumentCaptor.forClass(LedgerEntryRequestedEvent.class);
+        verify(outboxService).captureEvent(
+                eq("Wallet"),
+                eq("456"),
+                eq("ledger.exchange"),
+                eq("ledger.entry.requested"),
+                event.capture()
+        );
+        assertEquals(456L, event.getValue().getWalletId());
+        assertEquals(7L, event.getValue().getWalletSequence());
+        assertEquals(new BigDecimal("900.00"), event.getValue().getBalanceAfter());
+    }
 }
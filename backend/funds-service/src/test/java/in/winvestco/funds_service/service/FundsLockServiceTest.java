@@ -1,7 +1,8 @@
 package in.winvestco.funds_service.service;
 
+import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.enums.LockStatus;
-import in.winvestco.funds_service.client.LedgerClient;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
 import in.winvestco.funds_service.dto.FundsLockDTO;
 import in.winvestco.funds_service.exception.DuplicateLockException;
 import in.winvestco.funds_service.exception.FundsLockNotFoundException;
@@ -10,6 +11,7 @@ import in.winvestco.funds_service.mapper.FundsMapper;
 import in.winvestco.funds_service.model.FundsLock;
 import in.winvestco.funds_service.model.Wallet;
 import in.winvestco.funds_service.repository.FundsLockRepository;
+import in.winvestco.funds_service.repository.WalletBalanceWriter;
 import in.winvestco.funds_service.repository.WalletRepository;
 import io.micrometer.core.instrument.MeterRegistry;
 import io.micrometer.core.instrument.Timer;
@@ -20,6 +22,7 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -46,7 +49,10 @@ class FundsLockServiceTest {
     private WalletRepository walletRepository;
 
     @Mock
-    private LedgerClient ledgerClient;
+    private WalletBalanceWriter walletBalanceWriter;
+
+    @Spy
+    private WalletUpdateProperties walletUpdateProperties = new WalletUpdateProperties();
 
     @Mock
     private FundsMapper fundsMapper;
@@ -114,7 +120,9 @@ class FundsLockServiceTest {
             // Assert
             assertThat(result).isNotNull();
             assertThat(result.getOrderId()).isEqualTo("ORD-123");
-            verify(ledgerClient).recordEntry(any());
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.LOCK),
+                    any(), any(), any(), eq("ORD-123"), any(), any());
+            assertThat(testWallet.getLedgerSequence()).isEqualTo(1L);
             verify(fundsLockRepository).save(any(FundsLock.class));
         }
 
@@ -158,6 +166,124 @@ class FundsLockServiceTest {
                     .isInstanceOf(RuntimeException.class)
                     .hasMessageContaining("Wallet not found");
         }
+        @Test
+        @DisplayName("Should lock funds with one conditional update in ATOMIC mode")
+        void lockFunds_AtomicMode_ShouldUseBalanceWriter() {
+            // Arrange
+            walletUpdateProperties.setLock(WalletUpdateProperties.Mode.ATOMIC);
+            Wallet updated = Wallet.builder()
+                    .id(1L)
+                    .userId(100L)
+                    .availableBalance(new BigDecimal("9000.00"))
+                    .lockedBalance(new BigDecimal("1000.00"))
+                    .ledgerSequence(8L)
+                    .build();
+            when(fundsLockRepository.existsByOrderId("ORD-123")).thenReturn(false);
+            when(walletBalanceWriter.lockFunds(100L, new BigDecimal("1000.00"), WalletUpdateProperties.Mode.ATOMIC))
+                    .thenReturn(updated);
+            when(fundsLockRepository.save(any(FundsLock.class))).thenReturn(testLock);
+            when(fundsMapper.toFundsLockDTO(any(FundsLock.class))).thenReturn(testLockDTO);
+
+            // Act
+            fundsLockService.lockFunds(100L, "ORD-123", new BigDecimal("1000.00"), "Test lock");
+
+            // Assert
+            verify(walletRepository, never()).findByUserIdForUpdate(anyLong());
+            verify(walletRepository, never()).save(any(Wallet.class));
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(8L), eq(LedgerEntryType.LOCK),
+                    eq(new BigDecimal("1000.00")), eq(new BigDecimal("10000.00")), eq(new BigDecimal("9000.00")),
+                    eq("ORD-123"), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should not create a lock when the conditional update rejects it")
+        void lockFunds_AtomicModeInsufficientBalance_ShouldThrowException() {
+            // Arrange
+            walletUpdateProperties.setLock(WalletUpdateProperties.Mode.ATOMIC);
+            when(fundsLockRepository.existsByOrderId("ORD-123")).thenReturn(false);
+            when(walletBalanceWriter.lockFunds(anyLong(), any(), any()))
+                    .thenThrow(new InsufficientFundsException(new BigDecimal("1000.00"), new BigDecimal("500.00")));
+
+            // Act & Assert
+            assertThatThrownBy(() -> fundsLockService.lockFunds(100L, "ORD-123", new BigDecimal("1000.00"), "Test"))
+                    .isInstanceOf(InsufficientFundsException.class);
+
+            verify(fundsLockRepository, never()).save(any());
+        }
+    }
+
+    @Nested
+    @DisplayName("lockFundsBatch tests")
+    class LockFundsBatchTests {
+
+        @Test
+        @DisplayName("Should lock the wallet once and reject orders the balance cannot cover")
+        void lockFundsBatch_Pessimistic_ShouldLockWalletOnce() {
+            // Arrange - 10000 available covers the first and third orders only
+            when(fundsLockRepository.findOrderIdsIn(anyList())).thenReturn(List.of());
+            when(walletRepository.findByUserIdForUpdate(100L)).thenReturn(Optional.of(testWallet));
+            when(fundsLockRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(fundsMapper.toFundsLockDTO(any(FundsLock.class))).thenReturn(testLockDTO);
+
+            // Act
+            FundsLockService.BatchLockResult result = fundsLockService.lockFundsBatch(100L, List.of(
+                    new FundsLockService.OrderLock("ORD-1", new BigDecimal("6000.00"), "Order placed"),
+                    new FundsLockService.OrderLock("ORD-2", new BigDecimal("5000.00"), "Order placed"),
+                    new FundsLockService.OrderLock("ORD-3", new BigDecimal("4000.00"), "Order placed")));
+
+            // Assert
+            assertThat(result.locked()).containsOnlyKeys("ORD-1", "ORD-3");
+            assertThat(result.rejected()).containsOnlyKeys("ORD-2");
+            assertThat(testWallet.getAvailableBalance()).isEqualByComparingTo("0.00");
+            assertThat(testWallet.getLedgerSequence()).isEqualTo(2L);
+            verify(walletRepository, times(1)).findByUserIdForUpdate(100L);
+            verify(walletRepository, times(1)).save(testWallet);
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.LOCK),
+                    any(), any(), any(), eq("ORD-1"), any(), any());
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(2L), eq(LedgerEntryType.LOCK),
+                    any(), any(), any(), eq("ORD-3"), any(), any());
+        }
+
+        @Test
+        @DisplayName("Should fail the whole batch on a duplicate order")
+        void lockFundsBatch_WithDuplicateOrder_ShouldThrowException() {
+            // Arrange
+            when(fundsLockRepository.findOrderIdsIn(anyList())).thenReturn(List.of("ORD-2"));
+
+            // Act & Assert
+            assertThatThrownBy(() -> fundsLockService.lockFundsBatch(100L, List.of(
+                    new FundsLockService.OrderLock("ORD-1", new BigDecimal("100.00"), "Order placed"),
+                    new FundsLockService.OrderLock("ORD-2", new BigDecimal("100.00"), "Order placed"))))
+                    .isInstanceOf(DuplicateLockException.class);
+
+            verify(walletRepository, never()).findByUserIdForUpdate(anyLong());
+            verify(fundsLockRepository, never()).saveAll(anyList());
+        }
+
+        @Test
+        @DisplayName("Should apply each order through the balance writer in ATOMIC mode")
+        void lockFundsBatch_Atomic_ShouldUseWriterPerOrder() {
+            // Arrange
+            walletUpdateProperties.setLock(WalletUpdateProperties.Mode.ATOMIC);
+            when(fundsLockRepository.findOrderIdsIn(anyList())).thenReturn(List.of());
+            when(walletBalanceWriter.lockFunds(100L, new BigDecimal("1000.00"), WalletUpdateProperties.Mode.ATOMIC))
+                    .thenReturn(testWallet);
+            when(walletBalanceWriter.lockFunds(100L, new BigDecimal("20000.00"), WalletUpdateProperties.Mode.ATOMIC))
+                    .thenThrow(new InsufficientFundsException(new BigDecimal("20000.00"), new BigDecimal("9000.00")));
+            when(fundsLockRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+            when(fundsMapper.toFundsLockDTO(any(FundsLock.class))).thenReturn(testLockDTO);
+
+            // Act
+            FundsLockService.BatchLockResult result = fundsLockService.lockFundsBatch(100L, List.of(
+                    new FundsLockService.OrderLock("ORD-1", new BigDecimal("1000.00"), "Order placed"),
+                    new FundsLockService.OrderLock("ORD-2", new BigDecimal("20000.00"), "Order placed")));
+
+            // Assert
+            assertThat(result.locked()).containsOnlyKeys("ORD-1");
+            assertThat(result.rejected()).containsOnlyKeys("ORD-2");
+            verify(walletRepository, never()).findByUserIdForUpdate(anyLong());
+            verify(walletRepository, never()).save(any(Wallet.class));
+        }
     }
 
     @Nested
@@ -186,7 +312,8 @@ class FundsLockServiceTest {
 
             // Assert
             assertThat(result).isNotNull();
-            verify(ledgerClient).recordEntry(any());
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.UNLOCK),
+                    any(), any(), any(), eq("ORD-123"), any(), any());
             verify(fundsEventPublisher).publishFundsReleased(eq(100L), eq(testWallet), eq(testLock), anyString());
         }
 
@@ -215,7 +342,30 @@ class FundsLockServiceTest {
             // Assert
             assertThat(result).isNotNull();
             verify(walletRepository, never()).findByIdForUpdate(anyLong());
-            verify(ledgerClient, never()).recordEntry(any());
+            verify(fundsEventPublisher, never()).publishLedgerEntryRequested(any(), anyLong(), any(),
+                    any(), any(), any(), any(), any(), any());
+        }
+        @Test
+        @DisplayName("Should release funds without the row lock in OPTIMISTIC mode")
+        void releaseFunds_OptimisticMode_ShouldUseBalanceWriter() {
+            // Arrange
+            walletUpdateProperties.setRelease(WalletUpdateProperties.Mode.OPTIMISTIC);
+            testWallet.setLedgerSequence(3L);
+            when(fundsLockRepository.findByOrderId("ORD-123")).thenReturn(Optional.of(testLock));
+            when(walletBalanceWriter.unlockFunds(1L, new BigDecimal("1000.00"), WalletUpdateProperties.Mode.OPTIMISTIC))
+                    .thenReturn(testWallet);
+            when(fundsLockRepository.save(any(FundsLock.class))).thenReturn(testLock);
+            when(fundsMapper.toFundsLockDTO(any(FundsLock.class))).thenReturn(testLockDTO);
+
+            // Act
+            fundsLockService.releaseFunds("ORD-123", "Order cancelled");
+
+            // Assert
+            verify(walletRepository, never()).findByIdForUpdate(anyLong());
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(3L), eq(LedgerEntryType.UNLOCK),
+                    eq(new BigDecimal("1000.00")), eq(new BigDecimal("9000.00")), eq(new BigDecimal("10000.00")),
+                    eq("ORD-123"), any(), any());
+            assertThat(testLock.getStatus()).isEqualTo(LockStatus.RELEASED);
         }
     }
 
@@ -244,7 +394,8 @@ class FundsLockServiceTest {
 
             // Assert
             assertThat(result).isNotNull();
-            verify(ledgerClient).recordEntry(any());
+            verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.TRADE_BUY),
+                    any(), any(), any(), eq("ORD-123"), any(), any());
         }
 
         @Test
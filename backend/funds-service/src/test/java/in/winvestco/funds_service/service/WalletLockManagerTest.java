@@ -0,0 +1,112 @@
+package in.winvestco.funds_service.service;
+
+import in.winvestco.funds_service.config.WalletLockProperties;
+import in.winvestco.funds_service.exception.WalletLockTimeoutException;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.*;
+
+/**
+ * Unit tests for WalletLockManager.
+ */
+class WalletLockManagerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private WalletLockManager lockManager;
+
+    @BeforeEach
+    void setUp() {
+        WalletLockProperties properties = new WalletLockProperties();
+        properties.setStripes(4);
+        properties.setAcquireTimeoutMs(200);
+        meterRegistry = new SimpleMeterRegistry();
+        lockManager = new WalletLockManager(properties, meterRegistry);
+    }
+
+    @Test
+    @DisplayName("Should map wallets onto stripes by id")
+    void stripeOf_ShouldWrapByStripeCount() {
+        assertThat(lockManager.stripeCount()).isEqualTo(4);
+        assertThat(lockManager.stripeOf(1L)).isEqualTo(1);
+        assertThat(lockManager.stripeOf(5L)).isEqualTo(1);
+        assertThat(lockManager.stripeOf(-3L)).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should serialize updates to the same wallet")
+    void withWalletLock_SameWallet_ShouldNotOverlap() throws Exception {
+        AtomicInteger inside = new AtomicInteger();
+        AtomicInteger maxInside = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            for (int i = 0; i < 50; i++) {
+                executor.submit(() -> lockManager.withWalletLock(42L, () -> {
+                    maxInside.accumulateAndGet(inside.incrementAndGet(), Math::max);
+                    inside.decrementAndGet();
+                }));
+            }
+        } finally {
+            executor.shutdown();
+            assertThat(executor.awaitTermination(5, TimeUnit.SECONDS)).isTrue();
+        }
+
+        assertThat(maxInside.get()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should time out when the stripe stays held")
+    void withWalletLock_StripeHeld_ShouldTimeOut() throws Exception {
+        CountDownLatch held = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<?> holder = executor.submit(() -> lockManager.withWalletLock(1L, () -> {
+                held.countDown();
+                try {
+                    release.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }));
+            assertThat(held.await(1, TimeUnit.SECONDS)).isTrue();
+
+            // Wallet 5 shares stripe 1 with wallet 1
+            assertThatThrownBy(() -> lockManager.withWalletLock(5L, () -> "never"))
+                    .isInstanceOf(WalletLockTimeoutException.class)
+                    .hasMessageContaining("5");
+
+            release.countDown();
+            holder.get(1, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Should record wait time on the wallet's stripe")
+    void withWalletLock_ShouldRecordWaitPerStripe() {
+        assertThat(lockManager.withWalletLock(2L, () -> "done")).isEqualTo("done");
+
+        Timer stripe2 = meterRegistry.get(WalletLockManager.WAIT_TIMER).tag("stripe", "2").timer();
+        Timer stripe3 = meterRegistry.get(WalletLockManager.WAIT_TIMER).tag("stripe", "3").timer();
+        assertThat(stripe2.count()).isEqualTo(1);
+        assertThat(stripe3.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should run unlocked when the wallet is unknown")
+    void withWalletLock_NullWallet_ShouldRunAction() {
+        assertThat(lockManager.withWalletLock(null, () -> "ran")).isEqualTo("ran");
+    }
+}
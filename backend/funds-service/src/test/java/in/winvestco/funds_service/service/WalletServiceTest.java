@@ -1,16 +1,21 @@
 package in.winvestco.funds_service.service;
 
+import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.common.enums.WalletStatus;
+import in.winvestco.common.event.LedgerEntryEvent;
 import in.winvestco.funds_service.client.LedgerClient;
+import in.winvestco.funds_service.config.WalletUpdateProperties;
 import in.winvestco.funds_service.exception.InsufficientFundsException;
 import in.winvestco.funds_service.mapper.FundsMapper;
 import in.winvestco.funds_service.model.Wallet;
+import in.winvestco.funds_service.repository.WalletBalanceWriter;
 import in.winvestco.funds_service.repository.WalletRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
@@ -26,6 +31,12 @@ class WalletServiceTest {
     @Mock
     private WalletRepository walletRepository;
 
+    @Mock
+    private WalletBalanceWriter walletBalanceWriter;
+
+    @Spy
+    private WalletUpdateProperties walletUpdateProperties = new WalletUpdateProperties();
+
     @Mock
     private LedgerClient ledgerClient;
 
@@ -60,7 +71,11 @@ class WalletServiceTest {
         walletService.creditFunds(1L, new BigDecimal("500"), "DEP-123", "DEPOSIT", "Test credit");
 
         assertEquals(new BigDecimal("1500"), testWallet.getAvailableBalance());
-        verify(ledgerClient).recordEntry(any());
+        assertEquals(1L, testWallet.getLedgerSequence());
+        verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.DEPOSIT),
+                eq(new BigDecimal("500")), eq(new BigDecimal("1000")), eq(new BigDecimal("1500")),
+                eq("DEP-123"), eq("DEPOSIT"), eq("Test credit"));
+        verifyNoInteractions(ledgerClient);
         verify(fundsEventPublisher).publishFundsDeposited(eq(1L), eq(testWallet), eq(new BigDecimal("500")), any(),
                 eq("DEP-123"), eq("DEPOSIT"));
     }
@@ -73,7 +88,10 @@ class WalletServiceTest {
         walletService.debitFunds(1L, new BigDecimal("400"), "WD-123", "WITHDRAWAL", "Test debit");
 
         assertEquals(new BigDecimal("600"), testWallet.getAvailableBalance());
-        verify(ledgerClient).recordEntry(any());
+        verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(1L), eq(LedgerEntryType.WITHDRAWAL),
+                eq(new BigDecimal("400")), eq(new BigDecimal("1000")), eq(new BigDecimal("600")),
+                eq("WD-123"), eq("WITHDRAWAL"), eq("Test debit"));
+        verifyNoInteractions(ledgerClient);
         verify(fundsEventPublisher).publishFundsWithdrawn(eq(1L), eq(testWallet), eq(new BigDecimal("400")), any(),
                 eq("WD-123"), eq("WITHDRAWAL"), any());
     }
@@ -86,6 +104,40 @@ class WalletServiceTest {
                 () -> walletService.debitFunds(1L, new BigDecimal("1500"), "WD-123", "WITHDRAWAL", "Test"));
     }
 
+    @Test
+    void creditFunds_AtomicMode_ShouldUseBalanceWriter() {
+        walletUpdateProperties.setCredit(WalletUpdateProperties.Mode.ATOMIC);
+        Wallet updated = Wallet.builder()
+                .id(1L)
+                .userId(1L)
+                .availableBalance(new BigDecimal("1500"))
+                .lockedBalance(BigDecimal.ZERO)
+                .ledgerSequence(5L)
+                .build();
+        when(walletBalanceWriter.credit(1L, new BigDecimal("500"), WalletUpdateProperties.Mode.ATOMIC))
+                .thenReturn(updated);
+
+        Wallet result = walletService.creditFunds(1L, new BigDecimal("500"), "DEP-123", "DEPOSIT", "Test credit");
+
+        assertSame(updated, result);
+        verify(walletRepository, never()).findByUserIdForUpdate(anyLong());
+        verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(5L), eq(LedgerEntryType.DEPOSIT),
+                eq(new BigDecimal("500")), eq(new BigDecimal("1000")), eq(new BigDecimal("1500")),
+                eq("DEP-123"), eq("DEPOSIT"), eq("Test credit"));
+    }
+
+    @Test
+    void debitFunds_AtomicModeInsufficientBalance_ShouldThrowException() {
+        walletUpdateProperties.setDebit(WalletUpdateProperties.Mode.ATOMIC);
+        when(walletBalanceWriter.debit(anyLong(), any(), any()))
+                .thenThrow(new InsufficientFundsException(new BigDecimal("1500"), new BigDecimal("1000")));
+
+        assertThrows(InsufficientFundsException.class,
+                () -> walletService.debitFunds(1L, new BigDecimal("1500"), "WD-123", "WITHDRAWAL", "Test"));
+        verify(fundsEventPublisher, never()).publishLedgerEntryRequested(any(), anyLong(), any(), any(), any(),
+                any(), any(), any(), any());
+    }
+
     @Test
     void createWalletForUser_WhenNotExists_ShouldCreateNewWallet() {
         when(walletRepository.existsByUserId(anyLong())).thenReturn(false);
@@ -97,4 +149,55 @@ class WalletServiceTest {
         assertEquals(1L, result.getUserId());
         verify(walletRepository).save(any(Wallet.class));
     }
+
+    @Test
+    void creditFunds_ShouldNumberLedgerEntriesPerWallet() {
+        testWallet.setLedgerSequence(41L);
+        when(walletRepository.findByUserIdForUpdate(anyLong())).thenReturn(Optional.of(testWallet));
+        when(walletRepository.save(any(Wallet.class))).thenReturn(testWallet);
+
+        walletService.creditFunds(1L, new BigDecimal("10"), "DEP-1", "DEPOSIT", "First");
+        walletService.creditFunds(1L, new BigDecimal("20"), "DEP-2", "DEPOSIT", "Second");
+
+        verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(42L), any(), any(), any(), any(),
+                eq("DEP-1"), any(), any());
+        verify(fundsEventPublisher).publishLedgerEntryRequested(eq(1L), eq(43L), any(), any(), any(), any(),
+                eq("DEP-2"), any(), any());
+        assertEquals(43L, testWallet.getLedgerSequence());
+    }
+
+    @Test
+    void applyLedgerEvent_ForLocallyCapturedEntry_ShouldNotOverwriteBalance() {
+        // Entry seq 1 recorded after a later local change already moved the balance on
+        testWallet.setLedgerSequence(2L);
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testWallet));
+
+        walletService.applyLedgerEvent(ledgerEvent(10L, 1L, new BigDecimal("900")));
+
+        assertEquals(new BigDecimal("1000"), testWallet.getAvailableBalance());
+        assertEquals(10L, testWallet.getLastProcessedLedgerId());
+        verify(walletRepository).save(testWallet);
+    }
+
+    @Test
+    void applyLedgerEvent_ForDirectEntry_ShouldProjectBalance() {
+        when(walletRepository.findByIdForUpdate(1L)).thenReturn(Optional.of(testWallet));
+
+        walletService.applyLedgerEvent(ledgerEvent(10L, null, new BigDecimal("900")));
+
+        assertEquals(new BigDecimal("900"), testWallet.getAvailableBalance());
+        assertEquals(10L, testWallet.getLastProcessedLedgerId());
+    }
+
+    private static LedgerEntryEvent ledgerEvent(Long id, Long walletSequence, BigDecimal balanceAfter) {
+        return LedgerEntryEvent.builder()
+                .id(id)
+                .walletId(1L)
+                .walletSequence(walletSequence)
+                .entryType(LedgerEntryType.WITHDRAWAL)
+                .amount(new BigDecimal("100"))
+                .balanceBefore(new BigDecimal("1000"))
+                .balanceAfter(balanceAfter)
+                .build();
+    }
 }
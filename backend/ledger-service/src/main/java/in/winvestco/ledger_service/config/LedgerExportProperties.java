@@ -0,0 +1,27 @@
+package in.winvestco.ledger_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for streaming ledger export and reconciliation (ledger.export.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "ledger.export")
+@Getter
+@Setter
+public class LedgerExportProperties {
+
+    /**
+     * Upper bound for parallel reconciliation slices. Each slice holds its
+     * own database connection for the whole run.
+     */
+    private int maxParallelism = 4;
+
+    /**
+     * Entries written between flushes of the response.
+     */
+    private int flushEveryEntries = 1000;
+}
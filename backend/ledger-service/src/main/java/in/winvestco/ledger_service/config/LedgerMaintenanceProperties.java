@@ -0,0 +1,45 @@
+package in.winvestco.ledger_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for ledger partition, checkpoint and held entry maintenance
+ * (ledger.maintenance.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "ledger.maintenance")
+@Getter
+@Setter
+public class LedgerMaintenanceProperties {
+
+    /**
+     * Monthly ledger_entries partitions kept created ahead of the current
+     * month (PostgreSQL only).
+     */
+    private int partitionsAheadMonths = 3;
+
+    /**
+     * Interval in ms between partition maintenance runs.
+     */
+    private long partitionIntervalMs = 86400000;
+
+    /**
+     * Interval in ms between balance checkpoint runs.
+     */
+    private long checkpointIntervalMs = 3600000;
+
+    /**
+     * How far behind now a checkpoint is taken, in seconds. Entries still
+     * being committed with an older timestamp must not be left behind it.
+     */
+    private long checkpointSettleSeconds = 300;
+
+    /**
+     * Interval in ms between retries of wallets with held entries, which
+     * also refreshes the held entry gauges.
+     */
+    private long heldRetryIntervalMs = 60000;
+}
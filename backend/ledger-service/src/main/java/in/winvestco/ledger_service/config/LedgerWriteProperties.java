@@ -0,0 +1,33 @@
+package in.winvestco.ledger_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the ledger append path (ledger.write.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "ledger.write")
+@Getter
+@Setter
+public class LedgerWriteProperties {
+
+    /**
+     * Merge concurrent single-entry API writes into one transaction. Callers
+     * still block until their own entry is committed.
+     */
+    private boolean groupCommitEnabled = true;
+
+    /**
+     * Max entries committed together by one group commit.
+     */
+    private int groupCommitMaxEntries = 500;
+
+    /**
+     * Rows per multi-row INSERT statement. Each row binds 11 parameters,
+     * so this must stay below 65535 / 11 on PostgreSQL.
+     */
+    private int insertChunkSize = 1000;
+}
@@ -0,0 +1,89 @@
+package in.winvestco.ledger_service.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.core.Binding;
+import org.springframework.amqp.core.BindingBuilder;
+import org.springframework.amqp.core.Queue;
+import org.springframework.amqp.core.QueueBuilder;
+import org.springframework.amqp.core.TopicExchange;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import static in.winvestco.common.config.RabbitMQConfig.DLQ_EXCHANGE;
+import static in.winvestco.common.config.RabbitMQConfig.LEDGER_ENTRY_REQUESTED_ROUTING_KEY;
+
+/**
+ * Ledger-service specific RabbitMQ configuration.
+ * Uses exchanges defined in common module and only defines service-specific
+ * queues.
+ */
+@Configuration("ledgerServiceRabbitMQConfig")
+public class RabbitMQConfig {
+
+    public static final String LEDGER_ENTRY_REQUESTED_QUEUE = "ledger.entry.requested.queue";
+    public static final String LEDGER_BATCH_CONTAINER_FACTORY = "ledgerBatchListenerContainerFactory";
+
+    @Value("${ledger.intake.batch-size:500}")
+    private int batchSize;
+
+    @Value("${ledger.intake.batch-receive-timeout-ms:50}")
+    private long batchReceiveTimeoutMs;
+
+    /**
+     * Queue for ledger entries captured by funds-service.
+     * Single active consumer: only one ledger-service instance consumes at a
+     * time, so batches are recorded one after another. Entries may still be
+     * sent out of wallet-sequence order; LedgerService holds those.
+     */
+    @Bean("ledgerEntryRequestedQueue")
+    public Queue ledgerEntryRequestedQueue() {
+        return QueueBuilder.durable(LEDGER_ENTRY_REQUESTED_QUEUE)
+                .withArgument("x-dead-letter-exchange", DLQ_EXCHANGE)
+                .withArgument("x-dead-letter-routing-key", LEDGER_ENTRY_REQUESTED_QUEUE + ".dlq")
+                .singleActiveConsumer()
+                .build();
+    }
+
+    /**
+     * Binding for requested ledger entries to the ledger service queue.
+     */
+    @Bean("ledgerEntryRequestedBinding")
+    public Binding ledgerEntryRequestedBinding(
+            @Qualifier("ledgerEntryRequestedQueue") Queue ledgerEntryRequestedQueue,
+            @Qualifier("ledgerExchange") TopicExchange ledgerExchange) {
+        return BindingBuilder.bind(ledgerEntryRequestedQueue)
+                .to(ledgerExchange)
+                .with(LEDGER_ENTRY_REQUESTED_ROUTING_KEY);
+    }
+
+    /**
+     * Batch container for the ledger intake: up to batch-size messages, or
+     * whatever arrived within batch-receive-timeout-ms, are handed to the
+     * listener as one list and recorded in one transaction. One consumer
+     * thread, to keep the queue order. Failed batches are requeued, not
+     * dead-lettered; the listener dead-letters individual bad entries itself.
+     */
+    @Bean(LEDGER_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory ledgerBatchListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setConcurrentConsumers(1);
+        factory.setMaxConcurrentConsumers(1);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(batchSize);
+        factory.setPrefetchCount(batchSize);
+        factory.setReceiveTimeout(batchReceiveTimeoutMs);
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
+}
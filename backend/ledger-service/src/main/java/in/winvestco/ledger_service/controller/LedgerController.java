@@ -3,6 +3,10 @@ package in.winvestco.ledger_service.controller;
 import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
 import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.dto.LedgerHeldEntryDTO;
+import in.winvestco.ledger_service.dto.RecordLedgerEntriesRequest;
+import in.winvestco.ledger_service.service.LedgerExportService;
+import in.winvestco.ledger_service.service.LedgerGroupCommitter;
 import in.winvestco.ledger_service.service.LedgerService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.security.SecurityRequirement;
@@ -13,9 +17,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
+import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.math.BigDecimal;
 import java.time.Instant;
@@ -27,6 +35,7 @@ import java.util.List;
  * IMMUTABLE LEDGER API:
  * - POST (append new entries) - internal use only
  * - GET (query entries) - for audit and reconciliation
+ * - POST (release held entries, skip a missing wallet sequence) - operators
  * 
  * NO PUT, PATCH, or DELETE endpoints exist.
  */
@@ -39,6 +48,8 @@ import java.util.List;
 public class LedgerController {
 
     private final LedgerService ledgerService;
+    private final LedgerGroupCommitter ledgerGroupCommitter;
+    private final LedgerExportService ledgerExportService;
 
     // ==============================================
     // WRITE ENDPOINT - INSERT ONLY
@@ -48,10 +59,18 @@ public class LedgerController {
     @Operation(summary = "Record entry", description = "Append a new ledger entry (internal service use)")
     public ResponseEntity<LedgerEntryDTO> recordEntry(@Valid @RequestBody CreateLedgerEntryRequest request) {
         log.info("Recording ledger entry for wallet: {}", request.getWalletId());
-        LedgerEntryDTO entry = ledgerService.recordEntry(request);
+        LedgerEntryDTO entry = ledgerGroupCommitter.record(request);
         return ResponseEntity.status(HttpStatus.CREATED).body(entry);
     }
 
+    @PostMapping("/entries/batch")
+    @Operation(summary = "Record entries", description = "Append a batch of ledger entries in one transaction (internal service use)")
+    public ResponseEntity<List<LedgerEntryDTO>> recordEntries(@Valid @RequestBody RecordLedgerEntriesRequest request) {
+        log.info("Recording batch of {} ledger entries", request.getEntries().size());
+        List<LedgerEntryDTO> entries = ledgerService.recordEntries(request.getEntries());
+        return ResponseEntity.status(HttpStatus.CREATED).body(entries);
+    }
+
     // ==============================================
     // READ ENDPOINTS - QUERY ONLY
     // ==============================================
@@ -153,6 +172,78 @@ public class LedgerController {
         return ResponseEntity.ok(entries);
     }
 
+    // ==============================================
+    // STREAMING EXPORT AND RECONCILIATION
+    // Written incrementally; memory use does not grow with the range
+    // ==============================================
+
+    @GetMapping("/export")
+    @Operation(summary = "Export entries", description = "Stream entries in date range as NDJSON or CSV, "
+            + "for one wallet or all wallets")
+    public ResponseEntity<StreamingResponseBody> exportEntries(
+            @RequestParam Instant startDate,
+            @RequestParam Instant endDate,
+            @RequestParam(required = false) Long walletId,
+            @RequestParam(defaultValue = "NDJSON") LedgerExportService.Format format) {
+
+        log.info("Exporting ledger entries {} to {} as {} (wallet: {})", startDate, endDate, format, walletId);
+        StreamingResponseBody body = out -> ledgerExportService.export(walletId, startDate, endDate, format, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(format.contentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        "attachment; filename=\"ledger-entries." + format.extension() + "\"")
+                .body(body);
+    }
+
+    @GetMapping("/reconcile")
+    @Operation(summary = "Reconcile balance chains", description = "Stream, as NDJSON, every entry whose "
+            + "balanceBefore does not match the previous entry's balanceAfter, then a summary line")
+    public ResponseEntity<StreamingResponseBody> reconcile(
+            @RequestParam Instant startDate,
+            @RequestParam Instant endDate,
+            @RequestParam(defaultValue = "1") int parallelism) {
+
+        log.info("Reconciling ledger balance chains {} to {} (parallelism: {})", startDate, endDate, parallelism);
+        StreamingResponseBody body = out -> ledgerExportService.reconcile(startDate, endDate, parallelism, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(LedgerExportService.Format.NDJSON.contentType()))
+                .body(body);
+    }
+
+    // ==============================================
+    // HELD ENTRIES - OPERATOR ENDPOINTS
+    // Entries waiting for an earlier wallet sequence
+    // ==============================================
+
+    @GetMapping("/wallet/{walletId}/held")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Get held entries", description = "Get the entries of a wallet held for an earlier "
+            + "wallet sequence, with the last failure of parked ones")
+    public ResponseEntity<List<LedgerHeldEntryDTO>> getHeldEntries(@PathVariable Long walletId) {
+        return ResponseEntity.ok(ledgerService.getHeldEntries(walletId));
+    }
+
+    @PostMapping("/wallet/{walletId}/held/release")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Release held entries", description = "Retry recording the held entries of a wallet "
+            + "that no longer wait for a gap")
+    public ResponseEntity<List<LedgerEntryDTO>> releaseHeldEntries(@PathVariable Long walletId) {
+        log.info("Releasing held ledger entries for wallet: {}", walletId);
+        return ResponseEntity.ok(ledgerService.releaseHeld(walletId));
+    }
+
+    @PostMapping("/wallet/{walletId}/sequences/{walletSequence}/skip")
+    @PreAuthorize("hasRole('ADMIN')")
+    @Operation(summary = "Skip wallet sequence", description = "Give up on the sequence a wallet is waiting for, "
+            + "discarding any entry parked under it, and record the entries held behind it")
+    public ResponseEntity<List<LedgerEntryDTO>> skipSequence(
+            @PathVariable Long walletId,
+            @PathVariable Long walletSequence) {
+
+        log.warn("Skipping ledger sequence {} for wallet: {}", walletSequence, walletId);
+        return ResponseEntity.ok(ledgerService.skipSequence(walletId, walletSequence));
+    }
+
     // ==============================================
     // EVENT SOURCING / CQRS ENDPOINTS
     // ==============================================
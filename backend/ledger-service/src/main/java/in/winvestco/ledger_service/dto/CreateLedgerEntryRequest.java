@@ -45,4 +45,11 @@ public class CreateLedgerEntryRequest {
 
     @Size(max = 500, message = "Description must not exceed 500 characters")
     private String description;
+
+    /**
+     * Per-wallet sequence from funds-service. When set, the entry is recorded
+     * at most once per wallet and sequence.
+     */
+    @Positive(message = "Wallet sequence must be positive")
+    private Long walletSequence;
 }
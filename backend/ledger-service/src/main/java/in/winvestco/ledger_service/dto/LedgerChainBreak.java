@@ -0,0 +1,29 @@
+package in.winvestco.ledger_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A ledger entry whose balanceBefore does not continue the balanceAfter of
+ * the wallet's previous entry (one NDJSON line of a reconciliation stream)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerChainBreak {
+    @Builder.Default
+    private String type = "break";
+    private Long walletId;
+    private Long entryId;
+    private Long walletSequence;
+    private Instant createdAt;
+    private Long previousEntryId;
+    private BigDecimal expectedBalanceBefore;
+    private BigDecimal balanceBefore;
+}
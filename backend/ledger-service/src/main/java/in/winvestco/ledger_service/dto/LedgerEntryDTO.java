@@ -26,5 +26,6 @@ public class LedgerEntryDTO {
     private String referenceId;
     private String referenceType;
     private String description;
+    private Long walletSequence;
     private Instant createdAt;
 }
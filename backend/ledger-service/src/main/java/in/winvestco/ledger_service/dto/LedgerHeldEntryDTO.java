@@ -0,0 +1,33 @@
+package in.winvestco.ledger_service.dto;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * DTO for an entry held for an earlier wallet sequence (read-only)
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerHeldEntryDTO {
+    private Long id;
+    private Long walletId;
+    private Long walletSequence;
+    private LedgerEntryType entryType;
+    private BigDecimal amount;
+    private BigDecimal balanceBefore;
+    private BigDecimal balanceAfter;
+    private String referenceId;
+    private String referenceType;
+    private String description;
+    private Instant heldAt;
+    private int attempts;
+    private String lastError;
+}
@@ -0,0 +1,28 @@
+package in.winvestco.ledger_service.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Totals of a chain reconciliation run (last NDJSON line of the stream).
+ * complete is false if any wallet slice failed part way.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class LedgerReconciliationSummary {
+    @Builder.Default
+    private String type = "summary";
+    private Instant startDate;
+    private Instant endDate;
+    private int slices;
+    private long wallets;
+    private long entries;
+    private long breaks;
+    private boolean complete;
+}
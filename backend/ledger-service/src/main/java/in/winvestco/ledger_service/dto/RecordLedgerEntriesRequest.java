@@ -0,0 +1,25 @@
+package in.winvestco.ledger_service.dto;
+
+import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * Request DTO for appending a batch of ledger entries in one transaction.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class RecordLedgerEntriesRequest {
+
+    @NotEmpty(message = "At least one entry is required")
+    @Size(max = 1000, message = "A batch must not exceed 1000 entries")
+    private List<@Valid CreateLedgerEntryRequest> entries;
+}
@@ -1,7 +1,9 @@
 package in.winvestco.ledger_service.mapper;
 
 import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.dto.LedgerHeldEntryDTO;
 import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.model.LedgerHeldEntry;
 import org.mapstruct.Mapper;
 
 import java.util.List;
@@ -15,4 +17,8 @@ public interface LedgerMapper {
     LedgerEntryDTO toDTO(LedgerEntry ledgerEntry);
 
     List<LedgerEntryDTO> toDTOList(List<LedgerEntry> ledgerEntries);
+
+    LedgerHeldEntryDTO toHeldDTO(LedgerHeldEntry heldEntry);
+
+    List<LedgerHeldEntryDTO> toHeldDTOList(List<LedgerHeldEntry> heldEntries);
 }
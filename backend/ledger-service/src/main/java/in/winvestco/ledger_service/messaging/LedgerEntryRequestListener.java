@@ -0,0 +1,86 @@
+package in.winvestco.ledger_service.messaging;
+
+import in.winvestco.common.event.LedgerEntryRequestedEvent;
+import in.winvestco.common.messaging.BatchFallback;
+import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.ledger_service.service.LedgerService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Listener for ledger entries captured by funds-service.
+ *
+ * Entries arrive in batches and are recorded in one transaction per batch.
+ * If a batch is rejected because of one bad entry, its entries are recorded
+ * one by one. A bad sequenced entry is parked under its wallet sequence
+ * rather than dead-lettered, since dropping it would hold the wallet's later
+ * entries forever; HeldEntryRetryService retries it. Bad unsequenced entries
+ * are dead-lettered. Database outages are rethrown so the whole batch is
+ * requeued.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class LedgerEntryRequestListener {
+
+    private final LedgerService ledgerService;
+    private final RabbitTemplate rabbitTemplate;
+
+    @RabbitListener(queues = in.winvestco.ledger_service.config.RabbitMQConfig.LEDGER_ENTRY_REQUESTED_QUEUE,
+            containerFactory = in.winvestco.ledger_service.config.RabbitMQConfig.LEDGER_BATCH_CONTAINER_FACTORY)
+    public void handleLedgerEntriesRequested(List<LedgerEntryRequestedEvent> events) {
+        log.debug("Received batch of {} requested ledger entries", events.size());
+        List<CreateLedgerEntryRequest> requests = events.stream()
+                .map(LedgerEntryRequestListener::toRequest)
+                .toList();
+
+        try {
+            ledgerService.recordEntries(requests);
+        } catch (RuntimeException e) {
+            if (BatchFallback.isUnavailable(e)) {
+                throw e;
+            }
+            log.warn("Batch of {} ledger entries rejected ({}), recording them one by one",
+                    events.size(), e.getMessage());
+            events.forEach(this::recordIndividually);
+        }
+    }
+
+    private void recordIndividually(LedgerEntryRequestedEvent event) {
+        CreateLedgerEntryRequest request = toRequest(event);
+        try {
+            ledgerService.recordEntries(List.of(request));
+        } catch (RuntimeException e) {
+            if (event.getWalletSequence() == null || BatchFallback.isUnavailable(e)) {
+                BatchFallback.handleFailure(event, e, BatchFallback::isUnavailable,
+                        LedgerEntryRequestListener::describe, rabbitTemplate);
+                return;
+            }
+            ledgerService.park(request, e);
+        }
+    }
+
+    private static String describe(LedgerEntryRequestedEvent event) {
+        return "ledger entry: wallet=" + event.getWalletId() + ", seq=" + event.getWalletSequence()
+                + ", type=" + event.getEntryType() + ", amount=" + event.getAmount();
+    }
+
+    static CreateLedgerEntryRequest toRequest(LedgerEntryRequestedEvent event) {
+        return CreateLedgerEntryRequest.builder()
+                .walletId(event.getWalletId())
+                .walletSequence(event.getWalletSequence())
+                .entryType(event.getEntryType())
+                .amount(event.getAmount())
+                .balanceBefore(event.getBalanceBefore())
+                .balanceAfter(event.getBalanceAfter())
+                .referenceId(event.getReferenceId())
+                .referenceType(event.getReferenceType())
+                .description(event.getDescription())
+                .build();
+    }
+}
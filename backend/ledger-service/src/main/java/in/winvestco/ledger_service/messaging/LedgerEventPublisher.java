@@ -27,6 +27,7 @@ public class LedgerEventPublisher {
         LedgerEntryEvent event = LedgerEntryEvent.builder()
                 .id(entry.getId())
                 .walletId(entry.getWalletId())
+                .walletSequence(entry.getWalletSequence())
                 .entryType(entry.getEntryType())
                 .amount(entry.getAmount())
                 .balanceBefore(entry.getBalanceBefore())
@@ -0,0 +1,58 @@
+package in.winvestco.ledger_service.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+import org.hibernate.annotations.Immutable;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Wallet balance as of a point in time - INSERT ONLY.
+ *
+ * The balance is the balanceAfter of the wallet's last ledger entry at or
+ * before checkpointAt. Point-in-time balance and rebuild start from the
+ * nearest checkpoint and only read entries after it.
+ *
+ * Written in bulk by BalanceCheckpointService; a wallet only gets a new
+ * checkpoint when it had entries since the previous run.
+ */
+@Entity
+@Immutable
+@Table(name = "ledger_balance_checkpoints", indexes = {
+    @Index(name = "uq_ledger_checkpoint_wallet_at", columnList = "wallet_id, checkpoint_at DESC", unique = true),
+    @Index(name = "idx_ledger_checkpoint_at", columnList = "checkpoint_at DESC")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class LedgerBalanceCheckpoint implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private Long walletId;
+
+    @Column(name = "checkpoint_at", nullable = false, updatable = false)
+    private Instant checkpointAt;
+
+    @Column(name = "balance", precision = 18, scale = 4, nullable = false, updatable = false)
+    private BigDecimal balance;
+
+    @Column(name = "last_entry_id", nullable = false, updatable = false)
+    private Long lastEntryId;
+
+    @Column(name = "last_entry_at", nullable = false, updatable = false)
+    private Instant lastEntryAt;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -36,20 +36,30 @@ import java.time.Instant;
     @Index(name = "idx_ledger_wallet_id", columnList = "wallet_id"),
     @Index(name = "idx_ledger_reference", columnList = "reference_id, reference_type"),
     @Index(name = "idx_ledger_created_at", columnList = "created_at"),
-    @Index(name = "idx_ledger_entry_type", columnList = "entry_type")
+    @Index(name = "idx_ledger_entry_type", columnList = "entry_type"),
+    // Uniqueness is kept by the ledger_wallet_sequences claim table (see V4 migration)
+    @Index(name = "idx_ledger_wallet_sequence", columnList = "wallet_id, wallet_sequence")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)  // JPA requirement, but protected
 @AllArgsConstructor
-@Builder
+@Builder(toBuilder = true)
 @EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @JsonIgnoreProperties({"hibernateLazyInitializer", "handler"})
 public class LedgerEntry implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    public static final String ID_SEQUENCE = "ledger_entries_id_seq";
+    public static final int ID_ALLOCATION_SIZE = 50;
+
+    /**
+     * Pooled sequence: one nextval reserves ID_ALLOCATION_SIZE ids, so inserts
+     * need no round trip per key and Hibernate can batch them.
+     */
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ledger_entry_id")
+    @SequenceGenerator(name = "ledger_entry_id", sequenceName = ID_SEQUENCE, allocationSize = ID_ALLOCATION_SIZE)
     @Column(name = "id", nullable = false, updatable = false)
     @EqualsAndHashCode.Include
     private Long id;
@@ -87,6 +97,13 @@ public class LedgerEntry implements Serializable {
     @Column(name = "description", length = 500, updatable = false)
     private String description;
 
+    /**
+     * Per-wallet sequence assigned by funds-service when the entry was
+     * captured; null for entries recorded directly through the API
+     */
+    @Column(name = "wallet_sequence", updatable = false)
+    private Long walletSequence;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -109,6 +126,25 @@ public class LedgerEntry implements Serializable {
             String referenceId,
             String referenceType,
             String description) {
+
+        return create(walletId, entryType, amount, balanceBefore, balanceAfter,
+                referenceId, referenceType, description, null);
+    }
+
+    /**
+     * Factory method for an entry captured by funds-service, carrying its
+     * per-wallet sequence.
+     */
+    public static LedgerEntry create(
+            Long walletId,
+            LedgerEntryType entryType,
+            BigDecimal amount,
+            BigDecimal balanceBefore,
+            BigDecimal balanceAfter,
+            String referenceId,
+            String referenceType,
+            String description,
+            Long walletSequence) {
         
         return LedgerEntry.builder()
                 .walletId(walletId)
@@ -119,6 +155,7 @@ public class LedgerEntry implements Serializable {
                 .referenceId(referenceId)
                 .referenceType(referenceType)
                 .description(description)
+                .walletSequence(walletSequence)
                 .build();
     }
 }
@@ -0,0 +1,77 @@
+package in.winvestco.ledger_service.model;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * A funds-service entry that arrived before the previous entry of its
+ * wallet was recorded.
+ *
+ * Held entries are not part of the ledger yet: LedgerService records them,
+ * in wallet-sequence order, once the gap before them is filled, and deletes
+ * them from here in the same transaction. An entry that failed to record
+ * stays here with the failure, so its wallet waits for a retry or an
+ * operator instead of losing the sequence.
+ */
+@Entity
+@Table(name = "ledger_held_entries", indexes = {
+    @Index(name = "uq_ledger_held_wallet_sequence", columnList = "wallet_id, wallet_sequence", unique = true),
+    @Index(name = "idx_ledger_held_at", columnList = "held_at")
+})
+@Getter
+@NoArgsConstructor(access = AccessLevel.PROTECTED)
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class LedgerHeldEntry implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "wallet_id", nullable = false, updatable = false)
+    private Long walletId;
+
+    @Column(name = "wallet_sequence", nullable = false, updatable = false)
+    private Long walletSequence;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "entry_type", nullable = false, length = 20, updatable = false)
+    private LedgerEntryType entryType;
+
+    @Column(name = "amount", precision = 18, scale = 4, nullable = false, updatable = false)
+    private BigDecimal amount;
+
+    @Column(name = "balance_before", precision = 18, scale = 4, nullable = false, updatable = false)
+    private BigDecimal balanceBefore;
+
+    @Column(name = "balance_after", precision = 18, scale = 4, nullable = false, updatable = false)
+    private BigDecimal balanceAfter;
+
+    @Column(name = "reference_id", length = 100, updatable = false)
+    private String referenceId;
+
+    @Column(name = "reference_type", length = 50, updatable = false)
+    private String referenceType;
+
+    @Column(name = "description", length = 500, updatable = false)
+    private String description;
+
+    @Column(name = "held_at", nullable = false, updatable = false)
+    private Instant heldAt;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+}
@@ -0,0 +1,53 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.ledger_service.model.LedgerBalanceCheckpoint;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Optional;
+
+/**
+ * Repository for LedgerBalanceCheckpoint - READ and INSERT ONLY.
+ */
+@Repository
+public interface LedgerBalanceCheckpointRepository extends JpaRepository<LedgerBalanceCheckpoint, Long> {
+
+    /**
+     * Nearest checkpoint of a wallet at or before a point in time
+     */
+    Optional<LedgerBalanceCheckpoint> findFirstByWalletIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+            Long walletId, Instant timestamp);
+
+    /**
+     * Latest checkpoint of a wallet
+     */
+    Optional<LedgerBalanceCheckpoint> findFirstByWalletIdOrderByCheckpointAtDesc(Long walletId);
+
+    /**
+     * Cutoff of the latest checkpoint run (null before the first run)
+     */
+    @Query("SELECT MAX(c.checkpointAt) FROM LedgerBalanceCheckpoint c")
+    Instant findLatestCheckpointAt();
+
+    /**
+     * Checkpoint, as of cutoff, every wallet with entries in (since, cutoff].
+     * Only the partitions in that range are read. Returns the number of
+     * checkpoints written.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO ledger_balance_checkpoints "
+            + "(wallet_id, checkpoint_at, balance, last_entry_id, last_entry_at, created_at) "
+            + "SELECT wallet_id, :cutoff, balance_after, id, created_at, :now FROM ("
+            + "SELECT le.wallet_id, le.balance_after, le.id, le.created_at, ROW_NUMBER() OVER ("
+            + "PARTITION BY le.wallet_id ORDER BY le.created_at DESC, le.wallet_sequence DESC, le.id DESC) AS rn "
+            + "FROM ledger_entries le WHERE le.created_at > :since AND le.created_at <= :cutoff) latest "
+            + "WHERE rn = 1", nativeQuery = true)
+    int createCheckpoints(
+            @Param("since") Instant since,
+            @Param("cutoff") Instant cutoff,
+            @Param("now") Instant now);
+}
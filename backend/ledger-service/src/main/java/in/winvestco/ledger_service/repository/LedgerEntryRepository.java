@@ -2,16 +2,19 @@ package in.winvestco.ledger_service.repository;
 
 import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.ledger_service.model.LedgerEntry;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 /**
  * Repository for LedgerEntry - READ and INSERT ONLY.
@@ -26,6 +29,11 @@ import java.util.Optional;
 @Repository
 public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long> {
 
+    /**
+     * Rows per round trip for streaming queries
+     */
+    String STREAM_FETCH_SIZE = "1000";
+
     // ==============================================
     // QUERY OPERATIONS (READ-ONLY)
     // ==============================================
@@ -87,6 +95,40 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>
     Optional<LedgerEntry> findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(
             Long walletId, Instant timestamp);
 
+    /**
+     * Get the latest entry for a wallet at or before a specific time
+     * (entries of one batch share a timestamp, so the wallet sequence, then
+     * the id, breaks ties)
+     */
+    Optional<LedgerEntry> findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
+            Long walletId, Instant timestamp);
+
+    /**
+     * Get the latest entry for a wallet in (after, upTo] - the tail after a
+     * balance checkpoint
+     */
+    Optional<LedgerEntry>
+            findFirstByWalletIdAndCreatedAtGreaterThanAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
+                    Long walletId, Instant after, Instant upTo);
+
+    /**
+     * Get the entries for a wallet after a point in time (oldest first) - the
+     * tail replayed on top of a balance checkpoint
+     */
+    List<LedgerEntry> findByWalletIdAndCreatedAtGreaterThanOrderByCreatedAtAscWalletSequenceAscIdAsc(
+            Long walletId, Instant after);
+
+    /**
+     * Get a wallet's whole chain, oldest first (for rebuild and full
+     * reconciliation)
+     */
+    List<LedgerEntry> findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(Long walletId);
+
+    /**
+     * Get the last entry of a wallet's chain
+     */
+    Optional<LedgerEntry> findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(Long walletId);
+
     /**
      * Sum of amounts by type for a wallet (for reconciliation)
      */
@@ -105,6 +147,75 @@ public interface LedgerEntryRepository extends JpaRepository<LedgerEntry, Long>
             @Param("startDate") Instant startDate,
             @Param("endDate") Instant endDate);
 
+    // ==============================================
+    // STREAMING QUERIES (server-side cursor)
+    // Must be consumed inside a read-only transaction, and each entry
+    // detached once written, so memory stays flat whatever the range
+    // ==============================================
+
+    /**
+     * Stream all entries in date range, chronologically (for global export)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT le FROM LedgerEntry le WHERE le.createdAt BETWEEN :startDate AND :endDate " +
+            "ORDER BY le.createdAt ASC, le.id ASC")
+    Stream<LedgerEntry> streamAllByDateRange(
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate);
+
+    /**
+     * Stream a wallet's entries in date range, chronologically (for wallet export)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT le FROM LedgerEntry le WHERE le.walletId = :walletId " +
+            "AND le.createdAt BETWEEN :startDate AND :endDate ORDER BY le.createdAt ASC, le.id ASC")
+    Stream<LedgerEntry> streamByWalletIdAndDateRange(
+            @Param("walletId") Long walletId,
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate);
+
+    /**
+     * Stream the entries in date range of the wallets in one slice
+     * (walletId mod slices = slice), grouped by wallet and chronological
+     * within each wallet, wallet sequence breaking ties (for chain
+     * reconciliation)
+     */
+    @QueryHints({
+            @QueryHint(name = "org.hibernate.fetchSize", value = STREAM_FETCH_SIZE),
+            @QueryHint(name = "org.hibernate.readOnly", value = "true")
+    })
+    @Query("SELECT le FROM LedgerEntry le WHERE le.createdAt BETWEEN :startDate AND :endDate " +
+            "AND MOD(le.walletId, :slices) = :slice " +
+            "ORDER BY le.walletId ASC, le.createdAt ASC, le.walletSequence ASC, le.id ASC")
+    Stream<LedgerEntry> streamWalletSliceByDateRange(
+            @Param("startDate") Instant startDate,
+            @Param("endDate") Instant endDate,
+            @Param("slices") long slices,
+            @Param("slice") long slice);
+
+    /**
+     * Wallet sequences already recorded for a wallet within a range
+     * (to skip redelivered entries from funds-service)
+     */
+    @Query("SELECT le.walletSequence FROM LedgerEntry le WHERE le.walletId = :walletId " +
+            "AND le.walletSequence BETWEEN :fromSequence AND :toSequence")
+    List<Long> findRecordedSequences(
+            @Param("walletId") Long walletId,
+            @Param("fromSequence") Long fromSequence,
+            @Param("toSequence") Long toSequence);
+
+    /**
+     * Highest wallet sequence recorded for a wallet (null if none)
+     */
+    @Query("SELECT MAX(le.walletSequence) FROM LedgerEntry le WHERE le.walletId = :walletId")
+    Long findLastRecordedSequence(@Param("walletId") Long walletId);
+
     // ==============================================
     // DELETE OPERATIONS - NOT ALLOWED
     // Override to throw UnsupportedOperationException
@@ -0,0 +1,251 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.ledger_service.config.LedgerWriteProperties;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.JdbcUtils;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.DatabaseMetaData;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * High-throughput append path for ledger entries - INSERT ONLY.
+ *
+ * On PostgreSQL:
+ * - Ids come from ledger_entries_id_seq in pooled blocks (same scheme as the
+ * entity's Hibernate generator), so a batch costs at most one nextval per
+ * LedgerEntry.ID_ALLOCATION_SIZE entries
+ * - Entries are written with multi-row INSERT statements of up to
+ * ledger.write.insert-chunk-size rows. Rows whose (wallet_id, wallet_sequence)
+ * is already claimed in ledger_wallet_sequences are filtered out by the same
+ * statement, so redelivered entries are skipped in one round trip. RETURNING
+ * id tells which rows went in
+ *
+ * Other databases (tests) fall back to a sequence lookup plus saveAll.
+ *
+ * Joins the caller's transaction; must be called inside one.
+ */
+@Component
+@Slf4j
+public class LedgerEntryWriter {
+
+    private static final String TABLE = "ledger_entries";
+    private static final String COLUMNS = "id, wallet_id, entry_type, amount, balance_before, balance_after, "
+            + "reference_id, reference_type, description, wallet_sequence, created_at";
+    private static final int COLUMN_COUNT = 11;
+    private static final String ROW = "(?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?)";
+    // Recorded wallet sequences live in a claim table: a unique index on the
+    // partitioned ledger_entries would have to include created_at
+    private static final String NOT_RECORDED = " WHERE v.wallet_sequence IS NULL OR NOT EXISTS ("
+            + "SELECT 1 FROM ledger_wallet_sequences s "
+            + "WHERE s.wallet_id = v.wallet_id AND s.wallet_sequence = v.wallet_sequence)";
+
+    private static final String LAST_RECORDED = "SELECT w.wallet_id, COALESCE((SELECT MAX(s.wallet_sequence) "
+            + "FROM ledger_wallet_sequences s WHERE s.wallet_id = w.wallet_id), 0) "
+            + "FROM unnest(?) AS w (wallet_id)";
+
+    private static final String SKIP_SEQUENCE = "INSERT INTO ledger_wallet_sequences (wallet_id, wallet_sequence) "
+            + "VALUES (?, ?) ON CONFLICT DO NOTHING";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerWriteProperties properties;
+    private final Clock clock;
+    private final boolean postgres;
+
+    // Pooled id block: next id to hand out and the last id of the block
+    private long nextId = 1;
+    private long lastId = 0;
+
+    public LedgerEntryWriter(DataSource dataSource, LedgerEntryRepository ledgerEntryRepository,
+            LedgerWriteProperties properties) {
+        this(new JdbcTemplate(dataSource), ledgerEntryRepository, properties, Clock.systemUTC(),
+                isPostgres(dataSource));
+    }
+
+    LedgerEntryWriter(JdbcTemplate jdbcTemplate, LedgerEntryRepository ledgerEntryRepository,
+            LedgerWriteProperties properties, Clock clock, boolean postgres) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.properties = properties;
+        this.clock = clock;
+        this.postgres = postgres;
+    }
+
+    /**
+     * Append entries in the given order. Entries whose (wallet, sequence) is
+     * already recorded are skipped. Returns the entries actually written,
+     * with ids and timestamps, in the given order.
+     */
+    public List<LedgerEntry> append(List<LedgerEntry> entries) {
+        if (entries.isEmpty()) {
+            return List.of();
+        }
+        return postgres ? appendWithInsert(entries) : appendWithRepository(entries);
+    }
+
+    /**
+     * Last recorded wallet sequence of each given wallet; wallets without a
+     * sequenced entry map to 0.
+     */
+    public Map<Long, Long> lastRecordedSequences(Collection<Long> walletIds) {
+        Map<Long, Long> last = new HashMap<>(walletIds.size() * 2);
+        if (walletIds.isEmpty()) {
+            return last;
+        }
+        if (postgres) {
+            // One backward index probe per wallet on the claim table's primary key
+            jdbcTemplate.query(LAST_RECORDED, ps -> ps.setArray(1,
+                    ps.getConnection().createArrayOf("bigint", walletIds.toArray())), rs -> {
+                        last.put(rs.getLong(1), rs.getLong(2));
+                    });
+        } else {
+            for (Long walletId : walletIds) {
+                Long sequence = ledgerEntryRepository.findLastRecordedSequence(walletId);
+                last.put(walletId, sequence != null ? sequence : 0L);
+            }
+        }
+        return last;
+    }
+
+    /**
+     * Claim a wallet sequence without recording an entry for it, so the
+     * wallet's later entries are no longer held back. Needs the PostgreSQL
+     * claim table.
+     */
+    public void skipSequence(Long walletId, Long walletSequence) {
+        if (!postgres) {
+            throw new IllegalStateException("Skipping a wallet sequence needs the PostgreSQL claim table");
+        }
+        jdbcTemplate.update(SKIP_SEQUENCE, walletId, walletSequence);
+    }
+
+    private List<LedgerEntry> appendWithInsert(List<LedgerEntry> entries) {
+        Instant now = clock.instant();
+        List<LedgerEntry> prepared = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            prepared.add(entry.toBuilder().id(allocateId()).createdAt(now).build());
+        }
+
+        int chunkSize = Math.max(1, properties.getInsertChunkSize());
+        Set<Long> inserted = new HashSet<>(prepared.size() * 2);
+        for (int from = 0; from < prepared.size(); from += chunkSize) {
+            inserted.addAll(insertChunk(prepared.subList(from, Math.min(from + chunkSize, prepared.size()))));
+        }
+
+        if (inserted.size() == prepared.size()) {
+            return prepared;
+        }
+        log.debug("Skipped {} already recorded ledger entries", prepared.size() - inserted.size());
+        return prepared.stream().filter(entry -> inserted.contains(entry.getId())).toList();
+    }
+
+    private List<Long> insertChunk(List<LedgerEntry> chunk) {
+        StringBuilder sql = new StringBuilder(256 + chunk.size() * (ROW.length() + 2))
+                .append("INSERT INTO ").append(TABLE).append(" (").append(COLUMNS).append(")")
+                .append(" SELECT v.* FROM (VALUES ");
+        for (int i = 0; i < chunk.size(); i++) {
+            sql.append(i == 0 ? "" : ", ").append(ROW);
+        }
+        // The insert trigger claims each new sequence, so concurrent writers still cannot record one twice
+        sql.append(") AS v (").append(COLUMNS).append(")").append(NOT_RECORDED).append(" RETURNING id");
+
+        return jdbcTemplate.query(sql.toString(), ps -> {
+            int index = 1;
+            for (LedgerEntry entry : chunk) {
+                bind(ps, index, entry);
+                index += COLUMN_COUNT;
+            }
+        }, (rs, rowNum) -> rs.getLong(1));
+    }
+
+    private static void bind(PreparedStatement ps, int index, LedgerEntry entry) throws SQLException {
+        ps.setLong(index, entry.getId());
+        ps.setLong(index + 1, entry.getWalletId());
+        ps.setString(index + 2, entry.getEntryType() != null ? entry.getEntryType().name() : null);
+        ps.setBigDecimal(index + 3, entry.getAmount());
+        ps.setBigDecimal(index + 4, entry.getBalanceBefore());
+        ps.setBigDecimal(index + 5, entry.getBalanceAfter());
+        ps.setString(index + 6, entry.getReferenceId());
+        ps.setString(index + 7, entry.getReferenceType());
+        ps.setString(index + 8, entry.getDescription());
+        if (entry.getWalletSequence() != null) {
+            ps.setLong(index + 9, entry.getWalletSequence());
+        } else {
+            ps.setNull(index + 9, Types.BIGINT);
+        }
+        // Bound the way Hibernate binds Instant, so both paths store the same wall time
+        ps.setObject(index + 10, OffsetDateTime.ofInstant(entry.getCreatedAt(), ZoneOffset.UTC));
+    }
+
+    /**
+     * Hand out the next id of the current pooled block, reserving a new
+     * block with one nextval when it runs out. A nextval of v reserves
+     * (v - ID_ALLOCATION_SIZE, v], as Hibernate's pooled optimizer does.
+     */
+    synchronized long allocateId() {
+        if (nextId > lastId) {
+            long hi;
+            do {
+                hi = jdbcTemplate.queryForObject("SELECT nextval('" + LedgerEntry.ID_SEQUENCE + "')", Long.class);
+            } while (hi < LedgerEntry.ID_ALLOCATION_SIZE); // Block would reach below 1
+            nextId = hi - LedgerEntry.ID_ALLOCATION_SIZE + 1;
+            lastId = hi;
+        }
+        return nextId++;
+    }
+
+    private List<LedgerEntry> appendWithRepository(List<LedgerEntry> entries) {
+        Map<Long, Set<Long>> recordedByWallet = new LinkedHashMap<>();
+        List<LedgerEntry> fresh = new ArrayList<>(entries.size());
+        for (LedgerEntry entry : entries) {
+            Long sequence = entry.getWalletSequence();
+            if (sequence != null && !recordedByWallet
+                    .computeIfAbsent(entry.getWalletId(), walletId -> recordedSequences(walletId, entries))
+                    .add(sequence)) {
+                continue;
+            }
+            fresh.add(entry);
+        }
+        return ledgerEntryRepository.saveAll(fresh);
+    }
+
+    private Set<Long> recordedSequences(Long walletId, List<LedgerEntry> entries) {
+        long first = Long.MAX_VALUE;
+        long last = Long.MIN_VALUE;
+        for (LedgerEntry entry : entries) {
+            if (walletId.equals(entry.getWalletId()) && entry.getWalletSequence() != null) {
+                first = Math.min(first, entry.getWalletSequence());
+                last = Math.max(last, entry.getWalletSequence());
+            }
+        }
+        return new HashSet<>(ledgerEntryRepository.findRecordedSequences(walletId, first, last));
+    }
+
+    static boolean isPostgres(DataSource dataSource) {
+        try {
+            String product = JdbcUtils.extractDatabaseMetaData(dataSource, DatabaseMetaData::getDatabaseProductName);
+            return "PostgreSQL".equalsIgnoreCase(product);
+        } catch (Exception e) {
+            log.warn("Could not determine ledger database type, PostgreSQL features disabled: {}", e.getMessage());
+            return false;
+        }
+    }
+}
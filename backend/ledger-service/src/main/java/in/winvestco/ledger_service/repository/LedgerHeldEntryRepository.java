@@ -0,0 +1,55 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.ledger_service.model.LedgerHeldEntry;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Repository for LedgerHeldEntry - entries waiting for an earlier wallet
+ * sequence.
+ */
+@Repository
+public interface LedgerHeldEntryRepository extends JpaRepository<LedgerHeldEntry, Long> {
+
+    /**
+     * Entries held for the given wallets, in wallet-sequence order
+     */
+    List<LedgerHeldEntry> findByWalletIdInOrderByWalletIdAscWalletSequenceAsc(Collection<Long> walletIds);
+
+    /**
+     * Entries held for one wallet, in wallet-sequence order
+     */
+    List<LedgerHeldEntry> findByWalletIdOrderByWalletSequenceAsc(Long walletId);
+
+    /**
+     * The entry held for a wallet sequence, if any
+     */
+    Optional<LedgerHeldEntry> findByWalletIdAndWalletSequence(Long walletId, Long walletSequence);
+
+    /**
+     * Wallets with at least one held entry
+     */
+    @Query("SELECT DISTINCT e.walletId FROM LedgerHeldEntry e")
+    List<Long> findHeldWalletIds();
+
+    /**
+     * When the longest-waiting entry was held (null if none are)
+     */
+    @Query("SELECT MIN(e.heldAt) FROM LedgerHeldEntry e")
+    Instant findOldestHeldAt();
+
+    /**
+     * Record a failed attempt to record a held entry
+     */
+    @Modifying
+    @Query("UPDATE LedgerHeldEntry e SET e.attempts = e.attempts + 1, e.lastError = :error WHERE e.id = :id")
+    int recordFailure(@Param("id") Long id, @Param("error") String error);
+}
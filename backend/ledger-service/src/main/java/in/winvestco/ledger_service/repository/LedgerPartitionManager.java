@@ -0,0 +1,112 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.ledger_service.config.LedgerMaintenanceProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.sql.DataSource;
+import java.time.Clock;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+
+/**
+ * Keeps monthly ledger_entries partitions created ahead of time.
+ *
+ * The table is converted to range partitioning on created_at by the V4
+ * migration; this creates the partitions for the current month and the next
+ * ledger.maintenance.partitions-ahead-months, on startup and then daily.
+ * Partitions are never dropped or detached - the ledger is immutable.
+ *
+ * DDL runs under a transaction-scoped advisory lock, so replicas take turns.
+ * PostgreSQL only, and only once the table is partitioned.
+ */
+@Component
+@Slf4j
+public class LedgerPartitionManager {
+
+    static final String TABLE = "ledger_entries";
+    private static final String PARTITION_PREFIX = TABLE + "_p";
+    private static final DateTimeFormatter PARTITION_MONTH = DateTimeFormatter.ofPattern("yyyyMM");
+    private static final String LOCK_KEY = "ledger_entries_partitioning";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerMaintenanceProperties properties;
+    private final Clock clock;
+    private final boolean enabled;
+
+    public LedgerPartitionManager(DataSource dataSource, PlatformTransactionManager transactionManager,
+            LedgerMaintenanceProperties properties) {
+        this(new JdbcTemplate(dataSource), new TransactionTemplate(transactionManager), properties,
+                Clock.systemUTC(), LedgerEntryWriter.isPostgres(dataSource));
+    }
+
+    LedgerPartitionManager(JdbcTemplate jdbcTemplate, TransactionTemplate transactionTemplate,
+            LedgerMaintenanceProperties properties, Clock clock, boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = transactionTemplate;
+        this.properties = properties;
+        this.clock = clock;
+        this.enabled = enabled;
+    }
+
+    @PostConstruct
+    public void initialize() {
+        scheduledMaintenance();
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.maintenance.partition-interval-ms:86400000}",
+            initialDelayString = "${ledger.maintenance.partition-interval-ms:86400000}")
+    public void scheduledMaintenance() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            maintain();
+        } catch (Exception e) {
+            // Rows still land in the default partition; don't block startup on maintenance DDL
+            log.error("Ledger partition maintenance failed", e);
+        }
+    }
+
+    /**
+     * Create the partitions from this month to partitions-ahead-months ahead.
+     */
+    void maintain() {
+        YearMonth current = YearMonth.from(LocalDate.now(clock.withZone(ZoneOffset.UTC)));
+        transactionTemplate.executeWithoutResult(status -> {
+            lock();
+            if (!isPartitioned()) {
+                log.warn("{} is not partitioned; skipping partition maintenance", TABLE);
+                return;
+            }
+            for (int i = 0; i <= properties.getPartitionsAheadMonths(); i++) {
+                YearMonth month = current.plusMonths(i);
+                jdbcTemplate.execute("CREATE TABLE IF NOT EXISTS " + partitionName(month) + " PARTITION OF " + TABLE
+                        + " FOR VALUES FROM ('" + month.atDay(1) + "') TO ('" + month.plusMonths(1).atDay(1) + "')");
+            }
+        });
+    }
+
+    private boolean isPartitioned() {
+        List<String> kinds = jdbcTemplate.queryForList(
+                "SELECT relkind::text FROM pg_class WHERE oid = to_regclass(?)", String.class, TABLE);
+        return !kinds.isEmpty() && "p".equals(kinds.get(0));
+    }
+
+    private void lock() {
+        jdbcTemplate.queryForObject("SELECT pg_advisory_xact_lock(hashtext(?))::text", String.class, LOCK_KEY);
+    }
+
+    static String partitionName(YearMonth month) {
+        return PARTITION_PREFIX + PARTITION_MONTH.format(month);
+    }
+}
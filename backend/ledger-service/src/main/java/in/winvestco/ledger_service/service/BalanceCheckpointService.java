@@ -0,0 +1,71 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.ledger_service.config.LedgerMaintenanceProperties;
+import in.winvestco.ledger_service.repository.LedgerBalanceCheckpointRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Clock;
+import java.time.Instant;
+
+/**
+ * Takes periodic per-wallet balance checkpoints.
+ *
+ * Each run checkpoints, as of now minus the settle time, every wallet with
+ * entries since the previous run's cutoff, in one INSERT ... SELECT over just
+ * those partitions. Wallets without new entries keep their older checkpoint,
+ * which is still exact for them. Concurrent runs on other replicas only add
+ * redundant checkpoints.
+ */
+@Service
+@Slf4j
+public class BalanceCheckpointService {
+
+    private final LedgerBalanceCheckpointRepository checkpointRepository;
+    private final LedgerMaintenanceProperties properties;
+    private final Clock clock;
+
+    public BalanceCheckpointService(LedgerBalanceCheckpointRepository checkpointRepository,
+            LedgerMaintenanceProperties properties) {
+        this(checkpointRepository, properties, Clock.systemUTC());
+    }
+
+    BalanceCheckpointService(LedgerBalanceCheckpointRepository checkpointRepository,
+            LedgerMaintenanceProperties properties, Clock clock) {
+        this.checkpointRepository = checkpointRepository;
+        this.properties = properties;
+        this.clock = clock;
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.maintenance.checkpoint-interval-ms:3600000}",
+            initialDelayString = "${ledger.maintenance.checkpoint-interval-ms:3600000}")
+    public void scheduledCheckpoint() {
+        try {
+            createCheckpoints();
+        } catch (Exception e) {
+            log.error("Ledger balance checkpoint run failed", e);
+        }
+    }
+
+    /**
+     * Checkpoint every wallet with entries since the last run. Returns the
+     * number of checkpoints written.
+     */
+    @Transactional
+    public int createCheckpoints() {
+        Instant now = clock.instant();
+        Instant cutoff = now.minusSeconds(properties.getCheckpointSettleSeconds());
+        Instant since = checkpointRepository.findLatestCheckpointAt();
+        if (since == null) {
+            since = Instant.EPOCH;
+        } else if (!cutoff.isAfter(since)) {
+            return 0;
+        }
+
+        int written = checkpointRepository.createCheckpoints(since, cutoff, now);
+        log.info("Wrote {} ledger balance checkpoints as of {} (entries since {})", written, cutoff, since);
+        return written;
+    }
+}
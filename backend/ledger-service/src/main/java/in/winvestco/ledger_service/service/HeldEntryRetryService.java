@@ -0,0 +1,107 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.common.messaging.BatchFallback;
+import in.winvestco.ledger_service.repository.LedgerHeldEntryRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Clock;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Retries wallets with held entries and reports how long they have waited.
+ *
+ * An entry waiting for a gap is normally released by the batch that fills
+ * it; a parked entry (one that failed to record) is only retried here. Each
+ * run tries every wallet with held entries, notes failures on the entry the
+ * wallet waits for, and refreshes the ledger.held.entries and
+ * ledger.held.oldest.age gauges - alert on the age, which keeps growing
+ * while a gap is neither filled nor skipped.
+ */
+@Service
+@Slf4j
+public class HeldEntryRetryService {
+
+    private final LedgerService ledgerService;
+    private final LedgerHeldEntryRepository heldEntryRepository;
+    private final Clock clock;
+    private final Counter failures;
+    private final AtomicLong heldCount = new AtomicLong();
+    private final AtomicReference<Instant> oldestHeldAt = new AtomicReference<>();
+
+    @Autowired
+    public HeldEntryRetryService(LedgerService ledgerService, LedgerHeldEntryRepository heldEntryRepository,
+            MeterRegistry meterRegistry) {
+        this(ledgerService, heldEntryRepository, meterRegistry, Clock.systemUTC());
+    }
+
+    HeldEntryRetryService(LedgerService ledgerService, LedgerHeldEntryRepository heldEntryRepository,
+            MeterRegistry meterRegistry, Clock clock) {
+        this.ledgerService = ledgerService;
+        this.heldEntryRepository = heldEntryRepository;
+        this.clock = clock;
+        this.failures = Counter.builder("ledger.held.retry.failures")
+                .description("Wallets whose held entries failed to record on retry")
+                .register(meterRegistry);
+        Gauge.builder("ledger.held.entries", heldCount, AtomicLong::get)
+                .description("Ledger entries held for an earlier wallet sequence")
+                .register(meterRegistry);
+        Gauge.builder("ledger.held.oldest.age", this, HeldEntryRetryService::oldestHeldAgeSeconds)
+                .description("Seconds the longest-waiting held ledger entry has been held")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    @Scheduled(fixedDelayString = "${ledger.maintenance.held-retry-interval-ms:60000}",
+            initialDelayString = "${ledger.maintenance.held-retry-interval-ms:60000}")
+    public void scheduledRetry() {
+        try {
+            retryHeldWallets();
+        } catch (Exception e) {
+            log.error("Held ledger entry retry run failed", e);
+        }
+    }
+
+    /**
+     * Release what can be released for every wallet with held entries.
+     * Returns the number of entries recorded.
+     */
+    public int retryHeldWallets() {
+        int recorded = 0;
+        for (Long walletId : heldEntryRepository.findHeldWalletIds()) {
+            try {
+                recorded += ledgerService.releaseHeld(walletId).size();
+            } catch (RuntimeException e) {
+                if (BatchFallback.isUnavailable(e)) {
+                    throw e;
+                }
+                failures.increment();
+                log.error("Could not record held ledger entries of wallet {}", walletId, e);
+                ledgerService.recordHeldFailure(walletId, e);
+            }
+        }
+        refreshGauges();
+        if (recorded > 0) {
+            log.info("Recorded {} held ledger entries on retry", recorded);
+        }
+        return recorded;
+    }
+
+    void refreshGauges() {
+        heldCount.set(heldEntryRepository.count());
+        oldestHeldAt.set(heldEntryRepository.findOldestHeldAt());
+    }
+
+    double oldestHeldAgeSeconds() {
+        Instant oldest = oldestHeldAt.get();
+        return oldest == null ? 0 : Math.max(0, Duration.between(oldest, clock.instant()).toSeconds());
+    }
+}
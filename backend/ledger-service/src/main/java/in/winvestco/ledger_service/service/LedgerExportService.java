@@ -0,0 +1,273 @@
+package in.winvestco.ledger_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.winvestco.ledger_service.config.LedgerExportProperties;
+import in.winvestco.ledger_service.dto.LedgerChainBreak;
+import in.winvestco.ledger_service.dto.LedgerReconciliationSummary;
+import in.winvestco.ledger_service.mapper.LedgerMapper;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.repository.LedgerEntryRepository;
+import jakarta.persistence.EntityManager;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+/**
+ * Streaming ledger export and chain reconciliation - READ ONLY.
+ *
+ * Entries are read through a server-side cursor (fetch size
+ * LedgerEntryRepository.STREAM_FETCH_SIZE), written to the response as they
+ * arrive and detached right after, so memory use does not depend on the
+ * size of the range.
+ *
+ * Reconciliation checks, per wallet, that every entry's balanceBefore equals
+ * the previous entry's balanceAfter. Wallets are split into slices by
+ * walletId mod parallelism; each slice streams on its own thread and
+ * connection, in wallet then time order (wallet sequence breaking ties), so
+ * only the current wallet's last entry is kept in memory.
+ */
+@Service
+@Slf4j
+public class LedgerExportService {
+
+    static final String CSV_HEADER = "id,wallet_id,wallet_sequence,entry_type,amount,balance_before,"
+            + "balance_after,reference_id,reference_type,description,created_at";
+
+    private final LedgerEntryRepository ledgerEntryRepository;
+    private final LedgerMapper ledgerMapper;
+    private final ObjectMapper objectMapper;
+    private final EntityManager entityManager;
+    private final TransactionTemplate readOnlyTransaction;
+    private final LedgerExportProperties properties;
+
+    public LedgerExportService(LedgerEntryRepository ledgerEntryRepository, LedgerMapper ledgerMapper,
+            ObjectMapper objectMapper, EntityManager entityManager, PlatformTransactionManager transactionManager,
+            LedgerExportProperties properties) {
+        this.ledgerEntryRepository = ledgerEntryRepository;
+        this.ledgerMapper = ledgerMapper;
+        this.objectMapper = objectMapper;
+        this.entityManager = entityManager;
+        this.readOnlyTransaction = new TransactionTemplate(transactionManager);
+        this.readOnlyTransaction.setReadOnly(true);
+        this.properties = properties;
+    }
+
+    /**
+     * Export format of {@link #export}.
+     */
+    public enum Format {
+        /** One JSON LedgerEntryDTO per line */
+        NDJSON("application/x-ndjson", "ndjson"),
+        /** Header row plus one row per entry */
+        CSV("text/csv", "csv");
+
+        private final String contentType;
+        private final String extension;
+
+        Format(String contentType, String extension) {
+            this.contentType = contentType;
+            this.extension = extension;
+        }
+
+        public String contentType() {
+            return contentType;
+        }
+
+        public String extension() {
+            return extension;
+        }
+    }
+
+    /**
+     * Write the entries in [startDate, endDate] - of one wallet, or all
+     * wallets if walletId is null - chronologically. Returns the number of
+     * entries written. The stream is flushed, not closed.
+     */
+    @Transactional(readOnly = true)
+    public long export(Long walletId, Instant startDate, Instant endDate, Format format, OutputStream out)
+            throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+        if (format == Format.CSV) {
+            writer.write(CSV_HEADER);
+            writer.write('\n');
+        }
+
+        long written = 0;
+        try (Stream<LedgerEntry> entries = walletId != null
+                ? ledgerEntryRepository.streamByWalletIdAndDateRange(walletId, startDate, endDate)
+                : ledgerEntryRepository.streamAllByDateRange(startDate, endDate)) {
+            for (LedgerEntry entry : (Iterable<LedgerEntry>) entries::iterator) {
+                writer.write(format == Format.CSV
+                        ? toCsv(entry)
+                        : objectMapper.writeValueAsString(ledgerMapper.toDTO(entry)));
+                writer.write('\n');
+                entityManager.detach(entry);
+                if (++written % properties.getFlushEveryEntries() == 0) {
+                    writer.flush();
+                }
+            }
+        }
+        writer.flush();
+        log.info("Exported {} ledger entries ({}, wallet={}, {} to {})",
+                written, format, walletId, startDate, endDate);
+        return written;
+    }
+
+    /**
+     * Stream a chain reconciliation of [startDate, endDate] as NDJSON: one
+     * {@link LedgerChainBreak} line per discontinuity, then a
+     * {@link LedgerReconciliationSummary} line. The first entry of each
+     * wallet in the range starts its chain.
+     */
+    public LedgerReconciliationSummary reconcile(Instant startDate, Instant endDate, int parallelism,
+            OutputStream out) throws IOException {
+        int slices = Math.max(1, Math.min(parallelism, properties.getMaxParallelism()));
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8), 64 * 1024);
+
+        List<Future<SliceResult>> results = new ArrayList<>(slices);
+        boolean complete = true;
+        long wallets = 0;
+        long entries = 0;
+        long breaks = 0;
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int slice = 0; slice < slices; slice++) {
+                int current = slice;
+                results.add(executor.submit(() -> readOnlyTransaction.execute(
+                        status -> reconcileSlice(startDate, endDate, slices, current, writer))));
+            }
+            for (Future<SliceResult> result : results) {
+                try {
+                    SliceResult slice = result.get();
+                    wallets += slice.wallets();
+                    entries += slice.entries();
+                    breaks += slice.breaks();
+                } catch (ExecutionException e) {
+                    complete = false;
+                    log.error("Ledger reconciliation slice failed", e.getCause());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    complete = false;
+                }
+            }
+        }
+
+        LedgerReconciliationSummary summary = LedgerReconciliationSummary.builder()
+                .startDate(startDate)
+                .endDate(endDate)
+                .slices(slices)
+                .wallets(wallets)
+                .entries(entries)
+                .breaks(breaks)
+                .complete(complete)
+                .build();
+        writeLine(writer, objectMapper.writeValueAsString(summary));
+        writer.flush();
+        log.info("Reconciled ledger {} to {}: {} wallets, {} entries, {} breaks ({} slices, complete={})",
+                startDate, endDate, wallets, entries, breaks, slices, complete);
+        return summary;
+    }
+
+    /**
+     * Walk one wallet slice and write a line for every chain break.
+     * Runs inside a read-only transaction on its own thread.
+     */
+    SliceResult reconcileSlice(Instant startDate, Instant endDate, int slices, int slice, Writer writer) {
+        long wallets = 0;
+        long entries = 0;
+        long breaks = 0;
+        Long walletId = null;
+        Long previousId = null;
+        BigDecimal previousBalanceAfter = null;
+
+        try (Stream<LedgerEntry> stream = ledgerEntryRepository.streamWalletSliceByDateRange(
+                startDate, endDate, slices, slice)) {
+            for (LedgerEntry entry : (Iterable<LedgerEntry>) stream::iterator) {
+                entries++;
+                if (!Objects.equals(walletId, entry.getWalletId())) {
+                    wallets++;
+                    walletId = entry.getWalletId();
+                } else if (previousBalanceAfter.compareTo(entry.getBalanceBefore()) != 0) {
+                    breaks++;
+                    writeLine(writer, objectMapper.writeValueAsString(LedgerChainBreak.builder()
+                            .walletId(walletId)
+                            .entryId(entry.getId())
+                            .walletSequence(entry.getWalletSequence())
+                            .createdAt(entry.getCreatedAt())
+                            .previousEntryId(previousId)
+                            .expectedBalanceBefore(previousBalanceAfter)
+                            .balanceBefore(entry.getBalanceBefore())
+                            .build()));
+                }
+                previousId = entry.getId();
+                previousBalanceAfter = entry.getBalanceAfter();
+                entityManager.detach(entry);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        return new SliceResult(wallets, entries, breaks);
+    }
+
+    private static void writeLine(Writer writer, String line) throws IOException {
+        // Shared by all slices of a run
+        synchronized (writer) {
+            writer.write(line);
+            writer.write('\n');
+        }
+    }
+
+    static String toCsv(LedgerEntry entry) {
+        return String.join(",",
+                String.valueOf(entry.getId()),
+                String.valueOf(entry.getWalletId()),
+                entry.getWalletSequence() != null ? entry.getWalletSequence().toString() : "",
+                entry.getEntryType() != null ? entry.getEntryType().name() : "",
+                plain(entry.getAmount()),
+                plain(entry.getBalanceBefore()),
+                plain(entry.getBalanceAfter()),
+                csvField(entry.getReferenceId()),
+                csvField(entry.getReferenceType()),
+                csvField(entry.getDescription()),
+                entry.getCreatedAt() != null ? entry.getCreatedAt().toString() : "");
+    }
+
+    private static String plain(BigDecimal value) {
+        return value != null ? value.toPlainString() : "";
+    }
+
+    /**
+     * RFC 4180 quoting for free-text fields.
+     */
+    static String csvField(String value) {
+        if (value == null) {
+            return "";
+        }
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    record SliceResult(long wallets, long entries, long breaks) {
+    }
+}
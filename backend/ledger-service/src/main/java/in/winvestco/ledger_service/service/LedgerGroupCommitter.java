@@ -0,0 +1,183 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.ledger_service.config.LedgerWriteProperties;
+import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.mapper.LedgerMapper;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+/**
+ * Group commit for single-entry writes.
+ *
+ * Concurrent {@link #record} calls are queued and written by one committer
+ * thread: whatever has queued up while the previous transaction was committing
+ * goes into the next one (up to ledger.write.group-commit-max-entries), as one
+ * bulk append. Each caller blocks until the transaction holding its entry has
+ * committed, so the API stays synchronous while many callers share one commit.
+ *
+ * - No added latency when idle: a lone caller is committed straight away
+ * - If a group fails, its entries are retried one per transaction, so one bad
+ * entry only fails its own caller
+ * - Callers already inside a transaction, or with group commit disabled, write
+ * directly through {@link LedgerService#recordEntry}
+ */
+@Component
+@Slf4j
+public class LedgerGroupCommitter {
+
+    private final LedgerService ledgerService;
+    private final LedgerMapper ledgerMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final LedgerWriteProperties properties;
+    private final DistributionSummary groupSize;
+
+    private final BlockingQueue<PendingEntry> queue = new LinkedBlockingQueue<>();
+    private volatile Thread committer;
+    private volatile boolean running;
+
+    public LedgerGroupCommitter(LedgerService ledgerService, LedgerMapper ledgerMapper,
+            PlatformTransactionManager transactionManager, LedgerWriteProperties properties,
+            MeterRegistry meterRegistry) {
+        this.ledgerService = ledgerService;
+        this.ledgerMapper = ledgerMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.groupSize = DistributionSummary.builder("ledger.group_commit.size")
+                .description("Ledger entries committed per group commit transaction")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!properties.isGroupCommitEnabled()) {
+            return;
+        }
+        running = true;
+        committer = Thread.ofPlatform().name("ledger-group-commit").daemon().start(this::run);
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        Thread thread = committer;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    /**
+     * Record one entry (APPEND ONLY), sharing the commit with concurrent
+     * callers. Returns once the entry is durable.
+     */
+    public LedgerEntryDTO record(CreateLedgerEntryRequest request) {
+        if (!running || TransactionSynchronizationManager.isActualTransactionActive()) {
+            return ledgerService.recordEntry(request);
+        }
+
+        PendingEntry pending = new PendingEntry(request, new CompletableFuture<>());
+        queue.add(pending);
+        try {
+            return pending.result().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for ledger commit", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException cause) {
+                throw cause;
+            }
+            throw new IllegalStateException("Ledger commit failed", e.getCause());
+        }
+    }
+
+    private void run() {
+        List<PendingEntry> group = new ArrayList<>();
+        while (running) {
+            try {
+                group.add(queue.take());
+                queue.drainTo(group, Math.max(1, properties.getGroupCommitMaxEntries()) - 1);
+                commit(group);
+            } catch (InterruptedException e) {
+                break;
+            } catch (Exception e) {
+                // commit() settles every future itself; this is a last-resort guard
+                log.error("Ledger group commit failed", e);
+                group.forEach(pending -> pending.result().completeExceptionally(e));
+            } finally {
+                group.clear();
+            }
+        }
+        // Callers still waiting at shutdown are written directly
+        List<PendingEntry> remaining = new ArrayList<>();
+        queue.drainTo(remaining);
+        remaining.forEach(this::commitAlone);
+    }
+
+    /**
+     * Append a group in one transaction and hand every caller its entry.
+     */
+    void commit(List<PendingEntry> group) {
+        groupSize.record(group.size());
+        List<LedgerEntry> entries = new ArrayList<>(group.size());
+        for (PendingEntry pending : group) {
+            entries.add(LedgerService.toEntry(pending.request()));
+        }
+
+        List<LedgerEntry> saved;
+        try {
+            saved = transactionTemplate.execute(status -> ledgerService.append(entries));
+        } catch (Exception e) {
+            log.warn("Group commit of {} ledger entries failed, retrying one by one: {}", group.size(), e.getMessage());
+            group.forEach(this::commitAlone);
+            return;
+        }
+
+        // The writer keeps input order and only leaves out already recorded entries
+        int next = 0;
+        for (PendingEntry pending : group) {
+            LedgerEntry entry = next < saved.size() ? saved.get(next) : null;
+            if (entry != null && sameEntry(entry, pending.request())) {
+                pending.result().complete(ledgerMapper.toDTO(entry));
+                next++;
+            } else {
+                pending.result().completeExceptionally(new DataIntegrityViolationException(
+                        "Ledger entry already recorded: wallet=" + pending.request().getWalletId()
+                                + ", seq=" + pending.request().getWalletSequence()));
+            }
+        }
+    }
+
+    private void commitAlone(PendingEntry pending) {
+        try {
+            pending.result().complete(ledgerService.recordEntry(pending.request()));
+        } catch (Exception e) {
+            pending.result().completeExceptionally(e);
+        }
+    }
+
+    private static boolean sameEntry(LedgerEntry entry, CreateLedgerEntryRequest request) {
+        return Objects.equals(entry.getWalletId(), request.getWalletId())
+                && Objects.equals(entry.getWalletSequence(), request.getWalletSequence())
+                && Objects.equals(entry.getReferenceId(), request.getReferenceId());
+    }
+
+    record PendingEntry(CreateLedgerEntryRequest request, CompletableFuture<LedgerEntryDTO> result) {
+    }
+}
@@ -3,9 +3,15 @@ package in.winvestco.ledger_service.service;
 import in.winvestco.common.enums.LedgerEntryType;
 import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
 import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.dto.LedgerHeldEntryDTO;
 import in.winvestco.ledger_service.mapper.LedgerMapper;
+import in.winvestco.ledger_service.model.LedgerBalanceCheckpoint;
 import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.model.LedgerHeldEntry;
+import in.winvestco.ledger_service.repository.LedgerBalanceCheckpointRepository;
 import in.winvestco.ledger_service.repository.LedgerEntryRepository;
+import in.winvestco.ledger_service.repository.LedgerEntryWriter;
+import in.winvestco.ledger_service.repository.LedgerHeldEntryRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
@@ -15,17 +21,25 @@ import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * Ledger Service - IMMUTABLE SOURCE OF TRUTH
  * 
  * This service ONLY supports:
- * - INSERT (recordEntry)
+ * - INSERT (recordEntry, recordEntries)
  * - SELECT (query methods)
  * 
- * NO UPDATE or DELETE operations are allowed.
+ * NO UPDATE or DELETE operations are allowed on recorded entries. Only held
+ * entries, which are not part of the ledger yet, are updated and deleted.
  */
 @Service
 @Slf4j
@@ -35,6 +49,9 @@ public class LedgerService {
     private final LedgerEntryRepository ledgerEntryRepository;
     private final LedgerMapper ledgerMapper;
     private final in.winvestco.ledger_service.messaging.LedgerEventPublisher ledgerEventPublisher;
+    private final LedgerEntryWriter ledgerEntryWriter;
+    private final LedgerBalanceCheckpointRepository checkpointRepository;
+    private final LedgerHeldEntryRepository heldEntryRepository;
 
     // ==============================================
     // WRITE OPERATION - INSERT ONLY
@@ -42,22 +59,13 @@ public class LedgerService {
 
     /**
      * Record a new ledger entry (APPEND ONLY).
-     * This is the ONLY write operation allowed.
      */
     @Transactional
     public LedgerEntryDTO recordEntry(CreateLedgerEntryRequest request) {
         log.info("Recording ledger entry: wallet={}, type={}, amount={}, ref={}",
                 request.getWalletId(), request.getEntryType(), request.getAmount(), request.getReferenceId());
 
-        LedgerEntry entry = LedgerEntry.create(
-                request.getWalletId(),
-                request.getEntryType(),
-                request.getAmount(),
-                request.getBalanceBefore(),
-                request.getBalanceAfter(),
-                request.getReferenceId(),
-                request.getReferenceType(),
-                request.getDescription());
+        LedgerEntry entry = toEntry(request);
 
         LedgerEntry saved = ledgerEntryRepository.save(entry);
         log.info("Recorded ledger entry: id={}, wallet={}, type={}",
@@ -69,6 +77,237 @@ public class LedgerService {
         return ledgerMapper.toDTO(saved);
     }
 
+    /**
+     * Record a batch of entries in one transaction (APPEND ONLY).
+     *
+     * Entries are grouped by wallet and each wallet's entries are recorded in
+     * wallet-sequence order. Entries whose wallet sequence is already recorded
+     * (or repeated within the batch) are skipped, so a redelivered batch is a
+     * no-op. A sequenced entry is only recorded right after its predecessor:
+     * one that arrives ahead of a gap is held and recorded by the batch that
+     * fills the gap. Returns the entries actually recorded.
+     */
+    @Transactional
+    public List<LedgerEntryDTO> recordEntries(List<CreateLedgerEntryRequest> requests) {
+        if (requests.isEmpty()) {
+            return List.of();
+        }
+        return record(requests, Set.of());
+    }
+
+    /**
+     * Record the held entries of a wallet that no longer wait for a gap, in
+     * wallet-sequence order. Returns the entries recorded.
+     */
+    @Transactional
+    public List<LedgerEntryDTO> releaseHeld(Long walletId) {
+        return record(List.of(), Set.of(walletId));
+    }
+
+    /**
+     * Park a sequenced entry that could not be recorded. It is held under its
+     * wallet sequence, with the failure, instead of being dropped: the
+     * wallet's later entries wait behind it until a retry records it or an
+     * operator skips the sequence.
+     */
+    @Transactional
+    public void park(CreateLedgerEntryRequest request, RuntimeException failure) {
+        String error = describeFailure(failure);
+        Optional<LedgerHeldEntry> held = heldEntryRepository
+                .findByWalletIdAndWalletSequence(request.getWalletId(), request.getWalletSequence());
+        if (held.isPresent()) {
+            heldEntryRepository.recordFailure(held.get().getId(), error);
+        } else {
+            heldEntryRepository.save(toHeldEntry(request, Instant.now(), error));
+        }
+        log.error("Parked ledger entry: wallet={}, seq={} could not be recorded, later entries of the wallet "
+                + "are held until it is", request.getWalletId(), request.getWalletSequence(), failure);
+    }
+
+    /**
+     * Note a failed attempt to release a wallet's held entries on the first
+     * of them, the one its wallet is waiting for.
+     */
+    @Transactional
+    public void recordHeldFailure(Long walletId, RuntimeException failure) {
+        heldEntryRepository.findByWalletIdOrderByWalletSequenceAsc(walletId).stream()
+                .findFirst()
+                .ifPresent(entry -> heldEntryRepository.recordFailure(entry.getId(), describeFailure(failure)));
+    }
+
+    /**
+     * Give up on the sequence a wallet is waiting for, so the entries held
+     * behind it can be recorded. An entry parked under that sequence is
+     * discarded. Returns the entries recorded as a result.
+     */
+    @Transactional
+    public List<LedgerEntryDTO> skipSequence(Long walletId, Long walletSequence) {
+        long next = ledgerEntryWriter.lastRecordedSequences(List.of(walletId)).getOrDefault(walletId, 0L) + 1;
+        if (walletSequence != next) {
+            throw new IllegalStateException("Wallet " + walletId + " is waiting for sequence " + next
+                    + ", not " + walletSequence);
+        }
+
+        heldEntryRepository.findByWalletIdAndWalletSequence(walletId, walletSequence).ifPresent(entry -> {
+            log.warn("Discarding held ledger entry: wallet={}, seq={}, type={}, amount={}, ref={}, lastError={}",
+                    walletId, walletSequence, entry.getEntryType(), entry.getAmount(), entry.getReferenceId(),
+                    entry.getLastError());
+            heldEntryRepository.delete(entry);
+        });
+        ledgerEntryWriter.skipSequence(walletId, walletSequence);
+        log.warn("Skipped ledger wallet sequence: wallet={}, seq={}", walletId, walletSequence);
+        return record(List.of(), Set.of(walletId));
+    }
+
+    /**
+     * Entries held for a wallet, in wallet-sequence order
+     */
+    @Transactional(readOnly = true)
+    public List<LedgerHeldEntryDTO> getHeldEntries(Long walletId) {
+        return ledgerMapper.toHeldDTOList(heldEntryRepository.findByWalletIdOrderByWalletSequenceAsc(walletId));
+    }
+
+    private List<LedgerEntryDTO> record(List<CreateLedgerEntryRequest> requests, Set<Long> releasedWallets) {
+        Map<Long, List<CreateLedgerEntryRequest>> byWallet = new LinkedHashMap<>();
+        for (Long walletId : releasedWallets) {
+            byWallet.put(walletId, new ArrayList<>());
+        }
+        for (CreateLedgerEntryRequest request : requests) {
+            byWallet.computeIfAbsent(request.getWalletId(), walletId -> new ArrayList<>()).add(request);
+        }
+
+        Set<Long> sequencedWallets = new HashSet<>(releasedWallets);
+        for (CreateLedgerEntryRequest request : requests) {
+            if (request.getWalletSequence() != null) {
+                sequencedWallets.add(request.getWalletId());
+            }
+        }
+        Map<Long, Long> lastRecorded = ledgerEntryWriter.lastRecordedSequences(sequencedWallets);
+        Map<Long, List<LedgerHeldEntry>> held = new LinkedHashMap<>();
+        if (!sequencedWallets.isEmpty()) {
+            for (LedgerHeldEntry entry : heldEntryRepository
+                    .findByWalletIdInOrderByWalletIdAscWalletSequenceAsc(sequencedWallets)) {
+                held.computeIfAbsent(entry.getWalletId(), walletId -> new ArrayList<>()).add(entry);
+            }
+        }
+
+        List<LedgerEntry> entries = new ArrayList<>(requests.size());
+        List<LedgerHeldEntry> released = new ArrayList<>();
+        List<LedgerHeldEntry> toHold = new ArrayList<>();
+        Instant now = Instant.now();
+        for (Map.Entry<Long, List<CreateLedgerEntryRequest>> wallet : byWallet.entrySet()) {
+            Long walletId = wallet.getKey();
+            Map<Long, LedgerHeldEntry> heldBySequence = new HashMap<>();
+            List<CreateLedgerEntryRequest> walletRequests = new ArrayList<>(wallet.getValue());
+            for (LedgerHeldEntry entry : held.getOrDefault(walletId, List.of())) {
+                heldBySequence.put(entry.getWalletSequence(), entry);
+                walletRequests.add(toRequest(entry));
+            }
+            // Stable sort: entries without a sequence keep their arrival order, after the sequenced ones
+            walletRequests.sort(Comparator.comparing(CreateLedgerEntryRequest::getWalletSequence,
+                    Comparator.nullsLast(Comparator.naturalOrder())));
+
+            long next = lastRecorded.getOrDefault(walletId, 0L) + 1;
+            Set<Long> seen = new HashSet<>();
+            for (CreateLedgerEntryRequest request : walletRequests) {
+                Long sequence = request.getWalletSequence();
+                if (sequence != null && !seen.add(sequence)) {
+                    log.debug("Skipping repeated entry in batch: wallet={}, seq={}", walletId, sequence);
+                    continue;
+                }
+                if (sequence != null && sequence > next) {
+                    if (!heldBySequence.containsKey(sequence)) {
+                        log.warn("Holding ledger entry: wallet={}, seq={} is waiting for seq={}",
+                                walletId, sequence, next);
+                        toHold.add(toHeldEntry(request, now, null));
+                    }
+                    continue;
+                }
+                if (sequence != null && sequence == next) {
+                    next++;
+                }
+                LedgerHeldEntry releasing = sequence != null ? heldBySequence.get(sequence) : null;
+                if (releasing != null) {
+                    released.add(releasing);
+                }
+                entries.add(toEntry(request));
+            }
+        }
+
+        List<LedgerEntry> saved = append(entries);
+        if (!released.isEmpty()) {
+            heldEntryRepository.deleteAllInBatch(released);
+            log.info("Released {} held ledger entries", released.size());
+        }
+        if (!toHold.isEmpty()) {
+            heldEntryRepository.saveAll(toHold);
+        }
+        log.info("Recorded {} ledger entries for {} wallets ({} held, {} duplicates skipped)",
+                saved.size(), byWallet.size(), toHold.size(), entries.size() - saved.size());
+        return ledgerMapper.toDTOList(saved);
+    }
+
+    /**
+     * Append prepared entries in the given order through the bulk writer and
+     * publish an event for each one written. Entries already recorded are
+     * skipped; returns the ones written, in order.
+     */
+    @Transactional
+    public List<LedgerEntry> append(List<LedgerEntry> entries) {
+        List<LedgerEntry> saved = ledgerEntryWriter.append(entries);
+        saved.forEach(ledgerEventPublisher::publishLedgerEntryRecorded);
+        return saved;
+    }
+
+    private static CreateLedgerEntryRequest toRequest(LedgerHeldEntry entry) {
+        return CreateLedgerEntryRequest.builder()
+                .walletId(entry.getWalletId())
+                .walletSequence(entry.getWalletSequence())
+                .entryType(entry.getEntryType())
+                .amount(entry.getAmount())
+                .balanceBefore(entry.getBalanceBefore())
+                .balanceAfter(entry.getBalanceAfter())
+                .referenceId(entry.getReferenceId())
+                .referenceType(entry.getReferenceType())
+                .description(entry.getDescription())
+                .build();
+    }
+
+    private static LedgerHeldEntry toHeldEntry(CreateLedgerEntryRequest request, Instant heldAt, String error) {
+        return LedgerHeldEntry.builder()
+                .walletId(request.getWalletId())
+                .walletSequence(request.getWalletSequence())
+                .entryType(request.getEntryType())
+                .amount(request.getAmount())
+                .balanceBefore(request.getBalanceBefore())
+                .balanceAfter(request.getBalanceAfter())
+                .referenceId(request.getReferenceId())
+                .referenceType(request.getReferenceType())
+                .description(request.getDescription())
+                .heldAt(heldAt)
+                .attempts(error != null ? 1 : 0)
+                .lastError(error)
+                .build();
+    }
+
+    private static String describeFailure(RuntimeException failure) {
+        String error = failure.toString();
+        return error.length() > 500 ? error.substring(0, 500) : error;
+    }
+
+    static LedgerEntry toEntry(CreateLedgerEntryRequest request) {
+        return LedgerEntry.create(
+                request.getWalletId(),
+                request.getEntryType(),
+                request.getAmount(),
+                request.getBalanceBefore(),
+                request.getBalanceAfter(),
+                request.getReferenceId(),
+                request.getReferenceType(),
+                request.getDescription(),
+                request.getWalletSequence());
+    }
+
     // ==============================================
     // READ OPERATIONS - QUERY ONLY
     // ==============================================
@@ -96,7 +335,7 @@ public class LedgerService {
      */
     @Transactional(readOnly = true)
     public List<LedgerEntryDTO> getAllEntriesForWallet(Long walletId) {
-        List<LedgerEntry> entries = ledgerEntryRepository.findByWalletIdOrderByCreatedAtAsc(walletId);
+        List<LedgerEntry> entries = ledgerEntryRepository.findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(walletId);
         return ledgerMapper.toDTOList(entries);
     }
 
@@ -132,7 +371,7 @@ public class LedgerService {
      */
     @Transactional(readOnly = true)
     public Optional<LedgerEntryDTO> getLatestEntryForWallet(Long walletId) {
-        return ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDesc(walletId)
+        return ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(walletId)
                 .map(ledgerMapper::toDTO);
     }
 
@@ -162,34 +401,62 @@ public class LedgerService {
     }
 
     /**
-     * Get wallet balance at a specific point in time (Point-in-Time Query)
+     * Get wallet balance at a specific point in time (Point-in-Time Query).
+     * Starts from the nearest balance checkpoint and only looks at the
+     * entries after it.
      */
     @Transactional(readOnly = true)
     public BigDecimal getWalletBalanceAt(Long walletId, Instant timestamp) {
         log.info("Querying balance for wallet {} at {}", walletId, timestamp);
+        Optional<LedgerBalanceCheckpoint> checkpoint = checkpointRepository
+                .findFirstByWalletIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(walletId, timestamp);
+        if (checkpoint.isEmpty()) {
+            return ledgerEntryRepository
+                    .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
+                            walletId, timestamp)
+                    .map(LedgerEntry::getBalanceAfter)
+                    .orElse(BigDecimal.ZERO);
+        }
+
         return ledgerEntryRepository
-                .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(walletId, timestamp)
+                .findFirstByWalletIdAndCreatedAtGreaterThanAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
+                        walletId, checkpoint.get().getCheckpointAt(), timestamp)
                 .map(LedgerEntry::getBalanceAfter)
-                .orElse(BigDecimal.ZERO);
+                .orElse(checkpoint.get().getBalance());
     }
 
     /**
-     * Rebuild wallet state from all events (Full Replay)
+     * Rebuild wallet state from events (Replay).
      * This is used for reconciliation and to verify the current balance.
+     * Replays only the entries after the wallet's latest balance checkpoint,
+     * or all of them if it has none yet.
      */
     @Transactional(readOnly = true)
     public BigDecimal rebuildWalletState(Long walletId) {
-        log.info("Rebuilding state for wallet {} from all events", walletId);
-        List<LedgerEntry> entries = ledgerEntryRepository.findByWalletIdOrderByCreatedAtAsc(walletId);
+        Optional<LedgerBalanceCheckpoint> checkpoint = checkpointRepository
+                .findFirstByWalletIdOrderByCheckpointAtDesc(walletId);
 
         BigDecimal balance = BigDecimal.ZERO;
+        List<LedgerEntry> entries;
+        if (checkpoint.isPresent()) {
+            log.info("Rebuilding state for wallet {} from checkpoint at {}",
+                    walletId, checkpoint.get().getCheckpointAt());
+            balance = checkpoint.get().getBalance();
+            entries = ledgerEntryRepository
+                    .findByWalletIdAndCreatedAtGreaterThanOrderByCreatedAtAscWalletSequenceAscIdAsc(
+                            walletId, checkpoint.get().getCheckpointAt());
+        } else {
+            log.info("Rebuilding state for wallet {} from all events", walletId);
+            entries = ledgerEntryRepository.findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(walletId);
+        }
+
         for (LedgerEntry entry : entries) {
             // In a more complex system, we would apply events to a state object
             // For now, we just sum them up or trust the balanceAfter of the last entry
             balance = entry.getBalanceAfter();
         }
 
-        log.info("Rebuilt balance for wallet {}: {}", walletId, balance);
+        log.info("Rebuilt balance for wallet {}: {} ({} entries replayed)", walletId, balance, entries.size());
         return balance;
     }
 }
@@ -0,0 +1,10 @@
+-- V2__Ledger_wallet_sequence.sql
+-- Entries captured by funds-service carry a per-wallet sequence. It orders a
+-- wallet's entries within a batch and makes redelivered entries no-ops.
+
+ALTER TABLE ledger_entries ADD COLUMN IF NOT EXISTS wallet_sequence BIGINT;
+
+-- NULLs stay distinct, so entries recorded directly through the API are unaffected
+CREATE UNIQUE INDEX IF NOT EXISTS uq_ledger_wallet_sequence ON ledger_entries (wallet_id, wallet_sequence);
+
+COMMENT ON COLUMN ledger_entries.wallet_sequence IS 'Per-wallet sequence assigned by funds-service (NULL for direct API entries)';
@@ -0,0 +1,7 @@
+-- V3__Ledger_pooled_id_sequence.sql
+-- Ids are allocated from the sequence in blocks of 50 (Hibernate pooled
+-- optimizer and the bulk writer): each nextval reserves the 50 ids ending
+-- at the returned value. Must match LedgerEntry.ID_ALLOCATION_SIZE.
+-- The column default still works for ad-hoc inserts; it just skips ahead.
+
+ALTER SEQUENCE ledger_entries_id_seq INCREMENT BY 50;
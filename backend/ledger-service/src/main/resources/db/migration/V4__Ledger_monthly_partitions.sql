@@ -0,0 +1,171 @@
+-- V4__Ledger_monthly_partitions.sql
+-- ledger_entries becomes range-partitioned by month on created_at, and
+-- per-wallet balance checkpoints are added so point-in-time balance and
+-- rebuild only read the entries after the nearest checkpoint.
+--
+-- Partitions for coming months are created by LedgerPartitionManager; the
+-- DEFAULT partition only catches rows if it ever falls behind.
+
+-- =====================================================
+-- PARTITIONED LEDGER ENTRIES (IMMUTABLE - INSERT ONLY)
+-- =====================================================
+
+ALTER TABLE ledger_entries RENAME TO ledger_entries_unpartitioned;
+-- Keep the id sequence when the old table is dropped
+ALTER SEQUENCE ledger_entries_id_seq OWNED BY NONE;
+
+-- Identity columns are not allowed on partitioned tables before PostgreSQL 17,
+-- and the primary key has to include the partition key
+CREATE TABLE ledger_entries (
+    id BIGINT NOT NULL DEFAULT nextval('ledger_entries_id_seq'),
+    wallet_id BIGINT NOT NULL,
+    entry_type VARCHAR(20) NOT NULL,
+    amount NUMERIC(18, 4) NOT NULL,
+    balance_before NUMERIC(18, 4) NOT NULL,
+    balance_after NUMERIC(18, 4) NOT NULL,
+    reference_id VARCHAR(100),
+    reference_type VARCHAR(50),
+    description VARCHAR(500),
+    wallet_sequence BIGINT,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    -- NO updated_at - THIS TABLE IS IMMUTABLE
+    CONSTRAINT ledger_entries_part_pkey PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+ALTER SEQUENCE ledger_entries_id_seq OWNED BY ledger_entries.id;
+
+CREATE TABLE ledger_entries_default PARTITION OF ledger_entries DEFAULT;
+
+-- One partition per month from the oldest entry to three months ahead
+DO $$
+DECLARE
+    month DATE;
+    last_month DATE := (date_trunc('month', CURRENT_TIMESTAMP) + INTERVAL '3 months')::date;
+BEGIN
+    SELECT date_trunc('month', COALESCE(min(created_at), CURRENT_TIMESTAMP))::date
+    INTO month
+    FROM ledger_entries_unpartitioned;
+
+    WHILE month <= last_month LOOP
+        EXECUTE format('CREATE TABLE IF NOT EXISTS %I PARTITION OF ledger_entries FOR VALUES FROM (%L) TO (%L)',
+                'ledger_entries_p' || to_char(month, 'YYYYMM'), month, (month + INTERVAL '1 month')::date);
+        month := (month + INTERVAL '1 month')::date;
+    END LOOP;
+END $$;
+
+INSERT INTO ledger_entries (id, wallet_id, entry_type, amount, balance_before, balance_after,
+                            reference_id, reference_type, description, wallet_sequence, created_at)
+SELECT id, wallet_id, entry_type, amount, balance_before, balance_after,
+       reference_id, reference_type, description, wallet_sequence, created_at
+FROM ledger_entries_unpartitioned;
+
+-- =====================================================
+-- WALLET SEQUENCE UNIQUENESS
+-- =====================================================
+
+-- A unique index on a partitioned table must include created_at, which would
+-- let a redelivered entry land twice in different months. Recorded
+-- (wallet, sequence) pairs are claimed here instead, by trigger.
+CREATE TABLE ledger_wallet_sequences (
+    wallet_id BIGINT NOT NULL,
+    wallet_sequence BIGINT NOT NULL,
+    CONSTRAINT uq_ledger_wallet_sequence_claim PRIMARY KEY (wallet_id, wallet_sequence)
+);
+
+INSERT INTO ledger_wallet_sequences (wallet_id, wallet_sequence)
+SELECT wallet_id, wallet_sequence
+FROM ledger_entries_unpartitioned
+WHERE wallet_sequence IS NOT NULL;
+
+DO $$
+DECLARE
+    copied BIGINT;
+    original BIGINT;
+BEGIN
+    SELECT count(*) INTO copied FROM ledger_entries;
+    SELECT count(*) INTO original FROM ledger_entries_unpartitioned;
+    IF copied <> original THEN
+        RAISE EXCEPTION 'Ledger partitioning copied % of % entries', copied, original;
+    END IF;
+END $$;
+
+DROP TABLE ledger_entries_unpartitioned;
+
+CREATE OR REPLACE FUNCTION claim_ledger_wallet_sequence()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF NEW.wallet_sequence IS NOT NULL THEN
+        -- Fails with a unique violation if the sequence is already recorded
+        INSERT INTO ledger_wallet_sequences (wallet_id, wallet_sequence)
+        VALUES (NEW.wallet_id, NEW.wallet_sequence);
+    END IF;
+    RETURN NEW;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER tr_claim_ledger_wallet_sequence
+    BEFORE INSERT ON ledger_entries
+    FOR EACH ROW
+    EXECUTE FUNCTION claim_ledger_wallet_sequence();
+
+-- =====================================================
+-- INDEXES FOR QUERY PERFORMANCE (created on every partition)
+-- =====================================================
+
+CREATE INDEX idx_ledger_wallet_id ON ledger_entries (wallet_id);
+
+CREATE INDEX idx_ledger_reference ON ledger_entries (reference_id, reference_type);
+
+CREATE INDEX idx_ledger_created_at ON ledger_entries (created_at DESC);
+
+CREATE INDEX idx_ledger_entry_type ON ledger_entries (entry_type);
+
+CREATE INDEX idx_ledger_wallet_created ON ledger_entries (wallet_id, created_at DESC);
+
+CREATE INDEX idx_ledger_wallet_sequence ON ledger_entries (wallet_id, wallet_sequence);
+
+-- =====================================================
+-- IMMUTABILITY PROTECTION (inherited by every partition)
+-- =====================================================
+
+CREATE TRIGGER tr_prevent_ledger_update
+    BEFORE UPDATE ON ledger_entries
+    FOR EACH ROW
+    EXECUTE FUNCTION prevent_ledger_update();
+
+CREATE TRIGGER tr_prevent_ledger_delete
+    BEFORE DELETE ON ledger_entries
+    FOR EACH ROW
+    EXECUTE FUNCTION prevent_ledger_delete();
+
+-- =====================================================
+-- BALANCE CHECKPOINTS (INSERT ONLY)
+-- =====================================================
+
+CREATE TABLE ledger_balance_checkpoints (
+    id BIGSERIAL PRIMARY KEY,
+    wallet_id BIGINT NOT NULL,
+    checkpoint_at TIMESTAMP NOT NULL,
+    balance NUMERIC(18, 4) NOT NULL,
+    last_entry_id BIGINT NOT NULL,
+    last_entry_at TIMESTAMP NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX uq_ledger_checkpoint_wallet_at ON ledger_balance_checkpoints (wallet_id, checkpoint_at DESC);
+
+CREATE INDEX idx_ledger_checkpoint_at ON ledger_balance_checkpoints (checkpoint_at DESC);
+
+-- =====================================================
+-- DOCUMENTATION
+-- =====================================================
+
+COMMENT ON TABLE ledger_entries IS 'IMMUTABLE audit trail of all financial transactions - SOURCE OF TRUTH (monthly partitions)';
+
+COMMENT ON COLUMN ledger_entries.wallet_sequence IS 'Per-wallet sequence assigned by funds-service (NULL for direct API entries)';
+
+COMMENT ON TABLE ledger_wallet_sequences IS 'Recorded (wallet, sequence) pairs - keeps wallet sequences unique across partitions';
+
+COMMENT ON TABLE ledger_balance_checkpoints IS 'Wallet balance as of checkpoint_at: balance_after of the wallet''s last entry at or before it';
+
+COMMENT ON COLUMN ledger_balance_checkpoints.last_entry_id IS 'Last ledger entry covered by the checkpoint';
@@ -0,0 +1,25 @@
+-- V5__Ledger_held_entries.sql
+-- Entries from funds-service can arrive out of wallet-sequence order (outbox
+-- retries, several relays). An entry whose predecessor is not recorded yet
+-- waits here and is recorded, in order, once the gap is filled. Unlike
+-- ledger_entries, rows are deleted when released.
+
+CREATE TABLE ledger_held_entries (
+    id BIGSERIAL PRIMARY KEY,
+    wallet_id BIGINT NOT NULL,
+    wallet_sequence BIGINT NOT NULL,
+    entry_type VARCHAR(20) NOT NULL,
+    amount NUMERIC(18, 4) NOT NULL,
+    balance_before NUMERIC(18, 4) NOT NULL,
+    balance_after NUMERIC(18, 4) NOT NULL,
+    reference_id VARCHAR(100),
+    reference_type VARCHAR(50),
+    description VARCHAR(500),
+    held_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+CREATE UNIQUE INDEX uq_ledger_held_wallet_sequence ON ledger_held_entries (wallet_id, wallet_sequence);
+
+CREATE INDEX idx_ledger_held_at ON ledger_held_entries (held_at);
+
+COMMENT ON TABLE ledger_held_entries IS 'Entries from funds-service waiting for an earlier wallet sequence to be recorded';
@@ -0,0 +1,13 @@
+-- V6__Ledger_held_entry_failures.sql
+-- A sequenced entry that cannot be recorded is parked in ledger_held_entries
+-- rather than dead-lettered: dropping it would leave a gap that holds every
+-- later entry of its wallet forever. Parked wallets are retried periodically;
+-- the last failure is kept for operators, who can skip the sequence.
+
+ALTER TABLE ledger_held_entries ADD COLUMN attempts INT NOT NULL DEFAULT 0;
+
+ALTER TABLE ledger_held_entries ADD COLUMN last_error VARCHAR(500);
+
+COMMENT ON COLUMN ledger_held_entries.attempts IS 'Failed attempts to record the entry';
+
+COMMENT ON COLUMN ledger_held_entries.last_error IS 'Why the last attempt to record the entry failed';
@@ -0,0 +1,125 @@
+package in.winvestco.ledger_service.benchmark;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import in.winvestco.ledger_service.config.LedgerWriteProperties;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.repository.LedgerEntryWriter;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.SimpleDriverDataSource;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.math.BigDecimal;
+import java.sql.DriverManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Ledger append throughput, in entries per second, against a real PostgreSQL
+ * ledger schema (Flyway-migrated winvestco_ledger_db or a scratch copy).
+ *
+ * - perEntryInsert: the old write path - one transaction per entry, the id
+ * generated by the column default and read back, a round trip each
+ * - groupAppend: LedgerEntryWriter appending entriesPerCommit entries in one
+ * transaction, i.e. one group commit (or one intake batch) of that size. With
+ * entriesPerCommit = 1 it is a lone group-commit caller
+ *
+ * Every entry gets a fresh wallet sequence, so no row is skipped as a
+ * duplicate. Each trial writes to its own wallet id far above real ones; the
+ * ledger is immutable, so the rows stay - run it against a scratch database.
+ *
+ * Not run by surefire. Run with:
+ * mvn -pl ledger-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=in.winvestco.ledger_service.benchmark.LedgerWriteBenchmark
+ * -Dledger.benchmark.url=jdbc:postgresql://127.0.0.1:5432/winvestco_ledger_db
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LedgerWriteBenchmark {
+
+    private static final long BENCHMARK_WALLETS = 9_000_000_000L;
+    private static final int MAX_ENTRIES_PER_COMMIT = 500;
+
+    @Param({ "1", "50", "500" })
+    private int entriesPerCommit;
+
+    private JdbcTemplate jdbcTemplate;
+    private TransactionTemplate transactionTemplate;
+    private LedgerEntryWriter writer;
+    private long walletId;
+    private long sequence;
+
+    @Setup(Level.Trial)
+    public void setUp() throws Exception {
+        String url = System.getProperty("ledger.benchmark.url", "jdbc:postgresql://127.0.0.1:5432/winvestco_ledger_db");
+        SimpleDriverDataSource dataSource = new SimpleDriverDataSource(DriverManager.getDriver(url), url,
+                System.getProperty("ledger.benchmark.username", "postgres"),
+                System.getProperty("ledger.benchmark.password", "postgres"));
+
+        jdbcTemplate = new JdbcTemplate(dataSource);
+        transactionTemplate = new TransactionTemplate(new DataSourceTransactionManager(dataSource));
+        writer = new LedgerEntryWriter(dataSource, null, new LedgerWriteProperties());
+        walletId = BENCHMARK_WALLETS + System.currentTimeMillis() % 1_000_000_000L;
+    }
+
+    @Benchmark
+    public Long perEntryInsert() {
+        return transactionTemplate.execute(status -> jdbcTemplate.queryForObject(
+                "INSERT INTO ledger_entries (wallet_id, entry_type, amount, balance_before, balance_after, "
+                        + "reference_id, reference_type, description, wallet_sequence, created_at) "
+                        + "VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, now()) RETURNING id",
+                Long.class, walletId, LedgerEntryType.DEPOSIT.name(), BigDecimal.ONE, BigDecimal.ZERO,
+                BigDecimal.ONE, "bench", "BENCHMARK", "benchmark entry", ++sequence));
+    }
+
+    /**
+     * Reported per entry: JMH divides by MAX_ENTRIES_PER_COMMIT, so each
+     * invocation makes that many entries in commits of entriesPerCommit.
+     */
+    @Benchmark
+    @OperationsPerInvocation(MAX_ENTRIES_PER_COMMIT)
+    public int groupAppend() {
+        int written = 0;
+        for (int commit = 0; commit < MAX_ENTRIES_PER_COMMIT / entriesPerCommit; commit++) {
+            List<LedgerEntry> entries = nextEntries(entriesPerCommit);
+            written += transactionTemplate.execute(status -> writer.append(entries)).size();
+        }
+        return written;
+    }
+
+    private List<LedgerEntry> nextEntries(int count) {
+        List<LedgerEntry> entries = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            entries.add(LedgerEntry.create(walletId, LedgerEntryType.DEPOSIT, BigDecimal.ONE, BigDecimal.ZERO,
+                    BigDecimal.ONE, "bench", "BENCHMARK", "benchmark entry", ++sequence));
+        }
+        return entries;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(LedgerWriteBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
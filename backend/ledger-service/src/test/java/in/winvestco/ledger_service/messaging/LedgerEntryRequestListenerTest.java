@@ -0,0 +1,131 @@
+package in.winvestco.ledger_service.messaging;
+
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.enums.LedgerEntryType;
+import in.winvestco.common.event.LedgerEntryRequestedEvent;
+import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.ledger_service.service.LedgerService;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerEntryRequestListener Tests")
+class LedgerEntryRequestListenerTest {
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    @InjectMocks
+    private LedgerEntryRequestListener listener;
+
+    @Test
+    @DisplayName("Should record the whole batch in one call")
+    void handle_ShouldRecordBatchAtOnce() {
+        // When
+        listener.handleLedgerEntriesRequested(List.of(event(1L), event(2L)));
+
+        // Then
+        verify(ledgerService).recordEntries(argThat(requests -> requests.size() == 2
+                && requests.get(0).getWalletSequence() == 1L
+                && requests.get(1).getWalletSequence() == 2L));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Should fall back to single entries and park the bad sequenced one")
+    void handle_WhenBatchRejected_ShouldParkBadSequencedEntry() {
+        // Given
+        LedgerEntryRequestedEvent good = event(1L);
+        LedgerEntryRequestedEvent bad = event(2L);
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("bad entry");
+        when(ledgerService.recordEntries(anyList())).thenAnswer(invocation -> {
+            List<CreateLedgerEntryRequest> requests = invocation.getArgument(0);
+            if (requests.stream().anyMatch(r -> r.getWalletSequence() == 2L)) {
+                throw failure;
+            }
+            return List.of();
+        });
+
+        // When
+        listener.handleLedgerEntriesRequested(List.of(good, bad));
+
+        // Then - batch, then each entry on its own; the bad one keeps its sequence
+        verify(ledgerService, times(3)).recordEntries(anyList());
+        verify(ledgerService).park(argThat(request -> request.getWalletSequence() == 2L), eq(failure));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Should dead-letter a bad entry without a wallet sequence")
+    void handle_WhenBatchRejected_ShouldDeadLetterBadUnsequencedEntry() {
+        // Given
+        LedgerEntryRequestedEvent bad = event(null);
+        when(ledgerService.recordEntries(anyList())).thenThrow(new DataIntegrityViolationException("bad entry"));
+
+        // When
+        listener.handleLedgerEntriesRequested(List.of(bad));
+
+        // Then
+        verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, bad);
+        verify(ledgerService, never()).park(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should rethrow database outages so the batch is requeued")
+    void handle_WhenDatabaseUnavailable_ShouldRethrow() {
+        // Given
+        when(ledgerService.recordEntries(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When & Then
+        assertThrows(QueryTimeoutException.class,
+                () -> listener.handleLedgerEntriesRequested(List.of(event(1L))));
+        verify(ledgerService, times(1)).recordEntries(anyList());
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    @Test
+    @DisplayName("Should map every event field onto the request")
+    void toRequest_ShouldCopyAllFields() {
+        CreateLedgerEntryRequest request = LedgerEntryRequestListener.toRequest(event(3L));
+
+        assertEquals(7L, request.getWalletId());
+        assertEquals(3L, request.getWalletSequence());
+        assertEquals(LedgerEntryType.LOCK, request.getEntryType());
+        assertEquals(new BigDecimal("100.00"), request.getAmount());
+        assertEquals(new BigDecimal("1000.00"), request.getBalanceBefore());
+        assertEquals(new BigDecimal("900.00"), request.getBalanceAfter());
+        assertEquals("ORD-1", request.getReferenceId());
+        assertEquals("ORDER", request.getReferenceType());
+    }
+
+    private static LedgerEntryRequestedEvent event(Long walletSequence) {
+        return LedgerEntryRequestedEvent.builder()
+                .walletId(7L)
+                .walletSequence(walletSequence)
+                .entryType(LedgerEntryType.LOCK)
+                .amount(new BigDecimal("100.00"))
+                .balanceBefore(new BigDecimal("1000.00"))
+                .balanceAfter(new BigDecimal("900.00"))
+                .referenceId("ORD-1")
+                .referenceType("ORDER")
+                .description("Funds locked for order: ORD-1")
+                .build();
+    }
+}
@@ -0,0 +1,178 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import in.winvestco.ledger_service.config.LedgerWriteProperties;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.PreparedStatementSetter;
+import org.springframework.jdbc.core.RowMapper;
+
+import java.math.BigDecimal;
+import java.sql.PreparedStatement;
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.LongStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerEntryWriter Tests")
+class LedgerEntryWriterTest {
+
+    private static final Instant NOW = Instant.parse("2026-01-15T10:00:00Z");
+    private static final String NEXTVAL = "SELECT nextval('" + LedgerEntry.ID_SEQUENCE + "')";
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    private LedgerWriteProperties properties;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LedgerWriteProperties();
+    }
+
+    @Test
+    @DisplayName("Should hand out ids from pooled blocks, one nextval per block")
+    void allocateId_ShouldUsePooledBlocks() {
+        // Given
+        when(jdbcTemplate.queryForObject(NEXTVAL, Long.class)).thenReturn(100L, 150L);
+        LedgerEntryWriter writer = writer(true);
+
+        // When
+        List<Long> ids = LongStream.range(0, LedgerEntry.ID_ALLOCATION_SIZE + 1)
+                .mapToObj(i -> writer.allocateId()).toList();
+
+        // Then - (50, 100] then (100, 150]
+        assertEquals(51L, ids.get(0));
+        assertEquals(100L, ids.get(LedgerEntry.ID_ALLOCATION_SIZE - 1));
+        assertEquals(101L, ids.get(LedgerEntry.ID_ALLOCATION_SIZE));
+        verify(jdbcTemplate, times(2)).queryForObject(NEXTVAL, Long.class);
+    }
+
+    @Test
+    @DisplayName("Should skip the first value of a fresh sequence, whose block would start below 1")
+    void allocateId_OnFreshSequence_ShouldNotHandOutNonPositiveIds() {
+        // Given
+        when(jdbcTemplate.queryForObject(NEXTVAL, Long.class)).thenReturn(1L, 51L);
+
+        // When & Then
+        assertEquals(2L, writer(true).allocateId());
+    }
+
+    @Test
+    @DisplayName("Should insert in multi-row chunks and return only the rows that went in")
+    @SuppressWarnings("unchecked")
+    void append_OnPostgres_ShouldInsertChunksAndDropConflicts() throws Exception {
+        // Given - chunks of 2; the row with wallet sequence 3 is already recorded
+        properties.setInsertChunkSize(2);
+        when(jdbcTemplate.queryForObject(NEXTVAL, Long.class)).thenReturn(50L);
+        when(jdbcTemplate.query(anyString(), any(PreparedStatementSetter.class), any(RowMapper.class)))
+                .thenAnswer(invocation -> insertedIds(invocation.getArgument(1), 3L));
+        List<LedgerEntry> entries = LongStream.rangeClosed(1, 5).mapToObj(LedgerEntryWriterTest::entry).toList();
+
+        // When
+        List<LedgerEntry> written = writer(true).append(entries);
+
+        // Then
+        ArgumentCaptor<String> sql = ArgumentCaptor.forClass(String.class);
+        verify(jdbcTemplate, times(3)).query(sql.capture(), any(PreparedStatementSetter.class), any(RowMapper.class));
+        assertTrue(sql.getAllValues().get(0).contains("VALUES (?, ?, ?, ?, ?, ?, ?, ?, ?, ?, ?), (?"));
+        assertTrue(sql.getAllValues().get(0).contains("NOT EXISTS (SELECT 1 FROM ledger_wallet_sequences"));
+        assertTrue(sql.getAllValues().get(0).endsWith("RETURNING id"));
+        assertFalse(sql.getAllValues().get(2).contains("?), (?"));
+
+        assertEquals(List.of(1L, 2L, 4L, 5L), written.stream().map(LedgerEntry::getWalletSequence).toList());
+        assertEquals(List.of(1L, 2L, 4L, 5L), written.stream().map(LedgerEntry::getId).toList());
+        assertTrue(written.stream().allMatch(e -> NOW.equals(e.getCreatedAt())));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Should fall back to a sequence lookup and saveAll off PostgreSQL")
+    @SuppressWarnings("unchecked")
+    void append_OffPostgres_ShouldSkipRecordedSequences() {
+        // Given
+        when(ledgerEntryRepository.findRecordedSequences(7L, 1L, 3L)).thenReturn(List.of(2L));
+        when(ledgerEntryRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        List<LedgerEntry> written = writer(false).append(List.of(entry(1L), entry(2L), entry(3L)));
+
+        // Then
+        assertEquals(List.of(1L, 3L), written.stream().map(LedgerEntry::getWalletSequence).toList());
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should report the last recorded sequence of each wallet, 0 for none")
+    void lastRecordedSequences_OffPostgres_ShouldDefaultToZero() {
+        // Given
+        when(ledgerEntryRepository.findLastRecordedSequence(7L)).thenReturn(12L);
+        when(ledgerEntryRepository.findLastRecordedSequence(8L)).thenReturn(null);
+
+        // When
+        Map<Long, Long> last = writer(false).lastRecordedSequences(List.of(7L, 8L));
+
+        // Then
+        assertEquals(Map.of(7L, 12L, 8L, 0L), last);
+        verifyNoInteractions(jdbcTemplate);
+    }
+
+    @Test
+    @DisplayName("Should do nothing for an empty list")
+    void append_Empty_ShouldNotTouchDatabase() {
+        assertTrue(writer(true).append(List.of()).isEmpty());
+        verifyNoInteractions(jdbcTemplate, ledgerEntryRepository);
+    }
+
+    private LedgerEntryWriter writer(boolean postgres) {
+        return new LedgerEntryWriter(jdbcTemplate, ledgerEntryRepository, properties,
+                Clock.fixed(NOW, ZoneOffset.UTC), postgres);
+    }
+
+    /**
+     * Run the statement setter against a mock statement and return the bound
+     * ids, minus the row bound with the conflicting wallet sequence.
+     */
+    private static List<Long> insertedIds(PreparedStatementSetter setter, long conflictingSequence) throws Exception {
+        PreparedStatement ps = mock(PreparedStatement.class);
+        setter.setValues(ps);
+        ArgumentCaptor<Integer> index = ArgumentCaptor.forClass(Integer.class);
+        ArgumentCaptor<Long> value = ArgumentCaptor.forClass(Long.class);
+        verify(ps, atLeastOnce()).setLong(index.capture(), value.capture());
+
+        // Per row: id at column 1, wallet_id at 2, wallet_sequence at 10
+        List<Long> ids = new ArrayList<>();
+        for (int i = 0; i < index.getAllValues().size(); i++) {
+            int column = (index.getAllValues().get(i) - 1) % 11 + 1;
+            if (column == 1) {
+                ids.add(value.getAllValues().get(i));
+            } else if (column == 10 && value.getAllValues().get(i) == conflictingSequence) {
+                ids.remove(ids.size() - 1);
+            }
+        }
+        return ids;
+    }
+
+    private static LedgerEntry entry(long walletSequence) {
+        return LedgerEntry.create(7L, LedgerEntryType.DEPOSIT, new BigDecimal("10.00"), BigDecimal.ZERO,
+                new BigDecimal("10.00"), "REF-" + walletSequence, "TEST", "entry", walletSequence);
+    }
+}
@@ -0,0 +1,85 @@
+package in.winvestco.ledger_service.repository;
+
+import in.winvestco.ledger_service.config.LedgerMaintenanceProperties;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerPartitionManager Tests")
+class LedgerPartitionManagerTest {
+
+    private static final Clock CLOCK = Clock.fixed(Instant.parse("2026-11-20T10:00:00Z"), ZoneOffset.UTC);
+
+    @Mock
+    private JdbcTemplate jdbcTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerPartitionManager manager;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(new SimpleTransactionStatus());
+        manager = new LedgerPartitionManager(jdbcTemplate, new TransactionTemplate(transactionManager),
+                new LedgerMaintenanceProperties(), CLOCK, true);
+    }
+
+    @Test
+    @DisplayName("Should name partitions by month")
+    void partitionName_ShouldUseYearAndMonth() {
+        assertEquals("ledger_entries_p202612", LedgerPartitionManager.partitionName(YearMonth.of(2026, 12)));
+    }
+
+    @Test
+    @DisplayName("Should create this month's partition and the ones ahead, across the year boundary")
+    void maintain_ShouldCreateUpcomingMonthlyPartitions() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("ledger_entries")))
+                .thenReturn(List.of("p"));
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(jdbcTemplate).queryForObject(contains("pg_advisory_xact_lock"), eq(String.class),
+                eq("ledger_entries_partitioning"));
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS ledger_entries_p202611 PARTITION OF ledger_entries"
+                + " FOR VALUES FROM ('2026-11-01') TO ('2026-12-01')");
+        verify(jdbcTemplate).execute("CREATE TABLE IF NOT EXISTS ledger_entries_p202702 PARTITION OF ledger_entries"
+                + " FOR VALUES FROM ('2027-02-01') TO ('2027-03-01')");
+        verify(jdbcTemplate, times(4)).execute(startsWith("CREATE TABLE IF NOT EXISTS"));
+    }
+
+    @Test
+    @DisplayName("Should leave an unpartitioned table alone")
+    void maintain_WhenNotPartitioned_ShouldNotCreatePartitions() {
+        // Given
+        when(jdbcTemplate.queryForList(contains("relkind"), eq(String.class), eq("ledger_entries")))
+                .thenReturn(List.of("r"));
+
+        // When
+        manager.maintain();
+
+        // Then
+        verify(jdbcTemplate, never()).execute(anyString());
+    }
+}
@@ -0,0 +1,72 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.ledger_service.config.LedgerMaintenanceProperties;
+import in.winvestco.ledger_service.repository.LedgerBalanceCheckpointRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("BalanceCheckpointService Tests")
+class BalanceCheckpointServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-16T10:00:00Z");
+
+    @Mock
+    private LedgerBalanceCheckpointRepository checkpointRepository;
+
+    private BalanceCheckpointService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new BalanceCheckpointService(checkpointRepository, new LedgerMaintenanceProperties(),
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should checkpoint wallets with entries between the last cutoff and now minus the settle time")
+    void createCheckpoints_ShouldCoverEntriesSinceLastRun() {
+        // Given
+        Instant lastCutoff = NOW.minusSeconds(3600);
+        when(checkpointRepository.findLatestCheckpointAt()).thenReturn(lastCutoff);
+        when(checkpointRepository.createCheckpoints(lastCutoff, NOW.minusSeconds(300), NOW)).thenReturn(42);
+
+        // When & Then
+        assertEquals(42, service.createCheckpoints());
+    }
+
+    @Test
+    @DisplayName("Should cover all history on the first run")
+    void createCheckpoints_FirstRun_ShouldStartFromEpoch() {
+        // Given
+        when(checkpointRepository.findLatestCheckpointAt()).thenReturn(null);
+
+        // When
+        service.createCheckpoints();
+
+        // Then
+        verify(checkpointRepository).createCheckpoints(Instant.EPOCH, NOW.minusSeconds(300), NOW);
+    }
+
+    @Test
+    @DisplayName("Should skip the run when the cutoff has not moved past the last checkpoint")
+    void createCheckpoints_WhenCutoffNotAdvanced_ShouldSkip() {
+        // Given
+        when(checkpointRepository.findLatestCheckpointAt()).thenReturn(NOW.minusSeconds(60));
+
+        // When & Then
+        assertEquals(0, service.createCheckpoints());
+        verify(checkpointRepository, never()).createCheckpoints(any(), any(), any());
+    }
+}
@@ -0,0 +1,106 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.repository.LedgerHeldEntryRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.time.Clock;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("HeldEntryRetryService Tests")
+class HeldEntryRetryServiceTest {
+
+    private static final Instant NOW = Instant.parse("2026-10-16T10:00:00Z");
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private LedgerHeldEntryRepository heldEntryRepository;
+
+    private MeterRegistry meterRegistry;
+    private HeldEntryRetryService service;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        service = new HeldEntryRetryService(ledgerService, heldEntryRepository, meterRegistry,
+                Clock.fixed(NOW, ZoneOffset.UTC));
+    }
+
+    @Test
+    @DisplayName("Should retry every wallet with held entries and keep going past a failing one")
+    void retryHeldWallets_ShouldRecordFailureAndContinue() {
+        // Given
+        DataIntegrityViolationException failure = new DataIntegrityViolationException("bad entry");
+        when(heldEntryRepository.findHeldWalletIds()).thenReturn(List.of(1L, 2L));
+        when(ledgerService.releaseHeld(1L)).thenThrow(failure);
+        when(ledgerService.releaseHeld(2L)).thenReturn(List.of(new LedgerEntryDTO(), new LedgerEntryDTO()));
+
+        // When
+        int recorded = service.retryHeldWallets();
+
+        // Then
+        assertEquals(2, recorded);
+        verify(ledgerService).recordHeldFailure(1L, failure);
+        assertEquals(1.0, meterRegistry.get("ledger.held.retry.failures").counter().count());
+    }
+
+    @Test
+    @DisplayName("Should stop the run on a database outage")
+    void retryHeldWallets_WhenDatabaseUnavailable_ShouldRethrow() {
+        // Given
+        when(heldEntryRepository.findHeldWalletIds()).thenReturn(List.of(1L, 2L));
+        when(ledgerService.releaseHeld(1L)).thenThrow(new QueryTimeoutException("timeout"));
+
+        // When & Then
+        assertThrows(QueryTimeoutException.class, () -> service.retryHeldWallets());
+        verify(ledgerService, never()).releaseHeld(2L);
+        verify(ledgerService, never()).recordHeldFailure(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should report the held entry count and how long the oldest has waited")
+    void retryHeldWallets_ShouldRefreshGauges() {
+        // Given
+        when(heldEntryRepository.findHeldWalletIds()).thenReturn(List.of());
+        when(heldEntryRepository.count()).thenReturn(3L);
+        when(heldEntryRepository.findOldestHeldAt()).thenReturn(NOW.minusSeconds(900));
+
+        // When
+        service.retryHeldWallets();
+
+        // Then
+        assertEquals(3.0, meterRegistry.get("ledger.held.entries").gauge().value());
+        assertEquals(900.0, meterRegistry.get("ledger.held.oldest.age").gauge().value());
+    }
+
+    @Test
+    @DisplayName("Should report no age when nothing is held")
+    void retryHeldWallets_NothingHeld_ShouldReportZeroAge() {
+        // Given
+        when(heldEntryRepository.findHeldWalletIds()).thenReturn(List.of());
+        when(heldEntryRepository.findOldestHeldAt()).thenReturn(null);
+
+        // When
+        service.retryHeldWallets();
+
+        // Then
+        assertEquals(0.0, meterRegistry.get("ledger.held.oldest.age").gauge().value());
+    }
+}
@@ -0,0 +1,182 @@
+package in.winvestco.ledger_service.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.winvestco.common.enums.LedgerEntryType;
+import in.winvestco.ledger_service.config.LedgerExportProperties;
+import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.mapper.LedgerMapper;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.repository.LedgerEntryRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.io.ByteArrayOutputStream;
+import java.io.StringWriter;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerExportService Tests")
+class LedgerExportServiceTest {
+
+    private static final Instant START = Instant.parse("2026-01-01T00:00:00Z");
+    private static final Instant END = Instant.parse("2026-02-01T00:00:00Z");
+
+    @Mock
+    private LedgerEntryRepository ledgerEntryRepository;
+
+    @Mock
+    private LedgerMapper ledgerMapper;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerExportProperties properties;
+    private LedgerExportService service;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LedgerExportProperties();
+        service = new LedgerExportService(ledgerEntryRepository, ledgerMapper,
+                new ObjectMapper().findAndRegisterModules(), entityManager, transactionManager, properties);
+    }
+
+    @Test
+    @DisplayName("Should write one JSON line per entry and detach each entry")
+    void export_Ndjson_ShouldWriteLinePerEntry() throws Exception {
+        // Given
+        LedgerEntry first = entry(1L, 7L, "0", "100");
+        LedgerEntry second = entry(2L, 7L, "100", "150");
+        when(ledgerEntryRepository.streamByWalletIdAndDateRange(7L, START, END)).thenReturn(Stream.of(first, second));
+        when(ledgerMapper.toDTO(any(LedgerEntry.class)))
+                .thenAnswer(invocation -> LedgerEntryDTO.builder()
+                        .id(invocation.<LedgerEntry>getArgument(0).getId()).build());
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = service.export(7L, START, END, LedgerExportService.Format.NDJSON, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(2, lines.length);
+        assertTrue(lines[0].contains("\"id\":1"));
+        assertTrue(lines[1].contains("\"id\":2"));
+        verify(entityManager).detach(first);
+        verify(entityManager).detach(second);
+        verify(ledgerEntryRepository, never()).streamAllByDateRange(any(), any());
+    }
+
+    @Test
+    @DisplayName("Should write a CSV header and one row per entry across all wallets")
+    void export_Csv_ShouldWriteHeaderAndRows() throws Exception {
+        // Given
+        when(ledgerEntryRepository.streamAllByDateRange(START, END))
+                .thenReturn(Stream.of(entry(1L, 7L, "0", "100"), entry(2L, 8L, "0", "25.5")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        long written = service.export(null, START, END, LedgerExportService.Format.CSV, out);
+
+        // Then
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, written);
+        assertEquals(LedgerExportService.CSV_HEADER, lines[0]);
+        assertTrue(lines[1].startsWith("1,7,1,DEPOSIT,100,0,100,"));
+        assertTrue(lines[2].endsWith(",2026-01-15T10:00:00Z"));
+        verifyNoInteractions(ledgerMapper);
+    }
+
+    @Test
+    @DisplayName("Should quote CSV fields containing separators, quotes or line breaks")
+    void csvField_ShouldQuoteWhenNeeded() {
+        assertEquals("", LedgerExportService.csvField(null));
+        assertEquals("plain text", LedgerExportService.csvField("plain text"));
+        assertEquals("\"a,b\"", LedgerExportService.csvField("a,b"));
+        assertEquals("\"say \"\"hi\"\"\"", LedgerExportService.csvField("say \"hi\""));
+        assertEquals("\"two\nlines\"", LedgerExportService.csvField("two\nlines"));
+    }
+
+    @Test
+    @DisplayName("Should report a break when balanceBefore differs from the previous balanceAfter")
+    void reconcileSlice_ShouldReportChainBreaks() {
+        // Given - wallet 7 breaks at entry 3; wallet 8 starts its own chain
+        when(ledgerEntryRepository.streamWalletSliceByDateRange(START, END, 2L, 1L)).thenReturn(Stream.of(
+                entry(1L, 7L, "0", "100"),
+                entry(2L, 7L, "100", "150"),
+                entry(3L, 7L, "140", "200"),
+                entry(4L, 8L, "500", "600")));
+        StringWriter writer = new StringWriter();
+
+        // When
+        LedgerExportService.SliceResult result = service.reconcileSlice(START, END, 2, 1, writer);
+
+        // Then
+        assertEquals(new LedgerExportService.SliceResult(2, 4, 1), result);
+        String line = writer.toString();
+        assertEquals(1, line.lines().count());
+        assertTrue(line.contains("\"type\":\"break\""));
+        assertTrue(line.contains("\"entryId\":3"));
+        assertTrue(line.contains("\"previousEntryId\":2"));
+        verify(entityManager, times(4)).detach(any(LedgerEntry.class));
+    }
+
+    @Test
+    @DisplayName("Should sum the slices into a summary line, capped at max parallelism")
+    void reconcile_ShouldWriteSummaryLine() throws Exception {
+        // Given
+        properties.setMaxParallelism(2);
+        when(ledgerEntryRepository.streamWalletSliceByDateRange(eq(START), eq(END), eq(2L), anyLong()))
+                .thenAnswer(invocation -> invocation.<Long>getArgument(3) == 0L
+                        ? Stream.of(entry(1L, 8L, "0", "100"), entry(2L, 8L, "90", "100"))
+                        : Stream.of(entry(3L, 7L, "0", "100")));
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        // When
+        var summary = service.reconcile(START, END, 8, out);
+
+        // Then
+        assertEquals(2, summary.getSlices());
+        assertEquals(2, summary.getWallets());
+        assertEquals(3, summary.getEntries());
+        assertEquals(1, summary.getBreaks());
+        assertTrue(summary.isComplete());
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        assertEquals(2, lines.length);
+        assertTrue(lines[1].contains("\"type\":\"summary\""));
+        verify(transactionManager, times(2)).getTransaction(any());
+    }
+
+    private static LedgerEntry entry(long id, long walletId, String balanceBefore, String balanceAfter) {
+        BigDecimal before = new BigDecimal(balanceBefore);
+        BigDecimal after = new BigDecimal(balanceAfter);
+        return LedgerEntry.builder()
+                .id(id)
+                .walletId(walletId)
+                .entryType(LedgerEntryType.DEPOSIT)
+                .amount(after.subtract(before))
+                .balanceBefore(before)
+                .balanceAfter(after)
+                .referenceId("REF-" + id)
+                .referenceType("TEST")
+                .description("entry " + id)
+                .walletSequence(id)
+                .createdAt(Instant.parse("2026-01-15T10:00:00Z"))
+                .build();
+    }
+}
@@ -0,0 +1,166 @@
+package in.winvestco.ledger_service.service;
+
+import in.winvestco.common.enums.LedgerEntryType;
+import in.winvestco.ledger_service.config.LedgerWriteProperties;
+import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
+import in.winvestco.ledger_service.dto.LedgerEntryDTO;
+import in.winvestco.ledger_service.mapper.LedgerMapper;
+import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.service.LedgerGroupCommitter.PendingEntry;
+import in.winvestco.ledger_service.testdata.LedgerTestDataFactory;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+@DisplayName("LedgerGroupCommitter Tests")
+class LedgerGroupCommitterTest {
+
+    @Mock
+    private LedgerService ledgerService;
+
+    @Mock
+    private LedgerMapper ledgerMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private LedgerWriteProperties properties;
+    private LedgerGroupCommitter committer;
+
+    @BeforeEach
+    void setUp() {
+        properties = new LedgerWriteProperties();
+        committer = new LedgerGroupCommitter(ledgerService, ledgerMapper, transactionManager, properties,
+                new SimpleMeterRegistry());
+    }
+
+    @AfterEach
+    void tearDown() {
+        committer.stop();
+    }
+
+    @Test
+    @DisplayName("Should append a group in one call and hand each caller its entry")
+    void commit_ShouldCompleteEveryCaller() throws Exception {
+        // Given
+        PendingEntry first = pending(1L);
+        PendingEntry second = pending(2L);
+        when(ledgerService.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerMapper.toDTO(any(LedgerEntry.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+
+        // When
+        committer.commit(List.of(first, second));
+
+        // Then
+        verify(ledgerService).append(argThat(entries -> entries.size() == 2));
+        verify(transactionManager).commit(any());
+        assertEquals(1L, first.result().get().getWalletSequence());
+        assertEquals(2L, second.result().get().getWalletSequence());
+    }
+
+    @Test
+    @DisplayName("Should fail only the caller whose entry was already recorded")
+    @SuppressWarnings("unchecked")
+    void commit_WhenEntrySkipped_ShouldFailThatCallerOnly() throws Exception {
+        // Given - the writer skips wallet sequence 1
+        PendingEntry recorded = pending(1L);
+        PendingEntry fresh = pending(2L);
+        when(ledgerService.append(anyList())).thenAnswer(invocation -> ((List<LedgerEntry>) invocation
+                .getArgument(0)).stream().filter(entry -> entry.getWalletSequence() == 2L).toList());
+        when(ledgerMapper.toDTO(any(LedgerEntry.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+
+        // When
+        committer.commit(List.of(recorded, fresh));
+
+        // Then
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> recorded.result().get());
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+        assertEquals(2L, fresh.result().get().getWalletSequence());
+    }
+
+    @Test
+    @DisplayName("Should retry a failed group one entry per transaction")
+    void commit_WhenGroupFails_ShouldRetryEntriesAlone() throws Exception {
+        // Given
+        PendingEntry good = pending(1L);
+        PendingEntry bad = pending(2L);
+        when(ledgerService.append(anyList())).thenThrow(new QueryTimeoutException("timeout"));
+        when(ledgerService.recordEntry(good.request())).thenReturn(LedgerTestDataFactory.createTestDTO());
+        when(ledgerService.recordEntry(bad.request())).thenThrow(new DataIntegrityViolationException("bad entry"));
+
+        // When
+        committer.commit(List.of(good, bad));
+
+        // Then
+        assertNotNull(good.result().get());
+        ExecutionException failure = assertThrows(ExecutionException.class, () -> bad.result().get());
+        assertInstanceOf(DataIntegrityViolationException.class, failure.getCause());
+    }
+
+    @Test
+    @DisplayName("Should record through the committer thread once started")
+    void record_WhenStarted_ShouldGoThroughGroupCommit() {
+        // Given
+        CreateLedgerEntryRequest request = request(1L);
+        when(ledgerService.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        when(ledgerMapper.toDTO(any(LedgerEntry.class))).thenAnswer(invocation -> dto(invocation.getArgument(0)));
+        committer.start();
+
+        // When
+        LedgerEntryDTO result = committer.record(request);
+
+        // Then
+        assertEquals(1L, result.getWalletSequence());
+        verify(ledgerService, never()).recordEntry(any());
+    }
+
+    @Test
+    @DisplayName("Should write directly when group commit is disabled")
+    void record_WhenDisabled_ShouldRecordDirectly() {
+        // Given
+        properties.setGroupCommitEnabled(false);
+        CreateLedgerEntryRequest request = request(1L);
+        LedgerEntryDTO dto = LedgerTestDataFactory.createTestDTO();
+        when(ledgerService.recordEntry(request)).thenReturn(dto);
+        committer.start();
+
+        // When & Then
+        assertSame(dto, committer.record(request));
+        verify(ledgerService, never()).append(anyList());
+    }
+
+    private static PendingEntry pending(long walletSequence) {
+        return new PendingEntry(request(walletSequence), new CompletableFuture<>());
+    }
+
+    private static CreateLedgerEntryRequest request(long walletSequence) {
+        CreateLedgerEntryRequest request = LedgerTestDataFactory.createTestRequest(1L, LedgerEntryType.DEPOSIT,
+                new BigDecimal("100.00"), new BigDecimal("1000.00"), new BigDecimal("1100.00"));
+        request.setWalletSequence(walletSequence);
+        return request;
+    }
+
+    private static LedgerEntryDTO dto(LedgerEntry entry) {
+        LedgerEntryDTO dto = LedgerTestDataFactory.createTestDTO();
+        dto.setWalletSequence(entry.getWalletSequence());
+        return dto;
+    }
+}
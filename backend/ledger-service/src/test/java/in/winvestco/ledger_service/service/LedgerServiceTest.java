@@ -5,8 +5,13 @@ import in.winvestco.ledger_service.dto.CreateLedgerEntryRequest;
 import in.winvestco.ledger_service.dto.LedgerEntryDTO;
 import in.winvestco.ledger_service.mapper.LedgerMapper;
 import in.winvestco.ledger_service.messaging.LedgerEventPublisher;
+import in.winvestco.ledger_service.model.LedgerBalanceCheckpoint;
 import in.winvestco.ledger_service.model.LedgerEntry;
+import in.winvestco.ledger_service.model.LedgerHeldEntry;
+import in.winvestco.ledger_service.repository.LedgerBalanceCheckpointRepository;
 import in.winvestco.ledger_service.repository.LedgerEntryRepository;
+import in.winvestco.ledger_service.repository.LedgerEntryWriter;
+import in.winvestco.ledger_service.repository.LedgerHeldEntryRepository;
 import in.winvestco.ledger_service.testdata.LedgerTestDataFactory;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
@@ -15,6 +20,7 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.junit.jupiter.params.ParameterizedTest;
 import org.junit.jupiter.params.provider.EnumSource;
 import org.junit.jupiter.params.provider.ValueSource;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
@@ -25,7 +31,9 @@ import org.springframework.data.domain.Pageable;
 import java.math.BigDecimal;
 import java.time.Instant;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -44,6 +52,15 @@ class LedgerServiceTest {
     @Mock
     private LedgerEventPublisher ledgerEventPublisher;
 
+    @Mock
+    private LedgerEntryWriter ledgerEntryWriter;
+
+    @Mock
+    private LedgerBalanceCheckpointRepository checkpointRepository;
+
+    @Mock
+    private LedgerHeldEntryRepository heldEntryRepository;
+
     @InjectMocks
     private LedgerService ledgerService;
 
@@ -130,6 +147,241 @@ class LedgerServiceTest {
         verify(ledgerEntryRepository).save(any(LedgerEntry.class));
     }
 
+    // ==============================================
+    // RECORD ENTRIES (BATCH) TESTS
+    // ==============================================
+
+    @Test
+    @DisplayName("Should append a batch in wallet-sequence order in one write")
+    @SuppressWarnings("unchecked")
+    void recordEntries_ShouldAppendWalletEntriesInSequenceOrder() {
+        // Given - wallet 1 entries arrive out of order, interleaved with wallet 2
+        List<CreateLedgerEntryRequest> requests = List.of(
+                sequencedRequest(1L, 2L), sequencedRequest(2L, 5L), sequencedRequest(1L, 1L));
+        when(ledgerEntryWriter.lastRecordedSequences(Set.of(1L, 2L))).thenReturn(Map.of(1L, 0L, 2L, 4L));
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ledgerService.recordEntries(requests);
+
+        // Then
+        ArgumentCaptor<List<LedgerEntry>> appended = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryWriter).append(appended.capture());
+        assertEquals(List.of(1L, 2L, 5L), appended.getValue().stream().map(LedgerEntry::getWalletSequence).toList());
+        assertEquals(List.of(1L, 1L, 2L), appended.getValue().stream().map(LedgerEntry::getWalletId).toList());
+        verify(ledgerEventPublisher, times(3)).publishLedgerEntryRecorded(any(LedgerEntry.class));
+        verifyNoInteractions(ledgerEntryRepository);
+    }
+
+    @Test
+    @DisplayName("Should drop repeats within a batch and publish only what the writer recorded")
+    @SuppressWarnings("unchecked")
+    void recordEntries_ShouldSkipRedeliveredEntries() {
+        // Given - seq 2 repeated within the batch, seq 1 already recorded (writer skips it)
+        List<CreateLedgerEntryRequest> requests = List.of(
+                sequencedRequest(1L, 1L), sequencedRequest(1L, 2L), sequencedRequest(1L, 2L));
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> ((List<LedgerEntry>) invocation
+                .getArgument(0)).stream().filter(entry -> entry.getWalletSequence() != 1L).toList());
+
+        // When
+        ledgerService.recordEntries(requests);
+
+        // Then
+        ArgumentCaptor<List<LedgerEntry>> appended = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryWriter).append(appended.capture());
+        assertEquals(List.of(1L, 2L), appended.getValue().stream().map(LedgerEntry::getWalletSequence).toList());
+        verify(ledgerEventPublisher, times(1)).publishLedgerEntryRecorded(any(LedgerEntry.class));
+    }
+
+    @Test
+    @DisplayName("Should hold an entry whose previous wallet sequence is not recorded yet")
+    @SuppressWarnings("unchecked")
+    void recordEntries_ShouldHoldEntriesAheadOfAGap() {
+        // Given - seq 1 recorded, seq 3 arrives before seq 2
+        when(ledgerEntryWriter.lastRecordedSequences(Set.of(1L))).thenReturn(Map.of(1L, 1L));
+
+        // When
+        List<LedgerEntryDTO> recorded = ledgerService.recordEntries(List.of(sequencedRequest(1L, 3L)));
+
+        // Then
+        assertTrue(recorded.isEmpty());
+        verify(ledgerEntryWriter).append(List.of());
+        ArgumentCaptor<List<LedgerHeldEntry>> held = ArgumentCaptor.forClass(List.class);
+        verify(heldEntryRepository).saveAll(held.capture());
+        assertEquals(List.of(3L), held.getValue().stream().map(LedgerHeldEntry::getWalletSequence).toList());
+        verify(heldEntryRepository, never()).deleteAllInBatch(anyList());
+    }
+
+    @Test
+    @DisplayName("Should record held entries in order once the gap is filled")
+    @SuppressWarnings("unchecked")
+    void recordEntries_ShouldReleaseHeldEntriesWhenTheGapIsFilled() {
+        // Given - seq 1 recorded, seq 3 and 5 held, seq 2 arrives
+        LedgerHeldEntry third = heldEntry(1L, 3L);
+        LedgerHeldEntry fifth = heldEntry(1L, 5L);
+        when(ledgerEntryWriter.lastRecordedSequences(Set.of(1L))).thenReturn(Map.of(1L, 1L));
+        when(heldEntryRepository.findByWalletIdInOrderByWalletIdAscWalletSequenceAsc(Set.of(1L)))
+                .thenReturn(List.of(third, fifth));
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ledgerService.recordEntries(List.of(sequencedRequest(1L, 2L)));
+
+        // Then - 2 and 3 recorded, 5 still waits for 4
+        ArgumentCaptor<List<LedgerEntry>> appended = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryWriter).append(appended.capture());
+        assertEquals(List.of(2L, 3L), appended.getValue().stream().map(LedgerEntry::getWalletSequence).toList());
+        verify(heldEntryRepository).deleteAllInBatch(List.of(third));
+        verify(heldEntryRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    @DisplayName("Should record unsequenced entries even when their content repeats")
+    void recordEntries_WithoutSequences_ShouldRecordAll() {
+        // Given
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ledgerService.recordEntries(List.of(testRequest, LedgerTestDataFactory.createTestRequest()));
+
+        // Then
+        verify(ledgerEntryWriter).append(argThat(entries -> entries.size() == 2));
+        verify(ledgerEventPublisher, times(2)).publishLedgerEntryRecorded(any(LedgerEntry.class));
+    }
+
+    @Test
+    @DisplayName("Should do nothing for an empty batch")
+    void recordEntries_EmptyBatch_ShouldNotTouchRepository() {
+        assertTrue(ledgerService.recordEntries(List.of()).isEmpty());
+        verifyNoInteractions(ledgerEntryRepository, ledgerEntryWriter, ledgerEventPublisher);
+    }
+
+    // ==============================================
+    // HELD ENTRY TESTS
+    // ==============================================
+
+    @Test
+    @DisplayName("Should record a wallet's held entries that no longer wait for a gap")
+    @SuppressWarnings("unchecked")
+    void releaseHeld_ShouldRecordHeldEntriesInOrder() {
+        // Given - seq 2 recorded, seq 3 parked, seq 5 waits for 4
+        LedgerHeldEntry third = heldEntry(1L, 3L);
+        LedgerHeldEntry fifth = heldEntry(1L, 5L);
+        when(ledgerEntryWriter.lastRecordedSequences(Set.of(1L))).thenReturn(Map.of(1L, 2L));
+        when(heldEntryRepository.findByWalletIdInOrderByWalletIdAscWalletSequenceAsc(Set.of(1L)))
+                .thenReturn(List.of(third, fifth));
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ledgerService.releaseHeld(1L);
+
+        // Then
+        ArgumentCaptor<List<LedgerEntry>> appended = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryWriter).append(appended.capture());
+        assertEquals(List.of(3L), appended.getValue().stream().map(LedgerEntry::getWalletSequence).toList());
+        verify(heldEntryRepository).deleteAllInBatch(List.of(third));
+    }
+
+    @Test
+    @DisplayName("Should park a failed entry under its sequence with the failure")
+    void park_ShouldHoldTheEntryWithItsFailure() {
+        // Given
+        when(heldEntryRepository.findByWalletIdAndWalletSequence(1L, 2L)).thenReturn(Optional.empty());
+
+        // When
+        ledgerService.park(sequencedRequest(1L, 2L), new IllegalArgumentException("bad entry"));
+
+        // Then
+        ArgumentCaptor<LedgerHeldEntry> parked = ArgumentCaptor.forClass(LedgerHeldEntry.class);
+        verify(heldEntryRepository).save(parked.capture());
+        assertEquals(2L, parked.getValue().getWalletSequence());
+        assertEquals(1, parked.getValue().getAttempts());
+        assertTrue(parked.getValue().getLastError().contains("bad entry"));
+    }
+
+    @Test
+    @DisplayName("Should note another failure on an entry that is already parked")
+    void park_WhenAlreadyHeld_ShouldRecordFailure() {
+        // Given
+        when(heldEntryRepository.findByWalletIdAndWalletSequence(1L, 2L))
+                .thenReturn(Optional.of(heldEntry(1L, 2L)));
+
+        // When
+        ledgerService.park(sequencedRequest(1L, 2L), new IllegalArgumentException("bad entry"));
+
+        // Then
+        verify(heldEntryRepository).recordFailure(eq(2L), contains("bad entry"));
+        verify(heldEntryRepository, never()).save(any(LedgerHeldEntry.class));
+    }
+
+    @Test
+    @DisplayName("Should skip the missing sequence, discard its parked entry and record the rest")
+    @SuppressWarnings("unchecked")
+    void skipSequence_ShouldReleaseEntriesHeldBehindIt() {
+        // Given - seq 1 recorded, seq 2 parked, seq 3 held behind it
+        LedgerHeldEntry second = heldEntry(1L, 2L);
+        LedgerHeldEntry third = heldEntry(1L, 3L);
+        when(ledgerEntryWriter.lastRecordedSequences(List.of(1L))).thenReturn(Map.of(1L, 1L));
+        when(heldEntryRepository.findByWalletIdAndWalletSequence(1L, 2L)).thenReturn(Optional.of(second));
+        when(ledgerEntryWriter.lastRecordedSequences(Set.of(1L))).thenReturn(Map.of(1L, 2L));
+        when(heldEntryRepository.findByWalletIdInOrderByWalletIdAscWalletSequenceAsc(Set.of(1L)))
+                .thenReturn(List.of(third));
+        when(ledgerEntryWriter.append(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        // When
+        ledgerService.skipSequence(1L, 2L);
+
+        // Then
+        verify(heldEntryRepository).delete(second);
+        verify(ledgerEntryWriter).skipSequence(1L, 2L);
+        ArgumentCaptor<List<LedgerEntry>> appended = ArgumentCaptor.forClass(List.class);
+        verify(ledgerEntryWriter).append(appended.capture());
+        assertEquals(List.of(3L), appended.getValue().stream().map(LedgerEntry::getWalletSequence).toList());
+    }
+
+    @Test
+    @DisplayName("Should refuse to skip any sequence but the one the wallet waits for")
+    void skipSequence_WhenNotTheNextSequence_ShouldThrow() {
+        // Given
+        when(ledgerEntryWriter.lastRecordedSequences(List.of(1L))).thenReturn(Map.of(1L, 1L));
+
+        // When & Then
+        assertThrows(IllegalStateException.class, () -> ledgerService.skipSequence(1L, 5L));
+        verify(ledgerEntryWriter, never()).skipSequence(anyLong(), anyLong());
+        verifyNoInteractions(heldEntryRepository);
+    }
+
+    private static LedgerBalanceCheckpoint checkpoint(BigDecimal balance, Instant checkpointAt) {
+        return LedgerBalanceCheckpoint.builder()
+                .walletId(1L)
+                .checkpointAt(checkpointAt)
+                .balance(balance)
+                .lastEntryId(10L)
+                .lastEntryAt(checkpointAt.minusSeconds(60))
+                .createdAt(checkpointAt)
+                .build();
+    }
+
+    private static LedgerHeldEntry heldEntry(Long walletId, Long walletSequence) {
+        return LedgerHeldEntry.builder()
+                .id(walletSequence)
+                .walletId(walletId)
+                .walletSequence(walletSequence)
+                .entryType(LedgerEntryType.DEPOSIT)
+                .amount(new BigDecimal("100.00"))
+                .balanceBefore(new BigDecimal("1000.00"))
+                .balanceAfter(new BigDecimal("1100.00"))
+                .heldAt(Instant.now())
+                .build();
+    }
+
+    private static CreateLedgerEntryRequest sequencedRequest(Long walletId, Long walletSequence) {
+        CreateLedgerEntryRequest request = LedgerTestDataFactory.createTestRequest(walletId, LedgerEntryType.DEPOSIT,
+                new BigDecimal("100.00"), new BigDecimal("1000.00"), new BigDecimal("1100.00"));
+        request.setWalletSequence(walletSequence);
+        return request;
+    }
+
     // ==============================================
     // QUERY TESTS
     // ==============================================
@@ -200,7 +452,7 @@ class LedgerServiceTest {
                 .map(entry -> LedgerTestDataFactory.createTestDTO())
                 .toList();
 
-        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAsc(1L)).thenReturn(entries);
+        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(1L)).thenReturn(entries);
         when(ledgerMapper.toDTOList(entries)).thenReturn(dtoList);
 
         // When
@@ -209,7 +461,7 @@ class LedgerServiceTest {
         // Then
         assertNotNull(result);
         assertEquals(3, result.size());
-        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAsc(1L);
+        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(1L);
         verify(ledgerMapper).toDTOList(entries);
     }
 
@@ -264,7 +516,7 @@ class LedgerServiceTest {
     @DisplayName("Should get latest entry for wallet")
     void getLatestEntryForWallet_ShouldReturnMostRecentEntry() {
         // Given
-        when(ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDesc(1L))
+        when(ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(1L))
                 .thenReturn(Optional.of(testEntry));
         when(ledgerMapper.toDTO(testEntry)).thenReturn(testDTO);
 
@@ -274,7 +526,7 @@ class LedgerServiceTest {
         // Then
         assertTrue(result.isPresent());
         assertEquals(testDTO, result.get());
-        verify(ledgerEntryRepository).findFirstByWalletIdOrderByCreatedAtDesc(1L);
+        verify(ledgerEntryRepository).findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(1L);
         verify(ledgerMapper).toDTO(testEntry);
     }
 
@@ -282,7 +534,7 @@ class LedgerServiceTest {
     @DisplayName("Should return empty when no entries exist for wallet")
     void getLatestEntryForWallet_ShouldReturnEmptyWhenNoEntries() {
         // Given
-        when(ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDesc(999L))
+        when(ledgerEntryRepository.findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(999L))
                 .thenReturn(Optional.empty());
 
         // When
@@ -290,7 +542,7 @@ class LedgerServiceTest {
 
         // Then
         assertFalse(result.isPresent());
-        verify(ledgerEntryRepository).findFirstByWalletIdOrderByCreatedAtDesc(999L);
+        verify(ledgerEntryRepository).findFirstByWalletIdOrderByCreatedAtDescWalletSequenceDescIdDesc(999L);
         verify(ledgerMapper, never()).toDTO(any());
     }
 
@@ -303,7 +555,7 @@ class LedgerServiceTest {
     void getWalletBalanceAt_ShouldReturnBalanceFromSnapshot() {
         // Given
         Instant timestamp = Instant.now();
-        when(ledgerEntryRepository.findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(
+        when(ledgerEntryRepository.findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
                 1L, timestamp))
                 .thenReturn(Optional.of(testEntry));
 
@@ -312,7 +564,7 @@ class LedgerServiceTest {
 
         // Then
         assertEquals(new BigDecimal("1000.00"), balance);
-        verify(ledgerEntryRepository).findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(
+        verify(ledgerEntryRepository).findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
                 1L, timestamp);
     }
 
@@ -321,7 +573,7 @@ class LedgerServiceTest {
     void getWalletBalanceAt_ShouldReturnZeroWhenNoEntries() {
         // Given
         Instant timestamp = Instant.now();
-        when(ledgerEntryRepository.findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(
+        when(ledgerEntryRepository.findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
                 1L, timestamp))
                 .thenReturn(Optional.empty());
 
@@ -330,16 +582,79 @@ class LedgerServiceTest {
 
         // Then
         assertEquals(BigDecimal.ZERO, balance);
-        verify(ledgerEntryRepository).findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDesc(
+        verify(ledgerEntryRepository).findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
                 1L, timestamp);
     }
 
+    @Test
+    @DisplayName("Should read only the tail after the nearest checkpoint for a point-in-time balance")
+    void getWalletBalanceAt_WithCheckpoint_ShouldReadTailOnly() {
+        // Given
+        Instant timestamp = Instant.now();
+        LedgerBalanceCheckpoint checkpoint = checkpoint(new BigDecimal("750.00"), timestamp.minusSeconds(3600));
+        when(checkpointRepository.findFirstByWalletIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+                1L, timestamp)).thenReturn(Optional.of(checkpoint));
+        when(ledgerEntryRepository
+                .findFirstByWalletIdAndCreatedAtGreaterThanAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(
+                        1L, checkpoint.getCheckpointAt(), timestamp))
+                .thenReturn(Optional.of(testEntry));
+
+        // When
+        BigDecimal balance = ledgerService.getWalletBalanceAt(1L, timestamp);
+
+        // Then
+        assertEquals(new BigDecimal("1000.00"), balance);
+        verify(ledgerEntryRepository, never())
+                .findFirstByWalletIdAndCreatedAtLessThanEqualOrderByCreatedAtDescWalletSequenceDescIdDesc(anyLong(), any());
+    }
+
+    @Test
+    @DisplayName("Should return the checkpoint balance when no entries follow it")
+    void getWalletBalanceAt_WithCheckpointAndNoTail_ShouldReturnCheckpointBalance() {
+        // Given
+        Instant timestamp = Instant.now();
+        LedgerBalanceCheckpoint checkpoint = checkpoint(new BigDecimal("750.00"), timestamp.minusSeconds(3600));
+        when(checkpointRepository.findFirstByWalletIdAndCheckpointAtLessThanEqualOrderByCheckpointAtDesc(
+                1L, timestamp)).thenReturn(Optional.of(checkpoint));
+
+        // When & Then
+        assertEquals(new BigDecimal("750.00"), ledgerService.getWalletBalanceAt(1L, timestamp));
+    }
+
+    @Test
+    @DisplayName("Should rebuild wallet state by replaying only the entries after the latest checkpoint")
+    void rebuildWalletState_WithCheckpoint_ShouldReplayTailOnly() {
+        // Given
+        LedgerBalanceCheckpoint checkpoint = checkpoint(new BigDecimal("750.00"), Instant.now().minusSeconds(3600));
+        when(checkpointRepository.findFirstByWalletIdOrderByCheckpointAtDesc(1L)).thenReturn(Optional.of(checkpoint));
+        when(ledgerEntryRepository.findByWalletIdAndCreatedAtGreaterThanOrderByCreatedAtAscWalletSequenceAscIdAsc(
+                1L, checkpoint.getCheckpointAt())).thenReturn(List.of(testEntry));
+
+        // When
+        BigDecimal balance = ledgerService.rebuildWalletState(1L);
+
+        // Then
+        assertEquals(new BigDecimal("1000.00"), balance);
+        verify(ledgerEntryRepository, never()).findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(anyLong());
+    }
+
+    @Test
+    @DisplayName("Should keep the checkpoint balance when nothing was recorded after it")
+    void rebuildWalletState_WithCheckpointAndNoTail_ShouldReturnCheckpointBalance() {
+        // Given
+        LedgerBalanceCheckpoint checkpoint = checkpoint(new BigDecimal("750.00"), Instant.now().minusSeconds(3600));
+        when(checkpointRepository.findFirstByWalletIdOrderByCheckpointAtDesc(1L)).thenReturn(Optional.of(checkpoint));
+
+        // When & Then
+        assertEquals(new BigDecimal("750.00"), ledgerService.rebuildWalletState(1L));
+    }
+
     @Test
     @DisplayName("Should rebuild wallet state from all entries")
     void rebuildWalletState_ShouldCalculateBalanceFromEntries() {
         // Given
         List<LedgerEntry> entries = LedgerTestDataFactory.createMixedTransactionHistory(1L);
-        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAsc(1L)).thenReturn(entries);
+        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(1L)).thenReturn(entries);
 
         // When
         BigDecimal balance = ledgerService.rebuildWalletState(1L);
@@ -347,21 +662,21 @@ class LedgerServiceTest {
         // Then
         // Expected balance: 10000 (deposit) - 1000 (buy) + 1100 (sell) - 500 (withdrawal) - 10 (fee) = 9590
         assertEquals(new BigDecimal("9590.00"), balance);
-        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAsc(1L);
+        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(1L);
     }
 
     @Test
     @DisplayName("Should return zero balance when rebuilding empty wallet")
     void rebuildWalletState_ShouldReturnZeroForEmptyWallet() {
         // Given
-        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAsc(999L)).thenReturn(List.of());
+        when(ledgerEntryRepository.findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(999L)).thenReturn(List.of());
 
         // When
         BigDecimal balance = ledgerService.rebuildWalletState(999L);
 
         // Then
         assertEquals(BigDecimal.ZERO, balance);
-        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAsc(999L);
+        verify(ledgerEntryRepository).findByWalletIdOrderByCreatedAtAscWalletSequenceAscIdAsc(999L);
     }
 
     @Test
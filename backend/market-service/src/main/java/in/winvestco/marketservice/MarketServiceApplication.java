@@ -19,11 +19,13 @@ import org.springframework.scheduling.annotation.EnableScheduling;
 })
 @EnableJpaRepositories(basePackages = {
                 "in.winvestco.common.messaging.idempotency",
-                "in.winvestco.common.messaging.outbox"
+                "in.winvestco.common.messaging.outbox",
+                "in.winvestco.marketservice.repository"
 })
 @EntityScan(basePackages = {
                 "in.winvestco.common.messaging.idempotency",
-                "in.winvestco.common.messaging.outbox"
+                "in.winvestco.common.messaging.outbox",
+                "in.winvestco.marketservice.model"
 })
 @EnableDiscoveryClient
 @EnableScheduling
@@ -18,6 +18,7 @@ import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.stream.Collectors;
 
 /**
@@ -36,8 +37,9 @@ public class NseClient {
 
     private final NseConfig config;
     private final RestTemplate restTemplate;
-    private String sessionCookie;
-    private long lastCookieRefresh = 0;
+    private final ReentrantLock cookieLock = new ReentrantLock();
+    private volatile String sessionCookie;
+    private volatile long lastCookieRefresh = 0;
 
     public NseClient(NseConfig config) {
         this.config = config;
@@ -147,10 +149,20 @@ public class NseClient {
     /**
      * Refreshes the session cookie if it has expired or doesn't exist.
      * NSE requires a valid session cookie obtained from their main page.
+     * Index fetches run concurrently, so only one caller refreshes at a time;
+     * a ReentrantLock (not synchronized) avoids pinning virtual threads during the HTTP call.
      */
     private void refreshCookieIfNeeded() {
-        long now = System.currentTimeMillis();
-        if (sessionCookie == null || (now - lastCookieRefresh) > config.getCookieRefreshIntervalMs()) {
+        if (!isCookieExpired(System.currentTimeMillis())) {
+            return;
+        }
+
+        cookieLock.lock();
+        try {
+            long now = System.currentTimeMillis();
+            if (!isCookieExpired(now)) {
+                return;
+            }
             try {
                 HttpHeaders headers = new HttpHeaders();
                 headers.set(HttpHeaders.USER_AGENT, config.getUserAgent());
@@ -172,9 +184,15 @@ public class NseClient {
             } catch (Exception e) {
                 log.warn("Failed to refresh NSE session cookie: {}", e.getMessage());
             }
+        } finally {
+            cookieLock.unlock();
         }
     }
 
+    private boolean isCookieExpired(long now) {
+        return sessionCookie == null || (now - lastCookieRefresh) > config.getCookieRefreshIntervalMs();
+    }
+
     /**
      * Creates HTTP headers for NSE API requests.
      */
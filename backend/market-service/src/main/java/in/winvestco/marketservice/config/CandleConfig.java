@@ -0,0 +1,23 @@
+package in.winvestco.marketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Settings for the in-memory OHLCV candle aggregator and its Postgres flush.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "market.candles")
+@Data
+public class CandleConfig {
+
+    // How often closed and still-forming candles are upserted into the candles table
+    private long flushIntervalMs = 60000;
+    // Rows per multi-row INSERT ... ON CONFLICT statement (8 bind params per row)
+    private int upsertBatchSize = 500;
+    // Closed candles kept in memory per symbol and interval; one trading day of 5m bars
+    private int retainedCandles = 288;
+    // Upper bound on candles returned by one range query
+    private int maxRangeCandles = 5000;
+}
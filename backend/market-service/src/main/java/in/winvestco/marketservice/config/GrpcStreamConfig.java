@@ -0,0 +1,19 @@
+package in.winvestco.marketservice.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Flow-control settings for SubscribeMarketData server streams.
+ */
+@Configuration
+@ConfigurationProperties(prefix = "market.grpc.stream")
+@Data
+public class GrpcStreamConfig {
+
+    // Max distinct symbols buffered per subscriber; ticks for a queued symbol replace each other
+    private int subscriberQueueCapacity = 2048;
+    // Evict a subscriber whose transport has not been ready for this long while it has ticks queued
+    private long slowConsumerTimeoutMs = 30000;
+}
@@ -19,4 +19,6 @@ public class NseConfig {
     private int connectionTimeoutMs = 10000;
     private int readTimeoutMs = 10000;
     private int cookieRefreshIntervalMs = 300000; // 5 minutes
+    private int maxConcurrentFetches = 4; // capped at the nseApi bulkhead size
+    private long fetchCycleTimeoutMs = 120000; // 2 minutes, under the 3-minute trigger interval
 }
@@ -0,0 +1,36 @@
+package in.winvestco.marketservice.controller;
+
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.service.CandleService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Instant;
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/v1/candles")
+@RequiredArgsConstructor
+public class CandleController {
+
+    private final CandleService candleService;
+
+    /**
+     * OHLCV candles for a symbol, oldest first.
+     * Example: /api/v1/candles/RELIANCE?interval=15m&from=2024-01-01T03:45:00Z
+     */
+    @GetMapping("/{symbol}")
+    public ResponseEntity<List<CandleDTO>> getCandles(
+            @PathVariable String symbol,
+            @RequestParam(defaultValue = "5m") String interval,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to) {
+        return ResponseEntity.ok(candleService.getCandles(symbol, interval, from, to));
+    }
+}
@@ -1,18 +1,26 @@
 package in.winvestco.marketservice.controller;
 
+import in.winvestco.marketservice.dto.StockQuoteDTO;
 import in.winvestco.marketservice.service.MarketDataService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/v1/market")
 @RequiredArgsConstructor
 public class MarketController {
 
+    /** Upper bound on symbols per bulk request, well above the largest index (NIFTY 500) */
+    static final int MAX_BULK_SYMBOLS = 1000;
+
     private final MarketDataService marketDataService;
 
     @GetMapping("/indices/{symbol}")
@@ -44,4 +52,16 @@ public class MarketController {
             return ResponseEntity.notFound().build();
         }
     }
+
+    /**
+     * Resolve many symbols in one call against a single quote snapshot.
+     * Unknown symbols are omitted from the response.
+     */
+    @PostMapping("/stocks/bulk")
+    public ResponseEntity<List<StockQuoteDTO>> getBulkQuotes(@RequestBody List<String> symbols) {
+        if (symbols == null || symbols.size() > MAX_BULK_SYMBOLS) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(marketDataService.getBulkQuotes(symbols));
+    }
 }
@@ -0,0 +1,29 @@
+package in.winvestco.marketservice.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One OHLCV bar returned by the candle range query.
+ * The timestamp is the start of the bar.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CandleDTO {
+
+    private String symbol;
+    private String interval;
+    private Instant timestamp;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private Long volume;
+}
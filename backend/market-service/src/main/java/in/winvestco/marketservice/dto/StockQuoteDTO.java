@@ -0,0 +1,36 @@
+package in.winvestco.marketservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Compact stock quote returned by the bulk quote endpoint.
+ * Field names follow the NSE stock payload so callers can share one DTO
+ * for single and bulk lookups.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class StockQuoteDTO {
+
+    private String symbol;
+    private BigDecimal lastPrice;
+    private BigDecimal open;
+    private BigDecimal high;
+    private BigDecimal low;
+    private BigDecimal close;
+    private BigDecimal change;
+
+    @JsonProperty("pChange")
+    private BigDecimal changePercent;
+
+    private Long volume;
+    private Instant lastUpdateTime;
+}
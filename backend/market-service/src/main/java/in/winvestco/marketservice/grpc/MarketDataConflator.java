@@ -0,0 +1,114 @@
+package in.winvestco.marketservice.grpc;
+
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Consumer;
+
+/**
+ * Delta-only, conflating fan-out stage in front of gRPC subscribers.
+ *
+ * - Change detection: remembers the last value forwarded per symbol and drops
+ * updates whose market fields are unchanged (the timestamp is ignored). This
+ * also removes the duplicate pushes for symbols that appear in several indices
+ * - Conflation: pending updates are keyed by symbol, so while the sink is busy
+ * a newer update for a symbol replaces the older one instead of queueing
+ * behind it
+ * - Whichever producer finds the stage idle drains it; other producers only
+ * enqueue, so the sink is never called concurrently
+ *
+ * Outcomes are counted in market.fanout.updates{outcome=delivered|unchanged|conflated}.
+ */
+class MarketDataConflator {
+
+    private final Consumer<MarketDataUpdate> sink;
+    private final Map<String, MarketDataUpdate> lastSent = new ConcurrentHashMap<>();
+    private final Map<String, MarketDataUpdate> pending = new LinkedHashMap<>();
+    private final AtomicBoolean draining = new AtomicBoolean();
+
+    private final Counter delivered;
+    private final Counter unchanged;
+    private final Counter conflated;
+
+    MarketDataConflator(Consumer<MarketDataUpdate> sink, MeterRegistry meterRegistry) {
+        this.sink = sink;
+        this.delivered = meterRegistry.counter("market.fanout.updates", "outcome", "delivered");
+        this.unchanged = meterRegistry.counter("market.fanout.updates", "outcome", "unchanged");
+        this.conflated = meterRegistry.counter("market.fanout.updates", "outcome", "conflated");
+    }
+
+    /**
+     * Offer an update for fan-out. Returns false if it was dropped as unchanged.
+     */
+    boolean submit(MarketDataUpdate update) {
+        String symbol = update.getSymbol();
+        if (sameMarketValues(lastSent.get(symbol), update)) {
+            unchanged.increment();
+            return false;
+        }
+
+        synchronized (pending) {
+            if (pending.put(symbol, update) != null) {
+                conflated.increment();
+            }
+        }
+        drain();
+        return true;
+    }
+
+    private void drain() {
+        while (draining.compareAndSet(false, true)) {
+            try {
+                List<MarketDataUpdate> batch;
+                while (!(batch = takePending()).isEmpty()) {
+                    for (MarketDataUpdate update : batch) {
+                        // A conflated update can land back on the value already sent
+                        if (sameMarketValues(lastSent.put(update.getSymbol(), update), update)) {
+                            unchanged.increment();
+                            continue;
+                        }
+                        sink.accept(update);
+                        delivered.increment();
+                    }
+                }
+            } finally {
+                draining.set(false);
+            }
+
+            // Re-check: a producer may have enqueued after our last take but before we released
+            synchronized (pending) {
+                if (pending.isEmpty()) {
+                    return;
+                }
+            }
+        }
+    }
+
+    private List<MarketDataUpdate> takePending() {
+        synchronized (pending) {
+            List<MarketDataUpdate> batch = new ArrayList<>(pending.values());
+            pending.clear();
+            return batch;
+        }
+    }
+
+    static boolean sameMarketValues(MarketDataUpdate previous, MarketDataUpdate next) {
+        return previous != null
+                && previous.getLastPrice() == next.getLastPrice()
+                && previous.getOpen() == next.getOpen()
+                && previous.getHigh() == next.getHigh()
+                && previous.getLow() == next.getLow()
+                && previous.getClose() == next.getClose()
+                && previous.getChange() == next.getChange()
+                && previous.getChangePercent() == next.getChangePercent()
+                && previous.getVolume() == next.getVolume()
+                && previous.getExchange().equals(next.getExchange());
+    }
+}
@@ -1,19 +1,29 @@
 package in.winvestco.marketservice.grpc;
 
 import com.fasterxml.jackson.databind.JsonNode;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import in.winvestco.common.grpc.market.Candle;
+import in.winvestco.common.grpc.market.CandlesRequest;
+import in.winvestco.common.grpc.market.CandlesResponse;
 import in.winvestco.common.grpc.market.MarketDataServiceGrpc;
 import in.winvestco.common.grpc.market.MarketDataSubscription;
 import in.winvestco.common.grpc.market.MarketDataUpdate;
 import in.winvestco.common.grpc.market.QuoteRequest;
 import in.winvestco.common.grpc.market.QuoteResponse;
+import in.winvestco.common.grpc.market.QuotesRequest;
+import in.winvestco.marketservice.config.GrpcStreamConfig;
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.service.CandleService;
 import in.winvestco.marketservice.service.MarketDataService;
 import io.grpc.Status;
-import io.grpc.stub.ServerCallStreamObserver;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.server.service.GrpcService;
 
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 
@@ -22,28 +32,75 @@ import java.util.concurrent.ConcurrentHashMap;
  *
  * Provides:
  * - GetQuote: Fast unary RPC for fetching current stock price
+ * - GetQuotes: Server-streaming batch lookup resolved in one snapshot pass
  * - SubscribeMarketData: Server-streaming RPC for real-time price updates
+ * - GetCandles: OHLCV range query, recent bars from memory, older from Postgres
  * - Uses ConcurrentHashMap.newKeySet() instead of CopyOnWriteArraySet for O(1)
  * add/remove
  * - Proactive subscriber cleanup via
  * ServerCallStreamObserver.setOnCancelHandler()
  * - Accepts pre-parsed JsonNode to avoid redundant JSON parsing in the hot path
+ * - Quotes and snapshots are read from the in-memory quote store as parsed nodes
+ * - Delta-only fan-out: unchanged and cross-index duplicate updates are dropped
+ * and bursts per symbol conflated before reaching subscribers
+ * - Backpressure: every subscriber has its own bounded, conflating queue drained
+ * under isReady()/onReady flow control, so one slow client never holds up the
+ * push loop; see {@link SubscriberStream}
  */
 @GrpcService
 @Slf4j
 public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServiceImplBase {
 
+    /** Upper bound on symbols per GetQuotes call, matching the REST bulk endpoint */
+    private static final int MAX_BATCH_SYMBOLS = 1000;
+
     private final MarketDataService marketDataService;
-    private final ObjectMapper objectMapper;
+
+    private final CandleService candleService;
+
+    private final GrpcStreamConfig streamConfig;
 
     // ConcurrentHashMap.newKeySet() — O(1) add/remove, no array copies on mutation
-    private final ConcurrentHashMap<String, Set<StreamObserver<MarketDataUpdate>>> symbolSubscribers = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<SubscriberStream>> symbolSubscribers = new ConcurrentHashMap<>();
+
+    private final Set<SubscriberStream> allSymbolSubscribers = ConcurrentHashMap.newKeySet();
 
-    private final Set<StreamObserver<MarketDataUpdate>> allSymbolSubscribers = ConcurrentHashMap.newKeySet();
+    // Every open stream once, regardless of how many symbols it watches
+    private final Set<SubscriberStream> activeStreams = ConcurrentHashMap.newKeySet();
 
-    public MarketDataGrpcService(MarketDataService marketDataService) {
+    // Change detection + conflation in front of the subscriber push loop
+    private final MarketDataConflator conflator;
+
+    private final SubscriberStream.Listener streamListener;
+
+    public MarketDataGrpcService(MarketDataService marketDataService, CandleService candleService,
+            MeterRegistry meterRegistry, GrpcStreamConfig streamConfig) {
         this.marketDataService = marketDataService;
-        this.objectMapper = new ObjectMapper();
+        this.candleService = candleService;
+        this.streamConfig = streamConfig;
+        this.conflator = new MarketDataConflator(this::deliver, meterRegistry);
+
+        Counter droppedTicks = meterRegistry.counter("market.grpc.subscriber.dropped");
+        Counter evictions = meterRegistry.counter("market.grpc.subscriber.evictions");
+        this.streamListener = new SubscriberStream.Listener() {
+            @Override
+            public void onTickDropped() {
+                droppedTicks.increment();
+            }
+
+            @Override
+            public void onEvicted(SubscriberStream stream, String reason) {
+                log.warn("Evicting gRPC market data subscriber: {}", reason);
+                evictions.increment();
+                removeFromAll(stream);
+            }
+        };
+
+        meterRegistry.gauge("market.grpc.subscriber.queue.depth", activeStreams,
+                streams -> streams.stream().mapToInt(SubscriberStream::queueDepth).sum());
+        meterRegistry.gauge("market.grpc.subscriber.queue.depth.max", activeStreams,
+                streams -> streams.stream().mapToInt(SubscriberStream::queueDepth).max().orElse(0));
+        meterRegistry.gauge("market.grpc.subscribers", activeStreams, Set::size);
     }
 
     // ==================== Unary RPC: GetQuote ====================
@@ -54,20 +111,21 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
         log.debug("gRPC GetQuote request for symbol: {}", symbol);
 
         try {
-            String quoteJson = marketDataService.getStockQuote(symbol);
+            JsonNode stockNode = marketDataService.getStockQuoteNode(symbol);
 
-            if (quoteJson == null || quoteJson.isEmpty()) {
+            if (stockNode == null) {
                 responseObserver.onNext(QuoteResponse.newBuilder()
+                        .setSymbol(symbol.toUpperCase())
                         .setFound(false)
                         .build());
                 responseObserver.onCompleted();
                 return;
             }
 
-            JsonNode stockNode = objectMapper.readTree(quoteJson);
             MarketDataUpdate update = jsonNodeToUpdate(stockNode, symbol);
 
             responseObserver.onNext(QuoteResponse.newBuilder()
+                    .setSymbol(update.getSymbol())
                     .setQuote(update)
                     .setFound(true)
                     .build());
@@ -82,6 +140,82 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
         }
     }
 
+    // ==================== Server-Streaming RPC: GetQuotes ====================
+
+    @Override
+    public void getQuotes(QuotesRequest request, StreamObserver<QuoteResponse> responseObserver) {
+        if (request.getSymbolsCount() > MAX_BATCH_SYMBOLS) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription("At most " + MAX_BATCH_SYMBOLS + " symbols per GetQuotes call")
+                    .asRuntimeException());
+            return;
+        }
+        log.debug("gRPC GetQuotes request for {} symbols", request.getSymbolsCount());
+
+        try {
+            Map<String, JsonNode> quotes = marketDataService.getStockQuoteNodes(request.getSymbolsList());
+
+            for (Map.Entry<String, JsonNode> entry : quotes.entrySet()) {
+                QuoteResponse.Builder response = QuoteResponse.newBuilder()
+                        .setSymbol(entry.getKey())
+                        .setFound(entry.getValue() != null);
+                if (entry.getValue() != null) {
+                    response.setQuote(jsonNodeToUpdate(entry.getValue(), entry.getKey()));
+                }
+                responseObserver.onNext(response.build());
+            }
+            responseObserver.onCompleted();
+
+        } catch (Exception e) {
+            log.error("Error processing GetQuotes for {} symbols", request.getSymbolsCount(), e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Failed to fetch quotes")
+                    .withCause(e)
+                    .asRuntimeException());
+        }
+    }
+
+    // ==================== Unary RPC: GetCandles ====================
+
+    @Override
+    public void getCandles(CandlesRequest request, StreamObserver<CandlesResponse> responseObserver) {
+        String interval = request.getInterval().isEmpty() ? "5m" : request.getInterval();
+        log.debug("gRPC GetCandles request for {} {}", request.getSymbol(), interval);
+
+        try {
+            List<CandleDTO> candles = candleService.getCandles(request.getSymbol(), interval,
+                    request.getFrom() > 0 ? Instant.ofEpochMilli(request.getFrom()) : null,
+                    request.getTo() > 0 ? Instant.ofEpochMilli(request.getTo()) : null);
+
+            CandlesResponse.Builder response = CandlesResponse.newBuilder()
+                    .setSymbol(request.getSymbol().trim().toUpperCase())
+                    .setInterval(interval);
+            for (CandleDTO candle : candles) {
+                response.addCandles(Candle.newBuilder()
+                        .setTimestamp(candle.getTimestamp().toEpochMilli())
+                        .setOpen(candle.getOpen().doubleValue())
+                        .setHigh(candle.getHigh().doubleValue())
+                        .setLow(candle.getLow().doubleValue())
+                        .setClose(candle.getClose().doubleValue())
+                        .setVolume(candle.getVolume())
+                        .build());
+            }
+            responseObserver.onNext(response.build());
+            responseObserver.onCompleted();
+
+        } catch (IllegalArgumentException e) {
+            responseObserver.onError(Status.INVALID_ARGUMENT
+                    .withDescription(e.getMessage())
+                    .asRuntimeException());
+        } catch (Exception e) {
+            log.error("Error processing GetCandles for symbol: {}", request.getSymbol(), e);
+            responseObserver.onError(Status.INTERNAL
+                    .withDescription("Failed to fetch candles for " + request.getSymbol())
+                    .withCause(e)
+                    .asRuntimeException());
+        }
+    }
+
     // ==================== Server-Streaming RPC: SubscribeMarketData
     // ====================
 
@@ -89,33 +223,33 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
     public void subscribeMarketData(MarketDataSubscription request,
             StreamObserver<MarketDataUpdate> responseObserver) {
 
-        // Register proactive cleanup when client disconnects or cancels
-        if (responseObserver instanceof ServerCallStreamObserver) {
-            ServerCallStreamObserver<MarketDataUpdate> serverObserver = (ServerCallStreamObserver<MarketDataUpdate>) responseObserver;
+        SubscriberStream stream = new SubscriberStream(responseObserver,
+                streamConfig.getSubscriberQueueCapacity(), streamConfig.getSlowConsumerTimeoutMs(), streamListener);
 
-            serverObserver.setOnCancelHandler(() -> {
-                log.info("gRPC client cancelled subscription, cleaning up observer");
-                removeObserverFromAll(responseObserver);
-            });
-        }
+        // Register flow control and proactive cleanup when client disconnects or cancels
+        stream.attach(() -> {
+            log.info("gRPC client cancelled subscription, cleaning up observer");
+            removeFromAll(stream);
+        });
+        activeStreams.add(stream);
 
         if (request.getSubscribeAll()) {
             log.info("gRPC client subscribed to ALL market data updates");
-            allSymbolSubscribers.add(responseObserver);
+            allSymbolSubscribers.add(stream);
         } else {
             for (String symbol : request.getSymbolsList()) {
                 String upperSymbol = symbol.toUpperCase();
                 log.info("gRPC client subscribed to market data for: {}", upperSymbol);
                 symbolSubscribers
                         .computeIfAbsent(upperSymbol, k -> ConcurrentHashMap.newKeySet())
-                        .add(responseObserver);
+                        .add(stream);
             }
         }
 
         // Send initial snapshot for subscribed symbols
         if (!request.getSubscribeAll()) {
             for (String symbol : request.getSymbolsList()) {
-                sendCurrentQuote(symbol.toUpperCase(), responseObserver);
+                sendCurrentQuote(symbol.toUpperCase(), stream);
             }
         }
     }
@@ -125,19 +259,35 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
     /**
      * Push market data updates to all subscribers watching a specific symbol.
      * Called by MarketDataScheduler after fresh data is fetched from NSE.
+     * Updates whose market values have not changed since the last push are
+     * dropped; see {@link MarketDataConflator}.
+     *
+     * @return true if the update was forwarded, false if suppressed as unchanged
      */
-    public void pushUpdate(String symbol, MarketDataUpdate update) {
+    public boolean pushUpdate(String symbol, MarketDataUpdate update) {
         String upperSymbol = symbol.toUpperCase();
+        if (!upperSymbol.equals(update.getSymbol())) {
+            update = update.toBuilder().setSymbol(upperSymbol).build();
+        }
+        return conflator.submit(update);
+    }
+
+    /**
+     * Route a changed update to symbol-specific and subscribe-all observers.
+     * Only ever called from the conflator's single drain loop.
+     */
+    private void deliver(MarketDataUpdate update) {
+        String upperSymbol = update.getSymbol();
 
         // Push to symbol-specific subscribers
-        Set<StreamObserver<MarketDataUpdate>> observers = symbolSubscribers.get(upperSymbol);
-        if (observers != null && !observers.isEmpty()) {
-            pushToObservers(observers, update, upperSymbol);
+        Set<SubscriberStream> streams = symbolSubscribers.get(upperSymbol);
+        if (streams != null && !streams.isEmpty()) {
+            pushToStreams(streams, update);
         }
 
         // Push to all-symbol subscribers
         if (!allSymbolSubscribers.isEmpty()) {
-            pushToObservers(allSymbolSubscribers, update, upperSymbol);
+            pushToStreams(allSymbolSubscribers, update);
         }
     }
 
@@ -153,17 +303,22 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
         }
 
         int pushedCount = 0;
+        int suppressedCount = 0;
         for (JsonNode stockNode : dataArray) {
             String symbol = stockNode.path("symbol").asText();
             if (symbol != null && !symbol.isEmpty() && !symbol.startsWith("NIFTY")) {
                 MarketDataUpdate update = jsonNodeToUpdate(stockNode, symbol);
-                pushUpdate(symbol, update);
-                pushedCount++;
+                if (pushUpdate(symbol, update)) {
+                    pushedCount++;
+                } else {
+                    suppressedCount++;
+                }
             }
         }
 
-        if (pushedCount > 0) {
-            log.debug("Pushed gRPC updates for {} stocks from index: {}", pushedCount, indexName);
+        if (pushedCount > 0 || suppressedCount > 0) {
+            log.debug("Pushed gRPC updates for {} stocks from index: {} ({} unchanged suppressed)",
+                    pushedCount, indexName, suppressedCount);
         }
     }
 
@@ -172,8 +327,8 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
      */
     public int getActiveSubscriberCount() {
         int count = allSymbolSubscribers.size();
-        for (Set<StreamObserver<MarketDataUpdate>> observers : symbolSubscribers.values()) {
-            count += observers.size();
+        for (Set<SubscriberStream> streams : symbolSubscribers.values()) {
+            count += streams.size();
         }
         return count;
     }
@@ -181,36 +336,31 @@ public class MarketDataGrpcService extends MarketDataServiceGrpc.MarketDataServi
     // ==================== Helper Methods ====================
 
     /**
-     * Remove an observer from ALL subscriber sets.
-     * Called by the onCancel handler when a client disconnects.
+     * Remove a stream from ALL subscriber sets.
+     * Called when a client disconnects, cancels or is evicted as a slow consumer.
      */
-    private void removeObserverFromAll(StreamObserver<MarketDataUpdate> observer) {
-        allSymbolSubscribers.remove(observer);
-        for (Set<StreamObserver<MarketDataUpdate>> observers : symbolSubscribers.values()) {
-            observers.remove(observer);
+    private void removeFromAll(SubscriberStream stream) {
+        activeStreams.remove(stream);
+        allSymbolSubscribers.remove(stream);
+        for (Set<SubscriberStream> streams : symbolSubscribers.values()) {
+            streams.remove(stream);
         }
     }
 
-    private void pushToObservers(Set<StreamObserver<MarketDataUpdate>> observers,
-            MarketDataUpdate update, String symbol) {
-        for (StreamObserver<MarketDataUpdate> observer : observers) {
-            try {
-                observer.onNext(update);
-            } catch (Exception e) {
-                log.debug("Removing disconnected gRPC subscriber for symbol: {}", symbol);
-                observers.remove(observer);
-                allSymbolSubscribers.remove(observer);
-            }
+    /**
+     * Hand an update to each stream's own queue; never blocks on a slow client.
+     */
+    private void pushToStreams(Set<SubscriberStream> streams, MarketDataUpdate update) {
+        for (SubscriberStream stream : streams) {
+            stream.enqueue(update);
         }
     }
 
-    private void sendCurrentQuote(String symbol, StreamObserver<MarketDataUpdate> observer) {
+    private void sendCurrentQuote(String symbol, SubscriberStream stream) {
         try {
-            String quoteJson = marketDataService.getStockQuote(symbol);
-            if (quoteJson != null) {
-                JsonNode stockNode = objectMapper.readTree(quoteJson);
-                MarketDataUpdate update = jsonNodeToUpdate(stockNode, symbol);
-                observer.onNext(update);
+            JsonNode stockNode = marketDataService.getStockQuoteNode(symbol);
+            if (stockNode != null) {
+                stream.enqueue(jsonNodeToUpdate(stockNode, symbol));
             }
         } catch (Exception e) {
             log.warn("Failed to send initial snapshot for {}: {}", symbol, e.getMessage());
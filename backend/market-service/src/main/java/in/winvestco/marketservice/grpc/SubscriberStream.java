@@ -0,0 +1,205 @@
+package in.winvestco.marketservice.grpc;
+
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import io.grpc.Status;
+import io.grpc.stub.ServerCallStreamObserver;
+import io.grpc.stub.StreamObserver;
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * One SubscribeMarketData client with its own bounded, conflating send queue.
+ *
+ * - Producers only enqueue; the queue is drained while the transport reports
+ * {@code isReady()}, and resumed from the call's onReady handler, so a slow
+ * client never blocks the push loop or buffers unboundedly inside gRPC
+ * - The queue holds at most one pending tick per symbol: a newer tick replaces
+ * a queued one, so a lagging client only loses intermediate ticks
+ * - A client that stays not-ready past the slow-consumer timeout, or whose
+ * queue overflows with distinct symbols, is evicted with RESOURCE_EXHAUSTED
+ * - onNext is only ever called by one thread at a time (work-in-progress counter)
+ */
+@Slf4j
+class SubscriberStream {
+
+    /** Callbacks into the owning service for metrics and cleanup. */
+    interface Listener {
+        void onTickDropped();
+
+        void onEvicted(SubscriberStream stream, String reason);
+    }
+
+    private final StreamObserver<MarketDataUpdate> observer;
+    private final ServerCallStreamObserver<MarketDataUpdate> serverObserver;
+    private final int capacity;
+    private final long slowConsumerTimeoutNanos;
+    private final Listener listener;
+
+    private final Map<String, MarketDataUpdate> queue = new LinkedHashMap<>();
+    private final AtomicInteger wip = new AtomicInteger();
+    private final AtomicBoolean closed = new AtomicBoolean();
+    private volatile long notReadySinceNanos;
+    private volatile Status evictionStatus;
+    private boolean terminated; // only touched inside drain()
+
+    @SuppressWarnings("unchecked")
+    SubscriberStream(StreamObserver<MarketDataUpdate> observer, int capacity, long slowConsumerTimeoutMs,
+            Listener listener) {
+        this.observer = observer;
+        this.serverObserver = observer instanceof ServerCallStreamObserver
+                ? (ServerCallStreamObserver<MarketDataUpdate>) observer
+                : null;
+        this.capacity = capacity;
+        this.slowConsumerTimeoutNanos = slowConsumerTimeoutMs * 1_000_000L;
+        this.listener = listener;
+    }
+
+    /**
+     * Wire flow control and cancellation. Must be called from the RPC handler
+     * before it returns, as gRPC only accepts these handlers during the call.
+     */
+    void attach(Runnable onCancel) {
+        if (serverObserver != null) {
+            serverObserver.setOnReadyHandler(this::drain);
+            serverObserver.setOnCancelHandler(() -> {
+                closed.set(true);
+                onCancel.run();
+            });
+        }
+    }
+
+    /**
+     * Queue a tick for this subscriber and send whatever the transport can take now.
+     */
+    void enqueue(MarketDataUpdate update) {
+        if (closed.get()) {
+            return;
+        }
+
+        boolean overflow = false;
+        synchronized (queue) {
+            if (queue.put(update.getSymbol(), update) != null) {
+                listener.onTickDropped();
+            } else if (queue.size() > capacity) {
+                overflow = true;
+            }
+        }
+
+        if (overflow) {
+            evict("send queue exceeded " + capacity + " symbols");
+            return;
+        }
+        if (isSlow()) {
+            evict("not ready for over " + slowConsumerTimeoutNanos / 1_000_000L + " ms");
+            return;
+        }
+        drain();
+    }
+
+    int queueDepth() {
+        synchronized (queue) {
+            return queue.size();
+        }
+    }
+
+    boolean isClosed() {
+        return closed.get();
+    }
+
+    private void drain() {
+        if (wip.getAndIncrement() != 0) {
+            return;
+        }
+
+        int missed = 1;
+        do {
+            if (closed.get()) {
+                terminate();
+            } else {
+                sendWhileReady();
+                trackReadiness();
+            }
+            missed = wip.addAndGet(-missed);
+        } while (missed != 0);
+    }
+
+    private void sendWhileReady() {
+        while (isReady()) {
+            MarketDataUpdate next = poll();
+            if (next == null) {
+                return;
+            }
+            try {
+                observer.onNext(next);
+            } catch (Exception e) {
+                log.debug("Removing disconnected gRPC subscriber: {}", e.getMessage());
+                if (closed.compareAndSet(false, true)) {
+                    listener.onEvicted(this, "disconnected");
+                }
+                return;
+            }
+        }
+    }
+
+    /**
+     * Close an evicted stream. Runs inside drain() so onError never races onNext.
+     */
+    private void terminate() {
+        Status status = evictionStatus;
+        if (status == null || terminated) {
+            return;
+        }
+        terminated = true;
+        synchronized (queue) {
+            queue.clear();
+        }
+        try {
+            observer.onError(status.asRuntimeException());
+        } catch (Exception e) {
+            log.debug("Failed to close evicted gRPC subscriber: {}", e.getMessage());
+        }
+    }
+
+    private MarketDataUpdate poll() {
+        synchronized (queue) {
+            Iterator<MarketDataUpdate> it = queue.values().iterator();
+            if (!it.hasNext()) {
+                return null;
+            }
+            MarketDataUpdate next = it.next();
+            it.remove();
+            return next;
+        }
+    }
+
+    private boolean isReady() {
+        return serverObserver == null || serverObserver.isReady();
+    }
+
+    private void trackReadiness() {
+        if (queueDepth() == 0 || isReady()) {
+            notReadySinceNanos = 0L;
+        } else if (notReadySinceNanos == 0L) {
+            notReadySinceNanos = System.nanoTime();
+        }
+    }
+
+    private boolean isSlow() {
+        long since = notReadySinceNanos;
+        return since != 0L && System.nanoTime() - since > slowConsumerTimeoutNanos;
+    }
+
+    private void evict(String reason) {
+        if (!closed.compareAndSet(false, true)) {
+            return;
+        }
+        evictionStatus = Status.RESOURCE_EXHAUSTED.withDescription("Slow consumer evicted: " + reason);
+        listener.onEvicted(this, reason);
+        drain();
+    }
+}
@@ -52,7 +52,18 @@ public class MarketDataPublisher {
         }
 
         try {
-            JsonNode root = objectMapper.readTree(jsonData);
+            publishMarketData(indexName, objectMapper.readTree(jsonData));
+        } catch (Exception e) {
+            log.error("Failed to parse and publish market data for index: {}", indexName, e);
+        }
+    }
+
+    /**
+     * Publish an already-parsed NSE response to Kafka as Protobuf message.
+     * Used by the fetch pipeline, which parses each response exactly once.
+     */
+    public void publishMarketData(String indexName, JsonNode root) {
+        try {
             MarketDataEvent event = protobufMapper.fromNseJson(indexName, root);
 
             if (event != null) {
@@ -61,7 +72,7 @@ public class MarketDataPublisher {
                 log.warn("Failed to parse market data for index: {}", indexName);
             }
         } catch (Exception e) {
-            log.error("Failed to parse and publish market data for index: {}", indexName, e);
+            log.error("Failed to publish market data for index: {}", indexName, e);
         }
     }
 
@@ -0,0 +1,59 @@
+package in.winvestco.marketservice.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Table;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * One OHLCV bar in the candles table (see V1__create_candles_table.sql).
+ * Rows are written by {@link in.winvestco.marketservice.repository.CandleUpsertRepository}
+ * and only read through JPA.
+ */
+@Entity
+@Table(name = "candles")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+public class Candle {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false, length = 50)
+    private String symbol;
+
+    @Column(name = "interval_type", nullable = false, length = 10)
+    private String intervalType;
+
+    @Column(name = "timestamp", nullable = false)
+    private Instant timestamp;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal open;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal high;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal low;
+
+    @Column(nullable = false, precision = 15, scale = 2)
+    private BigDecimal close;
+
+    private Long volume;
+
+    @Column(name = "created_at", insertable = false, updatable = false)
+    private Instant createdAt;
+}
@@ -0,0 +1,59 @@
+package in.winvestco.marketservice.model;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+
+/**
+ * Candle intervals stored in the candles table, keyed by their interval_type code.
+ *
+ * Buckets are aligned to IST wall-clock time (a fixed +05:30 offset, no DST),
+ * so 1h candles start on the IST hour and 1d candles at IST midnight.
+ */
+public enum CandleInterval {
+
+    FIVE_MINUTES("5m", Duration.ofMinutes(5)),
+    FIFTEEN_MINUTES("15m", Duration.ofMinutes(15)),
+    ONE_HOUR("1h", Duration.ofHours(1)),
+    ONE_DAY("1d", Duration.ofDays(1));
+
+    private static final long IST_OFFSET_MILLIS = ZoneOffset.ofHoursMinutes(5, 30).getTotalSeconds() * 1000L;
+
+    private final String code;
+    private final Duration duration;
+
+    CandleInterval(String code, Duration duration) {
+        this.code = code;
+        this.duration = duration;
+    }
+
+    public String getCode() {
+        return code;
+    }
+
+    public Duration getDuration() {
+        return duration;
+    }
+
+    /**
+     * Start of the bucket containing the given instant.
+     */
+    public Instant bucketStart(Instant at) {
+        long size = duration.toMillis();
+        long local = at.toEpochMilli() + IST_OFFSET_MILLIS;
+        return Instant.ofEpochMilli(Math.floorDiv(local, size) * size - IST_OFFSET_MILLIS);
+    }
+
+    public Instant bucketEnd(Instant bucketStart) {
+        return bucketStart.plus(duration);
+    }
+
+    public static CandleInterval fromCode(String code) {
+        for (CandleInterval interval : values()) {
+            if (interval.code.equalsIgnoreCase(code)) {
+                return interval;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported candle interval: " + code);
+    }
+}
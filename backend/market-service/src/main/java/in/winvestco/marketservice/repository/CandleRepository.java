@@ -0,0 +1,27 @@
+package in.winvestco.marketservice.repository;
+
+import in.winvestco.marketservice.model.Candle;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface CandleRepository extends JpaRepository<Candle, Long>, CandleUpsertRepository {
+
+    /**
+     * Candles starting in [from, to), oldest first. Served by
+     * idx_candles_symbol_interval_time.
+     */
+    @Query("SELECT c FROM Candle c WHERE c.symbol = :symbol AND c.intervalType = :intervalType " +
+            "AND c.timestamp >= :from AND c.timestamp < :to ORDER BY c.timestamp ASC")
+    List<Candle> findRange(@Param("symbol") String symbol,
+            @Param("intervalType") String intervalType,
+            @Param("from") Instant from,
+            @Param("to") Instant to,
+            Pageable pageable);
+}
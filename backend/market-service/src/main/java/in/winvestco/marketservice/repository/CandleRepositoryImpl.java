@@ -0,0 +1,82 @@
+package in.winvestco.marketservice.repository;
+
+import in.winvestco.marketservice.config.CandleConfig;
+import in.winvestco.marketservice.model.Candle;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-row INSERT ... ON CONFLICT implementation of {@link CandleUpsertRepository}.
+ * Picked up by Spring Data as the fragment for {@link CandleRepository}.
+ */
+@RequiredArgsConstructor
+public class CandleRepositoryImpl implements CandleUpsertRepository {
+
+    private static final String INSERT_PREFIX =
+            "INSERT INTO candles (symbol, interval_type, timestamp, open, high, low, close, volume) VALUES ";
+    private static final String ROW_PLACEHOLDER = "(?, ?, ?, ?, ?, ?, ?, ?)";
+    private static final String ON_CONFLICT =
+            " ON CONFLICT (symbol, interval_type, timestamp) DO UPDATE SET"
+                    + " high = GREATEST(candles.high, EXCLUDED.high),"
+                    + " low = LEAST(candles.low, EXCLUDED.low),"
+                    + " close = EXCLUDED.close,"
+                    + " volume = GREATEST(COALESCE(candles.volume, 0), EXCLUDED.volume)";
+    private static final int PARAMS_PER_ROW = 8;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final CandleConfig candleConfig;
+
+    @Override
+    @Transactional
+    public int upsertAll(List<Candle> candles) {
+        // One statement cannot touch the same key twice, so keep only the latest copy of each bar
+        Map<String, Candle> unique = new LinkedHashMap<>();
+        for (Candle candle : candles) {
+            unique.put(candle.getSymbol() + '|' + candle.getIntervalType() + '|' + candle.getTimestamp(), candle);
+        }
+        List<Candle> rows = new ArrayList<>(unique.values());
+
+        int batchSize = Math.max(1, candleConfig.getUpsertBatchSize());
+        int written = 0;
+        for (int from = 0; from < rows.size(); from += batchSize) {
+            List<Candle> chunk = rows.subList(from, Math.min(from + batchSize, rows.size()));
+            written += jdbcTemplate.update(upsertSql(chunk.size()), flatten(chunk));
+        }
+        return written;
+    }
+
+    private static String upsertSql(int rows) {
+        StringBuilder sql = new StringBuilder(INSERT_PREFIX.length() + rows * (ROW_PLACEHOLDER.length() + 2)
+                + ON_CONFLICT.length());
+        sql.append(INSERT_PREFIX);
+        for (int i = 0; i < rows; i++) {
+            if (i > 0) {
+                sql.append(", ");
+            }
+            sql.append(ROW_PLACEHOLDER);
+        }
+        return sql.append(ON_CONFLICT).toString();
+    }
+
+    private static Object[] flatten(List<Candle> chunk) {
+        List<Object> params = new ArrayList<>(chunk.size() * PARAMS_PER_ROW);
+        for (Candle candle : chunk) {
+            params.add(candle.getSymbol());
+            params.add(candle.getIntervalType());
+            params.add(Timestamp.from(candle.getTimestamp()));
+            params.add(candle.getOpen());
+            params.add(candle.getHigh());
+            params.add(candle.getLow());
+            params.add(candle.getClose());
+            params.add(candle.getVolume() != null ? candle.getVolume() : 0L);
+        }
+        return params.toArray();
+    }
+}
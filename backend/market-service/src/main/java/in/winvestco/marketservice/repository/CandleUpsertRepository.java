@@ -0,0 +1,23 @@
+package in.winvestco.marketservice.repository;
+
+import in.winvestco.marketservice.model.Candle;
+
+import java.util.List;
+
+/**
+ * Bulk write path for candles, kept out of JPA so a flush is a handful of
+ * multi-row statements instead of one persist/merge per bar.
+ */
+public interface CandleUpsertRepository {
+
+    /**
+     * Insert or merge candles keyed by (symbol, interval_type, timestamp).
+     *
+     * A conflicting row keeps its open, widens high/low, takes the new close
+     * and the larger volume, so re-flushing a bar that is still forming (or
+     * replaying one after a restart) never loses data.
+     *
+     * @return number of rows inserted or updated
+     */
+    int upsertAll(List<Candle> candles);
+}
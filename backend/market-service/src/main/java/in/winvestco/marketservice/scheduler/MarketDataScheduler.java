@@ -3,66 +3,239 @@ package in.winvestco.marketservice.scheduler;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import in.winvestco.marketservice.client.NseClient;
+import in.winvestco.marketservice.config.NseConfig;
 import in.winvestco.marketservice.grpc.MarketDataGrpcService;
 import in.winvestco.marketservice.messaging.MarketDataPublisher;
+import in.winvestco.marketservice.service.CandleAggregator;
+import in.winvestco.marketservice.service.MarketDataService;
+import in.winvestco.marketservice.service.QuoteStore;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.springframework.stereotype.Component;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 
+import java.time.Instant;
 import java.util.List;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
+/**
+ * Fetches all tracked NSE indices and fans the data out to Kafka, Redis,
+ * gRPC subscribers, the in-memory quote store and the candle aggregator.
+ *
+ * Each cycle is pipelined:
+ * - Fetch: one virtual thread per index, starts paced to the nseApi rate
+ * limiter and concurrency capped below the nseApi bulkhead, so the
+ * Resilience4j limits are never tripped by our own burst
+ * - Parse → publish → cache: run on the fetching thread as soon as its
+ * response arrives, while other indices are still in flight
+ * - Fan-out: gRPC pushes run on the cycle thread in completion order, since
+ * a StreamObserver must not be called concurrently
+ *
+ * Per-stage timings are recorded as market.fetch.stage.duration{stage=...}.
+ */
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class MarketDataScheduler {
 
+    private static final String NSE_API = "nseApi";
+
+    static final String STAGE_FETCH = "fetch";
+    static final String STAGE_PARSE = "parse";
+    static final String STAGE_PUBLISH = "publish";
+    static final String STAGE_CACHE = "cache";
+    static final String STAGE_FANOUT = "fanout";
+
     private final NseClient nseClient;
     private final MarketDataPublisher marketDataPublisher;
-    private final in.winvestco.marketservice.service.MarketDataService marketDataService;
+    private final MarketDataService marketDataService;
+    private final QuoteStore quoteStore;
     private final MarketDataGrpcService marketDataGrpcService;
+    private final CandleAggregator candleAggregator;
     private final ObjectMapper objectMapper;
+    private final NseConfig nseConfig;
+    private final MeterRegistry meterRegistry;
+    private final RateLimiterRegistry rateLimiterRegistry;
+    private final BulkheadRegistry bulkheadRegistry;
+
+    private final AtomicBoolean cycleRunning = new AtomicBoolean();
 
     /**
      * Fetch and publish market data - triggered via RabbitMQ
      */
     public void fetchAndPublishMarketData() {
+        if (!cycleRunning.compareAndSet(false, true)) {
+            log.warn("Previous market data fetch cycle still running, skipping trigger");
+            return;
+        }
+
         log.info("Scheduled task started: Fetching market data from NSE India");
+        Timer.Sample cycle = Timer.start(meterRegistry);
         try {
-            // Fetch full data for all major NSE indices
-            List<String> indices = List.of(
-                    // Broad Market Indices
-                    "NIFTY 50", "NIFTY NEXT 50", "NIFTY 100", "NIFTY 200", "NIFTY 500",
-                    "NIFTY MIDCAP 50", "NIFTY MIDCAP 100", "NIFTY SMLCAP 100",
-                    // Sectoral Indices
-                    "NIFTY BANK", "NIFTY IT", "NIFTY AUTO", "NIFTY FINANCIAL SERVICES",
-                    "NIFTY FMCG", "NIFTY PHARMA", "NIFTY METAL", "NIFTY MEDIA",
-                    "NIFTY ENERGY", "NIFTY PSU BANK", "NIFTY PRIVATE BANK",
-                    "NIFTY INFRA", "NIFTY REALTY", "NIFTY CONSUMPTION");
-
-            for (String indexName : indices) {
-                // Get full NSE response with all constituent stocks
-                String jsonData = nseClient.getFullIndexData(indexName);
-                if (jsonData != null) {
-                    marketDataPublisher.publishMarketData(indexName, jsonData);
-                    marketDataService.saveMarketData(indexName, jsonData);
-
-                    // Parse JSON once, pass parsed tree to gRPC service
-                    // Avoids redundant objectMapper.readTree() inside pushUpdatesForIndex
-                    try {
-                        JsonNode parsedRoot = objectMapper.readTree(jsonData);
-                        marketDataGrpcService.pushUpdatesFromParsedIndex(indexName, parsedRoot);
-                    } catch (Exception e) {
-                        log.warn("Failed to push gRPC updates for index {}: {}", indexName, e.getMessage());
-                    }
-
-                    log.info("Successfully fetched and published full data for: {}", indexName);
-                } else {
-                    log.warn("No data received for index: {}", indexName);
+            runCycle(MarketDataService.NSE_INDICES);
+        } catch (Exception e) {
+            log.error("Error occurred while fetching/publishing market data from NSE", e);
+        } finally {
+            cycle.stop(meterRegistry.timer("market.fetch.cycle.duration"));
+            cycleRunning.set(false);
+        }
+    }
+
+    private void runCycle(List<String> indices) throws Exception {
+        QuoteStore.SnapshotBuilder quoteSnapshot = quoteStore.newSnapshot(QuoteStore.Source.FETCH);
+        JsonNode[] parsedByPosition = new JsonNode[indices.size()];
+
+        int concurrency = fetchConcurrency();
+        long spacingNanos = fetchSpacingNanos();
+        Semaphore fetchSlots = new Semaphore(concurrency);
+        long startNanos = System.nanoTime();
+        long deadlineNanos = startNanos + TimeUnit.MILLISECONDS.toNanos(nseConfig.getFetchCycleTimeoutMs());
+        int succeeded = 0;
+
+        log.debug("Fetching {} indices with concurrency {} and {} ms start spacing",
+                indices.size(), concurrency, TimeUnit.NANOSECONDS.toMillis(spacingNanos));
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletionService<FetchedIndex> completion = new ExecutorCompletionService<>(executor);
+            for (int i = 0; i < indices.size(); i++) {
+                int position = i;
+                String indexName = indices.get(i);
+                long notBeforeNanos = startNanos + i * spacingNanos;
+                completion.submit(() -> fetchAndStage(position, indexName, notBeforeNanos, fetchSlots));
+            }
+
+            // Fan out in completion order; fetches for slower indices keep running meanwhile
+            for (int received = 0; received < indices.size(); received++) {
+                Future<FetchedIndex> next = completion.poll(deadlineNanos - System.nanoTime(), TimeUnit.NANOSECONDS);
+                if (next == null) {
+                    log.warn("Market data fetch cycle timed out after {} of {} indices",
+                            received, indices.size());
+                    executor.shutdownNow();
+                    break;
                 }
+
+                FetchedIndex fetched = next.get();
+                if (fetched.root() == null) {
+                    continue;
+                }
+
+                parsedByPosition[fetched.position()] = fetched.root();
+                pushToSubscribers(fetched);
+                succeeded++;
+                log.info("Successfully fetched and published full data for: {}", fetched.indexName());
+            }
+        }
+
+        // Add in index order so broad-market indices keep priority, then swap in one step
+        for (int i = 0; i < parsedByPosition.length; i++) {
+            if (parsedByPosition[i] != null) {
+                quoteSnapshot.addIndex(indices.get(i), parsedByPosition[i]);
+            }
+        }
+        quoteSnapshot.publish();
+        aggregateCandles(quoteSnapshot);
+
+        log.info("Market data fetch cycle completed: {}/{} indices in {} ms",
+                succeeded, indices.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - startNanos));
+    }
+
+    /**
+     * Fetch, parse, publish and cache one index. Runs on its own virtual thread
+     * and never throws; a failed index comes back with a null root.
+     */
+    private FetchedIndex fetchAndStage(int position, String indexName, long notBeforeNanos, Semaphore fetchSlots) {
+        try {
+            long waitNanos = notBeforeNanos - System.nanoTime();
+            if (waitNanos > 0) {
+                TimeUnit.NANOSECONDS.sleep(waitNanos);
+            }
+
+            // Get full NSE response with all constituent stocks
+            String jsonData;
+            fetchSlots.acquire();
+            try {
+                jsonData = stageTimer(STAGE_FETCH).recordCallable(() -> nseClient.getFullIndexData(indexName));
+            } finally {
+                fetchSlots.release();
+            }
+
+            if (jsonData == null) {
+                log.warn("No data received for index: {}", indexName);
+                recordFailure(indexName);
+                return new FetchedIndex(position, indexName, null);
             }
 
+            // Parse JSON once; every downstream stage works off the same tree
+            JsonNode root = stageTimer(STAGE_PARSE).recordCallable(() -> objectMapper.readTree(jsonData));
+            stageTimer(STAGE_PUBLISH).record(() -> marketDataPublisher.publishMarketData(indexName, root));
+            stageTimer(STAGE_CACHE).record(() -> marketDataService.saveMarketData(indexName, jsonData));
+
+            return new FetchedIndex(position, indexName, root);
+
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return new FetchedIndex(position, indexName, null);
         } catch (Exception e) {
-            log.error("Error occurred while fetching/publishing market data from NSE", e);
+            log.warn("Failed to fetch/stage market data for index {}: {}", indexName, e.getMessage());
+            recordFailure(indexName);
+            return new FetchedIndex(position, indexName, null);
+        }
+    }
+
+    private void pushToSubscribers(FetchedIndex fetched) {
+        try {
+            stageTimer(STAGE_FANOUT).record(
+                    () -> marketDataGrpcService.pushUpdatesFromParsedIndex(fetched.indexName(), fetched.root()));
+        } catch (Exception e) {
+            log.warn("Failed to push gRPC updates for index {}: {}", fetched.indexName(), e.getMessage());
+        }
+    }
+
+    private void aggregateCandles(QuoteStore.SnapshotBuilder quoteSnapshot) {
+        try {
+            candleAggregator.onQuotes(quoteSnapshot.staged(), Instant.now());
+        } catch (Exception e) {
+            log.warn("Failed to aggregate candles for this cycle: {}", e.getMessage());
         }
     }
+
+    /**
+     * Concurrent fetches, capped at the nseApi bulkhead size so callers never
+     * hit BulkheadFullException (which would fall back to null for that index).
+     */
+    int fetchConcurrency() {
+        int bulkheadLimit = bulkheadRegistry.bulkhead(NSE_API).getBulkheadConfig().getMaxConcurrentCalls();
+        return Math.max(1, Math.min(nseConfig.getMaxConcurrentFetches(), bulkheadLimit));
+    }
+
+    /**
+     * Minimum gap between fetch starts so a cycle consumes nseApi rate limiter
+     * permits no faster than they refresh.
+     */
+    long fetchSpacingNanos() {
+        RateLimiterConfig config = rateLimiterRegistry.rateLimiter(NSE_API).getRateLimiterConfig();
+        return config.getLimitRefreshPeriod().toNanos() / Math.max(1, config.getLimitForPeriod());
+    }
+
+    private Timer stageTimer(String stage) {
+        return meterRegistry.timer("market.fetch.stage.duration", "stage", stage);
+    }
+
+    private void recordFailure(String indexName) {
+        meterRegistry.counter("market.fetch.index.failures", "index", indexName).increment();
+    }
+
+    private record FetchedIndex(int position, String indexName, JsonNode root) {
+    }
 }
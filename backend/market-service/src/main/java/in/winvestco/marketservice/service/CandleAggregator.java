@@ -0,0 +1,434 @@
+package in.winvestco.marketservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import in.winvestco.marketservice.config.CandleConfig;
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.model.Candle;
+import in.winvestco.marketservice.model.CandleInterval;
+import in.winvestco.marketservice.repository.CandleRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Streaming OHLCV aggregator fed by the fetch cycle.
+ *
+ * - Every fetched quote is folded into the symbol's open 5m candle; when a 5m
+ * candle closes it is rolled up into the open 15m, 1h and 1d candles, so
+ * higher intervals never re-scan ticks
+ * - NSE reports the day's cumulative traded volume, so a candle's volume is
+ * the increase in that figure while the candle was open
+ * - Quotes with an unchanged price and volume are ignored, so idle periods
+ * (e.g. after market close) produce no flat candles
+ * - Closed candles are retained in memory for recent range queries and
+ * queued for the next flush; a flush also upserts candles that are still
+ * forming, so other replicas and restarts can read them from the table
+ *
+ * Only candles whose whole bucket was observed by this node are served from
+ * memory; see {@link #read}.
+ */
+@Component
+@Slf4j
+public class CandleAggregator {
+
+    private static final CandleInterval BASE = CandleInterval.FIVE_MINUTES;
+    private static final CandleInterval[] ROLLUPS = {
+            CandleInterval.FIFTEEN_MINUTES, CandleInterval.ONE_HOUR, CandleInterval.ONE_DAY };
+
+    private final CandleRepository candleRepository;
+    private final CandleConfig candleConfig;
+
+    private final Map<String, SymbolSeries> series = new ConcurrentHashMap<>();
+    private final ConcurrentLinkedQueue<Candle> closedPending = new ConcurrentLinkedQueue<>();
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    private final Counter ticks;
+    private final Counter flushed;
+    private final Counter flushFailures;
+    private final Timer flushTimer;
+
+    public CandleAggregator(CandleRepository candleRepository, CandleConfig candleConfig,
+            MeterRegistry meterRegistry) {
+        this.candleRepository = candleRepository;
+        this.candleConfig = candleConfig;
+        this.ticks = meterRegistry.counter("market.candles.ticks");
+        this.flushed = meterRegistry.counter("market.candles.flushed");
+        this.flushFailures = meterRegistry.counter("market.candles.flush.failures");
+        this.flushTimer = meterRegistry.timer("market.candles.flush.duration");
+        meterRegistry.gauge("market.candles.pending", closedPending, ConcurrentLinkedQueue::size);
+    }
+
+    /**
+     * Fold one fetch cycle's quotes into the open candles.
+     */
+    public void onQuotes(Collection<QuoteStore.Entry> quotes, Instant at) {
+        for (QuoteStore.Entry quote : quotes) {
+            double price = number(quote.node(), "lastPrice");
+            if (price <= 0) {
+                continue;
+            }
+            long cumulativeVolume = (long) number(quote.node(), "totalTradedVolume");
+            String symbol = quote.symbol().toUpperCase();
+            series.computeIfAbsent(symbol, SymbolSeries::new).onTick(price, cumulativeVolume, at);
+        }
+    }
+
+    /**
+     * Candles this node aggregated itself for [from, to), oldest first.
+     * {@code coveredFrom} is the earliest bucket start memory can answer for;
+     * anything before it (or everything, if null) must come from the table.
+     */
+    public MemoryRange read(String symbol, CandleInterval interval, Instant from, Instant to) {
+        SymbolSeries symbolSeries = series.get(symbol.toUpperCase());
+        if (symbolSeries == null) {
+            return new MemoryRange(null, List.of());
+        }
+        return symbolSeries.read(interval, from, to);
+    }
+
+    @Scheduled(fixedDelayString = "${market.candles.flush-interval-ms:60000}",
+            initialDelayString = "${market.candles.flush-interval-ms:60000}")
+    public void flush() {
+        flush(Instant.now());
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush(Instant.now());
+    }
+
+    /**
+     * Close candles whose bucket has ended, then upsert every closed candle
+     * plus every forming candle that changed since the last flush.
+     *
+     * @return number of candles written
+     */
+    int flush(Instant now) {
+        if (!flushLock.tryLock()) {
+            return 0;
+        }
+        try {
+            for (SymbolSeries symbolSeries : series.values()) {
+                symbolSeries.closeExpired(now);
+            }
+
+            List<Candle> rows = new ArrayList<>();
+            Candle closed;
+            while ((closed = closedPending.poll()) != null) {
+                rows.add(closed);
+            }
+            int closedCount = rows.size();
+            for (SymbolSeries symbolSeries : series.values()) {
+                symbolSeries.collectForming(rows);
+            }
+            if (rows.isEmpty()) {
+                return 0;
+            }
+
+            try {
+                flushTimer.record(() -> candleRepository.upsertAll(rows));
+                flushed.increment(rows.size());
+                log.debug("Flushed {} candles ({} closed, {} forming)", rows.size(), closedCount,
+                        rows.size() - closedCount);
+                return rows.size();
+            } catch (Exception e) {
+                log.warn("Failed to flush {} candles, will retry: {}", rows.size(), e.getMessage());
+                flushFailures.increment();
+                closedPending.addAll(rows.subList(0, closedCount));
+                for (SymbolSeries symbolSeries : series.values()) {
+                    symbolSeries.markDirty();
+                }
+                return 0;
+            }
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    private static CandleDTO toDTO(String symbol, CandleInterval interval, Bar bar) {
+        return CandleDTO.builder()
+                .symbol(symbol)
+                .interval(interval.getCode())
+                .timestamp(bar.start)
+                .open(decimal(bar.open))
+                .high(decimal(bar.high))
+                .low(decimal(bar.low))
+                .close(decimal(bar.close))
+                .volume(bar.volume)
+                .build();
+    }
+
+    private static Candle toEntity(String symbol, CandleInterval interval, Bar bar) {
+        return Candle.builder()
+                .symbol(symbol)
+                .intervalType(interval.getCode())
+                .timestamp(bar.start)
+                .open(decimal(bar.open))
+                .high(decimal(bar.high))
+                .low(decimal(bar.low))
+                .close(decimal(bar.close))
+                .volume(bar.volume)
+                .build();
+    }
+
+    private static BigDecimal decimal(double value) {
+        return BigDecimal.valueOf(value).setScale(2, RoundingMode.HALF_UP);
+    }
+
+    private static double number(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        if (value.isMissingNode() || value.isNull()) {
+            return 0.0;
+        }
+        if (value.isNumber()) {
+            return value.asDouble();
+        }
+        try {
+            return Double.parseDouble(value.asText().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return 0.0;
+        }
+    }
+
+    /**
+     * Result of an in-memory range read.
+     */
+    public record MemoryRange(Instant coveredFrom, List<CandleDTO> candles) {
+    }
+
+    /**
+     * A mutable OHLCV bar. Only touched under its series' monitor.
+     */
+    private static final class Bar {
+
+        private final Instant start;
+        private double open;
+        private double high;
+        private double low;
+        private double close;
+        private long volume;
+
+        private Bar(Instant start, double price) {
+            this.start = start;
+            this.open = price;
+            this.high = price;
+            this.low = price;
+            this.close = price;
+        }
+
+        private void add(double price, long tickVolume) {
+            high = Math.max(high, price);
+            low = Math.min(low, price);
+            close = price;
+            volume += tickVolume;
+        }
+
+        /** Fold a later, finer-grained bar into this one. */
+        private void merge(Bar later) {
+            high = Math.max(high, later.high);
+            low = Math.min(low, later.low);
+            close = later.close;
+            volume += later.volume;
+        }
+
+        private Bar copyAt(Instant bucketStart) {
+            Bar copy = new Bar(bucketStart, open);
+            copy.high = high;
+            copy.low = low;
+            copy.close = close;
+            copy.volume = volume;
+            return copy;
+        }
+    }
+
+    /**
+     * Forming and recently closed candles of one symbol, for every interval.
+     */
+    private final class SymbolSeries {
+
+        private final String symbol;
+        private final Bar[] forming = new Bar[CandleInterval.values().length];
+        private final List<ArrayDeque<Bar>> closed = new ArrayList<>();
+        // Start of the first bucket this node saw from its beginning, per interval
+        private final Instant[] coveredFrom = new Instant[CandleInterval.values().length];
+
+        private double lastPrice = Double.NaN;
+        private long lastCumulativeVolume = -1;
+        private boolean dirty;
+
+        private SymbolSeries(String symbol) {
+            this.symbol = symbol;
+            for (int i = 0; i < CandleInterval.values().length; i++) {
+                closed.add(new ArrayDeque<>());
+            }
+        }
+
+        private synchronized void onTick(double price, long cumulativeVolume, Instant at) {
+            boolean unchanged = price == lastPrice && cumulativeVolume == lastCumulativeVolume;
+            long tickVolume = volumeDelta(cumulativeVolume);
+            lastPrice = price;
+            if (unchanged) {
+                return;
+            }
+
+            roll(at);
+            Bar base = forming[BASE.ordinal()];
+            if (base == null) {
+                base = new Bar(BASE.bucketStart(at), price);
+                forming[BASE.ordinal()] = base;
+                markCoverage(BASE, base.start);
+            }
+            base.add(price, tickVolume);
+            dirty = true;
+            ticks.increment();
+        }
+
+        /**
+         * The first cumulative figure after startup belongs to earlier bars;
+         * a drop means a new session started and counts from zero.
+         */
+        private long volumeDelta(long cumulativeVolume) {
+            long delta;
+            if (lastCumulativeVolume < 0) {
+                delta = 0;
+            } else if (cumulativeVolume < lastCumulativeVolume) {
+                delta = cumulativeVolume;
+            } else {
+                delta = cumulativeVolume - lastCumulativeVolume;
+            }
+            lastCumulativeVolume = cumulativeVolume;
+            return delta;
+        }
+
+        private synchronized void closeExpired(Instant now) {
+            roll(now);
+        }
+
+        /**
+         * Close the 5m bar if {@code at} is past its bucket and roll it up,
+         * then close any higher bar whose bucket {@code at} has left.
+         */
+        private void roll(Instant at) {
+            Bar base = forming[BASE.ordinal()];
+            if (base != null && !base.start.equals(BASE.bucketStart(at))) {
+                forming[BASE.ordinal()] = null;
+                close(BASE, base);
+                for (CandleInterval interval : ROLLUPS) {
+                    Bar bar = forming[interval.ordinal()];
+                    if (bar == null) {
+                        Instant start = interval.bucketStart(base.start);
+                        forming[interval.ordinal()] = base.copyAt(start);
+                        markCoverage(interval, start);
+                    } else {
+                        bar.merge(base);
+                    }
+                }
+            }
+
+            for (CandleInterval interval : ROLLUPS) {
+                Bar bar = forming[interval.ordinal()];
+                if (bar != null && !bar.start.equals(interval.bucketStart(at))) {
+                    forming[interval.ordinal()] = null;
+                    close(interval, bar);
+                }
+            }
+        }
+
+        private void close(CandleInterval interval, Bar bar) {
+            ArrayDeque<Bar> retained = closed.get(interval.ordinal());
+            retained.addLast(bar);
+            while (retained.size() > Math.max(1, candleConfig.getRetainedCandles())) {
+                retained.removeFirst();
+                Instant oldest = retained.peekFirst().start;
+                if (oldest.isAfter(coveredFrom[interval.ordinal()])) {
+                    coveredFrom[interval.ordinal()] = oldest;
+                }
+            }
+            closedPending.add(toEntity(symbol, interval, bar));
+        }
+
+        /**
+         * The first bar of an interval started mid-bucket, so memory only
+         * covers from the following bucket onwards.
+         */
+        private void markCoverage(CandleInterval interval, Instant firstBucketStart) {
+            if (coveredFrom[interval.ordinal()] == null) {
+                coveredFrom[interval.ordinal()] = interval.bucketEnd(firstBucketStart);
+            }
+        }
+
+        /** The forming bar of an interval including the open 5m bar not yet rolled up. */
+        private Bar live(CandleInterval interval) {
+            Bar base = forming[BASE.ordinal()];
+            if (interval == BASE) {
+                return base;
+            }
+            Bar bar = forming[interval.ordinal()];
+            if (base == null) {
+                return bar;
+            }
+            if (bar == null) {
+                return base.copyAt(interval.bucketStart(base.start));
+            }
+            Bar view = bar.copyAt(bar.start);
+            view.merge(base);
+            return view;
+        }
+
+        private synchronized MemoryRange read(CandleInterval interval, Instant from, Instant to) {
+            Instant covered = coveredFrom[interval.ordinal()];
+            if (covered == null) {
+                return new MemoryRange(null, List.of());
+            }
+
+            List<CandleDTO> candles = new ArrayList<>();
+            for (Bar bar : closed.get(interval.ordinal())) {
+                if (inRange(bar.start, covered, from, to)) {
+                    candles.add(toDTO(symbol, interval, bar));
+                }
+            }
+            Bar live = live(interval);
+            if (live != null && inRange(live.start, covered, from, to)) {
+                candles.add(toDTO(symbol, interval, live));
+            }
+            return new MemoryRange(covered, candles);
+        }
+
+        private boolean inRange(Instant start, Instant covered, Instant from, Instant to) {
+            return !start.isBefore(covered) && !start.isBefore(from) && start.isBefore(to);
+        }
+
+        private synchronized void collectForming(List<Candle> rows) {
+            if (!dirty) {
+                return;
+            }
+            for (CandleInterval interval : CandleInterval.values()) {
+                Bar live = live(interval);
+                if (live != null) {
+                    rows.add(toEntity(symbol, interval, live));
+                }
+            }
+            dirty = false;
+        }
+
+        private synchronized void markDirty() {
+            dirty = true;
+        }
+    }
+}
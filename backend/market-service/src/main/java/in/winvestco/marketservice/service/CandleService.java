@@ -0,0 +1,91 @@
+package in.winvestco.marketservice.service;
+
+import in.winvestco.marketservice.config.CandleConfig;
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.model.Candle;
+import in.winvestco.marketservice.model.CandleInterval;
+import in.winvestco.marketservice.repository.CandleRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Candle range queries. Recent candles this node aggregated itself are served
+ * from {@link CandleAggregator}; the part of the range before that comes from
+ * the candles table.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CandleService {
+
+    private final CandleAggregator candleAggregator;
+    private final CandleRepository candleRepository;
+    private final CandleConfig candleConfig;
+
+    /**
+     * Candles starting in [from, to), oldest first.
+     *
+     * @param to   defaults to now
+     * @param from defaults to the widest range allowed for the interval
+     * @throws IllegalArgumentException for an unknown interval, an empty range
+     *                                  or one spanning more than the configured
+     *                                  maximum number of candles
+     */
+    public List<CandleDTO> getCandles(String symbol, String intervalCode, Instant from, Instant to) {
+        if (symbol == null || symbol.isBlank()) {
+            throw new IllegalArgumentException("Symbol is required");
+        }
+        CandleInterval interval = CandleInterval.fromCode(intervalCode);
+        int maxCandles = candleConfig.getMaxRangeCandles();
+
+        Instant end = to != null ? to : Instant.now();
+        Instant start = from != null ? from : end.minus(interval.getDuration().multipliedBy(maxCandles));
+        if (!start.isBefore(end)) {
+            throw new IllegalArgumentException("'from' must be before 'to'");
+        }
+        if (Duration.between(start, end).dividedBy(interval.getDuration()) > maxCandles) {
+            throw new IllegalArgumentException(
+                    "Range exceeds " + maxCandles + " " + interval.getCode() + " candles");
+        }
+
+        String key = symbol.trim().toUpperCase();
+        CandleAggregator.MemoryRange memory = candleAggregator.read(key, interval, start, end);
+
+        List<CandleDTO> candles = new ArrayList<>();
+        Instant tableEnd = memory.coveredFrom() != null && memory.coveredFrom().isBefore(end)
+                ? memory.coveredFrom()
+                : end;
+        if (start.isBefore(tableEnd)) {
+            for (Candle candle : candleRepository.findRange(key, interval.getCode(), start, tableEnd,
+                    PageRequest.of(0, maxCandles))) {
+                candles.add(toDTO(candle));
+            }
+        }
+        candles.addAll(memory.candles());
+
+        log.debug("Served {} {} candles for {}: {} from table, {} from memory",
+                candles.size(), interval.getCode(), key, candles.size() - memory.candles().size(),
+                memory.candles().size());
+        return candles;
+    }
+
+    private static CandleDTO toDTO(Candle candle) {
+        return CandleDTO.builder()
+                .symbol(candle.getSymbol())
+                .interval(candle.getIntervalType())
+                .timestamp(candle.getTimestamp())
+                .open(candle.getOpen())
+                .high(candle.getHigh())
+                .low(candle.getLow())
+                .close(candle.getClose())
+                .volume(candle.getVolume() != null ? candle.getVolume() : 0L)
+                .build();
+    }
+}
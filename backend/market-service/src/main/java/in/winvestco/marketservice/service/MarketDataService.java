@@ -1,24 +1,50 @@
 package in.winvestco.marketservice.service;
 
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import in.winvestco.marketservice.dto.MarketDataDTO;
+import in.winvestco.marketservice.dto.StockQuoteDTO;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.locks.ReentrantLock;
 
 @Service
 @RequiredArgsConstructor
 @Slf4j
 public class MarketDataService {
 
+    /**
+     * All major NSE indices fetched each cycle, broad market first so a
+     * symbol's quote is taken from the widest index it appears in.
+     */
+    public static final List<String> NSE_INDICES = List.of(
+            // Broad Market Indices
+            "NIFTY 50", "NIFTY NEXT 50", "NIFTY 100", "NIFTY 200", "NIFTY 500",
+            "NIFTY MIDCAP 50", "NIFTY MIDCAP 100", "NIFTY SMLCAP 100",
+            // Sectoral Indices
+            "NIFTY BANK", "NIFTY IT", "NIFTY AUTO", "NIFTY FINANCIAL SERVICES",
+            "NIFTY FMCG", "NIFTY PHARMA", "NIFTY METAL", "NIFTY MEDIA",
+            "NIFTY ENERGY", "NIFTY PSU BANK", "NIFTY PRIVATE BANK",
+            "NIFTY INFRA", "NIFTY REALTY", "NIFTY CONSUMPTION");
+
     private final StringRedisTemplate redisTemplate;
+    private final QuoteStore quoteStore;
     private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ReentrantLock redisRefreshLock = new ReentrantLock();
     private static final String MARKET_DATA_KEY_PREFIX = "market:data:";
     private static final Duration CACHE_TTL = Duration.ofMinutes(10);
 
+    @Value("${market.quote-store.redis-refresh-interval-ms:60000}")
+    private long redisRefreshIntervalMs = 60000;
+
     public void saveMarketData(String symbol, String data) {
         String key = MARKET_DATA_KEY_PREFIX + symbol;
         log.info("Saving market data to Redis for key: {}", key);
@@ -56,53 +82,20 @@ public class MarketDataService {
      * Returns a JSON string with all unique stocks.
      */
     public String getAllStocks() {
-        // All major NSE indices
-        java.util.List<String> indices = java.util.List.of(
-                "NIFTY 50", "NIFTY NEXT 50", "NIFTY 100", "NIFTY 200", "NIFTY 500",
-                "NIFTY MIDCAP 50", "NIFTY MIDCAP 100", "NIFTY SMLCAP 100",
-                "NIFTY BANK", "NIFTY IT", "NIFTY AUTO", "NIFTY FINANCIAL SERVICES",
-                "NIFTY FMCG", "NIFTY PHARMA", "NIFTY METAL", "NIFTY MEDIA",
-                "NIFTY ENERGY", "NIFTY PSU BANK", "NIFTY PRIVATE BANK",
-                "NIFTY INFRA", "NIFTY REALTY", "NIFTY CONSUMPTION");
-
-        java.util.Map<String, com.fasterxml.jackson.databind.JsonNode> allStocks = new java.util.LinkedHashMap<>();
+        QuoteStore.Snapshot snapshot = currentSnapshot();
 
-        log.info("getAllStocks: Starting to fetch stocks from {} indices", indices.size());
+        log.debug("getAllStocks: Serving {} unique stocks from quote snapshot v{}",
+                snapshot.size(), snapshot.version());
 
-        for (String indexName : indices) {
-            try {
-                String indexData = getMarketData(indexName);
-                if (indexData != null) {
-                    log.debug("getAllStocks: Got data for index {}, length: {}", indexName, indexData.length());
-                    com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(indexData);
-                    com.fasterxml.jackson.databind.JsonNode dataArray = root.path("data");
-
-                    if (dataArray.isArray()) {
-                        int countBefore = allStocks.size();
-                        for (com.fasterxml.jackson.databind.JsonNode stock : dataArray) {
-                            String symbol = stock.path("symbol").asText();
-                            // Skip index entries and empty symbols
-                            if (symbol != null && !symbol.isEmpty() && !symbol.startsWith("NIFTY")) {
-                                allStocks.putIfAbsent(symbol, stock);
-                            }
-                        }
-                        log.debug("getAllStocks: Index {} added {} stocks (total now: {})",
-                                indexName, allStocks.size() - countBefore, allStocks.size());
-                    }
-                } else {
-                    log.debug("getAllStocks: No cached data for index {}", indexName);
-                }
-            } catch (Exception e) {
-                log.warn("Error processing index {}: {}", indexName, e.getMessage());
+        try {
+            java.util.List<JsonNode> stocks = new java.util.ArrayList<>(snapshot.size());
+            for (QuoteStore.Entry entry : snapshot.entries()) {
+                stocks.add(entry.node());
             }
-        }
-
-        log.info("getAllStocks: Collected {} unique stocks from all indices", allStocks.size());
 
-        try {
             java.util.Map<String, Object> result = new java.util.LinkedHashMap<>();
-            result.put("data", allStocks.values());
-            result.put("totalCount", allStocks.size());
+            result.put("data", stocks);
+            result.put("totalCount", stocks.size());
             result.put("timestamp", java.time.LocalDateTime.now().toString());
             return objectMapper.writeValueAsString(result);
         } catch (Exception e) {
@@ -113,47 +106,167 @@ public class MarketDataService {
 
     /**
      * Get stock quote data for a specific symbol.
-     * Searches through all cached index data to find the stock.
+     * Served from the in-memory quote snapshot; no Redis round trip or JSON parse.
      */
     public String getStockQuote(String symbol) {
         if (symbol == null || symbol.isEmpty()) {
             return null;
         }
 
-        // All major NSE indices to search through
-        java.util.List<String> indices = java.util.List.of(
-                "NIFTY 50", "NIFTY NEXT 50", "NIFTY 100", "NIFTY 200", "NIFTY 500",
-                "NIFTY MIDCAP 50", "NIFTY MIDCAP 100", "NIFTY SMLCAP 100",
-                "NIFTY BANK", "NIFTY IT", "NIFTY AUTO", "NIFTY FINANCIAL SERVICES",
-                "NIFTY FMCG", "NIFTY PHARMA", "NIFTY METAL", "NIFTY MEDIA",
-                "NIFTY ENERGY", "NIFTY PSU BANK", "NIFTY PRIVATE BANK",
-                "NIFTY INFRA", "NIFTY REALTY", "NIFTY CONSUMPTION");
+        QuoteStore.Entry entry = currentSnapshot().get(symbol);
+        if (entry == null) {
+            log.debug("getStockQuote: Symbol {} not found in any index", symbol);
+            return null;
+        }
+        return entry.json();
+    }
+
+    /**
+     * Get the parsed NSE stock node for a symbol, for callers that map it
+     * further (e.g. gRPC) and would otherwise re-parse the JSON string.
+     */
+    public JsonNode getStockQuoteNode(String symbol) {
+        if (symbol == null || symbol.isEmpty()) {
+            return null;
+        }
+
+        QuoteStore.Entry entry = currentSnapshot().get(symbol);
+        return entry != null ? entry.node() : null;
+    }
+
+    /**
+     * Resolve a list of symbols against a single quote snapshot, so every quote
+     * in the result comes from the same cycle. Symbols are de-duplicated
+     * case-insensitively and keep request order; unknown symbols map to null.
+     */
+    public java.util.Map<String, JsonNode> getStockQuoteNodes(java.util.Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return new java.util.LinkedHashMap<>();
+        }
+        return resolveQuotes(currentSnapshot(), symbols);
+    }
+
+    /**
+     * Get compact quotes for many symbols in one pass. Symbols with no quote
+     * are omitted from the result.
+     */
+    public java.util.List<StockQuoteDTO> getBulkQuotes(java.util.Collection<String> symbols) {
+        if (symbols == null || symbols.isEmpty()) {
+            return java.util.Collections.emptyList();
+        }
+
+        QuoteStore.Snapshot snapshot = currentSnapshot();
+        java.util.Map<String, JsonNode> nodes = resolveQuotes(snapshot, symbols);
+
+        java.util.List<StockQuoteDTO> quotes = new java.util.ArrayList<>(nodes.size());
+        for (java.util.Map.Entry<String, JsonNode> entry : nodes.entrySet()) {
+            if (entry.getValue() != null) {
+                quotes.add(toQuoteDTO(entry.getKey(), entry.getValue(), snapshot.publishedAt()));
+            }
+        }
+
+        log.debug("getBulkQuotes: Resolved {} of {} requested symbols", quotes.size(), nodes.size());
+        return quotes;
+    }
+
+    private java.util.Map<String, JsonNode> resolveQuotes(QuoteStore.Snapshot snapshot,
+            java.util.Collection<String> symbols) {
+        java.util.Map<String, JsonNode> result = new java.util.LinkedHashMap<>();
+        for (String symbol : symbols) {
+            if (symbol == null || symbol.isBlank()) {
+                continue;
+            }
+            String key = symbol.trim().toUpperCase();
+            if (!result.containsKey(key)) {
+                QuoteStore.Entry entry = snapshot.get(key);
+                result.put(key, entry != null ? entry.node() : null);
+            }
+        }
+        return result;
+    }
+
+    private StockQuoteDTO toQuoteDTO(String symbol, JsonNode stock, Instant asOf) {
+        return StockQuoteDTO.builder()
+                .symbol(symbol)
+                .lastPrice(getDecimal(stock, "lastPrice"))
+                .open(getDecimal(stock, "open"))
+                .high(getDecimal(stock, "dayHigh"))
+                .low(getDecimal(stock, "dayLow"))
+                .close(getDecimal(stock, "previousClose"))
+                .change(getDecimal(stock, "change"))
+                .changePercent(getDecimal(stock, "pChange"))
+                .volume(stock.path("totalTradedVolume").asLong())
+                .lastUpdateTime(asOf)
+                .build();
+    }
+
+    private BigDecimal getDecimal(JsonNode node, String field) {
+        JsonNode value = node.path(field);
+        if (value.isMissingNode() || value.isNull()) {
+            return null;
+        }
+        try {
+            return new BigDecimal(value.asText().replace(",", ""));
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the current quote snapshot, rebuilding it from the index blobs in
+     * Redis when this node has none or it is older than the refresh interval.
+     * Only one thread rebuilds; the rest keep serving the previous snapshot.
+     */
+    QuoteStore.Snapshot currentSnapshot() {
+        QuoteStore.Snapshot snapshot = quoteStore.current();
+        if (!isStale(snapshot)) {
+            return snapshot;
+        }
+
+        if (snapshot.isEmpty()) {
+            redisRefreshLock.lock();
+        } else if (!redisRefreshLock.tryLock()) {
+            return snapshot;
+        }
+
+        try {
+            snapshot = quoteStore.current();
+            if (isStale(snapshot)) {
+                refreshQuotesFromRedis();
+                snapshot = quoteStore.current();
+            }
+            return snapshot;
+        } finally {
+            redisRefreshLock.unlock();
+        }
+    }
+
+    private boolean isStale(QuoteStore.Snapshot snapshot) {
+        return snapshot.isEmpty()
+                || snapshot.publishedAt().plusMillis(redisRefreshIntervalMs).isBefore(Instant.now());
+    }
 
-        log.info("getStockQuote: Searching for symbol {} in {} indices", symbol, indices.size());
+    /**
+     * Rebuild the quote snapshot from the index blobs cached in Redis. Used when
+     * another replica ran the fetch cycle, or this node has just started.
+     */
+    private void refreshQuotesFromRedis() {
+        QuoteStore.SnapshotBuilder builder = quoteStore.newSnapshot(QuoteStore.Source.REDIS);
 
-        for (String indexName : indices) {
+        for (String indexName : NSE_INDICES) {
             try {
                 String indexData = getMarketData(indexName);
                 if (indexData != null) {
-                    com.fasterxml.jackson.databind.JsonNode root = objectMapper.readTree(indexData);
-                    com.fasterxml.jackson.databind.JsonNode dataArray = root.path("data");
-
-                    if (dataArray.isArray()) {
-                        for (com.fasterxml.jackson.databind.JsonNode stock : dataArray) {
-                            String stockSymbol = stock.path("symbol").asText();
-                            if (symbol.equalsIgnoreCase(stockSymbol)) {
-                                log.info("getStockQuote: Found {} in index {}", symbol, indexName);
-                                return objectMapper.writeValueAsString(stock);
-                            }
-                        }
-                    }
+                    builder.addIndex(indexName, objectMapper.readTree(indexData));
+                } else {
+                    log.debug("refreshQuotesFromRedis: No cached data for index {}", indexName);
                 }
             } catch (Exception e) {
-                log.warn("Error searching index {} for symbol {}: {}", indexName, symbol, e.getMessage());
+                log.warn("Error processing index {}: {}", indexName, e.getMessage());
             }
         }
 
-        log.warn("getStockQuote: Symbol {} not found in any index", symbol);
-        return null;
+        builder.publish();
+        log.info("Rebuilt quote snapshot from Redis with {} unique stocks", builder.size());
     }
 }
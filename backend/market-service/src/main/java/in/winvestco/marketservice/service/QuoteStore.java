@@ -0,0 +1,217 @@
+package in.winvestco.marketservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Per-node, symbol-indexed store of the latest stock quotes.
+ *
+ * Built once per fetch cycle from the index JSON trees the scheduler already
+ * parses, so point lookups are a single map read with no Redis round trip and
+ * no JSON parsing.
+ *
+ * - Readers always see a complete, immutable {@link Snapshot}; a cycle is
+ * staged in a {@link SnapshotBuilder} and swapped in atomically on publish
+ * - Snapshots are versioned; a builder started before a newer one was
+ * published can never overwrite it
+ * - Symbols missing from a partial cycle (e.g. one index failed) keep their
+ * value from the previous snapshot
+ */
+@Component
+@Slf4j
+public class QuoteStore {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final AtomicLong versionSequence = new AtomicLong();
+    private final AtomicReference<Snapshot> current = new AtomicReference<>(Snapshot.EMPTY);
+
+    /**
+     * Start staging a new snapshot. The version is reserved now, so ordering
+     * is decided by when the cycle started rather than when it finished.
+     */
+    public SnapshotBuilder newSnapshot(Source source) {
+        return new SnapshotBuilder(versionSequence.incrementAndGet(), source);
+    }
+
+    public Snapshot current() {
+        return current.get();
+    }
+
+    public JsonNode getQuoteNode(String symbol) {
+        Entry entry = current.get().get(symbol);
+        return entry != null ? entry.node() : null;
+    }
+
+    public String getQuoteJson(String symbol) {
+        Entry entry = current.get().get(symbol);
+        return entry != null ? entry.json() : null;
+    }
+
+    private boolean install(Snapshot next) {
+        Snapshot installed = current.updateAndGet(cur -> next.version() > cur.version() ? next : cur);
+        return installed == next;
+    }
+
+    /**
+     * Where the data for a snapshot came from.
+     */
+    public enum Source {
+        /** Built by this node's own NSE fetch cycle */
+        FETCH,
+        /** Rebuilt from the index blobs another node cached in Redis */
+        REDIS
+    }
+
+    /**
+     * A single quote: the NSE stock node plus its pre-serialized JSON.
+     */
+    public record Entry(String symbol, JsonNode node, String json) {
+    }
+
+    /**
+     * Immutable view of all quotes at one point in time.
+     */
+    public static final class Snapshot {
+
+        static final Snapshot EMPTY = new Snapshot(0L, null, Instant.EPOCH, Collections.emptyMap());
+
+        private final long version;
+        private final Source source;
+        private final Instant publishedAt;
+        private final Map<String, Entry> quotes;
+
+        private Snapshot(long version, Source source, Instant publishedAt, Map<String, Entry> quotes) {
+            this.version = version;
+            this.source = source;
+            this.publishedAt = publishedAt;
+            this.quotes = quotes;
+        }
+
+        public long version() {
+            return version;
+        }
+
+        public Source source() {
+            return source;
+        }
+
+        public Instant publishedAt() {
+            return publishedAt;
+        }
+
+        public boolean isEmpty() {
+            return quotes.isEmpty();
+        }
+
+        public int size() {
+            return quotes.size();
+        }
+
+        public Entry get(String symbol) {
+            if (symbol == null || symbol.isEmpty()) {
+                return null;
+            }
+            return quotes.get(symbol.toUpperCase());
+        }
+
+        /**
+         * All quotes, in the order their indices were added.
+         */
+        public Collection<Entry> entries() {
+            return quotes.values();
+        }
+    }
+
+    /**
+     * Stages quotes for one cycle. Not thread-safe; owned by the cycle that
+     * created it.
+     */
+    public final class SnapshotBuilder {
+
+        private final long version;
+        private final Source source;
+        private final Map<String, Entry> quotes = new LinkedHashMap<>();
+        private int indexCount;
+
+        private SnapshotBuilder(long version, Source source) {
+            this.version = version;
+            this.source = source;
+        }
+
+        /**
+         * Index the constituents of a parsed NSE index response. The first
+         * index a symbol appears in wins, matching the old scan order.
+         */
+        public SnapshotBuilder addIndex(String indexName, JsonNode root) {
+            JsonNode dataArray = root.path("data");
+            if (!dataArray.isArray()) {
+                return this;
+            }
+
+            for (JsonNode stock : dataArray) {
+                String symbol = stock.path("symbol").asText();
+                // Skip index entries and empty symbols
+                if (symbol == null || symbol.isEmpty() || symbol.startsWith("NIFTY")) {
+                    continue;
+                }
+                String key = symbol.toUpperCase();
+                if (!quotes.containsKey(key)) {
+                    try {
+                        quotes.put(key, new Entry(symbol, stock, objectMapper.writeValueAsString(stock)));
+                    } catch (Exception e) {
+                        log.warn("Skipping quote {} from index {}: {}", symbol, indexName, e.getMessage());
+                    }
+                }
+            }
+            indexCount++;
+            return this;
+        }
+
+        public int size() {
+            return quotes.size();
+        }
+
+        /**
+         * Quotes staged by this cycle only, without the carried-over symbols.
+         */
+        public Collection<Entry> staged() {
+            return Collections.unmodifiableCollection(quotes.values());
+        }
+
+        /**
+         * Atomically replace the current snapshot, carrying over symbols this
+         * cycle did not see. Returns false if a newer snapshot is already
+         * installed or nothing was staged.
+         */
+        public boolean publish() {
+            if (indexCount == 0) {
+                return false;
+            }
+
+            Map<String, Entry> merged = new LinkedHashMap<>(quotes);
+            for (Entry previous : current.get().entries()) {
+                merged.putIfAbsent(previous.symbol().toUpperCase(), previous);
+            }
+
+            Snapshot next = new Snapshot(version, source, Instant.now(), Collections.unmodifiableMap(merged));
+            boolean installed = install(next);
+            if (installed) {
+                log.debug("Published quote snapshot v{} from {}: {} symbols ({} from {} indices)",
+                        version, source, merged.size(), quotes.size(), indexCount);
+            } else {
+                log.debug("Discarded stale quote snapshot v{} from {}", version, source);
+            }
+            return installed;
+        }
+    }
+}
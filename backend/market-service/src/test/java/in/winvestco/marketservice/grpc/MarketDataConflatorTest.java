@@ -0,0 +1,76 @@
+package in.winvestco.marketservice.grpc;
+
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for MarketDataConflator change detection and conflation.
+ */
+@DisplayName("MarketDataConflator Tests")
+class MarketDataConflatorTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private List<MarketDataUpdate> delivered;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        delivered = new ArrayList<>();
+    }
+
+    private static MarketDataUpdate update(String symbol, double price, long timestamp) {
+        return MarketDataUpdate.newBuilder()
+                .setSymbol(symbol)
+                .setLastPrice(price)
+                .setTimestamp(timestamp)
+                .setExchange("NSE")
+                .build();
+    }
+
+    private double count(String outcome) {
+        return meterRegistry.get("market.fanout.updates").tag("outcome", outcome).counter().count();
+    }
+
+    @Test
+    @DisplayName("Should drop updates whose market values are unchanged, ignoring timestamp")
+    void submit_WhenUnchanged_ShouldSuppress() {
+        MarketDataConflator conflator = new MarketDataConflator(delivered::add, meterRegistry);
+
+        assertThat(conflator.submit(update("TCS", 3500.0, 1L))).isTrue();
+        assertThat(conflator.submit(update("TCS", 3500.0, 2L))).isFalse();
+        assertThat(conflator.submit(update("INFY", 1500.0, 3L))).isTrue();
+
+        assertThat(delivered).extracting(MarketDataUpdate::getSymbol).containsExactly("TCS", "INFY");
+        assertThat(count("delivered")).isEqualTo(2.0);
+        assertThat(count("unchanged")).isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should conflate updates that arrive while the sink is busy into the latest one")
+    void submit_WhenSinkBusy_ShouldConflatePerSymbol() {
+        List<MarketDataConflator> holder = new ArrayList<>();
+        MarketDataConflator conflator = new MarketDataConflator(update -> {
+            delivered.add(update);
+            if (delivered.size() == 1) {
+                // Arrive while the first delivery is still in progress
+                holder.get(0).submit(update("TCS", 3501.0, 2L));
+                holder.get(0).submit(update("TCS", 3502.0, 3L));
+                holder.get(0).submit(update("TCS", 3503.0, 4L));
+            }
+        }, meterRegistry);
+        holder.add(conflator);
+
+        conflator.submit(update("TCS", 3500.0, 1L));
+
+        assertThat(delivered).extracting(MarketDataUpdate::getLastPrice).containsExactly(3500.0, 3503.0);
+        assertThat(count("conflated")).isEqualTo(2.0);
+    }
+}
@@ -6,8 +6,12 @@ import in.winvestco.common.grpc.market.MarketDataUpdate;
 import in.winvestco.common.grpc.market.MarketDataSubscription;
 import in.winvestco.common.grpc.market.QuoteRequest;
 import in.winvestco.common.grpc.market.QuoteResponse;
+import in.winvestco.common.grpc.market.QuotesRequest;
+import in.winvestco.marketservice.config.GrpcStreamConfig;
+import in.winvestco.marketservice.service.CandleService;
 import in.winvestco.marketservice.service.MarketDataService;
 import io.grpc.stub.StreamObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Nested;
@@ -17,6 +21,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.*;
 
@@ -31,12 +39,16 @@ class MarketDataGrpcServiceTest {
     @Mock
     private MarketDataService marketDataService;
 
+    @Mock
+    private CandleService candleService;
+
     private MarketDataGrpcService grpcService;
     private ObjectMapper objectMapper;
 
     @BeforeEach
     void setUp() {
-        grpcService = new MarketDataGrpcService(marketDataService);
+        grpcService = new MarketDataGrpcService(marketDataService, candleService, new SimpleMeterRegistry(),
+                new GrpcStreamConfig());
         objectMapper = new ObjectMapper();
     }
 
@@ -47,12 +59,12 @@ class MarketDataGrpcServiceTest {
         @Test
         @DisplayName("Should return quote when stock exists")
         @SuppressWarnings("unchecked")
-        void getQuote_WhenStockExists_ShouldReturnQuote() {
+        void getQuote_WhenStockExists_ShouldReturnQuote() throws Exception {
             String stockJson = "{\"symbol\":\"RELIANCE\",\"lastPrice\":2500.50,\"open\":2450.0," +
                     "\"dayHigh\":2520.0,\"dayLow\":2440.0,\"previousClose\":2460.0," +
                     "\"change\":40.50,\"pChange\":1.65,\"totalTradedVolume\":5000000}";
 
-            when(marketDataService.getStockQuote("RELIANCE")).thenReturn(stockJson);
+            when(marketDataService.getStockQuoteNode("RELIANCE")).thenReturn(objectMapper.readTree(stockJson));
 
             StreamObserver<QuoteResponse> responseObserver = mock(StreamObserver.class);
             QuoteRequest request = QuoteRequest.newBuilder().setSymbol("RELIANCE").build();
@@ -76,7 +88,7 @@ class MarketDataGrpcServiceTest {
         @DisplayName("Should return not-found when stock doesn't exist")
         @SuppressWarnings("unchecked")
         void getQuote_WhenStockNotFound_ShouldReturnNotFound() {
-            when(marketDataService.getStockQuote("NONEXISTENT")).thenReturn(null);
+            when(marketDataService.getStockQuoteNode("NONEXISTENT")).thenReturn(null);
 
             StreamObserver<QuoteResponse> responseObserver = mock(StreamObserver.class);
             QuoteRequest request = QuoteRequest.newBuilder().setSymbol("NONEXISTENT").build();
@@ -93,13 +105,11 @@ class MarketDataGrpcServiceTest {
         }
 
         @Test
-        @DisplayName("Should return not-found when stock quote is empty")
+        @DisplayName("Should return not-found when symbol is empty")
         @SuppressWarnings("unchecked")
-        void getQuote_WhenEmptyQuote_ShouldReturnNotFound() {
-            when(marketDataService.getStockQuote("EMPTY")).thenReturn("");
-
+        void getQuote_WhenEmptySymbol_ShouldReturnNotFound() {
             StreamObserver<QuoteResponse> responseObserver = mock(StreamObserver.class);
-            QuoteRequest request = QuoteRequest.newBuilder().setSymbol("EMPTY").build();
+            QuoteRequest request = QuoteRequest.newBuilder().setSymbol("").build();
 
             grpcService.getQuote(request, responseObserver);
 
@@ -111,6 +121,40 @@ class MarketDataGrpcServiceTest {
         }
     }
 
+    @Nested
+    @DisplayName("GetQuotes RPC Tests")
+    class GetQuotesTests {
+
+        @Test
+        @DisplayName("Should stream one response per symbol in request order")
+        @SuppressWarnings("unchecked")
+        void getQuotes_ShouldStreamFoundAndMissing() throws Exception {
+            Map<String, JsonNode> quotes = new LinkedHashMap<>();
+            quotes.put("TCS", objectMapper.readTree("{\"symbol\":\"TCS\",\"lastPrice\":3500.0}"));
+            quotes.put("UNKNOWN", null);
+            when(marketDataService.getStockQuoteNodes(List.of("tcs", "UNKNOWN"))).thenReturn(quotes);
+
+            StreamObserver<QuoteResponse> responseObserver = mock(StreamObserver.class);
+            QuotesRequest request = QuotesRequest.newBuilder()
+                    .addSymbols("tcs")
+                    .addSymbols("UNKNOWN")
+                    .build();
+
+            grpcService.getQuotes(request, responseObserver);
+
+            ArgumentCaptor<QuoteResponse> captor = ArgumentCaptor.forClass(QuoteResponse.class);
+            verify(responseObserver, times(2)).onNext(captor.capture());
+            verify(responseObserver).onCompleted();
+
+            List<QuoteResponse> responses = captor.getAllValues();
+            assertThat(responses.get(0).getSymbol()).isEqualTo("TCS");
+            assertThat(responses.get(0).getFound()).isTrue();
+            assertThat(responses.get(0).getQuote().getLastPrice()).isEqualTo(3500.0);
+            assertThat(responses.get(1).getSymbol()).isEqualTo("UNKNOWN");
+            assertThat(responses.get(1).getFound()).isFalse();
+        }
+    }
+
     @Nested
     @DisplayName("SubscribeMarketData RPC Tests")
     class SubscribeTests {
@@ -118,11 +162,11 @@ class MarketDataGrpcServiceTest {
         @Test
         @DisplayName("Should register subscriber and send initial snapshot")
         @SuppressWarnings("unchecked")
-        void subscribe_ShouldRegisterAndSendSnapshot() {
+        void subscribe_ShouldRegisterAndSendSnapshot() throws Exception {
             String stockJson = "{\"symbol\":\"TCS\",\"lastPrice\":3500.0,\"open\":3480.0," +
                     "\"dayHigh\":3520.0,\"dayLow\":3470.0,\"previousClose\":3490.0," +
                     "\"change\":10.0,\"pChange\":0.29,\"totalTradedVolume\":2000000}";
-            when(marketDataService.getStockQuote("TCS")).thenReturn(stockJson);
+            when(marketDataService.getStockQuoteNode("TCS")).thenReturn(objectMapper.readTree(stockJson));
 
             StreamObserver<MarketDataUpdate> observer = mock(StreamObserver.class);
             MarketDataSubscription request = MarketDataSubscription.newBuilder()
@@ -143,7 +187,7 @@ class MarketDataGrpcServiceTest {
         @SuppressWarnings("unchecked")
         void pushUpdate_ShouldDeliverToSubscribers() {
             // No initial snapshot data
-            when(marketDataService.getStockQuote("INFY")).thenReturn(null);
+            when(marketDataService.getStockQuoteNode("INFY")).thenReturn(null);
 
             StreamObserver<MarketDataUpdate> observer = mock(StreamObserver.class);
             MarketDataSubscription request = MarketDataSubscription.newBuilder()
@@ -174,7 +218,7 @@ class MarketDataGrpcServiceTest {
         @DisplayName("Should not deliver updates for unsubscribed symbols")
         @SuppressWarnings("unchecked")
         void pushUpdate_ShouldNotDeliverToWrongSymbol() {
-            when(marketDataService.getStockQuote("RELIANCE")).thenReturn(null);
+            when(marketDataService.getStockQuoteNode("RELIANCE")).thenReturn(null);
 
             StreamObserver<MarketDataUpdate> observer = mock(StreamObserver.class);
             MarketDataSubscription request = MarketDataSubscription.newBuilder()
@@ -205,7 +249,7 @@ class MarketDataGrpcServiceTest {
         @SuppressWarnings("unchecked")
         void pushUpdatesFromParsedIndex_ShouldPushToSubscribers() throws Exception {
             // Subscribe to RELIANCE
-            when(marketDataService.getStockQuote("RELIANCE")).thenReturn(null);
+            when(marketDataService.getStockQuoteNode("RELIANCE")).thenReturn(null);
 
             StreamObserver<MarketDataUpdate> observer = mock(StreamObserver.class);
             MarketDataSubscription request = MarketDataSubscription.newBuilder()
@@ -234,6 +278,30 @@ class MarketDataGrpcServiceTest {
             assertThat(relianceFound).isTrue();
         }
 
+        @Test
+        @DisplayName("Should push a symbol listed in several indices only once per change")
+        @SuppressWarnings("unchecked")
+        void pushUpdatesFromParsedIndex_ShouldSuppressUnchangedDuplicates() throws Exception {
+            when(marketDataService.getStockQuoteNode("RELIANCE")).thenReturn(null);
+
+            StreamObserver<MarketDataUpdate> observer = mock(StreamObserver.class);
+            grpcService.subscribeMarketData(MarketDataSubscription.newBuilder().addSymbols("RELIANCE").build(),
+                    observer);
+
+            JsonNode first = objectMapper.readTree("{\"data\":[{\"symbol\":\"RELIANCE\",\"lastPrice\":2500.5}]}");
+            JsonNode changed = objectMapper.readTree("{\"data\":[{\"symbol\":\"RELIANCE\",\"lastPrice\":2501.0}]}");
+
+            grpcService.pushUpdatesFromParsedIndex("NIFTY 50", first);
+            grpcService.pushUpdatesFromParsedIndex("NIFTY 100", first);
+            grpcService.pushUpdatesFromParsedIndex("NIFTY 500", first);
+            grpcService.pushUpdatesFromParsedIndex("NIFTY 50", changed);
+
+            ArgumentCaptor<MarketDataUpdate> captor = ArgumentCaptor.forClass(MarketDataUpdate.class);
+            verify(observer, times(2)).onNext(captor.capture());
+            assertThat(captor.getAllValues()).extracting(MarketDataUpdate::getLastPrice)
+                    .containsExactly(2500.5, 2501.0);
+        }
+
         @Test
         @DisplayName("Should handle empty data array gracefully")
         @SuppressWarnings("unchecked")
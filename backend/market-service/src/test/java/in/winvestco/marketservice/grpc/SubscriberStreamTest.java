@@ -0,0 +1,107 @@
+package in.winvestco.marketservice.grpc;
+
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ServerCallStreamObserver;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for SubscriberStream flow control, conflation and eviction.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("SubscriberStream Tests")
+class SubscriberStreamTest {
+
+    @Mock
+    private ServerCallStreamObserver<MarketDataUpdate> observer;
+
+    @Mock
+    private SubscriberStream.Listener listener;
+
+    private Runnable onReady;
+
+    @BeforeEach
+    void setUp() {
+        ArgumentCaptor<Runnable> captor = ArgumentCaptor.forClass(Runnable.class);
+        doNothing().when(observer).setOnReadyHandler(captor.capture());
+        doNothing().when(observer).setOnCancelHandler(any());
+        onReady = () -> captor.getValue().run();
+    }
+
+    private static MarketDataUpdate tick(String symbol, double price) {
+        return MarketDataUpdate.newBuilder().setSymbol(symbol).setLastPrice(price).build();
+    }
+
+    private SubscriberStream attachedStream(int capacity, long slowConsumerTimeoutMs) {
+        SubscriberStream stream = new SubscriberStream(observer, capacity, slowConsumerTimeoutMs, listener);
+        stream.attach(() -> {
+        });
+        return stream;
+    }
+
+    @Test
+    @DisplayName("Should hold ticks while not ready and send only the latest per symbol on ready")
+    void enqueue_WhenNotReady_ShouldConflateUntilOnReady() {
+        SubscriberStream stream = attachedStream(16, 60_000);
+        when(observer.isReady()).thenReturn(false);
+
+        stream.enqueue(tick("TCS", 1.0));
+        stream.enqueue(tick("TCS", 2.0));
+        stream.enqueue(tick("INFY", 3.0));
+
+        verify(observer, never()).onNext(any());
+        assertThat(stream.queueDepth()).isEqualTo(2);
+        verify(listener).onTickDropped();
+
+        when(observer.isReady()).thenReturn(true);
+        onReady.run();
+
+        ArgumentCaptor<MarketDataUpdate> sent = ArgumentCaptor.forClass(MarketDataUpdate.class);
+        verify(observer, times(2)).onNext(sent.capture());
+        assertThat(sent.getAllValues()).extracting(MarketDataUpdate::getLastPrice).containsExactly(2.0, 3.0);
+        assertThat(stream.queueDepth()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should evict with RESOURCE_EXHAUSTED when distinct symbols overflow the queue")
+    void enqueue_WhenQueueOverflows_ShouldEvict() {
+        SubscriberStream stream = attachedStream(2, 60_000);
+        when(observer.isReady()).thenReturn(false);
+
+        stream.enqueue(tick("A", 1.0));
+        stream.enqueue(tick("B", 1.0));
+        stream.enqueue(tick("C", 1.0));
+
+        assertThat(stream.isClosed()).isTrue();
+        verify(listener).onEvicted(eq(stream), anyString());
+        ArgumentCaptor<Throwable> error = ArgumentCaptor.forClass(Throwable.class);
+        verify(observer).onError(error.capture());
+        assertThat(((StatusRuntimeException) error.getValue()).getStatus().getCode())
+                .isEqualTo(Status.Code.RESOURCE_EXHAUSTED);
+        verify(observer, never()).onNext(any());
+    }
+
+    @Test
+    @DisplayName("Should evict a subscriber that stays not ready past the slow-consumer timeout")
+    void enqueue_WhenNotReadyTooLong_ShouldEvict() throws InterruptedException {
+        SubscriberStream stream = attachedStream(16, 10);
+        when(observer.isReady()).thenReturn(false);
+
+        stream.enqueue(tick("TCS", 1.0));
+        Thread.sleep(30);
+        stream.enqueue(tick("TCS", 2.0));
+
+        assertThat(stream.isClosed()).isTrue();
+        verify(observer).onError(any(StatusRuntimeException.class));
+    }
+}
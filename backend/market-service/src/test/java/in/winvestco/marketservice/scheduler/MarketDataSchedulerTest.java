@@ -0,0 +1,143 @@
+package in.winvestco.marketservice.scheduler;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.winvestco.marketservice.client.NseClient;
+import in.winvestco.marketservice.config.NseConfig;
+import in.winvestco.marketservice.grpc.MarketDataGrpcService;
+import in.winvestco.marketservice.messaging.MarketDataPublisher;
+import in.winvestco.marketservice.service.CandleAggregator;
+import in.winvestco.marketservice.service.MarketDataService;
+import in.winvestco.marketservice.service.QuoteStore;
+import io.github.resilience4j.bulkhead.BulkheadConfig;
+import io.github.resilience4j.bulkhead.BulkheadRegistry;
+import io.github.resilience4j.ratelimiter.RateLimiterConfig;
+import io.github.resilience4j.ratelimiter.RateLimiterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for the pipelined MarketDataScheduler fetch cycle.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("MarketDataScheduler Tests")
+class MarketDataSchedulerTest {
+
+    @Mock
+    private NseClient nseClient;
+
+    @Mock
+    private MarketDataPublisher marketDataPublisher;
+
+    @Mock
+    private MarketDataService marketDataService;
+
+    @Mock
+    private MarketDataGrpcService marketDataGrpcService;
+
+    @Mock
+    private CandleAggregator candleAggregator;
+
+    private QuoteStore quoteStore;
+    private NseConfig nseConfig;
+    private SimpleMeterRegistry meterRegistry;
+    private MarketDataScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        quoteStore = new QuoteStore();
+        nseConfig = new NseConfig();
+        meterRegistry = new SimpleMeterRegistry();
+
+        RateLimiterRegistry rateLimiterRegistry = RateLimiterRegistry.of(RateLimiterConfig.custom()
+                .limitForPeriod(1000)
+                .limitRefreshPeriod(Duration.ofSeconds(1))
+                .build());
+        BulkheadRegistry bulkheadRegistry = BulkheadRegistry.of(BulkheadConfig.custom()
+                .maxConcurrentCalls(3)
+                .build());
+
+        scheduler = new MarketDataScheduler(nseClient, marketDataPublisher, marketDataService, quoteStore,
+                marketDataGrpcService, candleAggregator, new ObjectMapper(), nseConfig, meterRegistry,
+                rateLimiterRegistry, bulkheadRegistry);
+    }
+
+    private static String indexJson(String symbol) {
+        return "{\"data\":[{\"symbol\":\"" + symbol + "\",\"lastPrice\":100}]}";
+    }
+
+    @Test
+    @DisplayName("Should fetch every index and build one quote snapshot")
+    void fetchAndPublish_ShouldProcessAllIndices() {
+        when(nseClient.getFullIndexData(anyString())).thenAnswer(inv -> indexJson("SYM" + inv.getArgument(0).hashCode()));
+
+        scheduler.fetchAndPublishMarketData();
+
+        int indexCount = MarketDataService.NSE_INDICES.size();
+        verify(nseClient, times(indexCount)).getFullIndexData(anyString());
+        verify(marketDataPublisher, times(indexCount)).publishMarketData(anyString(), any(JsonNode.class));
+        verify(marketDataService, times(indexCount)).saveMarketData(anyString(), anyString());
+        verify(marketDataGrpcService, times(indexCount)).pushUpdatesFromParsedIndex(anyString(), any(JsonNode.class));
+        assertThat(quoteStore.current().size()).isEqualTo(indexCount);
+        assertThat(meterRegistry.get("market.fetch.stage.duration").tag("stage", "fetch").timer().count())
+                .isEqualTo(indexCount);
+        verify(candleAggregator).onQuotes(argThat(quotes -> quotes.size() == indexCount), any(Instant.class));
+    }
+
+    @Test
+    @DisplayName("Should isolate a failing index from the rest of the cycle")
+    void fetchAndPublish_WhenOneIndexFails_ShouldContinue() {
+        when(nseClient.getFullIndexData(anyString())).thenReturn(indexJson("TCS"));
+        when(nseClient.getFullIndexData("NIFTY BANK")).thenReturn(null);
+        when(nseClient.getFullIndexData("NIFTY IT")).thenReturn("not json");
+
+        scheduler.fetchAndPublishMarketData();
+
+        verify(marketDataService, never()).saveMarketData(eq("NIFTY BANK"), anyString());
+        verify(marketDataService, never()).saveMarketData(eq("NIFTY IT"), anyString());
+        verify(marketDataService, times(MarketDataService.NSE_INDICES.size() - 2))
+                .saveMarketData(anyString(), anyString());
+        assertThat(quoteStore.getQuoteNode("TCS")).isNotNull();
+        assertThat(meterRegistry.get("market.fetch.index.failures").tag("index", "NIFTY BANK").counter().count())
+                .isEqualTo(1.0);
+    }
+
+    @Test
+    @DisplayName("Should never exceed the nseApi bulkhead concurrency")
+    void fetchAndPublish_ShouldRespectBulkheadLimit() {
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicInteger maxInFlight = new AtomicInteger();
+        when(nseClient.getFullIndexData(anyString())).thenAnswer(inv -> {
+            maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+            Thread.sleep(20);
+            inFlight.decrementAndGet();
+            return indexJson("TCS");
+        });
+
+        scheduler.fetchAndPublishMarketData();
+
+        assertThat(scheduler.fetchConcurrency()).isEqualTo(3);
+        assertThat(maxInFlight.get()).isLessThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Should space fetch starts to the rate limiter refresh rate")
+    void fetchSpacing_ShouldFollowRateLimiter() {
+        assertThat(scheduler.fetchSpacingNanos()).isEqualTo(Duration.ofMillis(1).toNanos());
+    }
+}
@@ -0,0 +1,195 @@
+package in.winvestco.marketservice.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import in.winvestco.marketservice.config.CandleConfig;
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.model.Candle;
+import in.winvestco.marketservice.model.CandleInterval;
+import in.winvestco.marketservice.repository.CandleRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CandleAggregator tick folding, roll-up and flushing.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CandleAggregator Tests")
+class CandleAggregatorTest {
+
+    // 09:15 IST, the NSE open
+    private static final Instant OPEN = Instant.parse("2024-01-15T03:45:00Z");
+
+    @Mock
+    private CandleRepository candleRepository;
+
+    private CandleAggregator aggregator;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        aggregator = new CandleAggregator(candleRepository, new CandleConfig(), new SimpleMeterRegistry());
+        objectMapper = new ObjectMapper();
+    }
+
+    private void tick(String symbol, double price, long cumulativeVolume, Instant at) throws Exception {
+        String json = "{\"symbol\":\"" + symbol + "\",\"lastPrice\":" + price
+                + ",\"totalTradedVolume\":" + cumulativeVolume + "}";
+        QuoteStore.Entry entry = new QuoteStore.Entry(symbol, objectMapper.readTree(json), json);
+        aggregator.onQuotes(List.of(entry), at);
+    }
+
+    private List<CandleDTO> read(CandleInterval interval) {
+        return aggregator.read("TCS", interval, OPEN.minusSeconds(3600), OPEN.plusSeconds(3 * 3600)).candles();
+    }
+
+    @Nested
+    @DisplayName("Bucketing")
+    class Bucketing {
+
+        @Test
+        @DisplayName("Should align buckets to IST wall-clock time")
+        void bucketStart_ShouldAlignToIst() {
+            Instant at = Instant.parse("2024-01-15T03:52:30Z"); // 09:22:30 IST
+
+            assertThat(CandleInterval.FIVE_MINUTES.bucketStart(at)).isEqualTo("2024-01-15T03:50:00Z");
+            assertThat(CandleInterval.FIFTEEN_MINUTES.bucketStart(at)).isEqualTo("2024-01-15T03:45:00Z");
+            assertThat(CandleInterval.ONE_HOUR.bucketStart(at)).isEqualTo("2024-01-15T03:30:00Z");
+            assertThat(CandleInterval.ONE_DAY.bucketStart(at)).isEqualTo("2024-01-14T18:30:00Z");
+        }
+    }
+
+    @Nested
+    @DisplayName("Aggregation")
+    class Aggregation {
+
+        @Test
+        @DisplayName("Should fold ticks into a 5m candle using cumulative volume deltas")
+        void onQuotes_ShouldBuildFiveMinuteCandle() throws Exception {
+            tick("TCS", 99, 900, OPEN.minusSeconds(60));
+            tick("TCS", 100, 1000, OPEN.plusSeconds(10));
+            tick("TCS", 105, 1500, OPEN.plusSeconds(60));
+            tick("TCS", 98, 1700, OPEN.plusSeconds(120));
+            tick("TCS", 101, 2000, OPEN.plusSeconds(240));
+
+            List<CandleDTO> candles = read(CandleInterval.FIVE_MINUTES);
+
+            // The 09:10 bucket was only partly observed, so memory starts at 09:15
+            assertThat(candles).hasSize(1);
+            CandleDTO candle = candles.get(0);
+            assertThat(candle.getTimestamp()).isEqualTo(OPEN);
+            assertThat(candle.getOpen()).isEqualByComparingTo("100");
+            assertThat(candle.getHigh()).isEqualByComparingTo("105");
+            assertThat(candle.getLow()).isEqualByComparingTo("98");
+            assertThat(candle.getClose()).isEqualByComparingTo("101");
+            assertThat(candle.getVolume()).isEqualTo(1100L);
+        }
+
+        @Test
+        @DisplayName("Should roll closed 5m candles up into 15m candles")
+        void onQuotes_ShouldRollUpToHigherIntervals() throws Exception {
+            tick("TCS", 99, 900, OPEN.minusSeconds(60));
+            tick("TCS", 100, 1000, OPEN.plusSeconds(60));
+            tick("TCS", 110, 1200, OPEN.plusSeconds(6 * 60));
+            tick("TCS", 95, 1500, OPEN.plusSeconds(11 * 60));
+            tick("TCS", 102, 1600, OPEN.plusSeconds(16 * 60));
+
+            List<CandleDTO> candles = read(CandleInterval.FIFTEEN_MINUTES);
+
+            assertThat(candles).hasSize(2);
+            CandleDTO closed = candles.get(0);
+            assertThat(closed.getTimestamp()).isEqualTo(OPEN);
+            assertThat(closed.getOpen()).isEqualByComparingTo("100");
+            assertThat(closed.getHigh()).isEqualByComparingTo("110");
+            assertThat(closed.getLow()).isEqualByComparingTo("95");
+            assertThat(closed.getClose()).isEqualByComparingTo("95");
+            assertThat(closed.getVolume()).isEqualTo(600L);
+
+            CandleDTO forming = candles.get(1);
+            assertThat(forming.getTimestamp()).isEqualTo(OPEN.plusSeconds(15 * 60));
+            assertThat(forming.getClose()).isEqualByComparingTo("102");
+            assertThat(forming.getVolume()).isEqualTo(100L);
+        }
+
+        @Test
+        @DisplayName("Should not open flat candles for unchanged quotes")
+        void onQuotes_WhenUnchanged_ShouldNotOpenCandles() throws Exception {
+            tick("TCS", 99, 900, OPEN.minusSeconds(60));
+            tick("TCS", 100, 1000, OPEN.plusSeconds(60));
+            tick("TCS", 100, 1000, OPEN.plusSeconds(6 * 60));
+            tick("TCS", 100, 1000, OPEN.plusSeconds(11 * 60));
+
+            assertThat(read(CandleInterval.FIVE_MINUTES))
+                    .extracting(CandleDTO::getTimestamp)
+                    .containsExactly(OPEN);
+        }
+
+        @Test
+        @DisplayName("Should report no memory coverage for unknown symbols")
+        void read_WhenSymbolUnknown_ShouldReturnNoCoverage() {
+            CandleAggregator.MemoryRange range = aggregator.read("UNKNOWN", CandleInterval.FIVE_MINUTES,
+                    OPEN, OPEN.plusSeconds(3600));
+
+            assertThat(range.coveredFrom()).isNull();
+            assertThat(range.candles()).isEmpty();
+        }
+    }
+
+    @Nested
+    @DisplayName("Flush")
+    class Flush {
+
+        @Test
+        @DisplayName("Should upsert expired and forming candles once per change")
+        @SuppressWarnings("unchecked")
+        void flush_ShouldUpsertClosedAndFormingCandles() throws Exception {
+            tick("TCS", 100, 1000, OPEN.plusSeconds(10));
+            tick("TCS", 104, 1400, OPEN.plusSeconds(70));
+
+            int written = aggregator.flush(OPEN.plusSeconds(6 * 60));
+
+            ArgumentCaptor<List<Candle>> rows = ArgumentCaptor.forClass(List.class);
+            verify(candleRepository).upsertAll(rows.capture());
+            assertThat(written).isEqualTo(rows.getValue().size());
+            Candle fiveMinute = rows.getValue().stream()
+                    .filter(c -> c.getIntervalType().equals("5m"))
+                    .findFirst().orElseThrow();
+            assertThat(fiveMinute.getTimestamp()).isEqualTo(OPEN);
+            assertThat(fiveMinute.getHigh()).isEqualTo(new BigDecimal("104.00"));
+            assertThat(fiveMinute.getVolume()).isEqualTo(400L);
+            assertThat(rows.getValue()).extracting(Candle::getIntervalType).contains("15m", "1h", "1d");
+
+            // Nothing changed since, so the next flush writes nothing
+            assertThat(aggregator.flush(OPEN.plusSeconds(7 * 60))).isZero();
+            verifyNoMoreInteractions(candleRepository);
+        }
+
+        @Test
+        @DisplayName("Should retry closed candles after a failed flush")
+        void flush_WhenRepositoryFails_ShouldRequeue() throws Exception {
+            tick("TCS", 100, 1000, OPEN.plusSeconds(10));
+            when(candleRepository.upsertAll(anyList()))
+                    .thenThrow(new RuntimeException("database down"))
+                    .thenReturn(4);
+
+            assertThat(aggregator.flush(OPEN.plusSeconds(6 * 60))).isZero();
+            assertThat(aggregator.flush(OPEN.plusSeconds(7 * 60))).isPositive();
+
+            verify(candleRepository, times(2)).upsertAll(anyList());
+        }
+    }
+}
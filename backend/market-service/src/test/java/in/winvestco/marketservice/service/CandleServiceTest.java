@@ -0,0 +1,90 @@
+package in.winvestco.marketservice.service;
+
+import in.winvestco.marketservice.config.CandleConfig;
+import in.winvestco.marketservice.dto.CandleDTO;
+import in.winvestco.marketservice.model.Candle;
+import in.winvestco.marketservice.model.CandleInterval;
+import in.winvestco.marketservice.repository.CandleRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit tests for CandleService range queries across memory and the candles table.
+ */
+@ExtendWith(MockitoExtension.class)
+@DisplayName("CandleService Tests")
+class CandleServiceTest {
+
+    private static final Instant FROM = Instant.parse("2024-01-15T03:45:00Z");
+    private static final Instant TO = Instant.parse("2024-01-15T04:45:00Z");
+
+    @Mock
+    private CandleAggregator candleAggregator;
+
+    @Mock
+    private CandleRepository candleRepository;
+
+    private CandleService candleService;
+
+    @BeforeEach
+    void setUp() {
+        candleService = new CandleService(candleAggregator, candleRepository, new CandleConfig());
+    }
+
+    private static CandleDTO candleAt(Instant at) {
+        return CandleDTO.builder().symbol("TCS").interval("5m").timestamp(at)
+                .open(BigDecimal.ONE).high(BigDecimal.ONE).low(BigDecimal.ONE).close(BigDecimal.ONE)
+                .volume(0L).build();
+    }
+
+    @Test
+    @DisplayName("Should read only the part of the range memory does not cover from the table")
+    void getCandles_ShouldSplitBetweenTableAndMemory() {
+        Instant coveredFrom = FROM.plusSeconds(30 * 60);
+        when(candleAggregator.read("TCS", CandleInterval.FIVE_MINUTES, FROM, TO))
+                .thenReturn(new CandleAggregator.MemoryRange(coveredFrom, List.of(candleAt(coveredFrom))));
+        when(candleRepository.findRange(eq("TCS"), eq("5m"), eq(FROM), eq(coveredFrom), any()))
+                .thenReturn(List.of(Candle.builder().symbol("TCS").intervalType("5m").timestamp(FROM)
+                        .open(BigDecimal.TEN).high(BigDecimal.TEN).low(BigDecimal.TEN).close(BigDecimal.TEN)
+                        .volume(5L).build()));
+
+        List<CandleDTO> candles = candleService.getCandles("tcs", "5m", FROM, TO);
+
+        assertThat(candles).extracting(CandleDTO::getTimestamp).containsExactly(FROM, coveredFrom);
+    }
+
+    @Test
+    @DisplayName("Should skip the table when memory covers the whole range")
+    void getCandles_WhenMemoryCoversRange_ShouldNotQueryTable() {
+        when(candleAggregator.read("TCS", CandleInterval.FIVE_MINUTES, FROM, TO))
+                .thenReturn(new CandleAggregator.MemoryRange(FROM.minusSeconds(3600), List.of(candleAt(FROM))));
+
+        assertThat(candleService.getCandles("TCS", "5m", FROM, TO)).hasSize(1);
+        verifyNoInteractions(candleRepository);
+    }
+
+    @Test
+    @DisplayName("Should reject unknown intervals and oversized ranges")
+    void getCandles_ShouldValidateRequest() {
+        assertThatThrownBy(() -> candleService.getCandles("TCS", "2m", FROM, TO))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleService.getCandles("TCS", "5m", TO, FROM))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> candleService.getCandles("TCS", "5m", FROM.minusSeconds(365L * 86400), TO))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+}
@@ -38,6 +38,7 @@ class MarketDataServiceTest {
     private ValueOperations<String, String> valueOperations;
 
     private MarketDataService marketDataService;
+    private QuoteStore quoteStore;
     private ObjectMapper objectMapper;
 
     private static final String TEST_SYMBOL = "RELIANCE";
@@ -45,7 +46,8 @@ class MarketDataServiceTest {
 
     @BeforeEach
     void setUp() {
-        marketDataService = new MarketDataService(redisTemplate);
+        quoteStore = new QuoteStore();
+        marketDataService = new MarketDataService(redisTemplate, quoteStore);
         objectMapper = new ObjectMapper();
         ReflectionTestUtils.setField(marketDataService, "objectMapper", objectMapper);
     }
@@ -258,5 +260,44 @@ class MarketDataServiceTest {
 
             assertThat(result).isNull();
         }
+
+        @Test
+        @DisplayName("Should serve from quote store without touching Redis when snapshot is fresh")
+        void getStockQuote_WhenSnapshotFresh_ShouldNotHitRedis() throws JsonProcessingException {
+            quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                    .addIndex("NIFTY 50", objectMapper.readTree(
+                            "{\"data\":[{\"symbol\":\"NIFTY 50\"},{\"symbol\":\"RELIANCE\",\"lastPrice\":2500}]}"))
+                    .publish();
+
+            String result = marketDataService.getStockQuote("reliance");
+
+            assertThat(result).contains("RELIANCE");
+            assertThat(marketDataService.getStockQuoteNode("RELIANCE").path("lastPrice").asInt()).isEqualTo(2500);
+            assertThat(marketDataService.getStockQuote("NIFTY 50")).isNull();
+            verifyNoInteractions(redisTemplate);
+        }
+    }
+
+    @Nested
+    @DisplayName("Get Bulk Quotes Tests")
+    class GetBulkQuotesTests {
+
+        @Test
+        @DisplayName("Should resolve symbols in one pass, de-duplicated and skipping unknowns")
+        void getBulkQuotes_ShouldResolveKnownSymbols() throws JsonProcessingException {
+            quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                    .addIndex("NIFTY 50", objectMapper.readTree("{\"data\":[" +
+                            "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2,500.50\",\"pChange\":1.2}," +
+                            "{\"symbol\":\"TCS\",\"lastPrice\":3500}]}"))
+                    .publish();
+
+            java.util.List<in.winvestco.marketservice.dto.StockQuoteDTO> quotes =
+                    marketDataService.getBulkQuotes(java.util.List.of("tcs", "RELIANCE", "TCS", "UNKNOWN"));
+
+            assertThat(quotes).extracting("symbol").containsExactly("TCS", "RELIANCE");
+            assertThat(quotes.get(1).getLastPrice()).isEqualByComparingTo("2500.50");
+            assertThat(quotes.get(1).getChangePercent()).isEqualByComparingTo("1.2");
+            verifyNoInteractions(redisTemplate);
+        }
     }
 }
@@ -0,0 +1,94 @@
+package in.winvestco.marketservice.service;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for QuoteStore snapshot building and versioning.
+ */
+@DisplayName("QuoteStore Tests")
+class QuoteStoreTest {
+
+    private QuoteStore quoteStore;
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        quoteStore = new QuoteStore();
+        objectMapper = new ObjectMapper();
+    }
+
+    private JsonNode index(String json) throws Exception {
+        return objectMapper.readTree(json);
+    }
+
+    @Test
+    @DisplayName("Should not expose staged quotes until the snapshot is published")
+    void publish_ShouldSwapSnapshotAtomically() throws Exception {
+        QuoteStore.SnapshotBuilder builder = quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"TCS\",\"lastPrice\":3500}]}"));
+
+        assertThat(quoteStore.getQuoteNode("TCS")).isNull();
+
+        assertThat(builder.publish()).isTrue();
+
+        assertThat(quoteStore.getQuoteNode("tcs").path("lastPrice").asInt()).isEqualTo(3500);
+        assertThat(quoteStore.getQuoteJson("TCS")).contains("3500");
+        assertThat(quoteStore.current().version()).isEqualTo(1L);
+    }
+
+    @Test
+    @DisplayName("Should keep the first occurrence of a symbol across indices")
+    void addIndex_ShouldKeepFirstOccurrence() throws Exception {
+        quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"INFY\",\"lastPrice\":1500}]}"))
+                .addIndex("NIFTY IT", index("{\"data\":[{\"symbol\":\"INFY\",\"lastPrice\":1499}]}"))
+                .publish();
+
+        assertThat(quoteStore.current().size()).isEqualTo(1);
+        assertThat(quoteStore.getQuoteNode("INFY").path("lastPrice").asInt()).isEqualTo(1500);
+    }
+
+    @Test
+    @DisplayName("Should discard a snapshot that started before the installed one")
+    void publish_WhenOlderThanCurrent_ShouldBeDiscarded() throws Exception {
+        QuoteStore.SnapshotBuilder older = quoteStore.newSnapshot(QuoteStore.Source.REDIS)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"TCS\",\"lastPrice\":3400}]}"));
+        QuoteStore.SnapshotBuilder newer = quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"TCS\",\"lastPrice\":3500}]}"));
+
+        assertThat(newer.publish()).isTrue();
+        assertThat(older.publish()).isFalse();
+
+        assertThat(quoteStore.getQuoteNode("TCS").path("lastPrice").asInt()).isEqualTo(3500);
+        assertThat(quoteStore.current().source()).isEqualTo(QuoteStore.Source.FETCH);
+    }
+
+    @Test
+    @DisplayName("Should carry over symbols missing from a partial cycle")
+    void publish_ShouldCarryOverMissingSymbols() throws Exception {
+        quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"TCS\",\"lastPrice\":3500}]}"))
+                .addIndex("NIFTY BANK", index("{\"data\":[{\"symbol\":\"HDFCBANK\",\"lastPrice\":1600}]}"))
+                .publish();
+
+        quoteStore.newSnapshot(QuoteStore.Source.FETCH)
+                .addIndex("NIFTY 50", index("{\"data\":[{\"symbol\":\"TCS\",\"lastPrice\":3510}]}"))
+                .publish();
+
+        assertThat(quoteStore.getQuoteNode("TCS").path("lastPrice").asInt()).isEqualTo(3510);
+        assertThat(quoteStore.getQuoteNode("HDFCBANK").path("lastPrice").asInt()).isEqualTo(1600);
+    }
+
+    @Test
+    @DisplayName("Should not publish a cycle that staged no indices")
+    void publish_WhenNothingStaged_ShouldReturnFalse() {
+        assertThat(quoteStore.newSnapshot(QuoteStore.Source.FETCH).publish()).isFalse();
+        assertThat(quoteStore.current().isEmpty()).isTrue();
+    }
+}
@@ -0,0 +1,125 @@
+package in.winvestco.order_service.client;
+
+import in.winvestco.common.grpc.market.MarketDataServiceGrpc;
+import in.winvestco.common.grpc.market.MarketDataSubscription;
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import in.winvestco.order_service.config.OrderTriggerProperties;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+/**
+ * Long-lived SubscribeMarketData stream to market-service.
+ *
+ * Subscribes to all symbols and hands every update to a single consumer.
+ * The stream is re-opened with exponential backoff whenever it errors or
+ * completes, until {@link #stop()} is called.
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class MarketDataStreamClient {
+
+    private final OrderTriggerProperties properties;
+
+    @GrpcClient("market-service")
+    private MarketDataServiceGrpc.MarketDataServiceStub marketDataStub;
+
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("market-data-reconnect").daemon().factory());
+
+    private volatile Consumer<MarketDataUpdate> listener;
+    private volatile ClientCallStreamObserver<MarketDataSubscription> activeCall;
+    private volatile boolean running;
+    private volatile long backoffMs;
+
+    /**
+     * Open the stream and deliver every update to the listener.
+     * Updates arrive on gRPC executor threads, one at a time per stream.
+     */
+    public synchronized void start(Consumer<MarketDataUpdate> listener) {
+        if (running) {
+            return;
+        }
+        this.listener = listener;
+        this.running = true;
+        this.backoffMs = properties.getReconnectInitialDelayMs();
+        connect();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        ClientCallStreamObserver<MarketDataSubscription> call = activeCall;
+        if (call != null) {
+            call.cancel("order-service shutting down", null);
+        }
+        reconnectScheduler.shutdownNow();
+    }
+
+    public boolean isConnected() {
+        return running && activeCall != null;
+    }
+
+    private synchronized void connect() {
+        if (!running) {
+            return;
+        }
+        log.info("Opening SubscribeMarketData stream to market-service");
+        marketDataStub.subscribeMarketData(
+                MarketDataSubscription.newBuilder().setSubscribeAll(true).build(),
+                new ClientResponseObserver<MarketDataSubscription, MarketDataUpdate>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<MarketDataSubscription> requestStream) {
+                        activeCall = requestStream;
+                    }
+
+                    @Override
+                    public void onNext(MarketDataUpdate update) {
+                        resetBackoff();
+                        try {
+                            listener.accept(update);
+                        } catch (Exception e) {
+                            log.warn("Failed to handle market data update for {}: {}",
+                                    update.getSymbol(), e.getMessage());
+                        }
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        log.warn("SubscribeMarketData stream failed: {}", t.getMessage());
+                        scheduleReconnect();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        log.info("SubscribeMarketData stream completed by market-service");
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private void resetBackoff() {
+        backoffMs = properties.getReconnectInitialDelayMs();
+    }
+
+    private synchronized void scheduleReconnect() {
+        activeCall = null;
+        if (!running) {
+            return;
+        }
+        long delay = backoffMs;
+        backoffMs = Math.min(backoffMs * 2, properties.getReconnectMaxDelayMs());
+        log.info("Reconnecting to market-service in {} ms", delay);
+        reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+}
@@ -0,0 +1,33 @@
+package in.winvestco.order_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for price-triggered (LIMIT / STOP_LOSS / STOP_LIMIT)
+ * order monitoring.
+ */
+@Component
+@ConfigurationProperties(prefix = "trading.triggers")
+@Getter
+@Setter
+public class OrderTriggerProperties {
+
+    /**
+     * Enable/disable the trigger book and its market data subscription.
+     * When disabled, resting orders are never triggered.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Delay before the first reconnect after the market data stream drops.
+     */
+    private long reconnectInitialDelayMs = 1000;
+
+    /**
+     * Upper bound for the exponential reconnect backoff.
+     */
+    private long reconnectMaxDelayMs = 30000;
+}
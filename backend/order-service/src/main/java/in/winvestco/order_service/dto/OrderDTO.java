@@ -34,6 +34,7 @@ public class OrderDTO {
     private OrderStatus status;
     private OrderValidity validity;
     private Instant expiresAt;
+    private Instant triggeredAt;
     private Instant createdAt;
     private Instant updatedAt;
 }
@@ -5,10 +5,13 @@ import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderStatus;
 import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.enums.OrderValidity;
+import in.winvestco.common.statemachine.StatusTransition;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -16,6 +19,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Order entity representing a trading order.
@@ -99,6 +104,13 @@ public class Order implements Serializable {
     @Column(name = "expires_at")
     private Instant expiresAt;
 
+    /**
+     * When the market price first crossed this order's limit/stop price.
+     * Null for orders that are not price-triggered or have not triggered yet.
+     */
+    @Column(name = "triggered_at")
+    private Instant triggeredAt;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private Instant createdAt;
@@ -107,6 +119,30 @@ public class Order implements Serializable {
     @Column(name = "updated_at")
     private Instant updatedAt;
 
+    /**
+     * Every status the order has passed through, including the ones applied
+     * and left within a single write.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "status_history")
+    @Builder.Default
+    private List<StatusTransition> statusHistory = new ArrayList<>();
+
+    /**
+     * Move to a new status in memory and record the step in the status
+     * history; repeating the current status (another partial fill) is not a
+     * step and is not recorded. The order is persisted by the caller, once per operation.
+     */
+    public void transitionTo(OrderStatus next, Instant at) {
+        if (statusHistory == null) {
+            statusHistory = new ArrayList<>();
+        }
+        if (next != status) {
+            statusHistory.add(StatusTransition.of(status, next, at));
+        }
+        status = next;
+    }
+
     /**
      * Get remaining quantity to be filled
      */
@@ -1,6 +1,7 @@
 package in.winvestco.order_service.repository;
 
 import in.winvestco.common.enums.OrderStatus;
+import in.winvestco.common.enums.OrderType;
 import in.winvestco.order_service.model.Order;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -34,6 +35,15 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     List<Order> findBySymbolAndStatusIn(String symbol, List<OrderStatus> statuses);
 
+    /**
+     * Resting price-triggered orders that have not fired yet; used to rebuild
+     * the in-memory trigger book at startup.
+     */
+    @Query("SELECT o FROM Order o WHERE o.status IN :statuses AND o.orderType IN :orderTypes AND o.triggeredAt IS NULL")
+    List<Order> findTriggerCandidates(
+            @Param("statuses") List<OrderStatus> statuses,
+            @Param("orderTypes") List<OrderType> orderTypes);
+
     long countByUserIdAndStatus(Long userId, OrderStatus status);
 
     @Query("SELECT o FROM Order o WHERE o.userId = :userId AND o.symbol = :symbol AND o.status NOT IN :terminalStatuses")
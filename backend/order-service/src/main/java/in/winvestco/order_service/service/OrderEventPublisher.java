@@ -8,7 +8,9 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Service for publishing order events to RabbitMQ via Outbox pattern
@@ -24,7 +26,39 @@ public class OrderEventPublisher {
          * Publish OrderCreatedEvent
          */
         public void publishOrderCreated(Order order) {
-                OrderCreatedEvent event = OrderCreatedEvent.builder()
+                log.info("Capturing OrderCreatedEvent in outbox for order: {}", order.getOrderId());
+                outboxService.captureEvent("Order", order.getOrderId(),
+                                RabbitMQConfig.ORDER_EXCHANGE, "order.created", orderCreatedEvent(order));
+        }
+
+        /**
+         * Publish OrderValidatedEvent - triggers funds-service for BUY orders.
+         * Routed by user id so each user's orders reach one funds-service shard.
+         */
+        public void publishOrderValidated(Order order) {
+                log.info("Capturing OrderValidatedEvent in outbox for order: {}", order.getOrderId());
+                outboxService.captureEvent("Order", order.getOrderId(),
+                                RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.orderValidatedRoutingKey(order.getUserId()),
+                                orderValidatedEvent(order));
+        }
+
+        /**
+         * Publish OrderCreatedEvent and OrderValidatedEvent for an order that was
+         * created and validated in one step, with a single outbox insert
+         */
+        public void publishOrderCreatedAndValidated(Order order) {
+                log.info("Capturing OrderCreatedEvent and OrderValidatedEvent in outbox for order: {}",
+                                order.getOrderId());
+                outboxService.captureEvents("Order", order.getOrderId(), List.of(
+                                new OutboxService.PendingEvent(RabbitMQConfig.ORDER_EXCHANGE, "order.created",
+                                                orderCreatedEvent(order)),
+                                new OutboxService.PendingEvent(RabbitMQConfig.ORDER_EXCHANGE,
+                                                RabbitMQConfig.orderValidatedRoutingKey(order.getUserId()),
+                                                orderValidatedEvent(order))));
+        }
+
+        private OrderCreatedEvent orderCreatedEvent(Order order) {
+                return OrderCreatedEvent.builder()
                                 .orderId(order.getOrderId())
                                 .userId(order.getUserId())
                                 .symbol(order.getSymbol())
@@ -37,17 +71,10 @@ public class OrderEventPublisher {
                                 .expiresAt(order.getExpiresAt())
                                 .createdAt(order.getCreatedAt())
                                 .build();
-
-                log.info("Capturing OrderCreatedEvent in outbox for order: {}", order.getOrderId());
-                outboxService.captureEvent("Order", order.getOrderId(),
-                                RabbitMQConfig.ORDER_EXCHANGE, "order.created", event);
         }
 
-        /**
-         * Publish OrderValidatedEvent - triggers funds-service for BUY orders
-         */
-        public void publishOrderValidated(Order order) {
-                OrderValidatedEvent event = OrderValidatedEvent.builder()
+        private OrderValidatedEvent orderValidatedEvent(Order order) {
+                return OrderValidatedEvent.builder()
                                 .orderId(order.getOrderId())
                                 .userId(order.getUserId())
                                 .symbol(order.getSymbol())
@@ -58,10 +85,6 @@ public class OrderEventPublisher {
                                 .totalAmount(order.getTotalValue())
                                 .validatedAt(Instant.now())
                                 .build();
-
-                log.info("Capturing OrderValidatedEvent in outbox for order: {}", order.getOrderId());
-                outboxService.captureEvent("Order", order.getOrderId(),
-                                RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_VALIDATED_ROUTING_KEY, event);
         }
 
         /**
@@ -147,6 +170,28 @@ public class OrderEventPublisher {
                                 RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_EXPIRED_ROUTING_KEY, event);
         }
 
+        /**
+         * Publish OrderTriggeredEvent - the market crossed a resting order's limit/stop price
+         */
+        public void publishOrderTriggered(Order order, BigDecimal marketPrice) {
+                OrderTriggeredEvent event = OrderTriggeredEvent.builder()
+                                .orderId(order.getOrderId())
+                                .userId(order.getUserId())
+                                .symbol(order.getSymbol())
+                                .side(order.getSide())
+                                .orderType(order.getOrderType())
+                                .quantity(order.getRemainingQuantity())
+                                .price(order.getPrice())
+                                .stopPrice(order.getStopPrice())
+                                .marketPrice(marketPrice)
+                                .triggeredAt(order.getTriggeredAt())
+                                .build();
+
+                log.info("Capturing OrderTriggeredEvent in outbox for order: {}", order.getOrderId());
+                outboxService.captureEvent("Order", order.getOrderId(),
+                                RabbitMQConfig.ORDER_EXCHANGE, RabbitMQConfig.ORDER_TRIGGERED_ROUTING_KEY, event);
+        }
+
         /**
          * Publish OrderFilledEvent
          */
@@ -6,6 +6,7 @@ import io.micrometer.core.instrument.MeterRegistry;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderStatus;
 import in.winvestco.common.enums.OrderValidity;
+import in.winvestco.common.statemachine.StatusTransition;
 import in.winvestco.order_service.dto.CreateOrderRequest;
 import in.winvestco.order_service.dto.OrderDTO;
 import in.winvestco.order_service.exception.InvalidOrderStateException;
@@ -20,14 +21,20 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.time.*;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
 /**
- * Core service for order lifecycle management
+ * Core service for order lifecycle management.
+ *
+ * Chained status changes are applied in memory and the order is written once
+ * per operation, with every step kept in its status history.
  */
 @Service
 @Slf4j
@@ -38,6 +45,7 @@ public class OrderService {
     private final OrderMapper orderMapper;
     private final OrderValidationService validationService;
     private final OrderEventPublisher eventPublisher;
+    private final OrderTriggerBook orderTriggerBook;
     private final MeterRegistry meterRegistry;
     private final ObservationRegistry observationRegistry;
 
@@ -73,6 +81,7 @@ public class OrderService {
                     Instant expiresAt = calculateExpiresAt(request.getValidity());
 
                     // Create order entity
+                    Instant now = Instant.now();
                     Order order = Order.builder()
                             .orderId(UUID.randomUUID().toString())
                             .userId(userId)
@@ -85,11 +94,20 @@ public class OrderService {
                             .validity(request.getValidity() != null ? request.getValidity() : OrderValidity.DAY)
                             .expiresAt(expiresAt)
                             .status(OrderStatus.NEW)
+                            .statusHistory(new ArrayList<>(List.of(StatusTransition.of(null, OrderStatus.NEW, now))))
                             .filledQuantity(BigDecimal.ZERO)
                             .build();
 
+                    // NEW → VALIDATED (validation passed above), and straight on to
+                    // PENDING for SELL orders which skip the funds lock; applied in
+                    // memory and written once
+                    order.transitionTo(OrderStatus.VALIDATED, now);
+                    if (request.getSide() != OrderSide.BUY) {
+                        order.transitionTo(OrderStatus.PENDING, now);
+                    }
+
                     order = orderRepository.save(order);
-                    log.info("Order created: {} with status NEW", order.getOrderId());
+                    log.info("Order created: {} with status {}", order.getOrderId(), order.getStatus());
 
                     // Increment business metric
                     meterRegistry.counter("orders.count",
@@ -98,20 +116,13 @@ public class OrderService {
                             "type", order.getOrderType().name())
                             .increment();
 
-                    // Publish order created event
-                    eventPublisher.publishOrderCreated(order);
-
-                    // Immediately validate and transition to VALIDATED
-                    order.setStatus(OrderStatus.VALIDATED);
-                    order = orderRepository.save(order);
-
-                    // Publish validated event (triggers funds-service for BUY orders)
                     if (request.getSide() == OrderSide.BUY) {
-                        eventPublisher.publishOrderValidated(order);
+                        // Publish created and validated events (validated triggers funds-service)
+                        eventPublisher.publishOrderCreatedAndValidated(order);
                     } else {
-                        // For SELL orders, skip funds lock and move to PENDING
-                        order.setStatus(OrderStatus.PENDING);
-                        order = orderRepository.save(order);
+                        eventPublisher.publishOrderCreated(order);
+                        Order resting = order;
+                        afterCommit(() -> orderTriggerBook.track(resting));
                     }
 
                     return orderMapper.toDTO(order);
@@ -162,8 +173,9 @@ public class OrderService {
             throw new InvalidOrderStateException(orderId, order.getStatus(), "cancel");
         }
 
-        order.setStatus(OrderStatus.CANCELLED);
+        order.transitionTo(OrderStatus.CANCELLED, Instant.now());
         order = orderRepository.save(order);
+        afterCommit(() -> orderTriggerBook.remove(orderId));
 
         log.info("Order {} cancelled by user {}: {}", orderId, userId, reason);
 
@@ -188,8 +200,9 @@ public class OrderService {
             return;
         }
 
-        order.setStatus(OrderStatus.REJECTED);
+        order.transitionTo(OrderStatus.REJECTED, Instant.now());
         order = orderRepository.save(order);
+        afterCommit(() -> orderTriggerBook.remove(orderId));
 
         log.info("Order {} rejected: {}", orderId, reason);
 
@@ -209,16 +222,43 @@ public class OrderService {
             return;
         }
 
-        order.setStatus(OrderStatus.FUNDS_LOCKED);
+        // VALIDATED → FUNDS_LOCKED → PENDING (ready for execution), written once
+        Instant now = Instant.now();
+        order.transitionTo(OrderStatus.FUNDS_LOCKED, now);
+        order.transitionTo(OrderStatus.PENDING, now);
         order = orderRepository.save(order);
 
-        log.info("Order {} funds locked, transitioning to FUNDS_LOCKED", orderId);
+        log.info("Order {} funds locked, transitioned to PENDING", orderId);
+        Order resting = order;
+        afterCommit(() -> orderTriggerBook.track(resting));
+
+        eventPublisher.publishOrderUpdated(order);
+    }
+
+    /**
+     * Handle a resting order whose limit/stop price was crossed by the market.
+     * Records the trigger once and emits OrderTriggeredEvent.
+     *
+     * @return false if the order was no longer resting or had already triggered
+     */
+    @Transactional
+    public boolean handlePriceTriggered(String orderId, BigDecimal marketPrice) {
+        Order order = findOrderByOrderId(orderId);
+
+        if (order.getTriggeredAt() != null
+                || (order.getStatus() != OrderStatus.PENDING && order.getStatus() != OrderStatus.PARTIALLY_FILLED)) {
+            log.debug("Ignoring trigger for order {} in state {}", orderId, order.getStatus());
+            return false;
+        }
 
-        // Move to PENDING (ready for execution)
-        order.setStatus(OrderStatus.PENDING);
+        order.setTriggeredAt(Instant.now());
         order = orderRepository.save(order);
 
+        log.info("Order {} triggered at market price {}", orderId, marketPrice);
+
+        eventPublisher.publishOrderTriggered(order, marketPrice);
         eventPublisher.publishOrderUpdated(order);
+        return true;
     }
 
     /**
@@ -246,10 +286,11 @@ public class OrderService {
 
         // Update status
         if (order.isFullyFilled()) {
-            order.setStatus(OrderStatus.FILLED);
+            order.transitionTo(OrderStatus.FILLED, Instant.now());
+            afterCommit(() -> orderTriggerBook.remove(orderId));
             log.info("Order {} fully filled", orderId);
         } else {
-            order.setStatus(OrderStatus.PARTIALLY_FILLED);
+            order.transitionTo(OrderStatus.PARTIALLY_FILLED, Instant.now());
             log.info("Order {} partially filled: {}/{}", orderId, newFilledQty, order.getQuantity());
         }
 
@@ -273,8 +314,9 @@ public class OrderService {
         List<Order> expiredOrders = orderRepository.findExpiredOrders(activeStatuses, Instant.now());
 
         for (Order order : expiredOrders) {
-            order.setStatus(OrderStatus.EXPIRED);
+            order.transitionTo(OrderStatus.EXPIRED, Instant.now());
             orderRepository.save(order);
+            afterCommit(() -> orderTriggerBook.remove(order.getOrderId()));
             // Publish expired event for notifications
             eventPublisher.publishOrderExpired(order);
             eventPublisher.publishOrderUpdated(order);
@@ -284,6 +326,23 @@ public class OrderService {
         return expiredOrders.size();
     }
 
+    /**
+     * Apply a trigger book change once the current transaction commits, so a
+     * rollback leaves the book in step with the database.
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
     private Order findOrderByOrderId(String orderId) {
         return orderRepository.findByOrderId(orderId)
                 .orElseThrow(() -> new OrderNotFoundException(orderId));
@@ -0,0 +1,222 @@
+package in.winvestco.order_service.service;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.enums.OrderType;
+import in.winvestco.order_service.model.Order;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-memory, per-symbol book of resting LIMIT, STOP_LOSS and STOP_LIMIT orders.
+ *
+ * Each symbol keeps four maps of price level → orders, sorted by trigger price:
+ * - BUY limit fires when price <= limit: every level at or above the price
+ * - SELL limit fires when price >= limit: every level at or below the price
+ * - BUY stop fires when price >= stop: every level at or below the price
+ * - SELL stop fires when price <= stop: every level at or above the price
+ *
+ * A tick therefore finds everything that crossed with one O(log n) navigation
+ * per side and only touches the levels that actually fire, instead of scanning
+ * every resting order of the symbol.
+ *
+ * A STOP_LIMIT order rests on its stop side; when the stop is hit it moves to
+ * its limit side and fires from there once the limit is also crossed, which
+ * can happen on the same tick. Fired orders leave the book.
+ */
+@Component
+public class OrderTriggerBook {
+
+    enum Side {
+        BUY_LIMIT, SELL_LIMIT, BUY_STOP, SELL_STOP
+    }
+
+    private final Map<String, SymbolBook> books = new ConcurrentHashMap<>();
+    // orderId → symbol, for O(1) removal and duplicate suppression
+    private final Map<String, String> symbolByOrderId = new ConcurrentHashMap<>();
+
+    private final Counter fired;
+
+    public OrderTriggerBook(MeterRegistry meterRegistry) {
+        this.fired = meterRegistry.counter("orders.trigger.fired");
+        meterRegistry.gauge("orders.trigger.book.size", symbolByOrderId, Map::size);
+    }
+
+    /**
+     * Start watching an order. Returns false for orders that are not
+     * price-triggered, lack a trigger price, or are already in the book.
+     */
+    public boolean track(RestingOrder order) {
+        Side side = restingSide(order);
+        if (side == null) {
+            return false;
+        }
+        BigDecimal level = isStop(side) ? order.stopPrice() : order.price();
+        if (level == null) {
+            return false;
+        }
+        if (symbolByOrderId.putIfAbsent(order.orderId(), order.symbol()) != null) {
+            return false;
+        }
+        books.computeIfAbsent(order.symbol(), k -> new SymbolBook()).add(order, side, level);
+        return true;
+    }
+
+    public boolean track(Order order) {
+        return track(RestingOrder.from(order));
+    }
+
+    /**
+     * Stop watching an order (cancelled, rejected, expired or filled).
+     */
+    public boolean remove(String orderId) {
+        String symbol = symbolByOrderId.remove(orderId);
+        if (symbol == null) {
+            return false;
+        }
+        SymbolBook book = books.get(symbol);
+        if (book != null) {
+            book.remove(orderId);
+        }
+        return true;
+    }
+
+    /**
+     * Apply a price tick: remove and return every order whose trigger price
+     * the tick crossed.
+     */
+    public List<Trigger> onPrice(String symbol, BigDecimal price) {
+        SymbolBook book = books.get(symbol);
+        if (book == null) {
+            return List.of();
+        }
+        List<Trigger> triggers = book.cross(price);
+        for (Trigger trigger : triggers) {
+            symbolByOrderId.remove(trigger.order().orderId());
+        }
+        if (!triggers.isEmpty()) {
+            fired.increment(triggers.size());
+        }
+        return triggers;
+    }
+
+    public boolean contains(String orderId) {
+        return symbolByOrderId.containsKey(orderId);
+    }
+
+    public int size() {
+        return symbolByOrderId.size();
+    }
+
+    private static Side restingSide(RestingOrder order) {
+        boolean buy = order.side() == OrderSide.BUY;
+        return switch (order.orderType()) {
+            case LIMIT -> buy ? Side.BUY_LIMIT : Side.SELL_LIMIT;
+            case STOP_LOSS, STOP_LIMIT -> buy ? Side.BUY_STOP : Side.SELL_STOP;
+            default -> null;
+        };
+    }
+
+    private static boolean isStop(Side side) {
+        return side == Side.BUY_STOP || side == Side.SELL_STOP;
+    }
+
+    /**
+     * The fields of an order the book needs; detached from the JPA entity.
+     */
+    public record RestingOrder(String orderId, String symbol, OrderSide side, OrderType orderType,
+            BigDecimal price, BigDecimal stopPrice) {
+
+        public static RestingOrder from(Order order) {
+            return new RestingOrder(order.getOrderId(), order.getSymbol().toUpperCase(), order.getSide(),
+                    order.getOrderType(), order.getPrice(), order.getStopPrice());
+        }
+    }
+
+    /**
+     * An order whose trigger price was crossed, with the price that crossed it.
+     */
+    public record Trigger(RestingOrder order, BigDecimal marketPrice) {
+    }
+
+    /**
+     * All resting orders of one symbol. Guarded by its own monitor.
+     */
+    private static final class SymbolBook {
+
+        private final Map<Side, TreeMap<BigDecimal, Map<String, RestingOrder>>> levels = new EnumMap<>(Side.class);
+        // orderId → current side and level, so removal goes straight to the level
+        private final Map<String, Placement> placements = new HashMap<>();
+
+        private SymbolBook() {
+            for (Side side : Side.values()) {
+                levels.put(side, new TreeMap<>());
+            }
+        }
+
+        private synchronized void add(RestingOrder order, Side side, BigDecimal level) {
+            levels.get(side).computeIfAbsent(level, k -> new LinkedHashMap<>()).put(order.orderId(), order);
+            placements.put(order.orderId(), new Placement(side, level));
+        }
+
+        private synchronized void remove(String orderId) {
+            Placement placement = placements.remove(orderId);
+            if (placement == null) {
+                return;
+            }
+            TreeMap<BigDecimal, Map<String, RestingOrder>> sideLevels = levels.get(placement.side());
+            Map<String, RestingOrder> atLevel = sideLevels.get(placement.level());
+            if (atLevel != null) {
+                atLevel.remove(orderId);
+                if (atLevel.isEmpty()) {
+                    sideLevels.remove(placement.level());
+                }
+            }
+        }
+
+        private synchronized List<Trigger> cross(BigDecimal price) {
+            List<Trigger> triggers = new ArrayList<>();
+            // Stops first, so a STOP_LIMIT moved to its limit side can fire on this same tick
+            take(Side.BUY_STOP, levels.get(Side.BUY_STOP).headMap(price, true), price, triggers);
+            take(Side.SELL_STOP, levels.get(Side.SELL_STOP).tailMap(price, true), price, triggers);
+            take(Side.BUY_LIMIT, levels.get(Side.BUY_LIMIT).tailMap(price, true), price, triggers);
+            take(Side.SELL_LIMIT, levels.get(Side.SELL_LIMIT).headMap(price, true), price, triggers);
+            return triggers;
+        }
+
+        private void take(Side side, NavigableMap<BigDecimal, Map<String, RestingOrder>> crossed, BigDecimal price,
+                List<Trigger> triggers) {
+            if (crossed.isEmpty()) {
+                return;
+            }
+            List<RestingOrder> orders = new ArrayList<>();
+            for (Map<String, RestingOrder> atLevel : crossed.values()) {
+                orders.addAll(atLevel.values());
+            }
+            crossed.clear();
+
+            for (RestingOrder order : orders) {
+                placements.remove(order.orderId());
+                if (isStop(side) && order.orderType() == OrderType.STOP_LIMIT && order.price() != null) {
+                    add(order, side == Side.BUY_STOP ? Side.BUY_LIMIT : Side.SELL_LIMIT, order.price());
+                } else {
+                    triggers.add(new Trigger(order, price));
+                }
+            }
+        }
+    }
+
+    private record Placement(Side side, BigDecimal level) {
+    }
+}
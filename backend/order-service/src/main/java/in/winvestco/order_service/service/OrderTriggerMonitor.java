@@ -0,0 +1,104 @@
+package in.winvestco.order_service.service;
+
+import in.winvestco.common.enums.OrderStatus;
+import in.winvestco.common.enums.OrderType;
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import in.winvestco.order_service.client.MarketDataStreamClient;
+import in.winvestco.order_service.config.OrderTriggerProperties;
+import in.winvestco.order_service.model.Order;
+import in.winvestco.order_service.repository.OrderRepository;
+import jakarta.annotation.PreDestroy;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Connects the {@link OrderTriggerBook} to live prices.
+ *
+ * - At startup the book is rebuilt from untriggered PENDING / PARTIALLY_FILLED
+ * orders, then the market data stream is opened
+ * - Each tick is evaluated against the book on the stream thread; only the
+ * orders it fires are handed to a virtual thread to be recorded, so database
+ * work never stalls the stream
+ * - Triggers are level-based, so ticks missed while reconnecting are caught up
+ * by the next tick at the same or a further price
+ */
+@Component
+@Slf4j
+@RequiredArgsConstructor
+public class OrderTriggerMonitor {
+
+    private static final List<OrderStatus> RESTING_STATUSES = List.of(
+            OrderStatus.PENDING, OrderStatus.PARTIALLY_FILLED);
+
+    private static final List<OrderType> TRIGGERED_TYPES = List.of(
+            OrderType.LIMIT, OrderType.STOP_LOSS, OrderType.STOP_LIMIT);
+
+    private final OrderTriggerBook orderTriggerBook;
+    private final OrderRepository orderRepository;
+    private final OrderService orderService;
+    private final MarketDataStreamClient marketDataStreamClient;
+    private final OrderTriggerProperties properties;
+
+    private final ExecutorService triggerExecutor = Executors.newVirtualThreadPerTaskExecutor();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        if (!properties.isEnabled()) {
+            log.info("Order trigger monitoring disabled");
+            return;
+        }
+        int loaded = rebuild();
+        log.info("Order trigger book rebuilt with {} resting orders", loaded);
+        marketDataStreamClient.start(this::onMarketData);
+    }
+
+    @PreDestroy
+    public void stop() {
+        triggerExecutor.close();
+    }
+
+    /**
+     * Load every resting price-triggered order into the book.
+     *
+     * @return number of orders added
+     */
+    int rebuild() {
+        int loaded = 0;
+        for (Order order : orderRepository.findTriggerCandidates(RESTING_STATUSES, TRIGGERED_TYPES)) {
+            if (orderTriggerBook.track(order)) {
+                loaded++;
+            }
+        }
+        return loaded;
+    }
+
+    void onMarketData(MarketDataUpdate update) {
+        if (update.getLastPrice() <= 0) {
+            return;
+        }
+        List<OrderTriggerBook.Trigger> triggers = orderTriggerBook.onPrice(
+                update.getSymbol(), BigDecimal.valueOf(update.getLastPrice()));
+        for (OrderTriggerBook.Trigger trigger : triggers) {
+            triggerExecutor.execute(() -> fire(trigger));
+        }
+    }
+
+    private void fire(OrderTriggerBook.Trigger trigger) {
+        String orderId = trigger.order().orderId();
+        try {
+            orderService.handlePriceTriggered(orderId, trigger.marketPrice());
+        } catch (Exception e) {
+            // Put it back so the next crossing tick retries
+            log.error("Failed to record trigger for order {}, re-arming", orderId, e);
+            orderTriggerBook.track(trigger.order());
+        }
+    }
+}
@@ -0,0 +1,7 @@
+-- Record when a resting LIMIT / STOP_LOSS / STOP_LIMIT order was triggered by the market price
+ALTER TABLE orders ADD COLUMN triggered_at TIMESTAMPTZ;
+
+-- Startup rebuild of the in-memory trigger book only loads untriggered resting orders
+CREATE INDEX idx_orders_trigger_candidates ON orders (status, order_type)
+WHERE
+    triggered_at IS NULL;
@@ -0,0 +1,2 @@
+-- Statuses an order passed through, including the ones applied and left within one write
+ALTER TABLE orders ADD COLUMN status_history JSONB NOT NULL DEFAULT '[]'::jsonb;
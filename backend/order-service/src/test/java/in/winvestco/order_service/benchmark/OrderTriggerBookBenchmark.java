@@ -0,0 +1,127 @@
+package in.winvestco.order_service.benchmark;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.enums.OrderType;
+import in.winvestco.order_service.service.OrderTriggerBook;
+import in.winvestco.order_service.service.OrderTriggerBook.RestingOrder;
+import in.winvestco.order_service.service.OrderTriggerBook.Trigger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Trigger evaluation cost per price tick with 100k resting orders on one symbol.
+ *
+ * - quietTick: the common case, a tick inside the spread that fires nothing
+ * - crossingTick: a tick that crosses one price level; the fired orders are
+ * put back so every invocation sees the same book (re-arming is included)
+ * - linearScan: the per-tick scan over all resting orders the book replaces
+ *
+ * Not run by surefire. Run with:
+ * mvn -pl order-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=in.winvestco.order_service.benchmark.OrderTriggerBookBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class OrderTriggerBookBenchmark {
+
+    private static final String SYMBOL = "RELIANCE";
+    private static final BigDecimal MID = new BigDecimal("2500.00");
+
+    @Param({ "100000" })
+    private int restingOrders;
+
+    private OrderTriggerBook book;
+    private List<RestingOrder> orders;
+    private BigDecimal[] quietPrices;
+    private BigDecimal crossingPrice;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        book = new OrderTriggerBook(new SimpleMeterRegistry());
+        orders = new ArrayList<>(restingOrders);
+        SplittableRandom random = new SplittableRandom(42);
+
+        // Buy limits and sell stops below the mid, sell limits and buy stops above,
+        // spread over ~2000 levels 2.50 apart on each side
+        for (int i = 0; i < restingOrders; i++) {
+            BigDecimal offset = BigDecimal.valueOf(random.nextInt(1, 2000) * 250L, 2);
+            OrderType type = i % 3 == 0 ? OrderType.STOP_LOSS : OrderType.LIMIT;
+            boolean below = i % 2 == 0;
+            OrderSide side = (type == OrderType.LIMIT) == below ? OrderSide.BUY : OrderSide.SELL;
+            BigDecimal level = below ? MID.subtract(offset) : MID.add(offset);
+            RestingOrder order = new RestingOrder("order-" + i, SYMBOL, side, type,
+                    type == OrderType.LIMIT ? level : null,
+                    type == OrderType.STOP_LOSS ? level : null);
+            orders.add(order);
+            book.track(order);
+        }
+
+        quietPrices = new BigDecimal[] { MID, MID.add(new BigDecimal("0.05")), MID.subtract(new BigDecimal("0.05")) };
+        // The innermost level below the mid: fires one buy-limit and one sell-stop level
+        crossingPrice = MID.subtract(new BigDecimal("2.50"));
+    }
+
+    @Benchmark
+    public List<Trigger> quietTick() {
+        BigDecimal price = quietPrices[next++ % quietPrices.length];
+        return book.onPrice(SYMBOL, price);
+    }
+
+    @Benchmark
+    public int crossingTick() {
+        List<Trigger> fired = book.onPrice(SYMBOL, crossingPrice);
+        for (Trigger trigger : fired) {
+            book.track(trigger.order());
+        }
+        return fired.size();
+    }
+
+    @Benchmark
+    public void linearScan(Blackhole blackhole) {
+        BigDecimal price = quietPrices[next++ % quietPrices.length];
+        for (RestingOrder order : orders) {
+            blackhole.consume(crosses(order, price));
+        }
+    }
+
+    private static boolean crosses(RestingOrder order, BigDecimal price) {
+        boolean buy = order.side() == OrderSide.BUY;
+        if (order.orderType() == OrderType.LIMIT) {
+            int cmp = price.compareTo(order.price());
+            return buy ? cmp <= 0 : cmp >= 0;
+        }
+        int cmp = price.compareTo(order.stopPrice());
+        return buy ? cmp >= 0 : cmp <= 0;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(OrderTriggerBookBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
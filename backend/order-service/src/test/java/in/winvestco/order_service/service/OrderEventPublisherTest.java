@@ -7,17 +7,22 @@ import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.enums.OrderValidity;
 import in.winvestco.common.event.*;
 import in.winvestco.common.messaging.outbox.OutboxService;
+import in.winvestco.common.messaging.outbox.OutboxService.PendingEvent;
 import in.winvestco.order_service.model.Order;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -66,18 +71,31 @@ class OrderEventPublisherTest {
     }
 
     @Test
-    void publishOrderValidated_ShouldCaptureEvent() {
+    void publishOrderValidated_ShouldCaptureEventRoutedByUser() {
         eventPublisher.publishOrderValidated(order);
 
         verify(outboxService).captureEvent(
                 eq("Order"),
                 eq("12345"),
                 eq(RabbitMQConfig.ORDER_EXCHANGE),
-                eq(RabbitMQConfig.ORDER_VALIDATED_ROUTING_KEY),
+                eq("order.validated.1"),
                 any(OrderValidatedEvent.class)
         );
     }
 
+    @Test
+    @SuppressWarnings("unchecked")
+    void publishOrderCreatedAndValidated_ShouldCaptureBothEventsInOneCall() {
+        eventPublisher.publishOrderCreatedAndValidated(order);
+
+        ArgumentCaptor<List<PendingEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).captureEvents(eq("Order"), eq("12345"), events.capture());
+        assertEquals(List.of("order.created", "order.validated.1"),
+                events.getValue().stream().map(PendingEvent::routingKey).toList());
+        assertInstanceOf(OrderCreatedEvent.class, events.getValue().get(0).event());
+        assertInstanceOf(OrderValidatedEvent.class, events.getValue().get(1).event());
+    }
+
     @Test
     void publishOrderUpdated_ShouldLog() {
         // Method is currently only logging, just ensure no exception
@@ -36,6 +36,8 @@ class OrderServiceObservabilityTest {
     @Mock
     private OrderEventPublisher eventPublisher;
     @Mock
+    private OrderTriggerBook orderTriggerBook;
+    @Mock
     private MeterRegistry meterRegistry;
     @Spy
     private ObservationRegistry observationRegistry = ObservationRegistry.create();
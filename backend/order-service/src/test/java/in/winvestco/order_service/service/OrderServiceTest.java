@@ -7,6 +7,7 @@ import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderStatus;
 import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.enums.OrderValidity;
+import in.winvestco.common.statemachine.StatusTransition;
 import in.winvestco.order_service.dto.CreateOrderRequest;
 import in.winvestco.order_service.dto.OrderDTO;
 import in.winvestco.order_service.exception.OrderNotFoundException;
@@ -16,14 +17,18 @@ import in.winvestco.order_service.repository.OrderRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.math.BigDecimal;
 import java.util.Collections;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -46,6 +51,9 @@ class OrderServiceTest {
     @Mock
     private OrderEventPublisher eventPublisher;
 
+    @Mock
+    private OrderTriggerBook orderTriggerBook;
+
     @Mock
     private MeterRegistry meterRegistry;
 
@@ -90,16 +98,40 @@ class OrderServiceTest {
 
     @Test
     void createOrder_ShouldCreateAndValidateOrder() {
-        when(orderRepository.save(any(Order.class))).thenReturn(newOrder);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(orderMapper.toDTO(any(Order.class))).thenReturn(new OrderDTO());
 
         OrderDTO result = orderService.createOrder(1L, buyRequest);
 
         assertNotNull(result);
         verify(validationService).validate(buyRequest);
-        verify(orderRepository, atLeastOnce()).save(any(Order.class));
-        verify(eventPublisher).publishOrderCreated(any(Order.class));
-        verify(eventPublisher).publishOrderValidated(any(Order.class));
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(1)).save(saved.capture());
+        assertEquals(OrderStatus.VALIDATED, saved.getValue().getStatus());
+        assertEquals(List.of("NEW", "VALIDATED"),
+                saved.getValue().getStatusHistory().stream().map(StatusTransition::to).toList());
+        verify(eventPublisher).publishOrderCreatedAndValidated(saved.getValue());
+        verify(orderTriggerBook, never()).track(any(Order.class));
+    }
+
+    @Test
+    void createOrder_WhenSell_ShouldSkipFundsLockAndWriteOnce() {
+        buyRequest.setSide(OrderSide.SELL);
+        when(orderRepository.save(any(Order.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(orderMapper.toDTO(any(Order.class))).thenReturn(new OrderDTO());
+
+        orderService.createOrder(1L, buyRequest);
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        verify(orderRepository, times(1)).save(saved.capture());
+        assertEquals(OrderStatus.PENDING, saved.getValue().getStatus());
+        assertEquals(List.of("NEW", "VALIDATED", "PENDING"),
+                saved.getValue().getStatusHistory().stream().map(StatusTransition::to).toList());
+        verify(eventPublisher).publishOrderCreated(saved.getValue());
+        verify(eventPublisher, never()).publishOrderValidated(any(Order.class));
+        verify(eventPublisher, never()).publishOrderCreatedAndValidated(any(Order.class));
+        verify(orderTriggerBook).track(saved.getValue());
     }
 
     @Test
@@ -113,6 +145,26 @@ class OrderServiceTest {
 
         assertEquals(OrderStatus.CANCELLED, newOrder.getStatus());
         verify(eventPublisher).publishOrderCancelled(eq(newOrder), eq("Test reason"), eq("USER"));
+        verify(orderTriggerBook).remove(newOrder.getOrderId());
+    }
+
+    @Test
+    void cancelOrder_ShouldUpdateTriggerBookOnlyAfterCommit() {
+        newOrder.setStatus(OrderStatus.PENDING);
+        when(orderRepository.findByOrderId(anyString())).thenReturn(Optional.of(newOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(newOrder);
+        when(orderMapper.toDTO(any(Order.class))).thenReturn(new OrderDTO());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            orderService.cancelOrder(newOrder.getOrderId(), 1L, "Test reason");
+            verify(orderTriggerBook, never()).remove(anyString());
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            verify(orderTriggerBook).remove(newOrder.getOrderId());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
@@ -144,7 +196,36 @@ class OrderServiceTest {
         orderService.handleFundsLocked(newOrder.getOrderId(), "lock-123");
 
         assertEquals(OrderStatus.PENDING, newOrder.getStatus());
+        assertEquals(List.of("FUNDS_LOCKED", "PENDING"),
+                newOrder.getStatusHistory().stream().map(StatusTransition::to).toList());
+        verify(orderRepository, times(1)).save(newOrder);
         verify(eventPublisher).publishOrderUpdated(newOrder);
+        verify(orderTriggerBook).track(newOrder);
+    }
+
+    @Test
+    void handlePriceTriggered_ShouldRecordTriggerOnce() {
+        newOrder.setStatus(OrderStatus.PENDING);
+        when(orderRepository.findByOrderId(anyString())).thenReturn(Optional.of(newOrder));
+        when(orderRepository.save(any(Order.class))).thenReturn(newOrder);
+
+        assertTrue(orderService.handlePriceTriggered(newOrder.getOrderId(), new BigDecimal("2499.50")));
+        assertNotNull(newOrder.getTriggeredAt());
+        verify(eventPublisher).publishOrderTriggered(newOrder, new BigDecimal("2499.50"));
+
+        // A second trigger for the same order is ignored
+        assertFalse(orderService.handlePriceTriggered(newOrder.getOrderId(), new BigDecimal("2499.00")));
+        verify(eventPublisher, times(1)).publishOrderTriggered(any(Order.class), any(BigDecimal.class));
+    }
+
+    @Test
+    void handlePriceTriggered_WhenCancelled_ShouldIgnore() {
+        newOrder.setStatus(OrderStatus.CANCELLED);
+        when(orderRepository.findByOrderId(anyString())).thenReturn(Optional.of(newOrder));
+
+        assertFalse(orderService.handlePriceTriggered(newOrder.getOrderId(), new BigDecimal("2499.50")));
+        verify(orderRepository, never()).save(any(Order.class));
+        verify(eventPublisher, never()).publishOrderTriggered(any(Order.class), any(BigDecimal.class));
     }
 
     @Test
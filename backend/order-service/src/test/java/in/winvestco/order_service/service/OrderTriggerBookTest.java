@@ -0,0 +1,157 @@
+package in.winvestco.order_service.service;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.enums.OrderType;
+import in.winvestco.order_service.service.OrderTriggerBook.RestingOrder;
+import in.winvestco.order_service.service.OrderTriggerBook.Trigger;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("OrderTriggerBook Tests")
+class OrderTriggerBookTest {
+
+    private OrderTriggerBook book;
+
+    @BeforeEach
+    void setUp() {
+        book = new OrderTriggerBook(new SimpleMeterRegistry());
+    }
+
+    private static RestingOrder order(String id, OrderSide side, OrderType type, String price, String stopPrice) {
+        return new RestingOrder(id, "RELIANCE", side, type,
+                price != null ? new BigDecimal(price) : null,
+                stopPrice != null ? new BigDecimal(stopPrice) : null);
+    }
+
+    private List<String> tick(String price) {
+        return book.onPrice("RELIANCE", new BigDecimal(price)).stream()
+                .map(trigger -> trigger.order().orderId())
+                .toList();
+    }
+
+    @Nested
+    @DisplayName("LIMIT orders")
+    class LimitOrders {
+
+        @Test
+        @DisplayName("BUY limit should fire when price falls to or below the limit")
+        void buyLimit_ShouldFireAtOrBelowLimit() {
+            book.track(order("b1", OrderSide.BUY, OrderType.LIMIT, "2500", null));
+            book.track(order("b2", OrderSide.BUY, OrderType.LIMIT, "2490", null));
+
+            assertTrue(tick("2500.05").isEmpty());
+            assertEquals(List.of("b1"), tick("2500"));
+            assertEquals(List.of("b2"), tick("2480"));
+            assertEquals(0, book.size());
+        }
+
+        @Test
+        @DisplayName("SELL limit should fire when price rises to or above the limit")
+        void sellLimit_ShouldFireAtOrAboveLimit() {
+            book.track(order("s1", OrderSide.SELL, OrderType.LIMIT, "2600", null));
+            book.track(order("s2", OrderSide.SELL, OrderType.LIMIT, "2650", null));
+
+            assertTrue(tick("2599.95").isEmpty());
+            assertEquals(List.of("s1", "s2"), tick("2700"));
+        }
+
+        @Test
+        @DisplayName("Should fire every order resting at a crossed level once")
+        void samePriceLevel_ShouldFireAllOnce() {
+            book.track(order("b1", OrderSide.BUY, OrderType.LIMIT, "2500", null));
+            book.track(order("b2", OrderSide.BUY, OrderType.LIMIT, "2500.0000", null));
+
+            List<Trigger> triggers = book.onPrice("RELIANCE", new BigDecimal("2499"));
+
+            assertEquals(2, triggers.size());
+            assertEquals(new BigDecimal("2499"), triggers.get(0).marketPrice());
+            assertTrue(tick("2400").isEmpty());
+        }
+    }
+
+    @Nested
+    @DisplayName("Stop orders")
+    class StopOrders {
+
+        @Test
+        @DisplayName("SELL stop-loss should fire when price falls to the stop")
+        void sellStopLoss_ShouldFireAtOrBelowStop() {
+            book.track(order("sl", OrderSide.SELL, OrderType.STOP_LOSS, null, "2400"));
+
+            assertTrue(tick("2450").isEmpty());
+            assertEquals(List.of("sl"), tick("2400"));
+        }
+
+        @Test
+        @DisplayName("BUY stop-loss should fire when price rises to the stop")
+        void buyStopLoss_ShouldFireAtOrAboveStop() {
+            book.track(order("bs", OrderSide.BUY, OrderType.STOP_LOSS, null, "2600"));
+
+            assertTrue(tick("2550").isEmpty());
+            assertEquals(List.of("bs"), tick("2610"));
+        }
+
+        @Test
+        @DisplayName("STOP_LIMIT should rest at its limit after the stop is hit")
+        void stopLimit_ShouldMoveToLimitSideWhenStopHit() {
+            // Sell if price drops to 2400, but not below 2390
+            book.track(order("slm", OrderSide.SELL, OrderType.STOP_LIMIT, "2390", "2400"));
+
+            assertTrue(tick("2380").isEmpty(), "stop hit, but price is below the limit");
+            assertTrue(book.contains("slm"));
+            assertEquals(List.of("slm"), tick("2395"));
+        }
+
+        @Test
+        @DisplayName("STOP_LIMIT should fire on the stop tick when the limit is also crossed")
+        void stopLimit_ShouldFireOnSameTick() {
+            book.track(order("blm", OrderSide.BUY, OrderType.STOP_LIMIT, "2610", "2600"));
+
+            assertEquals(List.of("blm"), tick("2605"));
+        }
+    }
+
+    @Nested
+    @DisplayName("Book maintenance")
+    class Maintenance {
+
+        @Test
+        @DisplayName("Should ignore MARKET orders, missing prices and duplicates")
+        void track_ShouldRejectUntriggerableOrders() {
+            assertFalse(book.track(order("m", OrderSide.BUY, OrderType.MARKET, "2500", null)));
+            assertFalse(book.track(order("x", OrderSide.SELL, OrderType.STOP_LOSS, "2500", null)));
+            assertTrue(book.track(order("b", OrderSide.BUY, OrderType.LIMIT, "2500", null)));
+            assertFalse(book.track(order("b", OrderSide.BUY, OrderType.LIMIT, "2500", null)));
+            assertEquals(1, book.size());
+        }
+
+        @Test
+        @DisplayName("Removed orders should never fire")
+        void remove_ShouldDropOrder() {
+            book.track(order("b1", OrderSide.BUY, OrderType.LIMIT, "2500", null));
+            book.track(order("slm", OrderSide.SELL, OrderType.STOP_LIMIT, "2390", "2400"));
+            tick("2380"); // moves slm to its limit side
+
+            assertTrue(book.remove("b1"));
+            assertTrue(book.remove("slm"));
+            assertFalse(book.remove("b1"));
+
+            assertTrue(tick("2000").isEmpty());
+            assertTrue(tick("3000").isEmpty());
+        }
+
+        @Test
+        @DisplayName("Ticks for symbols without resting orders should fire nothing")
+        void onPrice_UnknownSymbol_ShouldReturnEmpty() {
+            assertTrue(book.onPrice("TCS", new BigDecimal("3500")).isEmpty());
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package in.winvestco.portfolio_service.dto;
 
+import com.fasterxml.jackson.annotation.JsonProperty;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -23,6 +24,7 @@ public class StockQuoteDTO {
     private BigDecimal low;
     private BigDecimal close;
     private BigDecimal change;
+    @JsonProperty("pChange")
     private BigDecimal pChange;
     private BigDecimal volume;
     private Instant lastUpdateTime;
@@ -3,7 +3,6 @@ package in.winvestco.report_service;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.cloud.client.discovery.EnableDiscoveryClient;
-import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.boot.autoconfigure.domain.EntityScan;
 import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
@@ -11,7 +10,7 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
 /**
  * Report Service Application
  * 
- * Provides async report generation for:
+ * Provides queued report generation for:
  * - P&L Statements (realized + unrealized)
  * - Tax Reports (STCG/LTCG for Indian compliance)
  * - Transaction History
@@ -26,7 +25,6 @@ import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
                 "in.winvestco.common"
 })
 @EnableDiscoveryClient
-@EnableAsync
 @EnableScheduling
 @EnableJpaRepositories(basePackages = {
                 "in.winvestco.report_service.repository",
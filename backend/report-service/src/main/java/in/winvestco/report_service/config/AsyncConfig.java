@@ -1,27 +0,0 @@
-package in.winvestco.report_service.config;
-
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.util.concurrent.Executor;
-
-/**
- * Async configuration for report generation
- */
-@Configuration
-@EnableAsync
-public class AsyncConfig {
-
-    @Bean(name = "reportExecutor")
-    public Executor reportExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(2);
-        executor.setMaxPoolSize(5);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("report-gen-");
-        executor.initialize();
-        return executor;
-    }
-}
@@ -0,0 +1,55 @@
+package in.winvestco.report_service.config;
+
+import org.springframework.amqp.core.AcknowledgeMode;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.support.converter.MessageConverter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Report-service specific RabbitMQ configuration.
+ * Queues and exchanges are defined in the common module.
+ */
+@Configuration("reportServiceRabbitMQConfig")
+public class RabbitMQConfig {
+
+    public static final String PROJECTION_BATCH_CONTAINER_FACTORY = "projectionBatchListenerContainerFactory";
+
+    @Value("${report.projections.batch-size:200}")
+    private int projectionBatchSize;
+
+    @Value("${report.projections.batch-receive-timeout-ms:50}")
+    private long projectionBatchReceiveTimeoutMs;
+
+    @Value("${report.projections.concurrency:1}")
+    private int projectionConcurrency;
+
+    /**
+     * Batch container for projection events: up to batch-size messages, or
+     * whatever arrived within batch-receive-timeout-ms, are handed to the
+     * listener as one list and acked together once it returns. Holding
+     * updates depend on trade order, so each queue has a single consumer by
+     * default. Failed batches are requeued; the listener dead-letters
+     * individual bad events itself.
+     */
+    @Bean(PROJECTION_BATCH_CONTAINER_FACTORY)
+    public SimpleRabbitListenerContainerFactory projectionBatchListenerContainerFactory(
+            ConnectionFactory connectionFactory, MessageConverter messageConverter) {
+
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        factory.setConnectionFactory(connectionFactory);
+        factory.setMessageConverter(messageConverter);
+        factory.setAcknowledgeMode(AcknowledgeMode.AUTO);
+        factory.setConcurrentConsumers(projectionConcurrency);
+        factory.setMaxConcurrentConsumers(projectionConcurrency);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(Math.max(1, projectionBatchSize));
+        factory.setPrefetchCount(Math.max(1, projectionBatchSize));
+        factory.setReceiveTimeout(projectionBatchReceiveTimeoutMs);
+        factory.setDefaultRequeueRejected(true);
+        return factory;
+    }
+}
@@ -0,0 +1,55 @@
+package in.winvestco.report_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Settings for the report job queue (report.jobs.*).
+ */
+@Component
+@ConfigurationProperties(prefix = "report.jobs")
+@Getter
+@Setter
+public class ReportJobProperties {
+
+    /**
+     * Reports generated concurrently by this instance.
+     */
+    private int workers = 5;
+
+    /**
+     * Reports of one user generating at once, across all instances.
+     */
+    private int maxPerUser = 2;
+
+    /**
+     * Pending jobs considered per scheduling pass: each waiting user's
+     * oldest max-per-user jobs, users' oldest jobs first.
+     */
+    private int candidateWindow = 200;
+
+    /**
+     * How long a claimed job stays ours without a renewal; jobs whose lease
+     * lapsed are taken to have died with their instance and are requeued.
+     */
+    private long leaseSeconds = 120;
+
+    /**
+     * Claims a job may use before it is failed instead of requeued, so a
+     * report that kills its instance cannot do so forever.
+     */
+    private int maxAttempts = 3;
+
+    /**
+     * Fixed cost added to the estimated row count of every job.
+     */
+    private long baseCost = 1000;
+
+    /**
+     * Identifies this instance on the jobs it claims. Jobs still claimed
+     * under this id at startup were interrupted by a restart.
+     */
+    private String workerId = "report-service";
+}
@@ -65,9 +65,11 @@ public class ReportController {
     @Operation(summary = "Download a completed report")
     public ResponseEntity<Resource> downloadReport(@PathVariable String reportId) {
         Resource resource = reportService.downloadReport(reportId);
-        
-        String contentType = determineContentType(reportId);
-        String filename = resource.getFilename() != null ? resource.getFilename() : "report";
+        ReportDTO report = reportService.getReport(reportId);
+
+        // Stored files are named by content hash; name the download after the report
+        String contentType = determineContentType(report);
+        String filename = downloadFileName(report);
         
         return ResponseEntity.ok()
                 .contentType(MediaType.parseMediaType(contentType))
@@ -86,12 +88,25 @@ public class ReportController {
         return ResponseEntity.noContent().build();
     }
 
-    private String determineContentType(String reportId) {
-        ReportDTO report = reportService.getReport(reportId);
+    private String determineContentType(ReportDTO report) {
         return switch (report.getFormat()) {
             case PDF -> "application/pdf";
             case EXCEL -> "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet";
             case CSV -> "text/csv";
         };
     }
+
+    private String downloadFileName(ReportDTO report) {
+        String extension = switch (report.getFormat()) {
+            case PDF -> ".pdf";
+            case EXCEL -> ".xlsx";
+            case CSV -> ".csv";
+        };
+        String typeName = report.getReportType().name().toLowerCase().replace("_", "-");
+        return String.format("%s_%s_%s%s",
+                typeName,
+                report.getUserId(),
+                report.getReportId().substring(0, 8),
+                extension);
+    }
 }
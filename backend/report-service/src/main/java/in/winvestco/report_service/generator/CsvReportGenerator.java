@@ -9,15 +9,18 @@ import in.winvestco.report_service.model.projection.TradeProjection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.nio.charset.StandardCharsets;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
- * CSV Report Generator using OpenCSV
+ * CSV Report Generator using OpenCSV.
+ *
+ * Rows are written through a buffered writer straight to the target stream
+ * as they are read, so a report passed as a Stream is never held in memory.
  */
 @Component
 @Slf4j
@@ -26,30 +29,38 @@ public class CsvReportGenerator {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
 
-    @SuppressWarnings("unchecked")
-    public byte[] generate(Object data, String title) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-                OutputStreamWriter osw = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
-                CSVWriter writer = new CSVWriter(osw)) {
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * Write the report as CSV to out. Row reports may pass their rows as a
+     * List or a Stream. The caller owns and closes out.
+     */
+    public void generate(Object data, String title, OutputStream out) {
+        try {
+            // Not closed here: closing the writer would close the caller's stream
+            CSVWriter writer = new CSVWriter(new BufferedWriter(
+                    new OutputStreamWriter(out, StandardCharsets.UTF_8), BUFFER_SIZE));
 
             // Generate based on data type
             if (data instanceof PnLReportData) {
                 generatePnLReport(writer, (PnLReportData) data);
             } else if (data instanceof TaxReportData) {
                 generateTaxReport(writer, (TaxReportData) data);
-            } else if (data instanceof List<?> list && !list.isEmpty()) {
-                Object first = list.get(0);
-                if (first instanceof TradeProjection) {
-                    generateTradeHistory(writer, (List<TradeProjection>) data);
-                } else if (first instanceof HoldingProjection) {
-                    generateHoldingsSummary(writer, (List<HoldingProjection>) data);
-                } else if (first instanceof LedgerProjection) {
-                    generateTransactionHistory(writer, (List<LedgerProjection>) data);
+            } else {
+                ReportRows rows = ReportRows.of(data);
+                if (rows != null) {
+                    Object first = rows.first();
+                    if (first instanceof TradeProjection) {
+                        generateTradeHistory(writer, rows.as(TradeProjection.class));
+                    } else if (first instanceof HoldingProjection) {
+                        generateHoldingsSummary(writer, rows.as(HoldingProjection.class));
+                    } else if (first instanceof LedgerProjection) {
+                        generateTransactionHistory(writer, rows.as(LedgerProjection.class));
+                    }
                 }
             }
 
             writer.flush();
-            return baos.toByteArray();
 
         } catch (Exception e) {
             log.error("Failed to generate CSV report", e);
@@ -94,7 +105,7 @@ public class CsvReportGenerator {
         writer.writeNext(new String[] { "Total Capital Gains", data.getTotalCapitalGains().toString() });
     }
 
-    private void generateTradeHistory(CSVWriter writer, List<TradeProjection> trades) {
+    private void generateTradeHistory(CSVWriter writer, Iterable<TradeProjection> trades) {
         writer.writeNext(new String[] { "Symbol", "Side", "Quantity", "Price", "Value", "Date" });
         for (TradeProjection trade : trades) {
             writer.writeNext(new String[] {
@@ -108,7 +119,7 @@ public class CsvReportGenerator {
         }
     }
 
-    private void generateHoldingsSummary(CSVWriter writer, List<HoldingProjection> holdings) {
+    private void generateHoldingsSummary(CSVWriter writer, Iterable<HoldingProjection> holdings) {
         writer.writeNext(new String[] { "Symbol", "Quantity", "Avg Price", "Total Invested" });
         for (HoldingProjection h : holdings) {
             writer.writeNext(new String[] {
@@ -120,7 +131,7 @@ public class CsvReportGenerator {
         }
     }
 
-    private void generateTransactionHistory(CSVWriter writer, List<LedgerProjection> ledger) {
+    private void generateTransactionHistory(CSVWriter writer, Iterable<LedgerProjection> ledger) {
         writer.writeNext(new String[] { "Date", "Type", "Amount", "Balance Before", "Balance After", "Description" });
         for (LedgerProjection l : ledger) {
             writer.writeNext(new String[] {
@@ -7,29 +7,40 @@ import in.winvestco.report_service.model.projection.LedgerProjection;
 import in.winvestco.report_service.model.projection.TradeProjection;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.poi.ss.usermodel.*;
-import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.apache.poi.xssf.streaming.SXSSFSheet;
+import org.apache.poi.xssf.streaming.SXSSFWorkbook;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
- * Excel Report Generator using Apache POI
+ * Excel Report Generator using Apache POI.
+ *
+ * Uses a streaming SXSSF workbook: only the last ROW_WINDOW rows of a sheet
+ * are kept in memory, older rows are flushed to a compressed temp file as
+ * they fall out of the window. Column widths are tracked as rows are
+ * flushed, so auto-sizing still covers every row. Together with row data
+ * passed as a Stream, heap use stays flat whatever the row count.
  */
 @Component
 @Slf4j
 public class ExcelReportGenerator {
 
+    static final int ROW_WINDOW = 100;
+
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
 
-    @SuppressWarnings("unchecked")
-    public byte[] generate(Object data, String title) {
-        try (Workbook workbook = new XSSFWorkbook();
-                ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-
+    /**
+     * Write the report as an .xlsx workbook to out. Row reports may pass
+     * their rows as a List or a Stream. The caller owns and closes out.
+     */
+    public void generate(Object data, String title, OutputStream out) {
+        SXSSFWorkbook workbook = new SXSSFWorkbook(ROW_WINDOW);
+        workbook.setCompressTempFiles(true);
+        try {
             // Create header style
             CellStyle headerStyle = workbook.createCellStyle();
             Font headerFont = workbook.createFont();
@@ -43,29 +54,34 @@ public class ExcelReportGenerator {
                 generatePnLReport(workbook, (PnLReportData) data, headerStyle);
             } else if (data instanceof TaxReportData) {
                 generateTaxReport(workbook, (TaxReportData) data, headerStyle);
-            } else if (data instanceof List<?> list && !list.isEmpty()) {
-                Object first = list.get(0);
-                if (first instanceof TradeProjection) {
-                    generateTradeHistory(workbook, (List<TradeProjection>) data, headerStyle);
-                } else if (first instanceof HoldingProjection) {
-                    generateHoldingsSummary(workbook, (List<HoldingProjection>) data, headerStyle);
-                } else if (first instanceof LedgerProjection) {
-                    generateTransactionHistory(workbook, (List<LedgerProjection>) data, headerStyle);
+            } else {
+                ReportRows rows = ReportRows.of(data);
+                if (rows != null) {
+                    Object first = rows.first();
+                    if (first instanceof TradeProjection) {
+                        generateTradeHistory(workbook, rows.as(TradeProjection.class), headerStyle);
+                    } else if (first instanceof HoldingProjection) {
+                        generateHoldingsSummary(workbook, rows.as(HoldingProjection.class), headerStyle);
+                    } else if (first instanceof LedgerProjection) {
+                        generateTransactionHistory(workbook, rows.as(LedgerProjection.class), headerStyle);
+                    }
                 }
             }
 
-            workbook.write(baos);
-            return baos.toByteArray();
+            workbook.write(out);
 
         } catch (Exception e) {
             log.error("Failed to generate Excel report", e);
             throw new RuntimeException("Excel generation failed", e);
+        } finally {
+            // Remove the temp files backing flushed rows
+            workbook.dispose();
         }
     }
 
     private void generatePnLReport(Workbook workbook, PnLReportData data, CellStyle headerStyle) {
         // Summary sheet
-        Sheet summarySheet = workbook.createSheet("Summary");
+        Sheet summarySheet = createSheet(workbook, "Summary");
         int row = 0;
 
         addRow(summarySheet, row++, "P&L Report");
@@ -78,7 +94,7 @@ public class ExcelReportGenerator {
 
         // Holdings sheet
         if (data.getHoldings() != null && !data.getHoldings().isEmpty()) {
-            Sheet holdingsSheet = workbook.createSheet("Holdings");
+            Sheet holdingsSheet = createSheet(workbook, "Holdings");
             String[] headers = { "Symbol", "Quantity", "Avg Price", "Current Price", "P&L", "P&L %" };
             createHeaderRow(holdingsSheet, headers, headerStyle);
 
@@ -97,7 +113,7 @@ public class ExcelReportGenerator {
     }
 
     private void generateTaxReport(Workbook workbook, TaxReportData data, CellStyle headerStyle) {
-        Sheet sheet = workbook.createSheet("Tax Report");
+        Sheet sheet = createSheet(workbook, "Tax Report");
         int row = 0;
 
         addRow(sheet, row++, "Capital Gains Tax Report");
@@ -109,8 +125,8 @@ public class ExcelReportGenerator {
         addRow(sheet, row++, "Total Capital Gains", "₹" + data.getTotalCapitalGains());
     }
 
-    private void generateTradeHistory(Workbook workbook, List<TradeProjection> trades, CellStyle headerStyle) {
-        Sheet sheet = workbook.createSheet("Trade History");
+    private void generateTradeHistory(Workbook workbook, Iterable<TradeProjection> trades, CellStyle headerStyle) {
+        Sheet sheet = createSheet(workbook, "Trade History");
         String[] headers = { "Symbol", "Side", "Quantity", "Price", "Value", "Date" };
         createHeaderRow(sheet, headers, headerStyle);
 
@@ -127,8 +143,8 @@ public class ExcelReportGenerator {
         autoSizeColumns(sheet, 6);
     }
 
-    private void generateHoldingsSummary(Workbook workbook, List<HoldingProjection> holdings, CellStyle headerStyle) {
-        Sheet sheet = workbook.createSheet("Holdings");
+    private void generateHoldingsSummary(Workbook workbook, Iterable<HoldingProjection> holdings, CellStyle headerStyle) {
+        Sheet sheet = createSheet(workbook, "Holdings");
         String[] headers = { "Symbol", "Quantity", "Avg Price", "Total Invested" };
         createHeaderRow(sheet, headers, headerStyle);
 
@@ -143,8 +159,8 @@ public class ExcelReportGenerator {
         autoSizeColumns(sheet, 4);
     }
 
-    private void generateTransactionHistory(Workbook workbook, List<LedgerProjection> ledger, CellStyle headerStyle) {
-        Sheet sheet = workbook.createSheet("Transactions");
+    private void generateTransactionHistory(Workbook workbook, Iterable<LedgerProjection> ledger, CellStyle headerStyle) {
+        Sheet sheet = createSheet(workbook, "Transactions");
         String[] headers = { "Date", "Type", "Amount", "Balance Before", "Balance After", "Description" };
         createHeaderRow(sheet, headers, headerStyle);
 
@@ -161,6 +177,12 @@ public class ExcelReportGenerator {
         autoSizeColumns(sheet, 6);
     }
 
+    private Sheet createSheet(Workbook workbook, String name) {
+        SXSSFSheet sheet = (SXSSFSheet) workbook.createSheet(name);
+        sheet.trackAllColumnsForAutoSizing();
+        return sheet;
+    }
+
     private void createHeaderRow(Sheet sheet, String[] headers, CellStyle style) {
         Row headerRow = sheet.createRow(0);
         for (int i = 0; i < headers.length; i++) {
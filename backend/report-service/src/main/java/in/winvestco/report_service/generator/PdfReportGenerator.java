@@ -16,13 +16,16 @@ import in.winvestco.report_service.model.projection.TradeProjection;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Component;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
-import java.util.List;
 
 /**
- * PDF Report Generator using iText
+ * PDF Report Generator using iText.
+ *
+ * Pages are written to the target stream as they fill up. Row tables are
+ * built as iText large tables and flushed every FLUSH_ROWS rows, so only
+ * the rows of the current page are held in memory however long the report.
  */
 @Component
 @Slf4j
@@ -31,10 +34,16 @@ public class PdfReportGenerator {
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm")
             .withZone(ZoneId.systemDefault());
 
-    @SuppressWarnings("unchecked")
-    public byte[] generate(Object data, String title) {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            PdfWriter writer = new PdfWriter(baos);
+    static final int FLUSH_ROWS = 500;
+
+    /**
+     * Write the report as PDF to out. Row reports may pass their rows as a
+     * List or a Stream. The caller owns out; it is flushed but left open.
+     */
+    public void generate(Object data, String title, OutputStream out) {
+        try {
+            PdfWriter writer = new PdfWriter(out);
+            writer.setCloseStream(false);
             PdfDocument pdf = new PdfDocument(writer);
             Document document = new Document(pdf);
 
@@ -50,19 +59,21 @@ public class PdfReportGenerator {
                 generatePnLReport(document, (PnLReportData) data);
             } else if (data instanceof TaxReportData) {
                 generateTaxReport(document, (TaxReportData) data);
-            } else if (data instanceof List<?> list && !list.isEmpty()) {
-                Object first = list.get(0);
-                if (first instanceof TradeProjection) {
-                    generateTradeHistory(document, (List<TradeProjection>) data);
-                } else if (first instanceof HoldingProjection) {
-                    generateHoldingsSummary(document, (List<HoldingProjection>) data);
-                } else if (first instanceof LedgerProjection) {
-                    generateTransactionHistory(document, (List<LedgerProjection>) data);
+            } else {
+                ReportRows rows = ReportRows.of(data);
+                if (rows != null) {
+                    Object first = rows.first();
+                    if (first instanceof TradeProjection) {
+                        generateTradeHistory(document, rows.as(TradeProjection.class));
+                    } else if (first instanceof HoldingProjection) {
+                        generateHoldingsSummary(document, rows.as(HoldingProjection.class));
+                    } else if (first instanceof LedgerProjection) {
+                        generateTransactionHistory(document, rows.as(LedgerProjection.class));
+                    }
                 }
             }
 
             document.close();
-            return baos.toByteArray();
 
         } catch (Exception e) {
             log.error("Failed to generate PDF report", e);
@@ -118,25 +129,30 @@ public class PdfReportGenerator {
         doc.add(new Paragraph("Total Capital Gains: ₹" + data.getTotalCapitalGains()).setBold());
     }
 
-    private void generateTradeHistory(Document doc, List<TradeProjection> trades) {
-        Table table = new Table(UnitValue.createPercentArray(5)).useAllAvailableWidth();
+    private void generateTradeHistory(Document doc, Iterable<TradeProjection> trades) {
+        Table table = new Table(UnitValue.createPercentArray(5), true).useAllAvailableWidth();
         table.addHeaderCell(new Cell().add(new Paragraph("Symbol").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Side").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Qty").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Price").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Date").setBold()));
+        doc.add(table);
 
+        int rows = 0;
         for (TradeProjection trade : trades) {
             table.addCell(trade.getSymbol());
             table.addCell(trade.getSide());
             table.addCell(trade.getQuantity().toString());
             table.addCell("₹" + trade.getPrice());
             table.addCell(DATE_FORMATTER.format(trade.getExecutedAt()));
+            if (++rows % FLUSH_ROWS == 0) {
+                table.flush();
+            }
         }
-        doc.add(table);
+        table.complete();
     }
 
-    private void generateHoldingsSummary(Document doc, List<HoldingProjection> holdings) {
+    private void generateHoldingsSummary(Document doc, Iterable<HoldingProjection> holdings) {
         Table table = new Table(UnitValue.createPercentArray(4)).useAllAvailableWidth();
         table.addHeaderCell(new Cell().add(new Paragraph("Symbol").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Quantity").setBold()));
@@ -152,21 +168,26 @@ public class PdfReportGenerator {
         doc.add(table);
     }
 
-    private void generateTransactionHistory(Document doc, List<LedgerProjection> ledger) {
-        Table table = new Table(UnitValue.createPercentArray(5)).useAllAvailableWidth();
+    private void generateTransactionHistory(Document doc, Iterable<LedgerProjection> ledger) {
+        Table table = new Table(UnitValue.createPercentArray(5), true).useAllAvailableWidth();
         table.addHeaderCell(new Cell().add(new Paragraph("Date").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Type").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Amount").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Balance").setBold()));
         table.addHeaderCell(new Cell().add(new Paragraph("Description").setBold()));
+        doc.add(table);
 
+        int rows = 0;
         for (LedgerProjection l : ledger) {
             table.addCell(DATE_FORMATTER.format(l.getCreatedAt()));
             table.addCell(l.getEntryType());
             table.addCell("₹" + l.getAmount());
             table.addCell("₹" + l.getBalanceAfter());
             table.addCell(l.getDescription() != null ? l.getDescription() : "");
+            if (++rows % FLUSH_ROWS == 0) {
+                table.flush();
+            }
         }
-        doc.add(table);
+        table.complete();
     }
 }
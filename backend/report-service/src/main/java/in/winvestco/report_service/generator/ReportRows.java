@@ -0,0 +1,63 @@
+package in.winvestco.report_service.generator;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/**
+ * Row data handed to a generator, either a List or a cursor-backed Stream.
+ * Only the first row is read ahead, so a generator can pick the layout by
+ * row type without materializing the rest. Single pass.
+ */
+final class ReportRows {
+
+    private final Object head;
+    private final Iterator<?> rest;
+
+    private ReportRows(Object head, Iterator<?> rest) {
+        this.head = head;
+        this.rest = rest;
+    }
+
+    /**
+     * @return the rows, or null when data is not a row collection or is empty
+     */
+    static ReportRows of(Object data) {
+        Iterator<?> iterator;
+        if (data instanceof Stream<?> stream) {
+            iterator = stream.iterator();
+        } else if (data instanceof Iterable<?> iterable) {
+            iterator = iterable.iterator();
+        } else {
+            return null;
+        }
+        return iterator.hasNext() ? new ReportRows(iterator.next(), iterator) : null;
+    }
+
+    Object first() {
+        return head;
+    }
+
+    <T> Iterable<T> as(Class<T> type) {
+        return () -> new Iterator<>() {
+            private boolean headPending = true;
+
+            @Override
+            public boolean hasNext() {
+                return headPending || rest.hasNext();
+            }
+
+            @Override
+            public T next() {
+                if (headPending) {
+                    headPending = false;
+                    return type.cast(head);
+                }
+                if (!rest.hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                return type.cast(rest.next());
+            }
+        };
+    }
+}
@@ -1,205 +1,277 @@
 package in.winvestco.report_service.messaging;
 
+import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.event.*;
-import in.winvestco.common.messaging.idempotency.ProcessedEvent;
-import in.winvestco.common.messaging.idempotency.ProcessedEventRepository;
+import in.winvestco.common.messaging.BatchFallback;
+import in.winvestco.common.messaging.idempotency.IdempotencyService;
+import in.winvestco.report_service.config.RabbitMQConfig;
 import in.winvestco.report_service.model.projection.*;
-import in.winvestco.report_service.repository.*;
-import lombok.RequiredArgsConstructor;
+import in.winvestco.report_service.repository.ProjectionBatchWriter;
+import in.winvestco.report_service.repository.ProjectionBatchWriter.HoldingKey;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 /**
  * Event listener for building local projections from domain events.
  * Implements Event Sourcing pattern - subscribes to events and updates local
  * tables.
+ *
+ * Events arrive in batches. A batch is applied in one transaction: projection
+ * rows are inserted with one JDBC batch, every event of a holding or wallet
+ * is folded into a single upsert, and watermarks are bumped once per user.
+ * The batch is acked when that transaction commits. If it fails, its events
+ * are applied one by one and only the bad ones are dead-lettered. Database
+ * outages are rethrown so the whole batch is requeued.
  */
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ProjectionEventListener {
 
-    private final TradeProjectionRepository tradeProjectionRepository;
-    private final HoldingProjectionRepository holdingProjectionRepository;
-    private final LedgerProjectionRepository ledgerProjectionRepository;
-    private final WalletProjectionRepository walletProjectionRepository;
-    private final ProcessedEventRepository processedEventRepository;
+    static final String LAG = "reports.projection.lag";
+    static final String BATCH_SIZE = "reports.projection.batch.size";
+
+    private final ProjectionBatchWriter projectionBatchWriter;
+    private final IdempotencyService idempotencyService;
+    private final TransactionTemplate transactionTemplate;
+    private final RabbitTemplate rabbitTemplate;
+    private final Timer tradeLag;
+    private final Timer ledgerLag;
+    private final DistributionSummary tradeBatchSize;
+    private final DistributionSummary ledgerBatchSize;
+
+    public ProjectionEventListener(ProjectionBatchWriter projectionBatchWriter,
+            IdempotencyService idempotencyService, PlatformTransactionManager transactionManager,
+            RabbitTemplate rabbitTemplate, MeterRegistry meterRegistry) {
+        this.projectionBatchWriter = projectionBatchWriter;
+        this.idempotencyService = idempotencyService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.rabbitTemplate = rabbitTemplate;
+        this.tradeLag = lagTimer("trades", meterRegistry);
+        this.ledgerLag = lagTimer("ledger", meterRegistry);
+        this.tradeBatchSize = batchSizeSummary("trades", meterRegistry);
+        this.ledgerBatchSize = batchSizeSummary("ledger", meterRegistry);
+    }
 
     /**
-     * Handle TradeExecutedEvent - update trade and holding projections
+     * Handle a batch of TradeExecutedEvents - update trade and holding
+     * projections
      */
-    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).TRADE_EXECUTED_REPORT_QUEUE}", containerFactory = "rabbitListenerContainerFactory")
-    @Transactional
-    public void handleTradeExecuted(TradeExecutedEvent event) {
-        String eventId = "trade-executed-" + event.getTradeId();
-        if (isEventProcessed(eventId)) {
-            log.debug("Trade executed event already processed: {}", event.getTradeId());
-            return;
-        }
+    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).TRADE_EXECUTED_REPORT_QUEUE}", containerFactory = RabbitMQConfig.PROJECTION_BATCH_CONTAINER_FACTORY)
+    public void handleTradeExecuted(List<TradeExecutedEvent> events) {
+        tradeBatchSize.record(events.size());
+        consume(events, event -> "trade-executed-" + event.getTradeId(), "TradeExecutedEvent",
+                this::applyTrades, tradeLag);
+    }
 
-        log.info("Processing TradeExecutedEvent: tradeId={}, symbol={}, side={}",
-                event.getTradeId(), event.getSymbol(), event.getSide());
+    /**
+     * Handle a batch of FundsDepositedEvents - update ledger and wallet
+     * projections
+     */
+    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).FUNDS_DEPOSITED_REPORT_QUEUE}", containerFactory = RabbitMQConfig.PROJECTION_BATCH_CONTAINER_FACTORY)
+    public void handleFundsDeposited(List<FundsDepositedEvent> events) {
+        ledgerBatchSize.record(events.size());
+        consume(events, event -> "funds-deposited-" + event.getReferenceId(), "FundsDepositedEvent",
+                batch -> applyLedgerEntries(batch.stream().map(this::toLedgerEntry).toList()), ledgerLag);
+    }
 
-        try {
-            // Create trade projection
-            TradeProjection trade = TradeProjection.builder()
-                    .tradeId(event.getTradeId())
-                    .orderId(event.getOrderId())
-                    .userId(event.getUserId())
-                    .symbol(event.getSymbol())
-                    .side(event.getSide().name())
-                    .quantity(event.getExecutedQuantity())
-                    .price(event.getExecutedPrice())
-                    .executedAt(event.getExecutedAt())
-                    .status("EXECUTED")
-                    .build();
-            tradeProjectionRepository.save(trade);
-
-            // Update holding projection
-            updateHoldingFromTrade(event);
-
-            markEventProcessed(eventId, "TradeExecutedEvent");
-            log.info("Trade projection created for: {}", event.getTradeId());
-
-        } catch (Exception e) {
-            log.error("Failed to process TradeExecutedEvent: {}", e.getMessage(), e);
-            throw e; // Re-throw to trigger retry
-        }
+    /**
+     * Handle a batch of FundsWithdrawnEvents - update ledger and wallet
+     * projections
+     */
+    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).FUNDS_WITHDRAWN_REPORT_QUEUE}", containerFactory = RabbitMQConfig.PROJECTION_BATCH_CONTAINER_FACTORY)
+    public void handleFundsWithdrawn(List<FundsWithdrawnEvent> events) {
+        ledgerBatchSize.record(events.size());
+        consume(events, event -> "funds-withdrawn-" + event.getReferenceId(), "FundsWithdrawnEvent",
+                batch -> applyLedgerEntries(batch.stream().map(this::toLedgerEntry).toList()), ledgerLag);
     }
 
+    // ==================== Helper Methods ====================
+
     /**
-     * Handle FundsDepositedEvent - update ledger and wallet projections
+     * Apply the events not yet processed in one transaction and mark them
+     * processed. On failure, falls back to one event per transaction via
+     * {@link BatchFallback}.
      */
-    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).FUNDS_DEPOSITED_REPORT_QUEUE}", containerFactory = "rabbitListenerContainerFactory")
-    @Transactional
-    public void handleFundsDeposited(FundsDepositedEvent event) {
-        String eventId = "funds-deposited-" + event.getReferenceId();
-        if (eventId == null || isEventProcessed(eventId)) {
+    private <E extends BaseEvent> void consume(List<E> events, Function<E, String> eventId, String eventType,
+            Consumer<List<E>> apply, Timer lag) {
+        Set<String> processed = idempotencyService.findProcessed(events.stream().map(eventId).toList());
+        Set<String> seen = new HashSet<>();
+        List<E> fresh = new ArrayList<>();
+        for (E event : events) {
+            String id = eventId.apply(event);
+            if (processed.contains(id) || !seen.add(id)) {
+                log.debug("{} already processed: {}", eventType, id);
+                continue;
+            }
+            fresh.add(event);
+        }
+        if (fresh.isEmpty()) {
             return;
         }
 
-        log.info("Processing FundsDepositedEvent: userId={}, amount={}",
-                event.getUserId(), event.getAmount());
-
         try {
-            // Create ledger projection
-            LedgerProjection ledger = LedgerProjection.builder()
-                    .walletId(event.getWalletId())
-                    .userId(event.getUserId())
-                    .entryType("DEPOSIT")
-                    .amount(event.getAmount())
-                    .balanceBefore(event.getBalanceBefore())
-                    .balanceAfter(event.getNewBalance())
-                    .referenceId(event.getReferenceId())
-                    .referenceType("DEPOSIT")
-                    .description("Funds deposit")
-                    .createdAt(event.getDepositedAt())
-                    .build();
-            ledgerProjectionRepository.save(ledger);
-
-            // Update wallet projection
-            updateWalletProjection(event.getUserId(), event.getWalletId(),
-                    event.getNewBalance(), BigDecimal.ZERO);
-
-            markEventProcessed(eventId, "FundsDepositedEvent");
-
-        } catch (Exception e) {
-            log.error("Failed to process FundsDepositedEvent: {}", e.getMessage(), e);
-            throw e;
+            applyAndMark(fresh, eventId, eventType, apply);
+        } catch (RuntimeException e) {
+            if (BatchFallback.isUnavailable(e)) {
+                throw e;
+            }
+            Function<E, String> describe = event -> eventType + ": " + eventId.apply(event);
+            if (fresh.size() == 1) {
+                BatchFallback.handleFailure(fresh.get(0), e, BatchFallback::isUnavailable, describe, rabbitTemplate);
+                return;
+            }
+            log.warn("Batch of {} {}s rejected ({}), applying them one by one", fresh.size(), eventType,
+                    e.getMessage());
+            BatchFallback.applyIndividually(fresh, event -> {
+                applyAndMark(List.of(event), eventId, eventType, apply);
+                recordLag(List.of(event), lag);
+            }, describe, rabbitTemplate);
+            return;
         }
+
+        recordLag(fresh, lag);
+        log.debug("Projected {} {}s", fresh.size(), eventType);
     }
 
-    /**
-     * Handle FundsWithdrawnEvent - update ledger projection
-     */
-    @RabbitListener(queues = "#{T(in.winvestco.common.config.RabbitMQConfig).FUNDS_WITHDRAWN_REPORT_QUEUE}", containerFactory = "rabbitListenerContainerFactory")
-    @Transactional
-    public void handleFundsWithdrawn(FundsWithdrawnEvent event) {
-        String eventId = "funds-withdrawn-" + event.getReferenceId();
-        if (eventId == null || isEventProcessed(eventId)) {
-            return;
-        }
+    private <E extends BaseEvent> void applyAndMark(List<E> events, Function<E, String> eventId, String eventType,
+            Consumer<List<E>> apply) {
+        transactionTemplate.executeWithoutResult(status -> {
+            apply.accept(events);
+            idempotencyService.markAllAsProcessed(events.stream().map(eventId).toList(), eventType);
+        });
+    }
 
-        log.info("Processing FundsWithdrawnEvent: userId={}, amount={}",
-                event.getUserId(), event.getAmount());
+    private void applyTrades(List<TradeExecutedEvent> events) {
+        projectionBatchWriter.insertTrades(events.stream().map(this::toTradeProjection).toList());
 
-        try {
-            LedgerProjection ledger = LedgerProjection.builder()
-                    .walletId(event.getWalletId())
-                    .userId(event.getUserId())
-                    .entryType("WITHDRAWAL")
-                    .amount(event.getAmount().negate())
-                    .balanceBefore(event.getBalanceBefore())
-                    .balanceAfter(event.getNewBalance())
-                    .referenceId(event.getReferenceId())
-                    .referenceType("WITHDRAWAL")
-                    .description("Funds withdrawal")
-                    .createdAt(event.getWithdrawnAt())
-                    .build();
-            ledgerProjectionRepository.save(ledger);
-
-            updateWalletProjection(event.getUserId(), event.getWalletId(),
-                    event.getNewBalance(), BigDecimal.ZERO);
-
-            markEventProcessed(eventId, "FundsWithdrawnEvent");
-
-        } catch (Exception e) {
-            log.error("Failed to process FundsWithdrawnEvent: {}", e.getMessage(), e);
-            throw e;
+        // Every trade of a holding is applied in memory, in arrival order, and the holding written once
+        Set<HoldingKey> keys = new LinkedHashSet<>();
+        for (TradeExecutedEvent event : events) {
+            keys.add(new HoldingKey(event.getUserId(), event.getSymbol()));
         }
+        Map<HoldingKey, HoldingProjection> holdings = projectionBatchWriter.lockHoldings(keys);
+        for (TradeExecutedEvent event : events) {
+            HoldingProjection holding = holdings.get(new HoldingKey(event.getUserId(), event.getSymbol()));
+            if (event.getSide() == OrderSide.BUY) {
+                holding.applyBuy(event.getExecutedQuantity(), event.getExecutedPrice());
+            } else {
+                holding.applySell(event.getExecutedQuantity());
+            }
+        }
+        projectionBatchWriter.upsertHoldings(holdings.values());
+
+        // Invalidate cached trade-based reports of the users
+        projectionBatchWriter.bumpTradeVersions(keys.stream().map(HoldingKey::userId).toList());
     }
 
-    // ==================== Helper Methods ====================
+    private void applyLedgerEntries(List<LedgerProjection> entries) {
+        projectionBatchWriter.insertLedgerEntries(entries);
 
-    private void updateHoldingFromTrade(TradeExecutedEvent event) {
-        HoldingProjection holding = holdingProjectionRepository
-                .findByUserIdAndSymbol(event.getUserId(), event.getSymbol())
-                .orElse(HoldingProjection.builder()
-                        .userId(event.getUserId())
-                        .symbol(event.getSymbol())
-                        .quantity(BigDecimal.ZERO)
-                        .averagePrice(BigDecimal.ZERO)
-                        .totalInvested(BigDecimal.ZERO)
-                        .build());
-
-        if ("BUY".equalsIgnoreCase(event.getSide().name())) {
-            holding.applyBuy(event.getExecutedQuantity(), event.getExecutedPrice());
-        } else {
-            holding.applySell(event.getExecutedQuantity());
+        // Events carry the resulting balance, so the last one of each wallet wins
+        Map<Long, WalletProjection> wallets = new LinkedHashMap<>();
+        Instant now = Instant.now();
+        for (LedgerProjection entry : entries) {
+            wallets.put(entry.getUserId(), WalletProjection.builder()
+                    .userId(entry.getUserId())
+                    .walletId(entry.getWalletId())
+                    .availableBalance(entry.getBalanceAfter())
+                    .lockedBalance(BigDecimal.ZERO)
+                    .lastUpdatedAt(now)
+                    .build());
         }
+        projectionBatchWriter.upsertWallets(wallets.values());
+        projectionBatchWriter.bumpLedgerVersions(wallets.keySet());
+    }
 
-        holdingProjectionRepository.save(holding);
+    private TradeProjection toTradeProjection(TradeExecutedEvent event) {
+        return TradeProjection.builder()
+                .tradeId(event.getTradeId())
+                .orderId(event.getOrderId())
+                .userId(event.getUserId())
+                .symbol(event.getSymbol())
+                .side(event.getSide().name())
+                .quantity(event.getExecutedQuantity())
+                .price(event.getExecutedPrice())
+                .executedAt(event.getExecutedAt())
+                .status("EXECUTED")
+                .build();
     }
 
-    private void updateWalletProjection(Long userId, Long walletId,
-            BigDecimal availableBalance, BigDecimal lockedBalance) {
-        WalletProjection wallet = walletProjectionRepository.findByUserId(userId)
-                .orElse(WalletProjection.builder()
-                        .userId(userId)
-                        .walletId(walletId)
-                        .currency("INR")
-                        .build());
-
-        wallet.setAvailableBalance(availableBalance);
-        wallet.setLockedBalance(lockedBalance);
-        wallet.setLastUpdatedAt(Instant.now());
-        walletProjectionRepository.save(wallet);
+    private LedgerProjection toLedgerEntry(FundsDepositedEvent event) {
+        return LedgerProjection.builder()
+                .walletId(event.getWalletId())
+                .userId(event.getUserId())
+                .entryType("DEPOSIT")
+                .amount(event.getAmount())
+                .balanceBefore(event.getBalanceBefore())
+                .balanceAfter(event.getNewBalance())
+                .referenceId(event.getReferenceId())
+                .referenceType("DEPOSIT")
+                .description("Funds deposit")
+                .createdAt(event.getDepositedAt())
+                .build();
+    }
+
+    private LedgerProjection toLedgerEntry(FundsWithdrawnEvent event) {
+        return LedgerProjection.builder()
+                .walletId(event.getWalletId())
+                .userId(event.getUserId())
+                .entryType("WITHDRAWAL")
+                .amount(event.getAmount().negate())
+                .balanceBefore(event.getBalanceBefore())
+                .balanceAfter(event.getNewBalance())
+                .referenceId(event.getReferenceId())
+                .referenceType("WITHDRAWAL")
+                .description("Funds withdrawal")
+                .createdAt(event.getWithdrawnAt())
+                .build();
+    }
+
+    /**
+     * Lag is the time from an event being raised to its projection
+     * committing.
+     */
+    private static void recordLag(List<? extends BaseEvent> events, Timer lag) {
+        Instant now = Instant.now();
+        for (BaseEvent event : events) {
+            if (event.getTimestamp() != null) {
+                lag.record(Duration.between(event.getTimestamp(), now));
+            }
+        }
     }
 
-    private boolean isEventProcessed(String eventId) {
-        return processedEventRepository.existsByCorrelationId(eventId);
+    private static Timer lagTimer(String projection, MeterRegistry meterRegistry) {
+        return Timer.builder(LAG)
+                .description("Time from a domain event being raised to its projection committing")
+                .tag("projection", projection)
+                .publishPercentileHistogram()
+                .register(meterRegistry);
     }
 
-    private void markEventProcessed(String eventId, String eventType) {
-        processedEventRepository.save(ProcessedEvent.builder()
-                .correlationId(eventId)
-                .consumerName(eventType)
-                .processedAt(Instant.now())
-                .build());
+    private static DistributionSummary batchSizeSummary(String projection, MeterRegistry meterRegistry) {
+        return DistributionSummary.builder(BATCH_SIZE)
+                .description("Events received per projection batch")
+                .tag("projection", projection)
+                .register(meterRegistry);
     }
 }
@@ -22,7 +22,9 @@ import java.time.Instant;
     @Index(name = "idx_reports_user_id", columnList = "user_id"),
     @Index(name = "idx_reports_status", columnList = "status"),
     @Index(name = "idx_reports_requested_at", columnList = "requested_at"),
-    @Index(name = "idx_reports_type_user", columnList = "report_type, user_id")
+    @Index(name = "idx_reports_type_user", columnList = "report_type, user_id"),
+    @Index(name = "idx_reports_user_fingerprint", columnList = "user_id, fingerprint"),
+    @Index(name = "idx_reports_file_path", columnList = "file_path")
 })
 @EntityListeners(AuditingEntityListener.class)
 @Getter
@@ -77,6 +79,44 @@ public class Report implements Serializable {
     @Column(name = "file_size_bytes")
     private Long fileSizeBytes;
 
+    /**
+     * Identifies what the report would contain: user, type, format, range and
+     * the projection version it was requested against
+     */
+    @Column(name = "fingerprint", length = 64)
+    private String fingerprint;
+
+    /**
+     * SHA-256 of the file; the file is stored under this name
+     */
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    @Column(name = "generation_ms")
+    private Long generationMillis;
+
+    /**
+     * Projection rows the report is expected to read, for fair scheduling
+     */
+    @Column(name = "estimated_cost")
+    private Long estimatedCost;
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    /**
+     * Instance generating the report and until when its claim holds
+     */
+    @Column(name = "worker_id", length = 64)
+    private String workerId;
+
+    @Column(name = "lease_until")
+    private Instant leaseUntil;
+
+    @Column(name = "attempts", nullable = false)
+    @Builder.Default
+    private int attempts = 0;
+
     @Column(name = "error_message", columnDefinition = "TEXT")
     private String errorMessage;
 
@@ -96,13 +136,24 @@ public class Report implements Serializable {
         this.status = ReportStatus.PROCESSING;
     }
 
+    /**
+     * Put an interrupted report back in the queue
+     */
+    public void requeue() {
+        this.status = ReportStatus.PENDING;
+        this.workerId = null;
+        this.leaseUntil = null;
+    }
+
     /**
      * Mark report as completed with file info
      */
-    public void complete(String filePath, Long fileSizeBytes) {
+    public void complete(String filePath, Long fileSizeBytes, String contentHash, long generationMillis) {
         this.status = ReportStatus.COMPLETED;
         this.filePath = filePath;
         this.fileSizeBytes = fileSizeBytes;
+        this.contentHash = contentHash;
+        this.generationMillis = generationMillis;
         this.completedAt = Instant.now();
     }
 
@@ -121,4 +172,11 @@ public class Report implements Serializable {
     public boolean isDownloadable() {
         return status == ReportStatus.COMPLETED && filePath != null;
     }
+
+    /**
+     * Check if report is still queued or generating
+     */
+    public boolean isInFlight() {
+        return status == ReportStatus.PENDING || status == ReportStatus.PROCESSING;
+    }
 }
@@ -0,0 +1,64 @@
+package in.winvestco.report_service.model.lot;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Lot Matching State - how far a user's trade projections have been applied
+ * to their tax lots. Trades are applied in (executedAt, id) order; the last
+ * applied position and the number of trades applied let the next run pick up
+ * only new trades and notice ones that arrived out of order.
+ */
+@Entity
+@Table(name = "lot_matching_state")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class LotMatchingState implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long userId;
+
+    @Column(name = "last_executed_at", nullable = false)
+    @Builder.Default
+    private Instant lastExecutedAt = Instant.EPOCH;
+
+    @Column(name = "last_trade_row_id", nullable = false)
+    @Builder.Default
+    private Long lastTradeRowId = 0L;
+
+    @Column(name = "applied_trades", nullable = false)
+    @Builder.Default
+    private long appliedTrades = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+
+    /**
+     * Move the cursor past an applied trade.
+     */
+    public void advance(Instant executedAt, Long tradeRowId) {
+        this.lastExecutedAt = executedAt;
+        this.lastTradeRowId = tradeRowId;
+        this.appliedTrades++;
+    }
+
+    /**
+     * Forget everything applied so far, for a full replay.
+     */
+    public void reset() {
+        this.lastExecutedAt = Instant.EPOCH;
+        this.lastTradeRowId = 0L;
+        this.appliedTrades = 0;
+    }
+}
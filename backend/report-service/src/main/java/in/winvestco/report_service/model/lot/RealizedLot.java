@@ -0,0 +1,69 @@
+package in.winvestco.report_service.model.lot;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Realized Lot - the part of a sell matched against one buy lot. A sell
+ * spanning several lots produces one row per lot, each with its own cost
+ * price and holding period.
+ */
+@Entity
+@Table(name = "realized_lots", indexes = {
+    @Index(name = "idx_realized_lots_user_sold_at", columnList = "user_id, sold_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class RealizedLot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "symbol", nullable = false, length = 20)
+    private String symbol;
+
+    @Column(name = "buy_trade_id", nullable = false, length = 36)
+    private String buyTradeId;
+
+    @Column(name = "sell_trade_id", nullable = false, length = 36)
+    private String sellTradeId;
+
+    @Column(name = "quantity", precision = 18, scale = 4, nullable = false)
+    private BigDecimal quantity;
+
+    @Column(name = "cost_price", precision = 18, scale = 4, nullable = false)
+    private BigDecimal costPrice;
+
+    @Column(name = "sell_price", precision = 18, scale = 4, nullable = false)
+    private BigDecimal sellPrice;
+
+    @Column(name = "acquired_at", nullable = false)
+    private Instant acquiredAt;
+
+    @Column(name = "sold_at", nullable = false)
+    private Instant soldAt;
+
+    @Column(name = "holding_days", nullable = false)
+    private int holdingDays;
+
+    @Column(name = "long_term", nullable = false)
+    private boolean longTerm;
+
+    @Column(name = "gain", precision = 18, scale = 4, nullable = false)
+    private BigDecimal gain;
+}
@@ -0,0 +1,66 @@
+package in.winvestco.report_service.model.lot;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.time.Instant;
+
+/**
+ * Tax Lot - an open buy lot that later sells are matched against FIFO.
+ * Created from a BUY trade projection; remainingQuantity shrinks as sells
+ * consume it and the lot is removed once it reaches zero.
+ */
+@Entity
+@Table(name = "tax_lots", indexes = {
+    @Index(name = "idx_tax_lots_user_symbol", columnList = "user_id, symbol, acquired_at")
+})
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class TaxLot implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @Column(name = "id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long id;
+
+    @Column(name = "user_id", nullable = false)
+    private Long userId;
+
+    @Column(name = "symbol", nullable = false, length = 20)
+    private String symbol;
+
+    @Column(name = "buy_trade_id", nullable = false, length = 36)
+    private String buyTradeId;
+
+    @Column(name = "acquired_at", nullable = false)
+    private Instant acquiredAt;
+
+    @Column(name = "cost_price", precision = 18, scale = 4, nullable = false)
+    private BigDecimal costPrice;
+
+    @Column(name = "remaining_quantity", precision = 18, scale = 4, nullable = false)
+    private BigDecimal remainingQuantity;
+
+    /**
+     * Take up to wanted from this lot.
+     *
+     * @return the quantity actually taken
+     */
+    public BigDecimal take(BigDecimal wanted) {
+        BigDecimal taken = wanted.min(remainingQuantity);
+        remainingQuantity = remainingQuantity.subtract(taken);
+        return taken;
+    }
+
+    public boolean isExhausted() {
+        return remainingQuantity.signum() <= 0;
+    }
+}
@@ -0,0 +1,43 @@
+package in.winvestco.report_service.model.projection;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.io.Serializable;
+import java.time.Instant;
+
+/**
+ * Projection Watermark - per-user version of the projections a report reads.
+ * Bumped in the same transaction as every projection update, so a report
+ * fingerprint that includes it changes as soon as new data lands. Trades
+ * (and the holdings they update) and ledger entries are versioned apart, so
+ * a deposit does not invalidate a cached trade history.
+ */
+@Entity
+@Table(name = "projection_watermarks")
+@Getter
+@Setter
+@NoArgsConstructor
+@AllArgsConstructor
+@Builder
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
+public class ProjectionWatermark implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    @Id
+    @Column(name = "user_id", nullable = false, updatable = false)
+    @EqualsAndHashCode.Include
+    private Long userId;
+
+    @Column(name = "trade_version", nullable = false)
+    @Builder.Default
+    private long tradeVersion = 0;
+
+    @Column(name = "ledger_version", nullable = false)
+    @Builder.Default
+    private long ledgerVersion = 0;
+
+    @Column(name = "updated_at", nullable = false)
+    @Builder.Default
+    private Instant updatedAt = Instant.now();
+}
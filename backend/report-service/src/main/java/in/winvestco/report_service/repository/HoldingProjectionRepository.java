@@ -15,4 +15,6 @@ public interface HoldingProjectionRepository extends JpaRepository<HoldingProjec
     Optional<HoldingProjection> findByUserIdAndSymbol(Long userId, String symbol);
 
     boolean existsByUserIdAndSymbol(Long userId, String symbol);
+
+    long countByUserId(Long userId);
 }
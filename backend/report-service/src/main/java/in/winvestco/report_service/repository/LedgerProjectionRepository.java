@@ -1,15 +1,19 @@
 package in.winvestco.report_service.repository;
 
 import in.winvestco.report_service.model.projection.LedgerProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.stream.Stream;
 
 @Repository
 public interface LedgerProjectionRepository extends JpaRepository<LedgerProjection, Long> {
@@ -24,6 +28,23 @@ public interface LedgerProjectionRepository extends JpaRepository<LedgerProjecti
             @Param("fromDate") Instant fromDate,
             @Param("toDate") Instant toDate);
 
+    /**
+     * Same rows as findByUserIdAndDateRange, read through a database cursor
+     * in fetch-size chunks instead of loaded up front. Must be consumed and
+     * closed inside a transaction; rows are read-only.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT l FROM LedgerProjection l WHERE l.userId = :userId " +
+           "AND l.createdAt >= :fromDate AND l.createdAt <= :toDate " +
+           "ORDER BY l.createdAt DESC")
+    Stream<LedgerProjection> streamByUserIdAndDateRange(
+            @Param("userId") Long userId,
+            @Param("fromDate") Instant fromDate,
+            @Param("toDate") Instant toDate);
+
     @Query("SELECT l FROM LedgerProjection l WHERE l.userId = :userId " +
            "AND l.entryType = :entryType " +
            "AND l.createdAt >= :fromDate AND l.createdAt <= :toDate " +
@@ -33,4 +54,6 @@ public interface LedgerProjectionRepository extends JpaRepository<LedgerProjecti
             @Param("entryType") String entryType,
             @Param("fromDate") Instant fromDate,
             @Param("toDate") Instant toDate);
+
+    long countByUserIdAndCreatedAtBetween(Long userId, Instant fromDate, Instant toDate);
 }
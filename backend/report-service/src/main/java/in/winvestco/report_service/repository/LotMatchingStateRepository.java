@@ -0,0 +1,34 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.report_service.model.lot.LotMatchingState;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface LotMatchingStateRepository extends JpaRepository<LotMatchingState, Long> {
+
+    /**
+     * Create the user's state row if missing, without failing when a
+     * concurrent run creates it first.
+     */
+    @Modifying
+    @Query(value = "INSERT INTO lot_matching_state (user_id, last_executed_at, last_trade_row_id, " +
+                   "applied_trades, updated_at) VALUES (:userId, TIMESTAMP '1970-01-01 00:00:00', 0, 0, " +
+                   "CURRENT_TIMESTAMP) ON CONFLICT (user_id) DO NOTHING", nativeQuery = true)
+    int insertIfAbsent(@Param("userId") Long userId);
+
+    /**
+     * Load the state and hold its row lock until the transaction ends, so
+     * only one run applies a user's trades at a time.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM LotMatchingState s WHERE s.userId = :userId")
+    Optional<LotMatchingState> findForUpdate(@Param("userId") Long userId);
+}
@@ -0,0 +1,236 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.report_service.model.projection.HoldingProjection;
+import in.winvestco.report_service.model.projection.LedgerProjection;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import in.winvestco.report_service.model.projection.WalletProjection;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+/**
+ * Batched writes of projection rows, one JDBC batch per statement.
+ *
+ * Holdings and wallets are upserted with their final values, so callers
+ * fold all events of a batch into one row each first. Holdings are read
+ * with lockHoldings, which creates missing rows and locks them all in key
+ * order, so consumers on other instances cannot interleave on a holding.
+ *
+ * Joins the caller's transaction; callers should not hold managed entities
+ * for the same rows.
+ */
+@Component
+public class ProjectionBatchWriter {
+
+    private static final String INSERT_TRADE = "INSERT INTO trade_projections (trade_id, order_id, user_id, "
+            + "symbol, side, quantity, price, executed_at, status, created_at) VALUES (:tradeId, :orderId, "
+            + ":userId, :symbol, :side, :quantity, :price, :executedAt, :status, :createdAt) "
+            + "ON CONFLICT (trade_id) DO NOTHING";
+
+    private static final String INSERT_LEDGER_ENTRY = "INSERT INTO ledger_projections (wallet_id, user_id, "
+            + "entry_type, amount, balance_before, balance_after, reference_id, reference_type, description, "
+            + "created_at) VALUES (:walletId, :userId, :entryType, :amount, :balanceBefore, :balanceAfter, "
+            + ":referenceId, :referenceType, :description, :createdAt)";
+
+    private static final String INSERT_EMPTY_HOLDING = "INSERT INTO holding_projections (user_id, symbol, "
+            + "quantity, average_price, total_invested, last_updated_at) VALUES (:userId, :symbol, 0, 0, 0, :now) "
+            + "ON CONFLICT (user_id, symbol) DO NOTHING";
+
+    private static final String LOCK_HOLDINGS = "SELECT id, user_id, symbol, quantity, average_price, "
+            + "total_invested, last_updated_at FROM holding_projections "
+            + "WHERE user_id IN (:userIds) AND symbol IN (:symbols) ORDER BY user_id, symbol FOR UPDATE";
+
+    private static final String UPSERT_HOLDING = "INSERT INTO holding_projections (user_id, symbol, quantity, "
+            + "average_price, total_invested, last_updated_at) VALUES (:userId, :symbol, :quantity, "
+            + ":averagePrice, :totalInvested, :lastUpdatedAt) ON CONFLICT (user_id, symbol) DO UPDATE "
+            + "SET quantity = EXCLUDED.quantity, average_price = EXCLUDED.average_price, "
+            + "total_invested = EXCLUDED.total_invested, last_updated_at = EXCLUDED.last_updated_at";
+
+    private static final String UPSERT_WALLET = "INSERT INTO wallet_projections (user_id, wallet_id, "
+            + "available_balance, locked_balance, currency, last_updated_at) VALUES (:userId, :walletId, "
+            + ":availableBalance, :lockedBalance, :currency, :lastUpdatedAt) ON CONFLICT (user_id) DO UPDATE "
+            + "SET wallet_id = EXCLUDED.wallet_id, available_balance = EXCLUDED.available_balance, "
+            + "locked_balance = EXCLUDED.locked_balance, last_updated_at = EXCLUDED.last_updated_at";
+
+    private static final String BUMP_TRADE_VERSION = "INSERT INTO projection_watermarks (user_id, trade_version, "
+            + "ledger_version, updated_at) VALUES (:userId, 1, 0, :now) ON CONFLICT (user_id) DO UPDATE "
+            + "SET trade_version = projection_watermarks.trade_version + 1, updated_at = EXCLUDED.updated_at";
+
+    private static final String BUMP_LEDGER_VERSION = "INSERT INTO projection_watermarks (user_id, trade_version, "
+            + "ledger_version, updated_at) VALUES (:userId, 0, 1, :now) ON CONFLICT (user_id) DO UPDATE "
+            + "SET ledger_version = projection_watermarks.ledger_version + 1, updated_at = EXCLUDED.updated_at";
+
+    private static final Comparator<HoldingKey> KEY_ORDER =
+            Comparator.comparing(HoldingKey::userId).thenComparing(HoldingKey::symbol);
+
+    private static final RowMapper<HoldingProjection> HOLDING = (rs, rowNum) -> HoldingProjection.builder()
+            .id(rs.getLong("id"))
+            .userId(rs.getLong("user_id"))
+            .symbol(rs.getString("symbol"))
+            .quantity(rs.getBigDecimal("quantity"))
+            .averagePrice(rs.getBigDecimal("average_price"))
+            .totalInvested(rs.getBigDecimal("total_invested"))
+            .lastUpdatedAt(rs.getTimestamp("last_updated_at").toInstant())
+            .build();
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public ProjectionBatchWriter(DataSource dataSource) {
+        this(new NamedParameterJdbcTemplate(dataSource));
+    }
+
+    ProjectionBatchWriter(NamedParameterJdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    /**
+     * A holding is identified by user and symbol.
+     */
+    public record HoldingKey(Long userId, String symbol) {
+    }
+
+    /**
+     * Insert trade projections, skipping trades already projected.
+     */
+    public void insertTrades(List<TradeProjection> trades) {
+        batch(INSERT_TRADE, trades, trade -> new MapSqlParameterSource()
+                .addValue("tradeId", trade.getTradeId())
+                .addValue("orderId", trade.getOrderId())
+                .addValue("userId", trade.getUserId())
+                .addValue("symbol", trade.getSymbol())
+                .addValue("side", trade.getSide())
+                .addValue("quantity", trade.getQuantity())
+                .addValue("price", trade.getPrice())
+                .addValue("executedAt", utc(trade.getExecutedAt()))
+                .addValue("status", trade.getStatus())
+                .addValue("createdAt", utc(trade.getCreatedAt())));
+    }
+
+    /**
+     * Insert ledger projections.
+     */
+    public void insertLedgerEntries(List<LedgerProjection> entries) {
+        batch(INSERT_LEDGER_ENTRY, entries, entry -> new MapSqlParameterSource()
+                .addValue("walletId", entry.getWalletId())
+                .addValue("userId", entry.getUserId())
+                .addValue("entryType", entry.getEntryType())
+                .addValue("amount", entry.getAmount())
+                .addValue("balanceBefore", entry.getBalanceBefore())
+                .addValue("balanceAfter", entry.getBalanceAfter())
+                .addValue("referenceId", entry.getReferenceId())
+                .addValue("referenceType", entry.getReferenceType())
+                .addValue("description", entry.getDescription())
+                .addValue("createdAt", utc(entry.getCreatedAt())));
+    }
+
+    /**
+     * Lock the holdings with the given keys until the transaction ends,
+     * creating empty ones for keys without a row. Returns a detached
+     * snapshot of every key.
+     */
+    public Map<HoldingKey, HoldingProjection> lockHoldings(Set<HoldingKey> keys) {
+        Map<HoldingKey, HoldingProjection> holdings = new LinkedHashMap<>();
+        if (keys.isEmpty()) {
+            return holdings;
+        }
+
+        List<HoldingKey> ordered = keys.stream().sorted(KEY_ORDER).toList();
+        OffsetDateTime now = utc(Instant.now());
+        batch(INSERT_EMPTY_HOLDING, ordered, key -> new MapSqlParameterSource()
+                .addValue("userId", key.userId())
+                .addValue("symbol", key.symbol())
+                .addValue("now", now));
+
+        // Matches every user/symbol combination; rows outside the keys are locked too, but left alone
+        Map<HoldingKey, HoldingProjection> rows = new HashMap<>();
+        for (HoldingProjection row : jdbcTemplate.query(LOCK_HOLDINGS, new MapSqlParameterSource()
+                .addValue("userIds", ordered.stream().map(HoldingKey::userId).distinct().toList())
+                .addValue("symbols", ordered.stream().map(HoldingKey::symbol).distinct().toList()), HOLDING)) {
+            rows.put(new HoldingKey(row.getUserId(), row.getSymbol()), row);
+        }
+        for (HoldingKey key : keys) {
+            holdings.put(key, rows.getOrDefault(key, HoldingProjection.builder()
+                    .userId(key.userId())
+                    .symbol(key.symbol())
+                    .build()));
+        }
+        return holdings;
+    }
+
+    /**
+     * Write the final state of each holding.
+     */
+    public void upsertHoldings(Collection<HoldingProjection> holdings) {
+        batch(UPSERT_HOLDING, holdings, holding -> new MapSqlParameterSource()
+                .addValue("userId", holding.getUserId())
+                .addValue("symbol", holding.getSymbol())
+                .addValue("quantity", holding.getQuantity())
+                .addValue("averagePrice", holding.getAveragePrice())
+                .addValue("totalInvested", holding.getTotalInvested())
+                .addValue("lastUpdatedAt", utc(holding.getLastUpdatedAt())));
+    }
+
+    /**
+     * Write the final balances of each user's wallet.
+     */
+    public void upsertWallets(Collection<WalletProjection> wallets) {
+        batch(UPSERT_WALLET, wallets, wallet -> new MapSqlParameterSource()
+                .addValue("userId", wallet.getUserId())
+                .addValue("walletId", wallet.getWalletId())
+                .addValue("availableBalance", wallet.getAvailableBalance())
+                .addValue("lockedBalance", wallet.getLockedBalance() != null
+                        ? wallet.getLockedBalance() : BigDecimal.ZERO)
+                .addValue("currency", wallet.getCurrency())
+                .addValue("lastUpdatedAt", utc(wallet.getLastUpdatedAt())));
+    }
+
+    /**
+     * Bump the trade version of each user once.
+     */
+    public void bumpTradeVersions(Collection<Long> userIds) {
+        bumpVersions(BUMP_TRADE_VERSION, userIds);
+    }
+
+    /**
+     * Bump the ledger version of each user once.
+     */
+    public void bumpLedgerVersions(Collection<Long> userIds) {
+        bumpVersions(BUMP_LEDGER_VERSION, userIds);
+    }
+
+    private void bumpVersions(String sql, Collection<Long> userIds) {
+        OffsetDateTime now = utc(Instant.now());
+        // Sorted, so concurrent batches take the watermark row locks in the same order
+        batch(sql, userIds.stream().distinct().sorted().toList(), userId -> new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("now", now));
+    }
+
+    private <T> void batch(String sql, Collection<T> items, Function<T, SqlParameterSource> params) {
+        if (items.isEmpty()) {
+            return;
+        }
+        jdbcTemplate.batchUpdate(sql, items.stream().map(params).toArray(SqlParameterSource[]::new));
+    }
+
+    // Bound the way Hibernate binds Instant, so both paths store the same wall time
+    private static OffsetDateTime utc(Instant instant) {
+        return instant != null ? OffsetDateTime.ofInstant(instant, ZoneOffset.UTC) : null;
+    }
+}
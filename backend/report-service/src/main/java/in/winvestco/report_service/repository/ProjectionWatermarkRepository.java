@@ -0,0 +1,12 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.report_service.model.projection.ProjectionWatermark;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Watermarks are bumped by ProjectionBatchWriter, once per user and batch.
+ */
+@Repository
+public interface ProjectionWatermarkRepository extends JpaRepository<ProjectionWatermark, Long> {
+}
@@ -0,0 +1,27 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.report_service.model.lot.RealizedLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.List;
+
+@Repository
+public interface RealizedLotRepository extends JpaRepository<RealizedLot, Long> {
+
+    @Query("SELECT r FROM RealizedLot r WHERE r.userId = :userId " +
+           "AND r.soldAt >= :fromDate AND r.soldAt <= :toDate " +
+           "ORDER BY r.soldAt, r.id")
+    List<RealizedLot> findByUserIdAndSoldAtRange(
+            @Param("userId") Long userId,
+            @Param("fromDate") Instant fromDate,
+            @Param("toDate") Instant toDate);
+
+    @Modifying
+    @Query("DELETE FROM RealizedLot r WHERE r.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
@@ -2,14 +2,20 @@ package in.winvestco.report_service.repository;
 
 import in.winvestco.common.enums.ReportStatus;
 import in.winvestco.report_service.model.Report;
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,4 +37,97 @@ public interface ReportRepository extends JpaRepository<Report, Long> {
     List<Report> findExpiredReports(@Param("expiryDate") Instant expiryDate);
 
     long countByUserIdAndStatus(Long userId, ReportStatus status);
+
+    /**
+     * Newest report with the fingerprint that is completed or still in
+     * flight, i.e. one a new identical request can reuse.
+     */
+    Optional<Report> findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(
+            Long userId, String fingerprint, Collection<ReportStatus> statuses);
+
+    /**
+     * Reports sharing a content-addressed file
+     */
+    long countByFilePath(String filePath);
+
+    /**
+     * Serialize work on a content-addressed file until the transaction ends:
+     * a report moving the file into place holds it until it is committed as
+     * completed, and a delete re-counts the file's reports under it, so a
+     * file is never deleted while a report is about to reference it.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('report-file:' || :filePath, 0))",
+           nativeQuery = true)
+    Integer lockReportFile(@Param("filePath") String filePath);
+
+    /**
+     * Pending jobs for the scheduler to choose from: the oldest perUser jobs
+     * of each waiting user, every user's oldest job ahead of anyone's second,
+     * so one user's backlog cannot crowd the others out of the window. Not
+     * locked; a chosen job is claimed with claimJob.
+     */
+    @Query(value = "SELECT r.* FROM reports r JOIN (SELECT id, row_number() OVER (PARTITION BY user_id " +
+                   "ORDER BY id) AS user_rank FROM reports WHERE status = 'PENDING') ranked ON ranked.id = r.id " +
+                   "WHERE ranked.user_rank <= :perUser ORDER BY ranked.user_rank, r.id LIMIT :limit",
+           nativeQuery = true)
+    List<Report> findPendingJobs(@Param("perUser") int perUser, @Param("limit") int limit);
+
+    @Query("SELECT r.userId AS userId, COUNT(r) AS jobs FROM Report r " +
+           "WHERE r.status = in.winvestco.common.enums.ReportStatus.PROCESSING GROUP BY r.userId")
+    List<UserJobCount> countProcessingByUser();
+
+    /**
+     * Claim a pending job for a worker. Skips the row if another instance
+     * holds it; returns 0 when the job was not claimed.
+     */
+    @Modifying
+    @Query(value = "UPDATE reports SET status = 'PROCESSING', started_at = :now, worker_id = :workerId, " +
+                   "lease_until = :leaseUntil, attempts = attempts + 1 WHERE id = (SELECT id FROM reports " +
+                   "WHERE id = :id AND status = 'PENDING' FOR UPDATE SKIP LOCKED)", nativeQuery = true)
+    int claimJob(@Param("id") Long id,
+            @Param("workerId") String workerId,
+            @Param("now") Instant now,
+            @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Extend the lease of jobs a worker is still generating.
+     */
+    @Modifying
+    @Query("UPDATE Report r SET r.leaseUntil = :leaseUntil WHERE r.id IN :ids AND r.workerId = :workerId " +
+           "AND r.status = in.winvestco.common.enums.ReportStatus.PROCESSING")
+    int renewLeases(@Param("ids") Collection<Long> ids,
+            @Param("workerId") String workerId,
+            @Param("leaseUntil") Instant leaseUntil);
+
+    /**
+     * Processing jobs whose lease lapsed, plus those claimed under
+     * ownWorkerId (pass null for none). Locked, skipping rows another
+     * instance is recovering.
+     */
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @QueryHints(@QueryHint(name = "jakarta.persistence.lock.timeout", value = "-2"))
+    @Query("SELECT r FROM Report r WHERE r.status = in.winvestco.common.enums.ReportStatus.PROCESSING " +
+           "AND (r.leaseUntil IS NULL OR r.leaseUntil < :now OR r.workerId = :ownWorkerId)")
+    List<Report> claimAbandonedJobs(@Param("now") Instant now, @Param("ownWorkerId") String ownWorkerId);
+
+    /**
+     * Serialize job claims of one user until the transaction ends, so the
+     * per-user cap holds across instances.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(hashtextextended('report-jobs:' || :userId, 0))",
+           nativeQuery = true)
+    Integer lockUserJobs(@Param("userId") Long userId);
+
+    interface UserJobCount {
+        Long getUserId();
+
+        long getJobs();
+    }
+
+    /**
+     * Serialize requests with the same fingerprint until the transaction
+     * ends, so identical concurrent requests coalesce onto one report.
+     */
+    @Query(value = "SELECT 1 FROM pg_advisory_xact_lock(:key)", nativeQuery = true)
+    Integer lockFingerprint(@Param("key") long key);
 }
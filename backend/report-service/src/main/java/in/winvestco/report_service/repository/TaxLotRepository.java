@@ -0,0 +1,24 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.report_service.model.lot.TaxLot;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface TaxLotRepository extends JpaRepository<TaxLot, Long> {
+
+    /**
+     * Open lots of a user in FIFO order per symbol.
+     */
+    @Query("SELECT l FROM TaxLot l WHERE l.userId = :userId ORDER BY l.symbol, l.acquiredAt, l.id")
+    List<TaxLot> findOpenLots(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM TaxLot l WHERE l.userId = :userId")
+    int deleteByUserId(@Param("userId") Long userId);
+}
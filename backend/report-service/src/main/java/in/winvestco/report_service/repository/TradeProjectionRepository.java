@@ -1,16 +1,20 @@
 package in.winvestco.report_service.repository;
 
 import in.winvestco.report_service.model.projection.TradeProjection;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 @Repository
 public interface TradeProjectionRepository extends JpaRepository<TradeProjection, Long> {
@@ -31,6 +35,23 @@ public interface TradeProjectionRepository extends JpaRepository<TradeProjection
             @Param("fromDate") Instant fromDate,
             @Param("toDate") Instant toDate);
 
+    /**
+     * Same rows as findByUserIdAndDateRange, read through a database cursor
+     * in fetch-size chunks instead of loaded up front. Must be consumed and
+     * closed inside a transaction; rows are read-only.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TradeProjection t WHERE t.userId = :userId " +
+           "AND t.executedAt >= :fromDate AND t.executedAt <= :toDate " +
+           "ORDER BY t.executedAt DESC")
+    Stream<TradeProjection> streamByUserIdAndDateRange(
+            @Param("userId") Long userId,
+            @Param("fromDate") Instant fromDate,
+            @Param("toDate") Instant toDate);
+
     @Query("SELECT t FROM TradeProjection t WHERE t.userId = :userId " +
            "AND t.symbol = :symbol AND t.executedAt >= :fromDate AND t.executedAt <= :toDate " +
            "ORDER BY t.executedAt DESC")
@@ -40,6 +61,35 @@ public interface TradeProjectionRepository extends JpaRepository<TradeProjection
             @Param("fromDate") Instant fromDate,
             @Param("toDate") Instant toDate);
 
+    /**
+     * Trades of a user after the given (executedAt, id) position, in
+     * (executedAt, id) order, through a database cursor. For lot matching.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT t FROM TradeProjection t WHERE t.userId = :userId " +
+           "AND (t.executedAt > :afterExecutedAt OR (t.executedAt = :afterExecutedAt AND t.id > :afterId)) " +
+           "ORDER BY t.executedAt ASC, t.id ASC")
+    Stream<TradeProjection> streamAfter(
+            @Param("userId") Long userId,
+            @Param("afterExecutedAt") Instant afterExecutedAt,
+            @Param("afterId") Long afterId);
+
+    /**
+     * Number of trades of a user at or before the given (executedAt, id)
+     * position.
+     */
+    @Query("SELECT COUNT(t) FROM TradeProjection t WHERE t.userId = :userId " +
+           "AND (t.executedAt < :executedAt OR (t.executedAt = :executedAt AND t.id <= :id))")
+    long countUpTo(
+            @Param("userId") Long userId,
+            @Param("executedAt") Instant executedAt,
+            @Param("id") Long id);
+
+    long countByUserIdAndExecutedAtBetween(Long userId, Instant fromDate, Instant toDate);
+
     @Query("SELECT DISTINCT t.symbol FROM TradeProjection t WHERE t.userId = :userId")
     List<String> findDistinctSymbolsByUserId(@Param("userId") Long userId);
 }
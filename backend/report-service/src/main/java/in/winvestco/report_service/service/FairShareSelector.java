@@ -0,0 +1,69 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.model.Report;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+/**
+ * Start-time fair queuing of report jobs across users.
+ *
+ * Each user has a finish tag: the virtual time at which the work already
+ * started for them is paid off, advanced by the estimated cost of every job
+ * they are given. The next job goes to the user with the earliest start tag
+ * (the later of their finish tag and the current virtual time), oldest job
+ * first within a user. A user with twenty large exports therefore waits for
+ * everyone else's cheap reports to catch up instead of holding the queue,
+ * and a user arriving late starts at the current virtual time rather than
+ * with credit for the time they were idle.
+ *
+ * State is per instance; each instance is fair over the jobs it claims.
+ */
+public class FairShareSelector {
+
+    private final Map<Long, Double> finishTags = new HashMap<>();
+    private double virtualTime;
+
+    /**
+     * Choose the next job among pending jobs ordered oldest first, skipping
+     * users already at the concurrency cap.
+     */
+    public synchronized Optional<Report> select(List<Report> pending, Map<Long, Long> processingByUser,
+            int maxPerUser) {
+        Report best = null;
+        double bestStart = Double.MAX_VALUE;
+        Set<Long> seen = new HashSet<>();
+
+        for (Report job : pending) {
+            Long userId = job.getUserId();
+            if (!seen.add(userId) || processingByUser.getOrDefault(userId, 0L) >= maxPerUser) {
+                continue;
+            }
+            double start = startTag(userId);
+            if (start < bestStart) {
+                best = job;
+                bestStart = start;
+            }
+        }
+        return Optional.ofNullable(best);
+    }
+
+    /**
+     * Account a claimed job to its user.
+     */
+    public synchronized void charge(Long userId, long cost) {
+        double start = startTag(userId);
+        virtualTime = start;
+        finishTags.put(userId, start + Math.max(1, cost));
+        // Users that have caught up with the clock carry no state
+        finishTags.values().removeIf(tag -> tag <= virtualTime);
+    }
+
+    private double startTag(Long userId) {
+        return Math.max(virtualTime, finishTags.getOrDefault(userId, 0.0));
+    }
+}
@@ -0,0 +1,150 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.model.lot.RealizedLot;
+import in.winvestco.report_service.model.lot.TaxLot;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import lombok.extern.slf4j.Slf4j;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * FIFO tax-lot matching for one user.
+ *
+ * Trades are applied one at a time in chronological order: a BUY opens a lot
+ * at the back of its symbol's queue, a SELL consumes lots from the front,
+ * splitting the last one it touches. Each lot a sell touches yields a
+ * RealizedLot with the lot's cost price and holding period.
+ *
+ * Holds only the open lots, so a full replay is a single streaming pass and
+ * an incremental run restores the open lots and applies just the new trades.
+ * Not thread-safe; one matcher per user and run.
+ */
+@Slf4j
+public class FifoLotMatcher {
+
+    private static final int SCALE = 4;
+
+    private final Long userId;
+    private final int longTermHoldingDays;
+    private final Map<String, ArrayDeque<TaxLot>> openLots = new HashMap<>();
+    private final List<TaxLot> openedLots = new ArrayList<>();
+    private final List<TaxLot> exhaustedLots = new ArrayList<>();
+    private BigDecimal unmatchedQuantity = BigDecimal.ZERO;
+
+    public FifoLotMatcher(Long userId, int longTermHoldingDays) {
+        this.userId = userId;
+        this.longTermHoldingDays = longTermHoldingDays;
+    }
+
+    /**
+     * Restore a persisted open lot. Lots of a symbol must be restored in
+     * FIFO order.
+     */
+    public void restore(TaxLot lot) {
+        queue(lot.getSymbol()).addLast(lot);
+    }
+
+    /**
+     * Apply the next trade in chronological order.
+     *
+     * @return the realized lots for a SELL, empty for a BUY
+     */
+    public List<RealizedLot> apply(TradeProjection trade) {
+        if (trade.isBuy()) {
+            TaxLot lot = TaxLot.builder()
+                    .userId(userId)
+                    .symbol(trade.getSymbol())
+                    .buyTradeId(trade.getTradeId())
+                    .acquiredAt(trade.getExecutedAt())
+                    .costPrice(trade.getPrice())
+                    .remainingQuantity(trade.getQuantity())
+                    .build();
+            queue(trade.getSymbol()).addLast(lot);
+            openedLots.add(lot);
+            return List.of();
+        }
+        if (!trade.isSell()) {
+            return List.of();
+        }
+
+        ArrayDeque<TaxLot> lots = queue(trade.getSymbol());
+        List<RealizedLot> realized = new ArrayList<>(1);
+        BigDecimal remaining = trade.getQuantity();
+
+        while (remaining.signum() > 0 && !lots.isEmpty()) {
+            TaxLot lot = lots.peekFirst();
+            BigDecimal taken = lot.take(remaining);
+            remaining = remaining.subtract(taken);
+            realized.add(realize(lot, trade, taken));
+
+            if (lot.isExhausted()) {
+                lots.pollFirst();
+                if (lot.getId() != null) {
+                    exhaustedLots.add(lot);
+                }
+            }
+        }
+
+        if (remaining.signum() > 0) {
+            // Sold more than the projections ever bought, e.g. holdings that
+            // predate the projections; there is no cost basis to match against
+            log.warn("Sell {} of {} for user {} exceeds open lots by {}, left unmatched",
+                    trade.getTradeId(), trade.getSymbol(), userId, remaining);
+            unmatchedQuantity = unmatchedQuantity.add(remaining);
+        }
+        return realized;
+    }
+
+    /**
+     * Lots opened by this run that are still open, to be inserted.
+     */
+    public List<TaxLot> getNewOpenLots() {
+        return openedLots.stream().filter(lot -> !lot.isExhausted()).toList();
+    }
+
+    /**
+     * Previously persisted lots fully consumed by this run, to be deleted.
+     * Restored lots that were only partly consumed carry their new
+     * remaining quantity.
+     */
+    public List<TaxLot> getExhaustedLots() {
+        return exhaustedLots;
+    }
+
+    public BigDecimal getUnmatchedQuantity() {
+        return unmatchedQuantity;
+    }
+
+    private RealizedLot realize(TaxLot lot, TradeProjection sell, BigDecimal quantity) {
+        int holdingDays = (int) Duration.between(lot.getAcquiredAt(), sell.getExecutedAt()).toDays();
+        BigDecimal gain = sell.getPrice().subtract(lot.getCostPrice())
+                .multiply(quantity)
+                .setScale(SCALE, RoundingMode.HALF_UP);
+
+        return RealizedLot.builder()
+                .userId(userId)
+                .symbol(sell.getSymbol())
+                .buyTradeId(lot.getBuyTradeId())
+                .sellTradeId(sell.getTradeId())
+                .quantity(quantity)
+                .costPrice(lot.getCostPrice())
+                .sellPrice(sell.getPrice())
+                .acquiredAt(lot.getAcquiredAt())
+                .soldAt(sell.getExecutedAt())
+                .holdingDays(holdingDays)
+                .longTerm(holdingDays >= longTermHoldingDays)
+                .gain(gain)
+                .build();
+    }
+
+    private ArrayDeque<TaxLot> queue(String symbol) {
+        return openLots.computeIfAbsent(symbol, s -> new ArrayDeque<>());
+    }
+}
@@ -0,0 +1,43 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.config.ReportJobProperties;
+import in.winvestco.report_service.dto.ReportRequest;
+import in.winvestco.report_service.repository.HoldingProjectionRepository;
+import in.winvestco.report_service.repository.LedgerProjectionRepository;
+import in.winvestco.report_service.repository.TradeProjectionRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+
+/**
+ * Estimates what a report will cost to generate from the number of
+ * projection rows it reads. Open-ended ranges are counted in full, so the
+ * estimate is an upper bound.
+ */
+@Component
+@RequiredArgsConstructor
+public class ReportCostEstimator {
+
+    private final TradeProjectionRepository tradeProjectionRepository;
+    private final LedgerProjectionRepository ledgerProjectionRepository;
+    private final HoldingProjectionRepository holdingProjectionRepository;
+    private final ReportJobProperties properties;
+
+    public long estimate(Long userId, ReportRequest request) {
+        Instant fromDate = request.getFromDate() != null ? request.getFromDate() : Instant.EPOCH;
+        Instant toDate = request.getToDate() != null ? request.getToDate() : Instant.now();
+
+        long rows = switch (request.getType()) {
+            case TRADE_HISTORY, TAX_REPORT ->
+                    tradeProjectionRepository.countByUserIdAndExecutedAtBetween(userId, fromDate, toDate);
+            case P_AND_L ->
+                    tradeProjectionRepository.countByUserIdAndExecutedAtBetween(userId, fromDate, toDate)
+                            + holdingProjectionRepository.countByUserId(userId);
+            case TRANSACTION_HISTORY ->
+                    ledgerProjectionRepository.countByUserIdAndCreatedAtBetween(userId, fromDate, toDate);
+            case HOLDINGS_SUMMARY -> holdingProjectionRepository.countByUserId(userId);
+        };
+        return properties.getBaseCost() + rows;
+    }
+}
@@ -1,6 +1,7 @@
 package in.winvestco.report_service.service;
 
 import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportStatus;
 import in.winvestco.common.event.ReportCompletedEvent;
 import in.winvestco.common.event.ReportFailedEvent;
 import in.winvestco.common.messaging.outbox.OutboxService;
@@ -10,37 +11,52 @@ import in.winvestco.report_service.generator.CsvReportGenerator;
 import in.winvestco.report_service.generator.ExcelReportGenerator;
 import in.winvestco.report_service.generator.PdfReportGenerator;
 import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.model.lot.RealizedLot;
 import in.winvestco.report_service.model.projection.HoldingProjection;
 import in.winvestco.report_service.model.projection.LedgerProjection;
 import in.winvestco.report_service.model.projection.TradeProjection;
 import in.winvestco.report_service.repository.*;
+import jakarta.persistence.EntityManager;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.io.BufferedOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
 import java.time.Instant;
 import java.time.LocalDate;
 import java.time.ZoneId;
 import java.time.format.DateTimeFormatter;
 import java.time.temporal.ChronoUnit;
 import java.util.ArrayList;
+import java.util.HexFormat;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
 
 import static in.winvestco.common.config.RabbitMQConfig.*;
 
 /**
- * Service responsible for generating reports asynchronously.
+ * Service responsible for generating reports claimed by ReportJobScheduler.
  * Reads from local projection tables (Event Sourcing pattern).
  * Uses outbox pattern for event publishing to ensure transactional safety.
+ *
+ * Reports are written straight to a file as they are generated. History
+ * reports read their rows through a database cursor and hand them to the
+ * generators as a Stream, so heap use does not grow with the row count.
+ * Files are named by the SHA-256 of their content, so reports with identical
+ * content share one file.
  */
 @Service
 @RequiredArgsConstructor
@@ -56,154 +72,191 @@ public class ReportGenerationService {
     private final ExcelReportGenerator excelGenerator;
     private final CsvReportGenerator csvGenerator;
 
+    private final TaxLotService taxLotService;
+
     private final OutboxService outboxService;
+    private final EntityManager entityManager;
+
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
 
     @Value("${report.storage.path:./reports}")
     private String storagePath;
 
     /**
-     * Generate report asynchronously
+     * Generate a report claimed by the job scheduler
      */
-    @Async
     @Transactional
-    public void generateReportAsync(Long reportId) {
-        log.info("Starting async report generation for ID: {}", reportId);
+    public void generateReport(Long reportId) {
+        log.info("Starting report generation for ID: {}", reportId);
 
         Report report = reportRepository.findById(reportId)
                 .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
+        if (report.getStatus() != ReportStatus.PROCESSING) {
+            log.info("Report {} is {} and no longer claimed, skipping", report.getReportId(), report.getStatus());
+            return;
+        }
 
+        Path tempFile = null;
         try {
-            report.startProcessing();
-            reportRepository.save(report);
-
-            // Generate based on report type
-            byte[] content = switch (report.getReportType()) {
-                case P_AND_L -> generatePnLReport(report);
-                case TAX_REPORT -> generateTaxReport(report);
-                case TRANSACTION_HISTORY -> generateTransactionHistoryReport(report);
-                case HOLDINGS_SUMMARY -> generateHoldingsSummaryReport(report);
-                case TRADE_HISTORY -> generateTradeHistoryReport(report);
-            };
-
-            // Save file
-            String fileName = buildFileName(report);
-            Path filePath = saveReportFile(content, fileName);
+            long started = System.nanoTime();
+
+            // Stream the report into a temp file next to its final location,
+            // hashing it on the way, then move it into place under its content
+            // hash so a half-written file is never visible and identical
+            // reports share one file
+            Path dir = storageDirectory();
+            tempFile = Files.createTempFile(dir, "report-", ".part");
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            try (OutputStream out = new BufferedOutputStream(
+                    new DigestOutputStream(Files.newOutputStream(tempFile), digest), WRITE_BUFFER_SIZE)) {
+                // Generate based on report type
+                switch (report.getReportType()) {
+                    case P_AND_L -> generatePnLReport(report, out);
+                    case TAX_REPORT -> generateTaxReport(report, out);
+                    case TRANSACTION_HISTORY -> generateTransactionHistoryReport(report, out);
+                    case HOLDINGS_SUMMARY -> generateHoldingsSummaryReport(report, out);
+                    case TRADE_HISTORY -> generateTradeHistoryReport(report, out);
+                }
+            }
+            String contentHash = HexFormat.of().formatHex(digest.digest());
+            Path target = dir.resolve(contentHash + extension(report.getFormat()));
+            // Held until this report commits as completed, so a report deleted
+            // or expired meanwhile still sees this one referencing the file
+            reportRepository.lockReportFile(target.toString());
+            // Replacing an existing file with the same hash is harmless and
+            // restores it if a delete got to it first
+            Path filePath = Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE);
+            tempFile = null;
 
             // Update report status
-            report.complete(filePath.toString(), (long) content.length);
+            report.complete(filePath.toString(), Files.size(filePath), contentHash,
+                    TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started));
             reportRepository.save(report);
 
             // Publish completion event
             publishCompletionEvent(report);
 
-            log.info("Report {} generated successfully: {}", report.getReportId(), fileName);
+            log.info("Report {} generated successfully: {}", report.getReportId(), report.getFilePath());
 
         } catch (Exception e) {
             log.error("Failed to generate report {}: {}", report.getReportId(), e.getMessage(), e);
-            report.fail(e.getMessage());
-            reportRepository.save(report);
-            publishFailureEvent(report, e.getMessage());
+            failReport(report, e.getMessage());
+        } finally {
+            deletePartialFile(tempFile);
         }
     }
 
-    private byte[] generatePnLReport(Report report) {
+    /**
+     * Mark a report failed and publish the failure
+     */
+    @Transactional
+    public void failReport(Report report, String reason) {
+        report.fail(reason);
+        reportRepository.save(report);
+        publishFailureEvent(report, reason);
+    }
+
+    private void generatePnLReport(Report report, OutputStream out) {
         Long userId = report.getUserId();
         Instant fromDate = report.getFromDate() != null ? report.getFromDate()
                 : Instant.now().minus(365, ChronoUnit.DAYS);
         Instant toDate = report.getToDate() != null ? report.getToDate() : Instant.now();
 
-        // Get trades for realized P&L
-        List<TradeProjection> trades = tradeProjectionRepository
-                .findByUserIdAndDateRange(userId, fromDate, toDate);
+        // FIFO-matched sells for realized P&L
+        List<RealizedLot> realized = taxLotService.getRealizedLots(userId, fromDate, toDate);
 
         // Get holdings for unrealized P&L
         List<HoldingProjection> holdings = holdingProjectionRepository.findByUserId(userId);
 
         // Calculate P&L data
-        PnLReportData data = buildPnLReportData(userId, trades, holdings, fromDate, toDate);
+        PnLReportData data = buildPnLReportData(userId, realized, holdings, fromDate, toDate);
 
-        return generateInFormat(data, report.getFormat(), "P&L Report");
+        generateInFormat(data, report.getFormat(), "P&L Report", out);
     }
 
-    private byte[] generateTaxReport(Report report) {
+    private void generateTaxReport(Report report, OutputStream out) {
         Long userId = report.getUserId();
         Instant fromDate = report.getFromDate() != null ? report.getFromDate()
                 : getFinancialYearStart();
         Instant toDate = report.getToDate() != null ? report.getToDate() : Instant.now();
 
-        List<TradeProjection> trades = tradeProjectionRepository
-                .findByUserIdAndDateRange(userId, fromDate, toDate);
+        List<RealizedLot> realized = taxLotService.getRealizedLots(userId, fromDate, toDate);
 
-        TaxReportData data = buildTaxReportData(userId, trades, fromDate, toDate);
+        TaxReportData data = buildTaxReportData(userId, realized, fromDate, toDate);
 
-        return generateInFormat(data, report.getFormat(), "Tax Report");
+        generateInFormat(data, report.getFormat(), "Tax Report", out);
     }
 
-    private byte[] generateTransactionHistoryReport(Report report) {
+    private void generateTransactionHistoryReport(Report report, OutputStream out) {
         Long userId = report.getUserId();
         Instant fromDate = report.getFromDate() != null ? report.getFromDate()
                 : Instant.now().minus(90, ChronoUnit.DAYS);
         Instant toDate = report.getToDate() != null ? report.getToDate() : Instant.now();
 
-        List<LedgerProjection> ledger = ledgerProjectionRepository
-                .findByUserIdAndDateRange(userId, fromDate, toDate);
-
-        return generateInFormat(ledger, report.getFormat(), "Transaction History");
+        try (Stream<LedgerProjection> ledger = ledgerProjectionRepository
+                .streamByUserIdAndDateRange(userId, fromDate, toDate)) {
+            generateInFormat(detachEach(ledger), report.getFormat(), "Transaction History", out);
+        }
     }
 
-    private byte[] generateHoldingsSummaryReport(Report report) {
+    private void generateHoldingsSummaryReport(Report report, OutputStream out) {
         List<HoldingProjection> holdings = holdingProjectionRepository
                 .findByUserId(report.getUserId());
 
-        return generateInFormat(holdings, report.getFormat(), "Holdings Summary");
+        generateInFormat(holdings, report.getFormat(), "Holdings Summary", out);
     }
 
-    private byte[] generateTradeHistoryReport(Report report) {
+    private void generateTradeHistoryReport(Report report, OutputStream out) {
         Long userId = report.getUserId();
         Instant fromDate = report.getFromDate() != null ? report.getFromDate()
                 : Instant.now().minus(365, ChronoUnit.DAYS);
         Instant toDate = report.getToDate() != null ? report.getToDate() : Instant.now();
 
-        List<TradeProjection> trades = tradeProjectionRepository
-                .findByUserIdAndDateRange(userId, fromDate, toDate);
+        try (Stream<TradeProjection> trades = tradeProjectionRepository
+                .streamByUserIdAndDateRange(userId, fromDate, toDate)) {
+            generateInFormat(detachEach(trades), report.getFormat(), "Trade History", out);
+        }
+    }
 
-        return generateInFormat(trades, report.getFormat(), "Trade History");
+    private void generateInFormat(Object data, ReportFormat format, String title, OutputStream out) {
+        switch (format) {
+            case PDF -> pdfGenerator.generate(data, title, out);
+            case EXCEL -> excelGenerator.generate(data, title, out);
+            case CSV -> csvGenerator.generate(data, title, out);
+        }
     }
 
-    private byte[] generateInFormat(Object data, ReportFormat format, String title) {
-        return switch (format) {
-            case PDF -> pdfGenerator.generate(data, title);
-            case EXCEL -> excelGenerator.generate(data, title);
-            case CSV -> csvGenerator.generate(data, title);
-        };
+    /**
+     * Evict each streamed row from the persistence context once it is read,
+     * so the session does not grow with the report.
+     */
+    private <T> Stream<T> detachEach(Stream<T> rows) {
+        return rows.peek(entityManager::detach);
     }
 
-    private PnLReportData buildPnLReportData(Long userId, List<TradeProjection> trades,
+    private PnLReportData buildPnLReportData(Long userId, List<RealizedLot> realized,
             List<HoldingProjection> holdings,
             Instant fromDate, Instant toDate) {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneId.systemDefault());
 
-        // Calculate realized P&L from trades (simplified - actual would need buy/sell
-        // matching)
+        // Realized P&L from sells matched FIFO against their buy lots; a sell
+        // spanning several lots contributes one entry per lot
         BigDecimal realizedPnL = BigDecimal.ZERO;
-        List<PnLReportData.TradePnL> tradePnLs = new ArrayList<>();
-
-        for (TradeProjection trade : trades) {
-            if (trade.isSell()) {
-                // Simplified: assuming profit = sell price - some average (mock)
-                BigDecimal profit = trade.getValue().multiply(new BigDecimal("0.05")); // Mock 5% profit
-                realizedPnL = realizedPnL.add(profit);
-
-                tradePnLs.add(PnLReportData.TradePnL.builder()
-                        .tradeId(trade.getTradeId())
-                        .symbol(trade.getSymbol())
-                        .side(trade.getSide())
-                        .quantity(trade.getQuantity())
-                        .sellPrice(trade.getPrice())
-                        .realizedPnL(profit)
-                        .executedAt(formatter.format(trade.getExecutedAt()))
-                        .build());
-            }
+        List<PnLReportData.TradePnL> tradePnLs = new ArrayList<>(realized.size());
+
+        for (RealizedLot lot : realized) {
+            realizedPnL = realizedPnL.add(lot.getGain());
+
+            tradePnLs.add(PnLReportData.TradePnL.builder()
+                    .tradeId(lot.getSellTradeId())
+                    .symbol(lot.getSymbol())
+                    .side("SELL")
+                    .quantity(lot.getQuantity())
+                    .buyPrice(lot.getCostPrice())
+                    .sellPrice(lot.getSellPrice())
+                    .realizedPnL(lot.getGain())
+                    .executedAt(formatter.format(lot.getSoldAt()))
+                    .build());
         }
 
         // Calculate unrealized P&L from holdings (mock current prices)
@@ -249,39 +302,35 @@ public class ReportGenerationService {
                 .build();
     }
 
-    private TaxReportData buildTaxReportData(Long userId, List<TradeProjection> trades,
+    private TaxReportData buildTaxReportData(Long userId, List<RealizedLot> realized,
             Instant fromDate, Instant toDate) {
         DateTimeFormatter formatter = DateTimeFormatter.ISO_LOCAL_DATE.withZone(ZoneId.systemDefault());
 
-        // Group by STCG (< 365 days) and LTCG (>= 365 days)
+        // Split into STCG and LTCG by each matched lot's holding period
         BigDecimal stcg = BigDecimal.ZERO;
         BigDecimal ltcg = BigDecimal.ZERO;
         List<TaxReportData.CapitalGainEntry> stcgEntries = new ArrayList<>();
         List<TaxReportData.CapitalGainEntry> ltcgEntries = new ArrayList<>();
 
-        for (TradeProjection trade : trades) {
-            if (trade.isSell()) {
-                // Mock holding period (would need actual buy date in production)
-                int holdingDays = (int) (Math.random() * 500); // Mock
-                BigDecimal gain = trade.getValue().multiply(new BigDecimal("0.05")); // Mock 5% gain
-
-                TaxReportData.CapitalGainEntry entry = TaxReportData.CapitalGainEntry.builder()
-                        .symbol(trade.getSymbol())
-                        .quantity(trade.getQuantity())
-                        .sellDate(formatter.format(trade.getExecutedAt()))
-                        .sellPrice(trade.getPrice())
-                        .holdingDays(holdingDays)
-                        .capitalGain(gain)
-                        .gainType(holdingDays < 365 ? "STCG" : "LTCG")
-                        .build();
-
-                if (holdingDays < 365) {
-                    stcg = stcg.add(gain);
-                    stcgEntries.add(entry);
-                } else {
-                    ltcg = ltcg.add(gain);
-                    ltcgEntries.add(entry);
-                }
+        for (RealizedLot lot : realized) {
+            TaxReportData.CapitalGainEntry entry = TaxReportData.CapitalGainEntry.builder()
+                    .symbol(lot.getSymbol())
+                    .quantity(lot.getQuantity())
+                    .buyDate(formatter.format(lot.getAcquiredAt()))
+                    .buyPrice(lot.getCostPrice())
+                    .sellDate(formatter.format(lot.getSoldAt()))
+                    .sellPrice(lot.getSellPrice())
+                    .holdingDays(lot.getHoldingDays())
+                    .capitalGain(lot.getGain())
+                    .gainType(lot.isLongTerm() ? "LTCG" : "STCG")
+                    .build();
+
+            if (lot.isLongTerm()) {
+                ltcg = ltcg.add(lot.getGain());
+                ltcgEntries.add(entry);
+            } else {
+                stcg = stcg.add(lot.getGain());
+                stcgEntries.add(entry);
             }
         }
 
@@ -301,33 +350,34 @@ public class ReportGenerationService {
                 .build();
     }
 
-    private String buildFileName(Report report) {
-        String extension = switch (report.getFormat()) {
+    private static String extension(ReportFormat format) {
+        return switch (format) {
             case PDF -> ".pdf";
             case EXCEL -> ".xlsx";
             case CSV -> ".csv";
         };
-
-        String typeName = report.getReportType().name().toLowerCase().replace("_", "-");
-        return String.format("%s_%s_%s%s",
-                typeName,
-                report.getUserId(),
-                report.getReportId().substring(0, 8),
-                extension);
     }
 
-    private Path saveReportFile(byte[] content, String fileName) throws IOException {
+    private Path storageDirectory() throws IOException {
         Path dir = Paths.get(storagePath);
         if (!Files.exists(dir)) {
             Files.createDirectories(dir);
         }
+        return dir;
+    }
 
-        Path filePath = dir.resolve(fileName);
-        Files.write(filePath, content);
-        return filePath;
+    private void deletePartialFile(Path tempFile) {
+        if (tempFile == null) {
+            return;
+        }
+        try {
+            Files.deleteIfExists(tempFile);
+        } catch (IOException e) {
+            log.warn("Failed to delete partial report file {}: {}", tempFile, e.getMessage());
+        }
     }
 
-    private void publishCompletionEvent(Report report) {
+    void publishCompletionEvent(Report report) {
         try {
             ReportCompletedEvent event = ReportCompletedEvent.builder()
                     .reportId(report.getReportId())
@@ -0,0 +1,281 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.config.ReportJobProperties;
+import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.repository.ReportRepository;
+import in.winvestco.report_service.repository.ReportRepository.UserJobCount;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Runs report jobs from the reports table.
+ *
+ * A PENDING report is a queued job. A single dispatcher thread picks the
+ * next one fairly across users (FairShareSelector, weighted by estimated
+ * cost), claims it with FOR UPDATE SKIP LOCKED and hands it to a fixed pool
+ * of workers; instances share the queue without double-running a job.
+ * - At most report.jobs.max-per-user reports of a user generate at once,
+ *   across instances; claims of a user serialize on an advisory lock.
+ * - A claimed job carries a lease the owning instance renews while it runs.
+ *   Jobs whose lease lapsed, and at startup those still claimed under this
+ *   instance's worker id, are requeued, or failed once out of attempts.
+ * - The dispatcher wakes after a request commits, after each finished job
+ *   and on a poll interval.
+ */
+@Component
+@Slf4j
+public class ReportJobScheduler {
+
+    static final String QUEUE_WAIT = "reports.jobs.queue.wait";
+    static final String EXECUTION = "reports.jobs.execution";
+
+    private final ReportRepository reportRepository;
+    private final ReportGenerationService reportGenerationService;
+    private final TransactionTemplate transactionTemplate;
+    private final ReportJobProperties properties;
+    private final FairShareSelector selector = new FairShareSelector();
+    private final Map<ReportType, Timer> queueWaitTimers = new EnumMap<>(ReportType.class);
+    private final Map<ReportType, Timer> executionTimers = new EnumMap<>(ReportType.class);
+
+    private final Set<Long> running = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+    private final ExecutorService dispatcher = Executors.newSingleThreadExecutor(
+            Thread.ofPlatform().name("report-dispatch").daemon().factory());
+    private final ExecutorService workers;
+
+    public ReportJobScheduler(ReportRepository reportRepository, ReportGenerationService reportGenerationService,
+            PlatformTransactionManager transactionManager, ReportJobProperties properties,
+            MeterRegistry meterRegistry) {
+        this.reportRepository = reportRepository;
+        this.reportGenerationService = reportGenerationService;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.properties = properties;
+        this.workers = Executors.newFixedThreadPool(properties.getWorkers(),
+                Thread.ofPlatform().name("report-gen-", 1).daemon().factory());
+
+        for (ReportType type : ReportType.values()) {
+            queueWaitTimers.put(type, Timer.builder(QUEUE_WAIT)
+                    .description("Time from report request to a worker claiming it")
+                    .tag("type", type.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+            executionTimers.put(type, Timer.builder(EXECUTION)
+                    .description("Time spent generating a report")
+                    .tag("type", type.name())
+                    .publishPercentileHistogram()
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Requeue jobs interrupted by this instance's last shutdown, then start
+     * dispatching.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        recoverAbandonedJobs(properties.getWorkerId());
+        wakeUp();
+    }
+
+    /**
+     * Fallback sweep for jobs queued by other instances.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.poll-interval-ms:5000}")
+    public void poll() {
+        wakeUp();
+    }
+
+    /**
+     * Renew the leases of jobs running here and requeue jobs whose lease
+     * lapsed elsewhere.
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.lease-renew-interval-ms:30000}")
+    public void maintainLeases() {
+        try {
+            if (!running.isEmpty()) {
+                transactionTemplate.executeWithoutResult(status -> reportRepository.renewLeases(
+                        List.copyOf(running), properties.getWorkerId(), leaseUntil(Instant.now())));
+            }
+            recoverAbandonedJobs(null);
+        } catch (Exception e) {
+            log.error("Report job lease maintenance failed", e);
+        }
+    }
+
+    /**
+     * Wake the dispatcher once the current transaction commits, so it sees
+     * the job just queued.
+     */
+    public void wakeUpAfterCommit() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    wakeUp();
+                }
+            });
+        } else {
+            wakeUp();
+        }
+    }
+
+    /**
+     * Ask the dispatcher to fill free workers. Wake-ups that arrive while a
+     * pass is already queued collapse into it.
+     */
+    public void wakeUp() {
+        if (wakeUpPending.compareAndSet(false, true)) {
+            try {
+                dispatcher.execute(this::dispatch);
+            } catch (Exception e) {
+                wakeUpPending.set(false);
+                log.debug("Report dispatcher not accepting work: {}", e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdown();
+        workers.shutdown();
+    }
+
+    private void dispatch() {
+        // Cleared first, so a wake-up arriving mid-pass schedules one more
+        wakeUpPending.set(false);
+        try {
+            int free = properties.getWorkers() - running.size();
+            for (Report job : claimJobs(free)) {
+                running.add(job.getId());
+                workers.execute(() -> run(job));
+            }
+        } catch (Exception e) {
+            log.error("Report dispatch pass failed", e);
+        }
+    }
+
+    /**
+     * Claim up to the given number of jobs, choosing fairly among the
+     * oldest pending ones of each waiting user.
+     */
+    List<Report> claimJobs(int limit) {
+        List<Report> claimed = new ArrayList<>();
+        if (limit <= 0) {
+            return claimed;
+        }
+
+        // No user runs more than max-per-user jobs at once, so their oldest max-per-user are enough
+        List<Report> pending = new ArrayList<>(reportRepository.findPendingJobs(
+                properties.getMaxPerUser(), properties.getCandidateWindow()));
+        Map<Long, Long> processingByUser = new HashMap<>();
+        for (UserJobCount count : reportRepository.countProcessingByUser()) {
+            processingByUser.put(count.getUserId(), count.getJobs());
+        }
+
+        while (claimed.size() < limit) {
+            Optional<Report> next = selector.select(pending, processingByUser, properties.getMaxPerUser());
+            if (next.isEmpty()) {
+                break;
+            }
+            Report job = next.get();
+            pending.remove(job);
+            if (claim(job)) {
+                selector.charge(job.getUserId(), cost(job));
+                processingByUser.merge(job.getUserId(), 1L, Long::sum);
+                claimed.add(job);
+            }
+        }
+        return claimed;
+    }
+
+    /**
+     * Claim one job, unless its user reached the cap meanwhile or another
+     * instance took it.
+     */
+    private boolean claim(Report job) {
+        Instant now = Instant.now();
+        Boolean won = transactionTemplate.execute(status -> {
+            reportRepository.lockUserJobs(job.getUserId());
+            if (reportRepository.countByUserIdAndStatus(job.getUserId(),
+                    ReportStatus.PROCESSING) >= properties.getMaxPerUser()) {
+                return false;
+            }
+            return reportRepository.claimJob(job.getId(), properties.getWorkerId(), now, leaseUntil(now)) == 1;
+        });
+        if (Boolean.TRUE.equals(won) && job.getRequestedAt() != null) {
+            queueWaitTimers.get(job.getReportType()).record(Duration.between(job.getRequestedAt(), now));
+        }
+        return Boolean.TRUE.equals(won);
+    }
+
+    private void run(Report job) {
+        Timer.Sample sample = Timer.start();
+        try {
+            reportGenerationService.generateReport(job.getId());
+        } catch (Exception e) {
+            // Left PROCESSING; requeued once its lease lapses
+            log.error("Report job {} failed outside generation: {}", job.getReportId(), e.getMessage(), e);
+        } finally {
+            sample.stop(executionTimers.get(job.getReportType()));
+            running.remove(job.getId());
+            wakeUp();
+        }
+    }
+
+    /**
+     * Requeue processing jobs whose lease lapsed, plus those claimed under
+     * ownWorkerId (null for none); jobs out of attempts are failed.
+     */
+    void recoverAbandonedJobs(String ownWorkerId) {
+        transactionTemplate.executeWithoutResult(status -> {
+            for (Report job : reportRepository.claimAbandonedJobs(Instant.now(), ownWorkerId)) {
+                if (running.contains(job.getId())) {
+                    continue;
+                }
+                if (job.getAttempts() >= properties.getMaxAttempts()) {
+                    log.warn("Report {} abandoned after {} attempts, failing it", job.getReportId(), job.getAttempts());
+                    reportGenerationService.failReport(job,
+                            "Generation did not complete after " + job.getAttempts() + " attempts");
+                } else {
+                    log.info("Requeueing report {} abandoned by {}", job.getReportId(), job.getWorkerId());
+                    job.requeue();
+                    reportRepository.save(job);
+                }
+            }
+        });
+    }
+
+    private long cost(Report job) {
+        return job.getEstimatedCost() != null ? job.getEstimatedCost() : properties.getBaseCost();
+    }
+
+    private Instant leaseUntil(Instant now) {
+        return now.plusSeconds(properties.getLeaseSeconds());
+    }
+}
@@ -0,0 +1,140 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.dto.ReportRequest;
+import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.model.projection.ProjectionWatermark;
+import in.winvestco.report_service.repository.ProjectionWatermarkRepository;
+import in.winvestco.report_service.repository.ReportRepository;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.EnumSet;
+import java.util.HexFormat;
+import java.util.Optional;
+
+/**
+ * Finds an existing report that answers a new request.
+ *
+ * A request is fingerprinted by user, type, format, date range and the
+ * version of the projections the report reads. Projection updates bump that
+ * version, so a completed report with the same fingerprint still has exactly
+ * the content a regeneration would produce and is served as is; an identical
+ * request still queued or generating is joined instead of duplicated.
+ * Open-ended ranges resolve against the current date, so their fingerprint
+ * also includes the day.
+ */
+@Component
+@Slf4j
+public class ReportResultCache {
+
+    static final String LOOKUPS = "reports.cache.lookups";
+    static final String TIME_SAVED = "reports.cache.generation.saved";
+
+    private static final EnumSet<ReportStatus> REUSABLE =
+            EnumSet.of(ReportStatus.PENDING, ReportStatus.PROCESSING, ReportStatus.COMPLETED);
+
+    private final ReportRepository reportRepository;
+    private final ProjectionWatermarkRepository projectionWatermarkRepository;
+    private final MeterRegistry meterRegistry;
+    private final Counter timeSaved;
+
+    public ReportResultCache(ReportRepository reportRepository,
+            ProjectionWatermarkRepository projectionWatermarkRepository,
+            MeterRegistry meterRegistry) {
+        this.reportRepository = reportRepository;
+        this.projectionWatermarkRepository = projectionWatermarkRepository;
+        this.meterRegistry = meterRegistry;
+        this.timeSaved = Counter.builder(TIME_SAVED)
+                .description("Generation time of reports served from an earlier identical request")
+                .baseUnit("seconds")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Fingerprint a request against the user's current projection version.
+     */
+    public String fingerprint(Long userId, ReportRequest request) {
+        ProjectionWatermark watermark = projectionWatermarkRepository.findById(userId)
+                .orElseGet(() -> ProjectionWatermark.builder().userId(userId).build());
+        long version = request.getType() == ReportType.TRANSACTION_HISTORY
+                ? watermark.getLedgerVersion()
+                : watermark.getTradeVersion();
+
+        String openRangeDay = request.getFromDate() == null || request.getToDate() == null
+                ? LocalDate.now(ZoneId.systemDefault()).toString()
+                : "";
+
+        String key = String.join("|",
+                String.valueOf(userId),
+                request.getType().name(),
+                request.getFormat().name(),
+                String.valueOf(request.getFromDate()),
+                String.valueOf(request.getToDate()),
+                openRangeDay,
+                String.valueOf(version));
+        return sha256(key);
+    }
+
+    /**
+     * Find a completed or in-flight report with the fingerprint. Holds a
+     * transaction-scoped lock on the fingerprint, so the caller must create
+     * its report in the same transaction when nothing is found.
+     */
+    public Optional<Report> findReusable(Long userId, ReportType type, String fingerprint) {
+        reportRepository.lockFingerprint(Long.parseUnsignedLong(fingerprint.substring(0, 16), 16));
+
+        Optional<Report> candidate = reportRepository
+                .findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(userId, fingerprint, REUSABLE)
+                .filter(this::isReusable);
+
+        if (candidate.isEmpty()) {
+            lookup(type, "miss");
+            return Optional.empty();
+        }
+
+        Report report = candidate.get();
+        if (report.isInFlight()) {
+            lookup(type, "coalesced");
+            log.info("Coalescing request of user {} onto in-flight report {}", userId, report.getReportId());
+        } else {
+            lookup(type, "hit");
+            if (report.getGenerationMillis() != null) {
+                timeSaved.increment(report.getGenerationMillis() / 1000.0);
+            }
+            log.info("Serving report {} to user {} from an identical earlier request",
+                    report.getReportId(), userId);
+        }
+        return candidate;
+    }
+
+    private boolean isReusable(Report report) {
+        // Queued jobs are durable and interrupted ones are requeued by the
+        // job scheduler, so an in-flight report always completes or fails
+        return report.isInFlight()
+                || report.isDownloadable() && Files.isReadable(Paths.get(report.getFilePath()));
+    }
+
+    private void lookup(ReportType type, String result) {
+        meterRegistry.counter(LOOKUPS, "type", type.name(), "result", result).increment();
+    }
+
+    private static String sha256(String value) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(value.getBytes(StandardCharsets.UTF_8)));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
@@ -23,6 +23,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.Optional;
 import java.util.UUID;
 
 /**
@@ -36,7 +37,9 @@ public class ReportService {
 
     private final ReportRepository reportRepository;
     private final ReportMapper reportMapper;
-    private final ReportGenerationService reportGenerationService;
+    private final ReportResultCache reportResultCache;
+    private final ReportCostEstimator reportCostEstimator;
+    private final ReportJobScheduler reportJobScheduler;
 
     @Value("${report.storage.path:./reports}")
     private String storagePath;
@@ -46,13 +49,20 @@ public class ReportService {
 
     /**
      * Request a new report for the user.
-     * Creates a PENDING report and triggers async generation.
+     * Returns an existing report when an identical request is completed or in
+     * flight, otherwise queues a PENDING report for the job scheduler.
      */
     @Transactional
     public ReportDTO requestReport(Long userId, ReportRequest request) {
         log.info("Requesting report for user {}: type={}, format={}",
                 userId, request.getType(), request.getFormat());
 
+        String fingerprint = reportResultCache.fingerprint(userId, request);
+        Optional<Report> reusable = reportResultCache.findReusable(userId, request.getType(), fingerprint);
+        if (reusable.isPresent()) {
+            return toDTO(reusable.get());
+        }
+
         // Create report entity
         Report report = Report.builder()
                 .reportId(UUID.randomUUID().toString())
@@ -62,12 +72,14 @@ public class ReportService {
                 .fromDate(request.getFromDate())
                 .toDate(request.getToDate())
                 .status(ReportStatus.PENDING)
+                .fingerprint(fingerprint)
+                .estimatedCost(reportCostEstimator.estimate(userId, request))
                 .build();
 
         report = reportRepository.save(report);
 
-        // Trigger async generation
-        reportGenerationService.generateReportAsync(report.getId());
+        // Queued by the insert; let the scheduler pick it up once committed
+        reportJobScheduler.wakeUpAfterCommit();
 
         log.info("Report {} queued for generation", report.getReportId());
         return reportMapper.toDTO(report);
@@ -81,11 +93,7 @@ public class ReportService {
         Report report = reportRepository.findByReportId(reportId)
                 .orElseThrow(() -> new RuntimeException("Report not found: " + reportId));
 
-        ReportDTO dto = reportMapper.toDTO(report);
-        if (report.isDownloadable()) {
-            dto.setDownloadUrl("/api/reports/" + reportId + "/download");
-        }
-        return dto;
+        return toDTO(report);
     }
 
     /**
@@ -94,13 +102,7 @@ public class ReportService {
     @Transactional(readOnly = true)
     public Page<ReportDTO> getUserReports(Long userId, Pageable pageable) {
         return reportRepository.findByUserIdOrderByRequestedAtDesc(userId, pageable)
-                .map(report -> {
-                    ReportDTO dto = reportMapper.toDTO(report);
-                    if (report.isDownloadable()) {
-                        dto.setDownloadUrl("/api/reports/" + report.getReportId() + "/download");
-                    }
-                    return dto;
-                });
+                .map(this::toDTO);
     }
 
     /**
@@ -141,16 +143,17 @@ public class ReportService {
             throw new RuntimeException("Not authorized to delete this report");
         }
 
-        // Delete file if exists
+        reportRepository.delete(report);
+
+        // Delete file if no other report shares it
         if (report.getFilePath() != null) {
             try {
-                Files.deleteIfExists(Paths.get(report.getFilePath()));
+                deleteFileIfUnreferenced(report.getFilePath());
             } catch (IOException e) {
                 log.warn("Failed to delete report file: {}", report.getFilePath(), e);
             }
         }
 
-        reportRepository.delete(report);
         log.info("Deleted report: {}", reportId);
     }
 
@@ -166,22 +169,44 @@ public class ReportService {
 
         int deletedCount = 0;
         for (Report report : expiredReports) {
+            String filePath = report.getFilePath();
             try {
-                if (report.getFilePath() != null) {
-                    Files.deleteIfExists(Paths.get(report.getFilePath()));
-                }
                 report.setStatus(ReportStatus.EXPIRED);
                 report.setFilePath(null);
                 reportRepository.save(report);
+                if (filePath != null) {
+                    deleteFileIfUnreferenced(filePath);
+                }
                 deletedCount++;
             } catch (IOException e) {
-                log.warn("Failed to cleanup report file: {}", report.getFilePath(), e);
+                log.warn("Failed to cleanup report file: {}", filePath, e);
             }
         }
 
         log.info("Cleanup completed: {} reports expired", deletedCount);
     }
 
+    private ReportDTO toDTO(Report report) {
+        ReportDTO dto = reportMapper.toDTO(report);
+        if (report.isDownloadable()) {
+            dto.setDownloadUrl("/api/reports/" + report.getReportId() + "/download");
+        }
+        return dto;
+    }
+
+    /**
+     * Report files are content-addressed and may be shared by several
+     * reports; only the last one to go takes the file with it. References
+     * are counted under the file's lock, which a report being completed onto
+     * the file holds until it commits.
+     */
+    private void deleteFileIfUnreferenced(String filePath) throws IOException {
+        reportRepository.lockReportFile(filePath);
+        if (reportRepository.countByFilePath(filePath) == 0) {
+            Files.deleteIfExists(Paths.get(filePath));
+        }
+    }
+
     /**
      * Get storage path for reports
      */
@@ -0,0 +1,130 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.model.lot.LotMatchingState;
+import in.winvestco.report_service.model.lot.RealizedLot;
+import in.winvestco.report_service.model.lot.TaxLot;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import in.winvestco.report_service.repository.LotMatchingStateRepository;
+import in.winvestco.report_service.repository.RealizedLotRepository;
+import in.winvestco.report_service.repository.TaxLotRepository;
+import in.winvestco.report_service.repository.TradeProjectionRepository;
+import jakarta.persistence.EntityManager;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.stream.Stream;
+
+/**
+ * Keeps each user's FIFO tax lots and realized gains up to date with their
+ * trade projections.
+ *
+ * Lot state is persisted per user: the open lots, every realized lot and a
+ * cursor over the trades already applied. A catch-up restores the open lots
+ * and applies only the trades past the cursor, so a year-end tax report reads
+ * precomputed realized lots instead of replaying the whole trade history.
+ * When a trade turns up behind the cursor (projections can arrive out of
+ * order) the user's lots are rebuilt with a full replay.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class TaxLotService {
+
+    private static final int WRITE_BATCH_SIZE = 500;
+
+    private final TradeProjectionRepository tradeProjectionRepository;
+    private final TaxLotRepository taxLotRepository;
+    private final RealizedLotRepository realizedLotRepository;
+    private final LotMatchingStateRepository lotMatchingStateRepository;
+    private final EntityManager entityManager;
+
+    @Value("${report.tax.long-term-holding-days:365}")
+    private int longTermHoldingDays;
+
+    /**
+     * Apply the user's new trades to their lots, then return the realized
+     * lots sold within the range.
+     */
+    @Transactional
+    public List<RealizedLot> getRealizedLots(Long userId, Instant fromDate, Instant toDate) {
+        catchUp(userId);
+        return realizedLotRepository.findByUserIdAndSoldAtRange(userId, fromDate, toDate);
+    }
+
+    /**
+     * Apply every trade of the user not yet matched. Holds the user's state
+     * row lock for the duration, so concurrent runs for a user serialize.
+     */
+    @Transactional
+    public void catchUp(Long userId) {
+        lotMatchingStateRepository.insertIfAbsent(userId);
+        LotMatchingState state = lotMatchingStateRepository.findForUpdate(userId)
+                .orElseThrow(() -> new IllegalStateException("Lot matching state missing for user " + userId));
+
+        long upToCursor = tradeProjectionRepository.countUpTo(userId,
+                state.getLastExecutedAt(), state.getLastTradeRowId());
+        if (upToCursor != state.getAppliedTrades()) {
+            log.info("User {} has {} trades behind the lot cursor but {} applied, rebuilding lots",
+                    userId, upToCursor, state.getAppliedTrades());
+            realizedLotRepository.deleteByUserId(userId);
+            taxLotRepository.deleteByUserId(userId);
+            state.reset();
+        }
+
+        FifoLotMatcher matcher = new FifoLotMatcher(userId, longTermHoldingDays);
+        taxLotRepository.findOpenLots(userId).forEach(matcher::restore);
+
+        long applied = 0;
+        List<RealizedLot> pending = new ArrayList<>(WRITE_BATCH_SIZE);
+        try (Stream<TradeProjection> trades = tradeProjectionRepository.streamAfter(userId,
+                state.getLastExecutedAt(), state.getLastTradeRowId())) {
+            Iterator<TradeProjection> iterator = trades.iterator();
+            while (iterator.hasNext()) {
+                TradeProjection trade = iterator.next();
+                pending.addAll(matcher.apply(trade));
+                state.advance(trade.getExecutedAt(), trade.getId());
+                entityManager.detach(trade);
+                applied++;
+
+                if (pending.size() >= WRITE_BATCH_SIZE) {
+                    writeRealized(pending);
+                }
+            }
+        }
+        writeRealized(pending);
+
+        if (applied == 0) {
+            return;
+        }
+
+        // Restored lots that were partly consumed are managed and flush their
+        // new remaining quantity on commit
+        taxLotRepository.deleteAll(matcher.getExhaustedLots());
+        taxLotRepository.saveAll(matcher.getNewOpenLots());
+        state.setUpdatedAt(Instant.now());
+        lotMatchingStateRepository.save(state);
+
+        log.info("Applied {} trades to tax lots of user {}", applied, userId);
+    }
+
+    /**
+     * Insert a batch of realized lots and evict them from the persistence
+     * context, so a long replay does not accumulate them.
+     */
+    private void writeRealized(List<RealizedLot> pending) {
+        if (pending.isEmpty()) {
+            return;
+        }
+        realizedLotRepository.saveAll(pending);
+        entityManager.flush();
+        pending.forEach(entityManager::detach);
+        pending.clear();
+    }
+}
@@ -0,0 +1,45 @@
+-- =====================================================
+-- Report Service Database Schema
+-- V2: FIFO tax lots for P&L and capital gains reports
+-- =====================================================
+
+-- Open buy lots, consumed FIFO per (user, symbol) by later sells
+CREATE TABLE tax_lots (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    symbol VARCHAR(20) NOT NULL,
+    buy_trade_id VARCHAR(36) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL,
+    cost_price DECIMAL(18, 4) NOT NULL,
+    remaining_quantity DECIMAL(18, 4) NOT NULL
+);
+
+CREATE INDEX idx_tax_lots_user_symbol ON tax_lots (user_id, symbol, acquired_at);
+
+-- One row per (sell, buy lot) match
+CREATE TABLE realized_lots (
+    id BIGSERIAL PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    symbol VARCHAR(20) NOT NULL,
+    buy_trade_id VARCHAR(36) NOT NULL,
+    sell_trade_id VARCHAR(36) NOT NULL,
+    quantity DECIMAL(18, 4) NOT NULL,
+    cost_price DECIMAL(18, 4) NOT NULL,
+    sell_price DECIMAL(18, 4) NOT NULL,
+    acquired_at TIMESTAMP NOT NULL,
+    sold_at TIMESTAMP NOT NULL,
+    holding_days INTEGER NOT NULL,
+    long_term BOOLEAN NOT NULL,
+    gain DECIMAL(18, 4) NOT NULL
+);
+
+CREATE INDEX idx_realized_lots_user_sold_at ON realized_lots (user_id, sold_at);
+
+-- Per-user cursor over the trade projections already applied to the lots
+CREATE TABLE lot_matching_state (
+    user_id BIGINT PRIMARY KEY,
+    last_executed_at TIMESTAMP NOT NULL,
+    last_trade_row_id BIGINT NOT NULL,
+    applied_trades BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
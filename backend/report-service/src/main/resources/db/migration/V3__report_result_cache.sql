@@ -0,0 +1,24 @@
+-- =====================================================
+-- Report Service Database Schema
+-- V3: Report deduplication and content-addressed files
+-- =====================================================
+
+-- Fingerprint of (user, type, format, range, projection watermark); equal
+-- fingerprints produce the same report, so a completed or in-flight one is
+-- reused. Files are stored under the SHA-256 of their content and may be
+-- shared by several reports.
+ALTER TABLE reports ADD COLUMN fingerprint VARCHAR(64);
+ALTER TABLE reports ADD COLUMN content_hash VARCHAR(64);
+ALTER TABLE reports ADD COLUMN generation_ms BIGINT;
+
+CREATE INDEX idx_reports_user_fingerprint ON reports (user_id, fingerprint);
+
+CREATE INDEX idx_reports_file_path ON reports (file_path);
+
+-- Per-user projection versions, bumped with every projection update
+CREATE TABLE projection_watermarks (
+    user_id BIGINT PRIMARY KEY,
+    trade_version BIGINT NOT NULL DEFAULT 0,
+    ledger_version BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
@@ -0,0 +1,17 @@
+-- =====================================================
+-- Report Service Database Schema
+-- V4: Reports table as a persistent job queue
+-- =====================================================
+
+-- PENDING reports are queued jobs. A worker claims one with
+-- FOR UPDATE SKIP LOCKED, moving it to PROCESSING under a lease it renews
+-- while generating; jobs whose lease lapses are requeued.
+ALTER TABLE reports ADD COLUMN estimated_cost BIGINT;
+ALTER TABLE reports ADD COLUMN started_at TIMESTAMP;
+ALTER TABLE reports ADD COLUMN worker_id VARCHAR(64);
+ALTER TABLE reports ADD COLUMN lease_until TIMESTAMP;
+ALTER TABLE reports ADD COLUMN attempts INTEGER NOT NULL DEFAULT 0;
+
+CREATE INDEX idx_reports_pending ON reports (id) WHERE status = 'PENDING';
+
+CREATE INDEX idx_reports_processing_user ON reports (user_id) WHERE status = 'PROCESSING';
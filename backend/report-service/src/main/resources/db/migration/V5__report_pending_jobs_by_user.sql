@@ -0,0 +1,8 @@
+-- =====================================================
+-- Report Service Database Schema
+-- V5: Per-user pending job index
+-- =====================================================
+
+-- The scheduler ranks each user's pending jobs by id and takes the oldest
+-- few per user, so one user's backlog cannot fill the candidate window.
+CREATE INDEX idx_reports_pending_user ON reports (user_id, id) WHERE status = 'PENDING';
@@ -0,0 +1,130 @@
+package in.winvestco.report_service.benchmark;
+
+import in.winvestco.report_service.generator.CsvReportGenerator;
+import in.winvestco.report_service.generator.ExcelReportGenerator;
+import in.winvestco.report_service.generator.PdfReportGenerator;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * Trade history report generation at 10k, 100k and 1M rows, per format.
+ *
+ * Rows are produced lazily as a Stream, the way the cursor-backed repository
+ * query hands them over, and written to a temp file. Each run reports time
+ * per report (rows / time gives throughput) and, after every iteration, the
+ * peak heap used while generating. The fork is capped at 256 MB of heap, so
+ * the 1M-row runs only complete if generation really is constant-memory.
+ *
+ * Not run by surefire. Run with:
+ * mvn -pl report-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=in.winvestco.report_service.benchmark.ReportGeneratorBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = "-Xmx256m")
+public class ReportGeneratorBenchmark {
+
+    private static final String[] SYMBOLS = { "RELIANCE", "TCS", "INFY", "HDFCBANK", "ITC" };
+    private static final Instant START = Instant.parse("2020-01-01T03:45:00Z");
+
+    @Param({ "10000", "100000", "1000000" })
+    private int rows;
+
+    @Param({ "CSV", "EXCEL", "PDF" })
+    private String format;
+
+    private final CsvReportGenerator csvGenerator = new CsvReportGenerator();
+    private final ExcelReportGenerator excelGenerator = new ExcelReportGenerator();
+    private final PdfReportGenerator pdfGenerator = new PdfReportGenerator();
+
+    private Path file;
+
+    @Setup(Level.Iteration)
+    public void setUp() throws IOException {
+        file = Files.createTempFile("report-bench", ".out");
+        System.gc();
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            pool.resetPeakUsage();
+        }
+    }
+
+    @TearDown(Level.Iteration)
+    public void tearDown() throws IOException {
+        long peakHeap = 0;
+        for (MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peakHeap += pool.getPeakUsage().getUsed();
+            }
+        }
+        System.out.printf("%n%s %d rows: peak heap %d MB, file %d KB%n",
+                format, rows, peakHeap >> 20, Files.size(file) >> 10);
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public long tradeHistory() throws IOException {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024);
+                Stream<TradeProjection> trades = trades(rows)) {
+            switch (format) {
+                case "CSV" -> csvGenerator.generate(trades, "Trade History", out);
+                case "EXCEL" -> excelGenerator.generate(trades, "Trade History", out);
+                case "PDF" -> pdfGenerator.generate(trades, "Trade History", out);
+                default -> throw new IllegalArgumentException(format);
+            }
+        }
+        return Files.size(file);
+    }
+
+    private static Stream<TradeProjection> trades(int count) {
+        return LongStream.range(0, count).mapToObj(i -> TradeProjection.builder()
+                .id(i)
+                .tradeId("trade-" + i)
+                .orderId("order-" + i)
+                .userId(1L)
+                .symbol(SYMBOLS[(int) (i % SYMBOLS.length)])
+                .side(i % 3 == 0 ? "SELL" : "BUY")
+                .quantity(BigDecimal.valueOf(1 + i % 50))
+                .price(BigDecimal.valueOf(100_000 + i % 5_000, 2))
+                .executedAt(START.plusSeconds(i * 60))
+                .status("FILLED")
+                .build());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(ReportGeneratorBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
@@ -0,0 +1,134 @@
+package in.winvestco.report_service.benchmark;
+
+import in.winvestco.report_service.model.lot.TaxLot;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import in.winvestco.report_service.service.FifoLotMatcher;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+
+/**
+ * FIFO tax-lot matching over a user's trade history.
+ *
+ * fullReplay streams the whole history through a fresh matcher, the cost of
+ * a first report or an out-of-order rebuild. incremental restores the open
+ * lots left by that history (copied, standing in for loading them) and
+ * applies the next 1k trades, the cost of a catch-up before a typical report.
+ * Trades cycle over 50 symbols; each symbol buys 10 twice then sells 18, so
+ * sells never exceed the open lots and every sell splits a lot.
+ *
+ * Not run by surefire. Run with:
+ * mvn -pl report-service test-compile exec:java -Dexec.classpathScope=test
+ * -Dexec.mainClass=in.winvestco.report_service.benchmark.TaxLotMatcherBenchmark
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = "-Xmx1g")
+public class TaxLotMatcherBenchmark {
+
+    private static final int SYMBOL_COUNT = 50;
+    private static final int NEW_TRADES = 1_000;
+    private static final int LONG_TERM_DAYS = 365;
+    private static final Instant START = Instant.parse("2015-01-01T03:45:00Z");
+
+    @Param({ "100000", "1000000" })
+    private int trades;
+
+    private List<TaxLot> openLots;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        FifoLotMatcher matcher = new FifoLotMatcher(1L, LONG_TERM_DAYS);
+        try (Stream<TradeProjection> history = trades(0, trades)) {
+            history.forEach(matcher::apply);
+        }
+        openLots = matcher.getNewOpenLots();
+        System.out.printf("%n%d trades leave %d open lots%n", trades, openLots.size());
+    }
+
+    @Benchmark
+    public long fullReplay() {
+        FifoLotMatcher matcher = new FifoLotMatcher(1L, LONG_TERM_DAYS);
+        long realized = 0;
+        try (Stream<TradeProjection> history = trades(0, trades)) {
+            for (TradeProjection trade : (Iterable<TradeProjection>) history::iterator) {
+                realized += matcher.apply(trade).size();
+            }
+        }
+        return realized;
+    }
+
+    @Benchmark
+    public long incremental() {
+        FifoLotMatcher matcher = new FifoLotMatcher(1L, LONG_TERM_DAYS);
+        for (TaxLot lot : openLots) {
+            matcher.restore(copy(lot));
+        }
+        long realized = 0;
+        try (Stream<TradeProjection> next = trades(trades, trades + NEW_TRADES)) {
+            for (TradeProjection trade : (Iterable<TradeProjection>) next::iterator) {
+                realized += matcher.apply(trade).size();
+            }
+        }
+        return realized;
+    }
+
+    private static Stream<TradeProjection> trades(long from, long to) {
+        return LongStream.range(from, to).mapToObj(i -> {
+            long step = i / SYMBOL_COUNT;
+            boolean sell = step % 3 == 2;
+            return TradeProjection.builder()
+                    .id(i + 1)
+                    .tradeId("trade-" + i)
+                    .orderId("order-" + i)
+                    .userId(1L)
+                    .symbol("SYM" + i % SYMBOL_COUNT)
+                    .side(sell ? "SELL" : "BUY")
+                    .quantity(BigDecimal.valueOf(sell ? 18 : 10))
+                    .price(BigDecimal.valueOf(100_000 + step % 5_000, 2))
+                    .executedAt(START.plusSeconds(i * 60))
+                    .status("FILLED")
+                    .build();
+        });
+    }
+
+    private static TaxLot copy(TaxLot lot) {
+        return TaxLot.builder()
+                .id(lot.getId())
+                .userId(lot.getUserId())
+                .symbol(lot.getSymbol())
+                .buyTradeId(lot.getBuyTradeId())
+                .acquiredAt(lot.getAcquiredAt())
+                .costPrice(lot.getCostPrice())
+                .remainingQuantity(lot.getRemainingQuantity())
+                .build();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+                .include(TaxLotMatcherBenchmark.class.getSimpleName())
+                .build()).run();
+    }
+}
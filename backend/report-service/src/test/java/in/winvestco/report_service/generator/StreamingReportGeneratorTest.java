@@ -0,0 +1,114 @@
+package in.winvestco.report_service.generator;
+
+import in.winvestco.report_service.model.projection.LedgerProjection;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import org.apache.poi.ss.usermodel.Sheet;
+import org.apache.poi.xssf.usermodel.XSSFWorkbook;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamingReportGeneratorTest {
+
+    private static final int ROWS = 1_000;
+
+    private final CsvReportGenerator csvGenerator = new CsvReportGenerator();
+    private final ExcelReportGenerator excelGenerator = new ExcelReportGenerator();
+    private final PdfReportGenerator pdfGenerator = new PdfReportGenerator();
+
+    @Test
+    void csv_ShouldWriteEveryStreamedRow() {
+        TrackingOutputStream out = new TrackingOutputStream();
+        AtomicInteger read = new AtomicInteger();
+
+        csvGenerator.generate(trades(ROWS).peek(t -> read.incrementAndGet()), "Trade History", out);
+
+        String csv = out.toString(StandardCharsets.UTF_8);
+        assertEquals(ROWS, read.get());
+        assertEquals(ROWS + 1, csv.lines().count());
+        assertTrue(csv.startsWith("\"Symbol\",\"Side\""));
+        assertFalse(out.closed, "caller owns the stream");
+    }
+
+    @Test
+    void excel_ShouldFlushRowsPastTheWindowAndKeepThemAll() throws Exception {
+        TrackingOutputStream out = new TrackingOutputStream();
+
+        excelGenerator.generate(trades(ROWS), "Trade History", out);
+
+        assertTrue(ROWS > ExcelReportGenerator.ROW_WINDOW);
+        try (XSSFWorkbook workbook = new XSSFWorkbook(new ByteArrayInputStream(out.toByteArray()))) {
+            Sheet sheet = workbook.getSheet("Trade History");
+            assertEquals(ROWS, sheet.getLastRowNum());
+            assertEquals("RELIANCE", sheet.getRow(1).getCell(0).getStringCellValue());
+            assertEquals("TCS", sheet.getRow(ROWS).getCell(0).getStringCellValue());
+        }
+        assertFalse(out.closed, "caller owns the stream");
+    }
+
+    @Test
+    void pdf_ShouldWriteLargeTableAcrossFlushes() {
+        TrackingOutputStream out = new TrackingOutputStream();
+
+        pdfGenerator.generate(ledger(PdfReportGenerator.FLUSH_ROWS * 2 + 1), "Transaction History", out);
+
+        String pdf = out.toString(StandardCharsets.ISO_8859_1);
+        assertTrue(pdf.startsWith("%PDF-"));
+        assertTrue(pdf.stripTrailing().endsWith("%%EOF"));
+        assertFalse(out.closed, "caller owns the stream");
+    }
+
+    @Test
+    void emptyStream_ShouldWriteNothing() {
+        TrackingOutputStream out = new TrackingOutputStream();
+
+        csvGenerator.generate(Stream.empty(), "Trade History", out);
+
+        assertEquals(0, out.size());
+    }
+
+    private static Stream<TradeProjection> trades(int count) {
+        return IntStream.range(0, count).mapToObj(i -> TradeProjection.builder()
+                .tradeId("trade-" + i)
+                .orderId("order-" + i)
+                .userId(1L)
+                .symbol(i % 2 == 0 ? "RELIANCE" : "TCS")
+                .side(i % 3 == 0 ? "SELL" : "BUY")
+                .quantity(BigDecimal.TEN)
+                .price(new BigDecimal("2500.00"))
+                .executedAt(Instant.parse("2024-01-01T04:00:00Z").plusSeconds(i))
+                .status("FILLED")
+                .build());
+    }
+
+    private static Stream<LedgerProjection> ledger(int count) {
+        return IntStream.range(0, count).mapToObj(i -> LedgerProjection.builder()
+                .walletId(1L)
+                .userId(1L)
+                .entryType("DEPOSIT")
+                .amount(BigDecimal.TEN)
+                .balanceBefore(BigDecimal.valueOf(i * 10L))
+                .balanceAfter(BigDecimal.valueOf(i * 10L + 10))
+                .description("Deposit " + i)
+                .createdAt(Instant.parse("2024-01-01T04:00:00Z").plusSeconds(i))
+                .build());
+    }
+
+    private static class TrackingOutputStream extends ByteArrayOutputStream {
+        private boolean closed;
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package in.winvestco.report_service.messaging;
+
+import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.common.event.FundsDepositedEvent;
+import in.winvestco.common.event.FundsWithdrawnEvent;
+import in.winvestco.common.event.TradeExecutedEvent;
+import in.winvestco.common.messaging.idempotency.IdempotencyService;
+import in.winvestco.report_service.model.projection.HoldingProjection;
+import in.winvestco.report_service.model.projection.LedgerProjection;
+import in.winvestco.report_service.model.projection.WalletProjection;
+import in.winvestco.report_service.repository.ProjectionBatchWriter;
+import in.winvestco.report_service.repository.ProjectionBatchWriter.HoldingKey;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ProjectionEventListenerTest {
+
+    @Mock
+    private ProjectionBatchWriter projectionBatchWriter;
+
+    @Mock
+    private IdempotencyService idempotencyService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private RabbitTemplate rabbitTemplate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ProjectionEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        listener = new ProjectionEventListener(projectionBatchWriter, idempotencyService, transactionManager,
+                rabbitTemplate, meterRegistry);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleTradeExecuted_ShouldWriteEachHoldingOnce() {
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of());
+        when(projectionBatchWriter.lockHoldings(any()))
+                .thenAnswer(invocation -> emptyHoldings(invocation.getArgument(0)));
+
+        listener.handleTradeExecuted(List.of(
+                trade("t1", 1L, "INFY", OrderSide.BUY, "10", "100"),
+                trade("t2", 1L, "INFY", OrderSide.BUY, "10", "200"),
+                trade("t3", 1L, "INFY", OrderSide.SELL, "5", "210"),
+                trade("t4", 2L, "TCS", OrderSide.BUY, "1", "3000")));
+
+        verify(projectionBatchWriter).insertTrades(argThat(trades -> trades.size() == 4));
+        ArgumentCaptor<Collection<HoldingProjection>> holdings = ArgumentCaptor.forClass(Collection.class);
+        verify(projectionBatchWriter).upsertHoldings(holdings.capture());
+        List<HoldingProjection> written = new ArrayList<>(holdings.getValue());
+        assertEquals(2, written.size());
+        assertEquals(0, new BigDecimal("15").compareTo(written.get(0).getQuantity()));
+        assertEquals(0, new BigDecimal("150").compareTo(written.get(0).getAveragePrice()));
+        verify(projectionBatchWriter).bumpTradeVersions(List.of(1L, 2L));
+        verify(idempotencyService).markAllAsProcessed(
+                List.of("trade-executed-t1", "trade-executed-t2", "trade-executed-t3", "trade-executed-t4"),
+                "TradeExecutedEvent");
+        assertEquals(4, meterRegistry.get(ProjectionEventListener.LAG)
+                .tag("projection", "trades").timer().count());
+    }
+
+    @Test
+    void handleTradeExecuted_ShouldSkipProcessedAndRepeatedEvents() {
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of("trade-executed-t1"));
+        when(projectionBatchWriter.lockHoldings(any()))
+                .thenAnswer(invocation -> emptyHoldings(invocation.getArgument(0)));
+
+        listener.handleTradeExecuted(List.of(
+                trade("t1", 1L, "INFY", OrderSide.BUY, "10", "100"),
+                trade("t2", 1L, "INFY", OrderSide.BUY, "10", "100"),
+                trade("t2", 1L, "INFY", OrderSide.BUY, "10", "100")));
+
+        verify(projectionBatchWriter).insertTrades(argThat(trades -> trades.size() == 1));
+        verify(idempotencyService).markAllAsProcessed(List.of("trade-executed-t2"), "TradeExecutedEvent");
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void handleFundsDeposited_ShouldKeepLastBalanceOfEachWallet() {
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of());
+
+        listener.handleFundsDeposited(List.of(
+                deposit("r1", 1L, "100", "200"),
+                deposit("r2", 1L, "200", "350"),
+                deposit("r3", 2L, "0", "50")));
+
+        verify(projectionBatchWriter).insertLedgerEntries(argThat(entries -> entries.size() == 3));
+        ArgumentCaptor<Collection<WalletProjection>> wallets = ArgumentCaptor.forClass(Collection.class);
+        verify(projectionBatchWriter).upsertWallets(wallets.capture());
+        List<WalletProjection> written = new ArrayList<>(wallets.getValue());
+        assertEquals(2, written.size());
+        assertEquals(new BigDecimal("350"), written.get(0).getAvailableBalance());
+        verify(projectionBatchWriter).bumpLedgerVersions(Set.of(1L, 2L));
+    }
+
+    @Test
+    void handleFundsWithdrawn_WhenBatchFails_ShouldDeadLetterOnlyTheBadEvent() {
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of());
+        FundsWithdrawnEvent good = withdrawal("r1", 1L, "10");
+        FundsWithdrawnEvent bad = withdrawal("r2", 2L, "10");
+        doAnswer(invocation -> {
+            List<LedgerProjection> entries = invocation.getArgument(0);
+            if (entries.size() > 1 || "r2".equals(entries.get(0).getReferenceId())) {
+                throw new IllegalArgumentException("bad entry");
+            }
+            return null;
+        }).when(projectionBatchWriter).insertLedgerEntries(any());
+
+        listener.handleFundsWithdrawn(List.of(good, bad));
+
+        verify(idempotencyService).markAllAsProcessed(List.of("funds-withdrawn-r1"), "FundsWithdrawnEvent");
+        verify(rabbitTemplate).convertAndSend(RabbitMQConfig.DLQ_EXCHANGE, RabbitMQConfig.DLQ_QUEUE, bad);
+        verify(rabbitTemplate, never()).convertAndSend(anyString(), anyString(), eq(good));
+    }
+
+    @Test
+    void handleTradeExecuted_WhenDatabaseIsDown_ShouldRequeueTheBatch() {
+        when(idempotencyService.findProcessed(any())).thenReturn(Set.of());
+        doThrow(new DataAccessResourceFailureException("down")).when(projectionBatchWriter).insertTrades(any());
+
+        List<TradeExecutedEvent> batch = List.of(trade("t1", 1L, "INFY", OrderSide.BUY, "1", "100"));
+        assertThrows(DataAccessResourceFailureException.class, () -> listener.handleTradeExecuted(batch));
+        verifyNoInteractions(rabbitTemplate);
+    }
+
+    private static Map<HoldingKey, HoldingProjection> emptyHoldings(Set<HoldingKey> keys) {
+        Map<HoldingKey, HoldingProjection> holdings = new LinkedHashMap<>();
+        for (HoldingKey key : keys) {
+            holdings.put(key, HoldingProjection.builder().userId(key.userId()).symbol(key.symbol()).build());
+        }
+        return holdings;
+    }
+
+    private static TradeExecutedEvent trade(String tradeId, Long userId, String symbol, OrderSide side,
+            String quantity, String price) {
+        return TradeExecutedEvent.builder()
+                .tradeId(tradeId)
+                .orderId("order-" + tradeId)
+                .userId(userId)
+                .symbol(symbol)
+                .side(side)
+                .executedQuantity(new BigDecimal(quantity))
+                .executedPrice(new BigDecimal(price))
+                .executedAt(Instant.now())
+                .build();
+    }
+
+    private static FundsDepositedEvent deposit(String referenceId, Long userId, String before, String after) {
+        return FundsDepositedEvent.builder()
+                .userId(userId)
+                .walletId(userId * 10)
+                .amount(new BigDecimal(after).subtract(new BigDecimal(before)))
+                .balanceBefore(new BigDecimal(before))
+                .newBalance(new BigDecimal(after))
+                .referenceId(referenceId)
+                .depositedAt(Instant.now())
+                .build();
+    }
+
+    private static FundsWithdrawnEvent withdrawal(String referenceId, Long userId, String amount) {
+        return FundsWithdrawnEvent.builder()
+                .userId(userId)
+                .walletId(userId * 10)
+                .amount(new BigDecimal(amount))
+                .balanceBefore(new BigDecimal("100"))
+                .newBalance(new BigDecimal("100").subtract(new BigDecimal(amount)))
+                .referenceId(referenceId)
+                .withdrawnAt(Instant.now())
+                .build();
+    }
+}
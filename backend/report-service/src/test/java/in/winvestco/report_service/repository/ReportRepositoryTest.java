@@ -0,0 +1,93 @@
+package in.winvestco.report_service.repository;
+
+import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.model.Report;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@DisplayName("ReportRepository Tests")
+class ReportRepositoryTest {
+
+    @Autowired
+    private TestEntityManager entityManager;
+
+    @Autowired
+    private ReportRepository repository;
+
+    @Test
+    @DisplayName("Should keep other users' oldest jobs in the window behind one user's backlog")
+    void findPendingJobs_ShouldRankEachUsersOldestJobsFirst() {
+        // Given - user 1 queued more jobs than the window holds before users 2 and 3 queued any
+        for (int i = 0; i < 250; i++) {
+            pending(1L);
+        }
+        Report second = pending(2L);
+        Report third = pending(3L);
+        Report thirdLater = pending(3L);
+        done(4L);
+        entityManager.flush();
+        entityManager.clear();
+
+        // When
+        List<Report> candidates = repository.findPendingJobs(2, 200);
+
+        // Then - at most 2 per user, every waiting user's oldest job included
+        assertEquals(5, candidates.size());
+        assertEquals(2, candidates.stream().filter(r -> r.getUserId() == 1L).count());
+        assertEquals(List.of(second.getId()), idsOf(candidates, 2L));
+        assertEquals(List.of(third.getId(), thirdLater.getId()), idsOf(candidates, 3L));
+        assertTrue(candidates.stream().allMatch(r -> r.getStatus() == ReportStatus.PENDING));
+    }
+
+    @Test
+    @DisplayName("Should fill the window with users' oldest jobs before anyone's next one")
+    void findPendingJobs_WhenWindowIsFull_ShouldPreferUsersOldestJobs() {
+        // Given
+        Report first = pending(1L);
+        pending(1L);
+        Report second = pending(2L);
+
+        // When
+        List<Report> candidates = repository.findPendingJobs(2, 2);
+
+        // Then
+        assertEquals(List.of(first.getId(), second.getId()), candidates.stream().map(Report::getId).toList());
+    }
+
+    private Report pending(Long userId) {
+        return entityManager.persist(report(userId, ReportStatus.PENDING));
+    }
+
+    private void done(Long userId) {
+        entityManager.persist(report(userId, ReportStatus.COMPLETED));
+    }
+
+    private static Report report(Long userId, ReportStatus status) {
+        return Report.builder()
+                .reportId(UUID.randomUUID().toString())
+                .userId(userId)
+                .reportType(ReportType.TRADE_HISTORY)
+                .status(status)
+                .format(ReportFormat.CSV)
+                .requestedAt(Instant.now())
+                .build();
+    }
+
+    private static List<Long> idsOf(List<Report> candidates, Long userId) {
+        return candidates.stream().filter(r -> r.getUserId().equals(userId)).map(Report::getId).toList();
+    }
+}
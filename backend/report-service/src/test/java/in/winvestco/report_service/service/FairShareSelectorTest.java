@@ -0,0 +1,93 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.model.Report;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FairShareSelectorTest {
+
+    private final FairShareSelector selector = new FairShareSelector();
+
+    @Test
+    void heavyUser_ShouldNotStarveOthers() {
+        List<Report> pending = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 20; i++) {
+            pending.add(job(id++, 1L, 100_000));
+        }
+        pending.add(job(id++, 2L, 1_000));
+        pending.add(job(id, 3L, 1_000));
+
+        List<Long> order = drain(pending, 3);
+
+        // User 1 queued first and gets one job; the small ones go before its second
+        assertEquals(List.of(1L, 2L, 3L, 1L), order);
+    }
+
+    @Test
+    void cheapJobs_ShouldRunInProportionToCost() {
+        List<Report> pending = new ArrayList<>();
+        long id = 1;
+        for (int i = 0; i < 5; i++) {
+            pending.add(job(id++, 1L, 4_000));
+        }
+        for (int i = 0; i < 20; i++) {
+            pending.add(job(id++, 2L, 1_000));
+        }
+
+        List<Long> order = drain(pending, 10);
+
+        // Four 1k jobs of user 2 per 4k job of user 1
+        assertEquals(2, order.stream().filter(u -> u == 1L).count());
+        assertEquals(8, order.stream().filter(u -> u == 2L).count());
+    }
+
+    @Test
+    void select_ShouldSkipUsersAtTheCap() {
+        List<Report> pending = List.of(job(1, 1L, 1_000), job(2, 2L, 50_000));
+
+        Report next = selector.select(pending, Map.of(1L, 2L), 2).orElseThrow();
+
+        assertEquals(2L, next.getUserId());
+        assertTrue(selector.select(pending, Map.of(1L, 2L, 2L, 2L), 2).isEmpty());
+    }
+
+    @Test
+    void select_ShouldTakeOldestJobOfAUser() {
+        List<Report> pending = List.of(job(1, 1L, 90_000), job(2, 1L, 1_000));
+
+        assertEquals(1L, selector.select(pending, Map.of(), 2).orElseThrow().getId());
+    }
+
+    private List<Long> drain(List<Report> pending, int count) {
+        List<Report> queue = new ArrayList<>(pending);
+        List<Long> users = new ArrayList<>();
+        Map<Long, Long> processing = new HashMap<>();
+        for (int i = 0; i < count; i++) {
+            Report next = selector.select(queue, processing, Integer.MAX_VALUE).orElseThrow();
+            queue.remove(next);
+            selector.charge(next.getUserId(), next.getEstimatedCost());
+            users.add(next.getUserId());
+        }
+        return users;
+    }
+
+    private static Report job(long id, Long userId, long cost) {
+        return Report.builder()
+                .id(id)
+                .reportId("REP-" + id)
+                .userId(userId)
+                .reportType(ReportType.TRADE_HISTORY)
+                .format(ReportFormat.CSV)
+                .estimatedCost(cost)
+                .build();
+    }
+}
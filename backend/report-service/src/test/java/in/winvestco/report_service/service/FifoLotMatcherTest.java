@@ -0,0 +1,135 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.model.lot.RealizedLot;
+import in.winvestco.report_service.model.lot.TaxLot;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FifoLotMatcherTest {
+
+    private static final Instant T0 = Instant.parse("2023-04-03T04:00:00Z");
+
+    private final FifoLotMatcher matcher = new FifoLotMatcher(1L, 365);
+
+    @Test
+    void sell_ShouldConsumeOldestLotFirst() {
+        matcher.apply(trade("B1", "BUY", "10", "100", 0));
+        matcher.apply(trade("B2", "BUY", "10", "120", 1));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "5", "130", 10));
+
+        assertEquals(1, realized.size());
+        assertEquals("B1", realized.get(0).getBuyTradeId());
+        assertEquals(0, new BigDecimal("150").compareTo(realized.get(0).getGain()));
+    }
+
+    @Test
+    void sell_ShouldSplitAcrossLots() {
+        matcher.apply(trade("B1", "BUY", "10", "100", 0));
+        matcher.apply(trade("B2", "BUY", "10", "120", 1));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "15", "110", 10));
+
+        assertEquals(2, realized.size());
+        assertEquals("B1", realized.get(0).getBuyTradeId());
+        assertEquals(0, BigDecimal.TEN.compareTo(realized.get(0).getQuantity()));
+        assertEquals(0, new BigDecimal("100").compareTo(realized.get(0).getGain()));
+        assertEquals("B2", realized.get(1).getBuyTradeId());
+        assertEquals(0, new BigDecimal("5").compareTo(realized.get(1).getQuantity()));
+        assertEquals(0, new BigDecimal("-50").compareTo(realized.get(1).getGain()));
+
+        // B1 is gone, B2 remains with the unsold half
+        List<TaxLot> open = matcher.getNewOpenLots();
+        assertEquals(1, open.size());
+        assertEquals("B2", open.get(0).getBuyTradeId());
+        assertEquals(0, new BigDecimal("5").compareTo(open.get(0).getRemainingQuantity()));
+    }
+
+    @Test
+    void sell_ShouldClassifyByHoldingPeriod() {
+        matcher.apply(trade("B1", "BUY", "10", "100", 0));
+        matcher.apply(trade("B2", "BUY", "10", "100", 200));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "20", "150", 400));
+
+        assertTrue(realized.get(0).isLongTerm());
+        assertEquals(400, realized.get(0).getHoldingDays());
+        assertFalse(realized.get(1).isLongTerm());
+        assertEquals(200, realized.get(1).getHoldingDays());
+    }
+
+    @Test
+    void sell_ShouldOnlyMatchLotsOfTheSameSymbol() {
+        TradeProjection otherSymbol = trade("B1", "BUY", "10", "100", 0);
+        otherSymbol.setSymbol("TCS");
+        matcher.apply(otherSymbol);
+        matcher.apply(trade("B2", "BUY", "10", "200", 1));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "10", "210", 10));
+
+        assertEquals(1, realized.size());
+        assertEquals("B2", realized.get(0).getBuyTradeId());
+    }
+
+    @Test
+    void sell_BeyondOpenLots_ShouldLeaveRemainderUnmatched() {
+        matcher.apply(trade("B1", "BUY", "10", "100", 0));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "12", "110", 10));
+
+        assertEquals(1, realized.size());
+        assertEquals(0, new BigDecimal("2").compareTo(matcher.getUnmatchedQuantity()));
+    }
+
+    @Test
+    void restoredLots_ShouldBeConsumedBeforeNewOnesAndReportedWhenExhausted() {
+        TaxLot persisted = TaxLot.builder()
+                .id(7L)
+                .userId(1L)
+                .symbol("RELIANCE")
+                .buyTradeId("B0")
+                .acquiredAt(T0)
+                .costPrice(new BigDecimal("90"))
+                .remainingQuantity(new BigDecimal("4"))
+                .build();
+        matcher.restore(persisted);
+        matcher.apply(trade("B1", "BUY", "10", "100", 5));
+
+        List<RealizedLot> realized = matcher.apply(trade("S1", "SELL", "6", "110", 10));
+
+        assertEquals("B0", realized.get(0).getBuyTradeId());
+        assertEquals("B1", realized.get(1).getBuyTradeId());
+        assertEquals(List.of(persisted), matcher.getExhaustedLots());
+        assertEquals(0, new BigDecimal("8").compareTo(matcher.getNewOpenLots().get(0).getRemainingQuantity()));
+    }
+
+    @Test
+    void lotOpenedAndClosedInOneRun_ShouldNotBePersisted() {
+        matcher.apply(trade("B1", "BUY", "10", "100", 0));
+        matcher.apply(trade("S1", "SELL", "10", "110", 10));
+
+        assertTrue(matcher.getNewOpenLots().isEmpty());
+        assertTrue(matcher.getExhaustedLots().isEmpty());
+    }
+
+    private static TradeProjection trade(String tradeId, String side, String quantity, String price, int day) {
+        return TradeProjection.builder()
+                .tradeId(tradeId)
+                .orderId("order-" + tradeId)
+                .userId(1L)
+                .symbol("RELIANCE")
+                .side(side)
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal(price))
+                .executedAt(T0.plus(day, ChronoUnit.DAYS))
+                .status("EXECUTED")
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.common.messaging.outbox.OutboxService;
+import in.winvestco.report_service.generator.CsvReportGenerator;
+import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.repository.ReportRepository;
+import in.winvestco.report_service.repository.TradeProjectionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InOrder;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportGenerationServiceTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private TradeProjectionRepository tradeProjectionRepository;
+
+    @Mock
+    private CsvReportGenerator csvGenerator;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private ReportGenerationService reportGenerationService;
+
+    @TempDir
+    Path storage;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(reportGenerationService, "storagePath", storage.toString());
+    }
+
+    @Test
+    void generateReport_ShouldLockTheFileBeforeMovingItIntoPlace() {
+        Report report = Report.builder()
+                .id(1L)
+                .reportId("REP-1")
+                .userId(1L)
+                .reportType(ReportType.TRADE_HISTORY)
+                .format(ReportFormat.CSV)
+                .status(ReportStatus.PROCESSING)
+                .build();
+        when(reportRepository.findById(1L)).thenReturn(Optional.of(report));
+        when(tradeProjectionRepository.streamByUserIdAndDateRange(eq(1L), any(), any())).thenReturn(Stream.empty());
+        when(reportRepository.lockReportFile(anyString())).thenAnswer(invocation -> {
+            // Nothing is in place yet while the lock is being taken
+            assertFalse(Files.exists(Path.of(invocation.<String>getArgument(0))));
+            return 1;
+        });
+
+        reportGenerationService.generateReport(1L);
+
+        assertEquals(ReportStatus.COMPLETED, report.getStatus());
+        assertTrue(Files.exists(Path.of(report.getFilePath())));
+        InOrder inOrder = inOrder(reportRepository);
+        inOrder.verify(reportRepository).lockReportFile(report.getFilePath());
+        inOrder.verify(reportRepository).save(report);
+    }
+}
@@ -0,0 +1,158 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.config.ReportJobProperties;
+import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.repository.ReportRepository;
+import in.winvestco.report_service.repository.ReportRepository.UserJobCount;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportJobSchedulerTest {
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ReportGenerationService reportGenerationService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReportJobScheduler scheduler;
+
+    @BeforeEach
+    void setUp() {
+        ReportJobProperties properties = new ReportJobProperties();
+        properties.setWorkerId("worker-1");
+        properties.setMaxPerUser(2);
+        properties.setMaxAttempts(3);
+        meterRegistry = new SimpleMeterRegistry();
+        scheduler = new ReportJobScheduler(reportRepository, reportGenerationService, transactionManager,
+                properties, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        scheduler.shutdown();
+    }
+
+    @Test
+    void claimJobs_ShouldStopAtTheUserCapAndServeOtherUsers() {
+        Report first = job(1, 1L, ReportType.TRADE_HISTORY);
+        Report second = job(2, 1L, ReportType.TRADE_HISTORY);
+        Report other = job(3, 2L, ReportType.HOLDINGS_SUMMARY);
+        when(reportRepository.findPendingJobs(anyInt(), anyInt())).thenReturn(List.of(first, second, other));
+        when(reportRepository.countProcessingByUser()).thenReturn(List.of(count(1L, 1)));
+        when(reportRepository.countByUserIdAndStatus(1L, ReportStatus.PROCESSING)).thenReturn(1L);
+        when(reportRepository.claimJob(anyLong(), eq("worker-1"), any(), any())).thenReturn(1);
+
+        List<Report> claimed = scheduler.claimJobs(5);
+
+        assertEquals(List.of(first, other), claimed);
+        verify(reportRepository, never()).claimJob(eq(2L), any(), any(), any());
+        verify(reportRepository).lockUserJobs(1L);
+        assertEquals(1, meterRegistry.get(ReportJobScheduler.QUEUE_WAIT)
+                .tag("type", ReportType.HOLDINGS_SUMMARY.name()).timer().count());
+    }
+
+    @Test
+    void claimJobs_WithBacklogBeyondTheWindowFromOneUser_ShouldServeOtherUsers() {
+        // User 1 queued 250 jobs (more than the 200 window) before user 2 queued one;
+        // per-user ranking hands the selector only user 1's oldest max-per-user
+        Report first = job(1, 1L, ReportType.TRADE_HISTORY);
+        Report other = job(251, 2L, ReportType.TRADE_HISTORY);
+        Report second = job(2, 1L, ReportType.TRADE_HISTORY);
+        when(reportRepository.findPendingJobs(2, 200)).thenReturn(List.of(first, other, second));
+        when(reportRepository.claimJob(anyLong(), eq("worker-1"), any(), any())).thenReturn(1);
+
+        List<Report> claimed = scheduler.claimJobs(2);
+
+        assertTrue(claimed.contains(other));
+        assertEquals(2, claimed.size());
+        verify(reportRepository).findPendingJobs(2, 200);
+    }
+
+    @Test
+    void claimJobs_WhenAnotherInstanceTookTheJob_ShouldTakeTheNext() {
+        Report taken = job(1, 1L, ReportType.TRADE_HISTORY);
+        Report next = job(2, 2L, ReportType.TRADE_HISTORY);
+        when(reportRepository.findPendingJobs(anyInt(), anyInt())).thenReturn(List.of(taken, next));
+        when(reportRepository.claimJob(eq(1L), any(), any(), any())).thenReturn(0);
+        when(reportRepository.claimJob(eq(2L), any(), any(), any())).thenReturn(1);
+
+        assertEquals(List.of(next), scheduler.claimJobs(1));
+    }
+
+    @Test
+    void claimJobs_WhenCapReachedOnAnotherInstance_ShouldNotClaim() {
+        when(reportRepository.findPendingJobs(anyInt(), anyInt())).thenReturn(List.of(job(1, 1L, ReportType.TAX_REPORT)));
+        when(reportRepository.countByUserIdAndStatus(1L, ReportStatus.PROCESSING)).thenReturn(2L);
+
+        assertTrue(scheduler.claimJobs(1).isEmpty());
+        verify(reportRepository, never()).claimJob(anyLong(), any(), any(), any());
+    }
+
+    @Test
+    void recoverAbandonedJobs_ShouldRequeueOrFailByAttempts() {
+        Report interrupted = job(1, 1L, ReportType.TRADE_HISTORY);
+        interrupted.setStatus(ReportStatus.PROCESSING);
+        interrupted.setWorkerId("worker-1");
+        interrupted.setAttempts(1);
+        Report exhausted = job(2, 1L, ReportType.TRADE_HISTORY);
+        exhausted.setStatus(ReportStatus.PROCESSING);
+        exhausted.setAttempts(3);
+        when(reportRepository.claimAbandonedJobs(any(Instant.class), eq("worker-1")))
+                .thenReturn(List.of(interrupted, exhausted));
+
+        scheduler.recoverAbandonedJobs("worker-1");
+
+        assertEquals(ReportStatus.PENDING, interrupted.getStatus());
+        assertNull(interrupted.getWorkerId());
+        verify(reportRepository).save(interrupted);
+        verify(reportGenerationService).failReport(eq(exhausted), contains("3 attempts"));
+    }
+
+    private static Report job(long id, Long userId, ReportType type) {
+        return Report.builder()
+                .id(id)
+                .reportId("REP-" + id)
+                .userId(userId)
+                .reportType(type)
+                .format(ReportFormat.CSV)
+                .estimatedCost(1_000L)
+                .requestedAt(Instant.now().minusSeconds(5))
+                .build();
+    }
+
+    private static UserJobCount count(Long userId, long jobs) {
+        return new UserJobCount() {
+            @Override
+            public Long getUserId() {
+                return userId;
+            }
+
+            @Override
+            public long getJobs() {
+                return jobs;
+            }
+        };
+    }
+}
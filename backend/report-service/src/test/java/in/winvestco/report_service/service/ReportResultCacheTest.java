@@ -0,0 +1,173 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.common.enums.ReportFormat;
+import in.winvestco.common.enums.ReportStatus;
+import in.winvestco.common.enums.ReportType;
+import in.winvestco.report_service.dto.ReportRequest;
+import in.winvestco.report_service.model.Report;
+import in.winvestco.report_service.model.projection.ProjectionWatermark;
+import in.winvestco.report_service.repository.ProjectionWatermarkRepository;
+import in.winvestco.report_service.repository.ReportRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReportResultCacheTest {
+
+    private static final Instant FROM = Instant.parse("2024-04-01T00:00:00Z");
+    private static final Instant TO = Instant.parse("2025-03-31T00:00:00Z");
+
+    @Mock
+    private ReportRepository reportRepository;
+
+    @Mock
+    private ProjectionWatermarkRepository projectionWatermarkRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReportResultCache cache;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReportResultCache(reportRepository, projectionWatermarkRepository, meterRegistry);
+    }
+
+    @Test
+    void fingerprint_ShouldChangeWithTheProjectionsTheReportReads() {
+        ReportRequest trades = request(ReportType.TRADE_HISTORY);
+        ReportRequest ledger = request(ReportType.TRANSACTION_HISTORY);
+        when(projectionWatermarkRepository.findById(1L))
+                .thenReturn(Optional.of(watermark(3, 7)))
+                .thenReturn(Optional.of(watermark(3, 7)))
+                .thenReturn(Optional.of(watermark(3, 8)))
+                .thenReturn(Optional.of(watermark(3, 8)));
+
+        String tradesBefore = cache.fingerprint(1L, trades);
+        String ledgerBefore = cache.fingerprint(1L, ledger);
+        String tradesAfterDeposit = cache.fingerprint(1L, trades);
+        String ledgerAfterDeposit = cache.fingerprint(1L, ledger);
+
+        assertEquals(tradesBefore, tradesAfterDeposit);
+        assertNotEquals(ledgerBefore, ledgerAfterDeposit);
+        assertNotEquals(tradesBefore, ledgerBefore);
+    }
+
+    @Test
+    void fingerprint_ShouldDifferByFormatAndUser() {
+        when(projectionWatermarkRepository.findById(anyLong())).thenReturn(Optional.empty());
+        ReportRequest pdf = request(ReportType.TAX_REPORT);
+        ReportRequest csv = request(ReportType.TAX_REPORT);
+        csv.setFormat(ReportFormat.CSV);
+
+        assertEquals(64, cache.fingerprint(1L, pdf).length());
+        assertNotEquals(cache.fingerprint(1L, pdf), cache.fingerprint(1L, csv));
+        assertNotEquals(cache.fingerprint(1L, pdf), cache.fingerprint(2L, pdf));
+    }
+
+    @Test
+    void findReusable_WithCompletedReport_ShouldCountHitAndTimeSaved() throws Exception {
+        Path file = Files.createTempFile("report", ".pdf");
+        try {
+            Report completed = report(ReportStatus.COMPLETED);
+            completed.complete(file.toString(), 10L, "hash", 4_000);
+            when(reportRepository.findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(eq(1L), eq(fp()), any()))
+                    .thenReturn(Optional.of(completed));
+
+            Optional<Report> result = cache.findReusable(1L, ReportType.TAX_REPORT, fp());
+
+            assertSame(completed, result.orElseThrow());
+            verify(reportRepository).lockFingerprint(anyLong());
+            assertEquals(1, lookups("hit"));
+            assertEquals(4.0, meterRegistry.get(ReportResultCache.TIME_SAVED).counter().count());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    @Test
+    void findReusable_WithInFlightReport_ShouldCoalesce() {
+        Report pending = report(ReportStatus.PENDING);
+        when(reportRepository.findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(eq(1L), eq(fp()), any()))
+                .thenReturn(Optional.of(pending));
+
+        assertTrue(cache.findReusable(1L, ReportType.TAX_REPORT, fp()).isPresent());
+        assertEquals(1, lookups("coalesced"));
+    }
+
+    @Test
+    void findReusable_WithLongQueuedReport_ShouldStillCoalesce() {
+        Report queued = report(ReportStatus.PENDING);
+        queued.setRequestedAt(Instant.now().minus(1, ChronoUnit.HOURS));
+        when(reportRepository.findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(eq(1L), eq(fp()), any()))
+                .thenReturn(Optional.of(queued));
+
+        assertTrue(cache.findReusable(1L, ReportType.TAX_REPORT, fp()).isPresent());
+        assertEquals(1, lookups("coalesced"));
+    }
+
+    @Test
+    void findReusable_WhenFileIsGone_ShouldMiss() {
+        Report completed = report(ReportStatus.COMPLETED);
+        completed.complete("/nonexistent/report.pdf", 10L, "hash", 4_000);
+        when(reportRepository.findFirstByUserIdAndFingerprintAndStatusInOrderByIdDesc(eq(1L), eq(fp()), any()))
+                .thenReturn(Optional.of(completed));
+
+        assertTrue(cache.findReusable(1L, ReportType.TAX_REPORT, fp()).isEmpty());
+        assertEquals(1, lookups("miss"));
+    }
+
+    private double lookups(String result) {
+        return meterRegistry.get(ReportResultCache.LOOKUPS)
+                .tag("type", ReportType.TAX_REPORT.name())
+                .tag("result", result)
+                .counter().count();
+    }
+
+    private static String fp() {
+        return "0123456789abcdef0123456789abcdef0123456789abcdef0123456789abcdef";
+    }
+
+    private static Report report(ReportStatus status) {
+        return Report.builder()
+                .id(1L)
+                .reportId("REP-123")
+                .userId(1L)
+                .reportType(ReportType.TAX_REPORT)
+                .format(ReportFormat.PDF)
+                .status(status)
+                .fingerprint(fp())
+                .requestedAt(Instant.now())
+                .build();
+    }
+
+    private static ReportRequest request(ReportType type) {
+        return ReportRequest.builder()
+                .type(type)
+                .format(ReportFormat.PDF)
+                .fromDate(FROM)
+                .toDate(TO)
+                .build();
+    }
+
+    private static ProjectionWatermark watermark(long tradeVersion, long ledgerVersion) {
+        return ProjectionWatermark.builder()
+                .userId(1L)
+                .tradeVersion(tradeVersion)
+                .ledgerVersion(ledgerVersion)
+                .build();
+    }
+}
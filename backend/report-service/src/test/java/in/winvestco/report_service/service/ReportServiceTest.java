@@ -11,13 +11,17 @@ import in.winvestco.report_service.repository.ReportRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.time.Instant;
 import java.time.temporal.ChronoUnit;
+import java.util.List;
 import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -34,7 +38,13 @@ class ReportServiceTest {
     private ReportMapper reportMapper;
 
     @Mock
-    private ReportGenerationService reportGenerationService;
+    private ReportResultCache reportResultCache;
+
+    @Mock
+    private ReportCostEstimator reportCostEstimator;
+
+    @Mock
+    private ReportJobScheduler reportJobScheduler;
 
     @InjectMocks
     private ReportService reportService;
@@ -57,21 +67,46 @@ class ReportServiceTest {
     }
 
     @Test
-    void requestReport_ShouldSaveAndTriggerGeneration() {
+    void requestReport_ShouldQueueJobAndWakeScheduler() {
         ReportRequest request = new ReportRequest();
         request.setType(ReportType.TRANSACTION_HISTORY);
         request.setFormat(ReportFormat.PDF);
         request.setFromDate(Instant.now().minus(30, ChronoUnit.DAYS));
         request.setToDate(Instant.now());
 
+        when(reportResultCache.fingerprint(1L, request)).thenReturn("fp");
+        when(reportResultCache.findReusable(1L, ReportType.TRANSACTION_HISTORY, "fp")).thenReturn(Optional.empty());
+        when(reportCostEstimator.estimate(1L, request)).thenReturn(1_500L);
         when(reportRepository.save(any(Report.class))).thenReturn(testReport);
         when(reportMapper.toDTO(any(Report.class))).thenReturn(new ReportDTO());
 
         ReportDTO result = reportService.requestReport(1L, request);
 
         assertNotNull(result);
-        verify(reportRepository).save(any(Report.class));
-        verify(reportGenerationService).generateReportAsync(anyLong());
+        verify(reportRepository).save(argThat(report -> "fp".equals(report.getFingerprint())
+                && report.getStatus() == ReportStatus.PENDING
+                && report.getEstimatedCost() == 1_500L));
+        verify(reportJobScheduler).wakeUpAfterCommit();
+    }
+
+    @Test
+    void requestReport_WhenIdenticalReportExists_ShouldReuseIt() {
+        ReportRequest request = new ReportRequest();
+        request.setType(ReportType.TRANSACTION_HISTORY);
+        request.setFormat(ReportFormat.PDF);
+
+        testReport.setStatus(ReportStatus.COMPLETED);
+        testReport.setFilePath("./reports/abc.pdf");
+        when(reportResultCache.fingerprint(1L, request)).thenReturn("fp");
+        when(reportResultCache.findReusable(1L, ReportType.TRANSACTION_HISTORY, "fp"))
+                .thenReturn(Optional.of(testReport));
+        when(reportMapper.toDTO(testReport)).thenReturn(new ReportDTO());
+
+        ReportDTO result = reportService.requestReport(1L, request);
+
+        assertTrue(result.getDownloadUrl().endsWith("/REP-123/download"));
+        verify(reportRepository, never()).save(any());
+        verifyNoInteractions(reportJobScheduler);
     }
 
     @Test
@@ -99,6 +134,53 @@ class ReportServiceTest {
         verify(reportRepository).delete(testReport);
     }
 
+    @Test
+    void deleteReport_WhenFileIsShared_ShouldKeepFile() throws Exception {
+        Path file = Files.createTempFile("report", ".csv");
+        testReport.setFilePath(file.toString());
+        when(reportRepository.findByReportId(anyString())).thenReturn(Optional.of(testReport));
+        when(reportRepository.countByFilePath(file.toString())).thenReturn(1L);
+
+        reportService.deleteReport("REP-123", 1L);
+
+        assertTrue(Files.exists(file));
+        Files.delete(file);
+    }
+
+    @Test
+    void deleteReport_WhenFileIsUnreferenced_ShouldCountUnderTheFileLockAndDelete() throws Exception {
+        Path file = Files.createTempFile("report", ".csv");
+        testReport.setFilePath(file.toString());
+        when(reportRepository.findByReportId(anyString())).thenReturn(Optional.of(testReport));
+        when(reportRepository.countByFilePath(file.toString())).thenReturn(0L);
+
+        reportService.deleteReport("REP-123", 1L);
+
+        assertFalse(Files.exists(file));
+        InOrder inOrder = inOrder(reportRepository);
+        inOrder.verify(reportRepository).lockReportFile(file.toString());
+        inOrder.verify(reportRepository).countByFilePath(file.toString());
+    }
+
+    @Test
+    void cleanupExpiredReports_ShouldKeepFileCompletedOntoMeanwhile() throws Exception {
+        Path file = Files.createTempFile("report", ".csv");
+        testReport.setStatus(ReportStatus.COMPLETED);
+        testReport.setFilePath(file.toString());
+        when(reportRepository.findExpiredReports(any(Instant.class))).thenReturn(List.of(testReport));
+        // A report completed onto the same file before the lock was granted
+        when(reportRepository.countByFilePath(file.toString())).thenReturn(1L);
+
+        reportService.cleanupExpiredReports();
+
+        assertEquals(ReportStatus.EXPIRED, testReport.getStatus());
+        assertTrue(Files.exists(file));
+        InOrder inOrder = inOrder(reportRepository);
+        inOrder.verify(reportRepository).lockReportFile(file.toString());
+        inOrder.verify(reportRepository).countByFilePath(file.toString());
+        Files.delete(file);
+    }
+
     @Test
     void deleteReport_WhenNotAuthorized_ShouldThrowException() {
         when(reportRepository.findByReportId(anyString())).thenReturn(Optional.of(testReport));
@@ -0,0 +1,139 @@
+package in.winvestco.report_service.service;
+
+import in.winvestco.report_service.model.lot.LotMatchingState;
+import in.winvestco.report_service.model.lot.RealizedLot;
+import in.winvestco.report_service.model.lot.TaxLot;
+import in.winvestco.report_service.model.projection.TradeProjection;
+import in.winvestco.report_service.repository.LotMatchingStateRepository;
+import in.winvestco.report_service.repository.RealizedLotRepository;
+import in.winvestco.report_service.repository.TaxLotRepository;
+import in.winvestco.report_service.repository.TradeProjectionRepository;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class TaxLotServiceTest {
+
+    private static final Instant T0 = Instant.parse("2024-04-01T04:00:00Z");
+
+    @Mock
+    private TradeProjectionRepository tradeProjectionRepository;
+
+    @Mock
+    private TaxLotRepository taxLotRepository;
+
+    @Mock
+    private RealizedLotRepository realizedLotRepository;
+
+    @Mock
+    private LotMatchingStateRepository lotMatchingStateRepository;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @InjectMocks
+    private TaxLotService taxLotService;
+
+    private LotMatchingState state;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(taxLotService, "longTermHoldingDays", 365);
+        state = LotMatchingState.builder()
+                .userId(1L)
+                .lastExecutedAt(T0)
+                .lastTradeRowId(10L)
+                .appliedTrades(3)
+                .build();
+        when(lotMatchingStateRepository.findForUpdate(1L)).thenReturn(Optional.of(state));
+    }
+
+    @Test
+    void catchUp_ShouldApplyOnlyTradesPastTheCursor() {
+        TaxLot open = TaxLot.builder()
+                .id(5L).userId(1L).symbol("TCS").buyTradeId("B0")
+                .acquiredAt(T0).costPrice(new BigDecimal("3000")).remainingQuantity(BigDecimal.TEN)
+                .build();
+        when(tradeProjectionRepository.countUpTo(1L, T0, 10L)).thenReturn(3L);
+        when(taxLotRepository.findOpenLots(1L)).thenReturn(List.of(open));
+        when(tradeProjectionRepository.streamAfter(1L, T0, 10L))
+                .thenReturn(Stream.of(trade(11L, "S1", "SELL", "4", "3100", T0.plusSeconds(60))));
+
+        taxLotService.catchUp(1L);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<RealizedLot>> realized = ArgumentCaptor.forClass(List.class);
+        verify(realizedLotRepository).saveAll(realized.capture());
+        assertEquals(1, realized.getValue().size());
+        assertEquals("B0", realized.getValue().get(0).getBuyTradeId());
+        assertEquals(0, new BigDecimal("400").compareTo(realized.getValue().get(0).getGain()));
+
+        // Partly consumed lot is updated in place, nothing rebuilt
+        assertEquals(0, new BigDecimal("6").compareTo(open.getRemainingQuantity()));
+        verify(realizedLotRepository, never()).deleteByUserId(anyLong());
+        assertEquals(11L, state.getLastTradeRowId());
+        assertEquals(4, state.getAppliedTrades());
+        verify(lotMatchingStateRepository).save(state);
+    }
+
+    @Test
+    void catchUp_WhenATradeArrivedBehindTheCursor_ShouldRebuildFromScratch() {
+        when(tradeProjectionRepository.countUpTo(1L, T0, 10L)).thenReturn(4L);
+        when(taxLotRepository.findOpenLots(1L)).thenReturn(List.of());
+        when(tradeProjectionRepository.streamAfter(eq(1L), eq(Instant.EPOCH), eq(0L)))
+                .thenReturn(Stream.of(trade(1L, "B1", "BUY", "10", "100", T0)));
+
+        taxLotService.catchUp(1L);
+
+        verify(realizedLotRepository).deleteByUserId(1L);
+        verify(taxLotRepository).deleteByUserId(1L);
+        assertEquals(1, state.getAppliedTrades());
+        verify(taxLotRepository).saveAll(argThat(lots -> lots.iterator().hasNext()));
+    }
+
+    @Test
+    void catchUp_WithNoNewTrades_ShouldWriteNothing() {
+        when(tradeProjectionRepository.countUpTo(1L, T0, 10L)).thenReturn(3L);
+        when(taxLotRepository.findOpenLots(1L)).thenReturn(List.of());
+        when(tradeProjectionRepository.streamAfter(1L, T0, 10L)).thenReturn(Stream.empty());
+
+        taxLotService.catchUp(1L);
+
+        verify(realizedLotRepository, never()).saveAll(any());
+        verify(taxLotRepository, never()).saveAll(any());
+        verify(lotMatchingStateRepository, never()).save(any());
+    }
+
+    private static TradeProjection trade(Long id, String tradeId, String side, String quantity, String price,
+            Instant executedAt) {
+        return TradeProjection.builder()
+                .id(id)
+                .tradeId(tradeId)
+                .orderId("order-" + tradeId)
+                .userId(1L)
+                .symbol("TCS")
+                .side(side)
+                .quantity(new BigDecimal(quantity))
+                .price(new BigDecimal(price))
+                .executedAt(executedAt)
+                .status("EXECUTED")
+                .build();
+    }
+}
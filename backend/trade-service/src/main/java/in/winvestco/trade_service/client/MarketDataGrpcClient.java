@@ -1,26 +1,51 @@
 package in.winvestco.trade_service.client;
 
 import in.winvestco.common.grpc.market.MarketDataServiceGrpc;
+import in.winvestco.common.grpc.market.MarketDataSubscription;
+import in.winvestco.common.grpc.market.MarketDataUpdate;
 import in.winvestco.common.grpc.market.QuoteRequest;
 import in.winvestco.common.grpc.market.QuoteResponse;
+import in.winvestco.trade_service.config.QuoteCacheProperties;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import net.devh.boot.grpc.client.inject.GrpcClient;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Component;
 
 import java.math.BigDecimal;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
 
 /**
  * gRPC client for fetching market data from market-service.
  *
- * Replaces the synchronous Feign REST call in MockExecutionEngine
- * with a faster binary gRPC unary call.
+ * Holds a long-lived SubscribeMarketData stream for all symbols and keeps the
+ * latest quote per symbol in memory, so pricing an execution is normally a
+ * map read. A lookup falls back to a unary GetQuote call only when the symbol
+ * is not cached yet or its entry is older than the staleness bound; the unary
+ * result is cached too. The stream is re-opened with exponential backoff
+ * whenever it errors or completes.
  *
  * Uses grpc-spring-boot-starter's @GrpcClient for auto-configuration
  * and service discovery via Eureka.
  *
- * All calls use a 3-second deadline to prevent indefinite blocking
+ * Unary calls use a 3-second deadline to prevent indefinite blocking
  * if market-service is unresponsive.
+ *
+ * Lookups are counted in trade.quote.cache.requests{result=hit|miss|stale},
+ * with the running hit ratio in trade.quote.cache.hit.ratio and the age of
+ * served cached quotes in trade.quote.age.
  */
 @Component
 @Slf4j
@@ -31,13 +56,139 @@ public class MarketDataGrpcClient {
     @GrpcClient("market-service")
     private MarketDataServiceGrpc.MarketDataServiceBlockingStub marketDataStub;
 
+    @GrpcClient("market-service")
+    private MarketDataServiceGrpc.MarketDataServiceStub marketDataStreamStub;
+
+    private final QuoteCacheProperties properties;
+    private final LongSupplier clockMillis;
+    private final Map<String, CachedQuote> quotes = new ConcurrentHashMap<>();
+
+    private final ScheduledExecutorService reconnectScheduler = Executors.newSingleThreadScheduledExecutor(
+            Thread.ofPlatform().name("market-data-reconnect").daemon().factory());
+
+    private volatile ClientCallStreamObserver<MarketDataSubscription> activeCall;
+    private volatile boolean running;
+    private volatile long backoffMs;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter stale;
+    private final Timer quoteAge;
+
+    @Autowired
+    public MarketDataGrpcClient(QuoteCacheProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, System::currentTimeMillis);
+    }
+
+    MarketDataGrpcClient(QuoteCacheProperties properties, MeterRegistry meterRegistry, LongSupplier clockMillis) {
+        this.properties = properties;
+        this.clockMillis = clockMillis;
+        this.hits = meterRegistry.counter("trade.quote.cache.requests", "result", "hit");
+        this.misses = meterRegistry.counter("trade.quote.cache.requests", "result", "miss");
+        this.stale = meterRegistry.counter("trade.quote.cache.requests", "result", "stale");
+        this.quoteAge = Timer.builder("trade.quote.age")
+                .description("Age of cached quotes served to execution pricing")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        meterRegistry.gauge("trade.quote.cache.hit.ratio", this, MarketDataGrpcClient::hitRatio);
+        meterRegistry.gauge("trade.quote.cache.size", quotes, Map::size);
+    }
+
     /**
-     * Get current market price for a stock symbol via gRPC.
+     * Get current market price for a stock symbol.
      *
      * @param symbol Stock symbol (e.g., "RELIANCE", "TCS")
      * @return The last traded price, or null if not found or error
      */
     public BigDecimal getQuote(String symbol) {
+        MarketDataUpdate quote = getMarketData(symbol);
+        return quote != null ? BigDecimal.valueOf(quote.getLastPrice()) : null;
+    }
+
+    /**
+     * Get the full quote (price, day range, volume) for a stock symbol, from
+     * the local cache when it is fresh enough.
+     *
+     * @param symbol Stock symbol (e.g., "RELIANCE", "TCS")
+     * @return The latest quote, or null if not found or error
+     */
+    public MarketDataUpdate getMarketData(String symbol) {
+        String key = symbol.toUpperCase();
+        long now = clockMillis.getAsLong();
+
+        CachedQuote cached = quotes.get(key);
+        if (cached != null) {
+            long age = now - cached.receivedAt();
+            if (age <= maxAgeMs()) {
+                hits.increment();
+                quoteAge.record(Math.max(0, age), TimeUnit.MILLISECONDS);
+                return cached.quote();
+            }
+            stale.increment();
+            log.debug("Cached quote for {} is {} ms old, refreshing", key, age);
+        } else {
+            misses.increment();
+        }
+
+        MarketDataUpdate quote = fetchQuote(symbol);
+        if (quote != null) {
+            cache(key, quote, now);
+        }
+        return quote;
+    }
+
+    /**
+     * Open the market data stream once the application is up.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (running || !properties.isEnabled()) {
+            return;
+        }
+        running = true;
+        backoffMs = properties.getReconnectInitialDelayMs();
+        connect();
+    }
+
+    @PreDestroy
+    public synchronized void stop() {
+        running = false;
+        ClientCallStreamObserver<MarketDataSubscription> call = activeCall;
+        if (call != null) {
+            call.cancel("trade-service shutting down", null);
+        }
+        reconnectScheduler.shutdownNow();
+    }
+
+    public boolean isConnected() {
+        return running && activeCall != null;
+    }
+
+    /**
+     * Share of lookups served from the cache since startup.
+     */
+    double hitRatio() {
+        double total = hits.count() + misses.count() + stale.count();
+        return total == 0 ? 0 : hits.count() / total;
+    }
+
+    private long maxAgeMs() {
+        return isConnected() ? properties.getMaxAgeMs() : properties.getDisconnectedMaxAgeMs();
+    }
+
+    /**
+     * Store a quote unless a newer one for the symbol is already cached. Stream
+     * updates and unary responses can race for the same symbol.
+     */
+    private void cache(String key, MarketDataUpdate quote, long receivedAt) {
+        CachedQuote fresh = new CachedQuote(quote, receivedAt);
+        quotes.merge(key, fresh,
+                (current, candidate) -> candidate.quote().getTimestamp() >= current.quote().getTimestamp()
+                        ? candidate
+                        : current);
+    }
+
+    private MarketDataUpdate fetchQuote(String symbol) {
         try {
             log.debug("gRPC GetQuote request for symbol: {}", symbol);
 
@@ -49,9 +200,8 @@ public class MarketDataGrpcClient {
                                     .build());
 
             if (response.getFound()) {
-                BigDecimal price = BigDecimal.valueOf(response.getQuote().getLastPrice());
-                log.debug("gRPC GetQuote response for {}: {}", symbol, price);
-                return price;
+                log.debug("gRPC GetQuote response for {}: {}", symbol, response.getQuote().getLastPrice());
+                return response.getQuote();
             }
 
             log.warn("gRPC: No quote found for symbol: {}", symbol);
@@ -62,4 +212,51 @@ public class MarketDataGrpcClient {
             return null;
         }
     }
+
+    private synchronized void connect() {
+        if (!running) {
+            return;
+        }
+        log.info("Opening SubscribeMarketData stream to market-service");
+        marketDataStreamStub.subscribeMarketData(
+                MarketDataSubscription.newBuilder().setSubscribeAll(true).build(),
+                new ClientResponseObserver<MarketDataSubscription, MarketDataUpdate>() {
+                    @Override
+                    public void beforeStart(ClientCallStreamObserver<MarketDataSubscription> requestStream) {
+                        activeCall = requestStream;
+                    }
+
+                    @Override
+                    public void onNext(MarketDataUpdate update) {
+                        backoffMs = properties.getReconnectInitialDelayMs();
+                        cache(update.getSymbol().toUpperCase(), update, clockMillis.getAsLong());
+                    }
+
+                    @Override
+                    public void onError(Throwable t) {
+                        log.warn("SubscribeMarketData stream failed: {}", t.getMessage());
+                        scheduleReconnect();
+                    }
+
+                    @Override
+                    public void onCompleted() {
+                        log.info("SubscribeMarketData stream completed by market-service");
+                        scheduleReconnect();
+                    }
+                });
+    }
+
+    private synchronized void scheduleReconnect() {
+        activeCall = null;
+        if (!running) {
+            return;
+        }
+        long delay = backoffMs;
+        backoffMs = Math.min(backoffMs * 2, properties.getReconnectMaxDelayMs());
+        log.info("Reconnecting to market-service in {} ms", delay);
+        reconnectScheduler.schedule(this::connect, delay, TimeUnit.MILLISECONDS);
+    }
+
+    private record CachedQuote(MarketDataUpdate quote, long receivedAt) {
+    }
 }
@@ -1,55 +0,0 @@
-package in.winvestco.trade_service.config;
-
-import lombok.extern.slf4j.Slf4j;
-import org.springframework.aop.interceptor.AsyncUncaughtExceptionHandler;
-import org.springframework.context.annotation.Bean;
-import org.springframework.context.annotation.Configuration;
-import org.springframework.scheduling.annotation.AsyncConfigurer;
-import org.springframework.scheduling.annotation.EnableAsync;
-import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
-
-import java.lang.reflect.Method;
-import java.util.concurrent.Executor;
-
-/**
- * Async configuration for mock execution engine.
- * Provides thread pool for non-blocking trade execution.
- */
-@Configuration
-@EnableAsync
-@Slf4j
-public class AsyncConfig implements AsyncConfigurer {
-
-    @Bean(name = "mockExecutionExecutor")
-    public Executor mockExecutionExecutor() {
-        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
-        executor.setCorePoolSize(5);
-        executor.setMaxPoolSize(10);
-        executor.setQueueCapacity(50);
-        executor.setThreadNamePrefix("mock-exec-");
-        executor.setWaitForTasksToCompleteOnShutdown(true);
-        executor.setAwaitTerminationSeconds(30);
-        executor.initialize();
-        return executor;
-    }
-
-    @Override
-    public Executor getAsyncExecutor() {
-        return mockExecutionExecutor();
-    }
-
-    @Override
-    public AsyncUncaughtExceptionHandler getAsyncUncaughtExceptionHandler() {
-        return new AsyncExceptionHandler();
-    }
-
-    /**
-     * Handler for uncaught exceptions in async methods.
-     */
-    private static class AsyncExceptionHandler implements AsyncUncaughtExceptionHandler {
-        @Override
-        public void handleUncaughtException(Throwable ex, Method method, Object... params) {
-            log.error("Uncaught exception in async method {}: {}", method.getName(), ex.getMessage(), ex);
-        }
-    }
-}
@@ -45,13 +45,58 @@ public class MockExecutionProperties {
     private boolean autoClose = true;
 
     /**
-     * Enable partial fill simulation (70/30 split).
+     * Enable partial fill simulation.
+     * Orders larger than the symbol's displayed liquidity fill in slices as
+     * the book replenishes; when disabled every order fills in one go.
      */
     private boolean partialFillEnabled = true;
 
     /**
-     * Percentage of quantity for first partial fill.
-     * Remaining percentage executed in second fill.
+     * Threads that run scheduled fills. Delays are timers, not sleeping
+     * threads, so these only need to cover the trade-service write path.
      */
-    private int partialFillPercent = 70;
+    private int workerThreads = 8;
+
+    /**
+     * Target ceiling on fills per second across all symbols; 0 = unlimited.
+     * Fills beyond the rate are scheduled into later slots, not dropped.
+     */
+    private int maxFillsPerSecond = 0;
+
+    /**
+     * Simulated per-symbol liquidity.
+     */
+    private Liquidity liquidity = new Liquidity();
+
+    @Getter
+    @Setter
+    public static class Liquidity {
+
+        /**
+         * Quantity displayed at the touch as a fraction of the quote's day
+         * volume (0.001 = 0.1%).
+         */
+        private double depthVolumeFraction = 0.001;
+
+        /**
+         * Minimum displayed quantity, used for thin or volume-less quotes.
+         */
+        private long minDepth = 100;
+
+        /**
+         * Time for fully consumed depth to replenish, in milliseconds.
+         */
+        private long replenishMs = 1000;
+
+        /**
+         * Extra slippage percentage for consuming the full displayed depth,
+         * scaled linearly with the slice size.
+         */
+        private double impactPercent = 0.05;
+
+        /**
+         * Maximum fills per trade; the last slice takes whatever remains.
+         */
+        private int maxSlices = 10;
+    }
 }
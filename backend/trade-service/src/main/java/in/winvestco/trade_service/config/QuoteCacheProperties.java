@@ -0,0 +1,46 @@
+package in.winvestco.trade_service.config;
+
+import lombok.Getter;
+import lombok.Setter;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Configuration properties for the local quote cache fed by the
+ * SubscribeMarketData stream.
+ */
+@Component
+@ConfigurationProperties(prefix = "trading.quote-cache")
+@Getter
+@Setter
+public class QuoteCacheProperties {
+
+    /**
+     * Enable/disable the market data subscription. When disabled every quote
+     * lookup is a unary GetQuote call, as is the first lookup of each symbol.
+     */
+    private boolean enabled = true;
+
+    /**
+     * Oldest cached quote served while the stream is connected. market-service
+     * only pushes changed quotes, so an idle symbol's entry legitimately ages;
+     * this bounds how long it is trusted without a refresh.
+     */
+    private long maxAgeMs = 60000;
+
+    /**
+     * Oldest cached quote served while the stream is down and no updates are
+     * arriving.
+     */
+    private long disconnectedMaxAgeMs = 5000;
+
+    /**
+     * Delay before the first reconnect after the market data stream drops.
+     */
+    private long reconnectInitialDelayMs = 1000;
+
+    /**
+     * Upper bound for the exponential reconnect backoff.
+     */
+    private long reconnectMaxDelayMs = 30000;
+}
@@ -41,6 +41,7 @@ public interface TradeMapper {
     @Mapping(target = "placedAt", ignore = true)
     @Mapping(target = "executedAt", ignore = true)
     @Mapping(target = "closedAt", ignore = true)
+    @Mapping(target = "statusHistory", ignore = true)
     Trade toEntity(CreateTradeRequest request);
 
     /**
@@ -58,5 +59,6 @@ public interface TradeMapper {
     @Mapping(target = "placedAt", ignore = true)
     @Mapping(target = "executedAt", ignore = true)
     @Mapping(target = "closedAt", ignore = true)
+    @Mapping(target = "statusHistory", ignore = true)
     void updateEntity(@MappingTarget Trade trade, CreateTradeRequest request);
 }
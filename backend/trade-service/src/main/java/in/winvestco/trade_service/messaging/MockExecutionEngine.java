@@ -2,47 +2,103 @@ package in.winvestco.trade_service.messaging;
 
 import com.rabbitmq.client.Channel;
 import in.winvestco.common.config.RabbitMQConfig;
-import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.event.TradePlacedEvent;
+import in.winvestco.common.grpc.market.MarketDataUpdate;
 import in.winvestco.trade_service.client.MarketDataGrpcClient;
 import in.winvestco.trade_service.config.MockExecutionProperties;
+import in.winvestco.trade_service.messaging.SimulatedLiquidityModel.Fill;
 import in.winvestco.trade_service.service.TradeService;
-import lombok.RequiredArgsConstructor;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.amqp.support.AmqpHeaders;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.messaging.handler.annotation.Header;
-import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Service;
 
 import java.io.IOException;
 import java.math.BigDecimal;
-import java.math.RoundingMode;
-import java.util.Random;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
 import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Mock execution engine that automatically executes trades.
- * 
+ *
  * Listens for TradePlacedEvent and simulates broker execution:
- * - Fetches current market price from market-service
- * - Applies configurable slippage
- * - Simulates network latency with random delays
- * - Executes with optional partial fills (70/30 split)
+ * - Fetches the current quote from market-service for every fill
+ * - Fills against a per-symbol liquidity model, so large orders fill in
+ *   slices with depth-dependent slippage
+ * - Simulates network latency with scheduled timers instead of sleeping
+ *   threads, so in-flight trades cost no thread while they wait
+ * - Paces fills to an optional throughput ceiling
  * - Transitions trades: PLACED → EXECUTING → FILLED → CLOSED
+ *
+ * On shutdown, fills already running finish and queued ones are dropped;
+ * their trades keep the state they had reached instead of being failed.
+ * Trades placed while stopping are requeued for the next instance.
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class MockExecutionEngine {
 
     private final TradeService tradeService;
     private final MarketDataGrpcClient marketDataGrpcClient;
+    private final SimulatedLiquidityModel liquidityModel;
     private final MockExecutionProperties properties;
-    private final Random random = new Random();
+    private final ScheduledExecutorService scheduler;
+    private final AtomicLong nextFillSlotNanos = new AtomicLong(System.nanoTime());
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final Counter fills;
+    private volatile boolean stopping;
+
+    @Autowired
+    public MockExecutionEngine(TradeService tradeService, MarketDataGrpcClient marketDataGrpcClient,
+            SimulatedLiquidityModel liquidityModel, MockExecutionProperties properties, MeterRegistry meterRegistry) {
+        this(tradeService, marketDataGrpcClient, liquidityModel, properties, meterRegistry,
+                newScheduler(properties.getWorkerThreads()));
+    }
+
+    MockExecutionEngine(TradeService tradeService, MarketDataGrpcClient marketDataGrpcClient,
+            SimulatedLiquidityModel liquidityModel, MockExecutionProperties properties, MeterRegistry meterRegistry,
+            ScheduledExecutorService scheduler) {
+        this.tradeService = tradeService;
+        this.marketDataGrpcClient = marketDataGrpcClient;
+        this.liquidityModel = liquidityModel;
+        this.properties = properties;
+        this.scheduler = scheduler;
+        this.fills = meterRegistry.counter("trade.mock.execution.fills");
+        meterRegistry.gauge("trade.mock.execution.in_flight", inFlight);
+    }
+
+    private static ScheduledExecutorService newScheduler(int threads) {
+        ScheduledThreadPoolExecutor executor =
+                new ScheduledThreadPoolExecutor(threads, new CustomizableThreadFactory("mock-exec-"));
+        executor.setRemoveOnCancelPolicy(true);
+        executor.setExecuteExistingDelayedTasksAfterShutdownPolicy(false);
+        return executor;
+    }
+
+    @PreDestroy
+    void shutdown() throws InterruptedException {
+        stopping = true;
+        scheduler.shutdown();
+        if (!scheduler.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Mock execution fills still running after 30s");
+        }
+        if (inFlight.get() > 0) {
+            log.info("Mock execution stopped, {} trades left in their current state", inFlight.get());
+        }
+    }
 
     /**
-     * Listen for TradePlacedEvent and trigger async execution.
+     * Listen for TradePlacedEvent and schedule execution.
      */
     @RabbitListener(queues = RabbitMQConfig.TRADE_PLACED_MOCK_QUEUE)
     public void handleTradePlaced(TradePlacedEvent event, Channel channel,
@@ -57,8 +113,14 @@ public class MockExecutionEngine {
                 return;
             }
 
-            // Trigger async execution (non-blocking)
-            asyncExecuteTrade(event);
+            if (stopping) {
+                log.info("Mock execution stopping, requeueing trade: {}", event.getTradeId());
+                channel.basicNack(deliveryTag, false, true);
+                return;
+            }
+
+            // Schedule execution (non-blocking)
+            submit(event);
 
             // Acknowledge message immediately
             channel.basicAck(deliveryTag, false);
@@ -75,155 +137,133 @@ public class MockExecutionEngine {
     }
 
     /**
-     * Asynchronously execute a trade with simulated delays and fills.
+     * Schedule execution of a trade after simulated latency. Returns at once;
+     * fills run on the engine's scheduler.
      */
-    @Async("mockExecutionExecutor")
-    public void asyncExecuteTrade(TradePlacedEvent event) {
-        try {
-            log.info("Starting mock execution for trade: {}", event.getTradeId());
-
-            // 1. Get market price
-            BigDecimal executionPrice = getExecutionPrice(event.getSymbol(), event.getPrice(), event.getSide());
-            log.info("Trade {}: Execution price {} (market with slippage)", event.getTradeId(), executionPrice);
-
-            // 2. Simulate network delay
-            simulateDelay();
-
-            // 3. Execute trade (with optional partial fills)
-            if (properties.isPartialFillEnabled() && event.getQuantity().compareTo(BigDecimal.ONE) > 0) {
-                executeWithPartialFills(event, executionPrice);
-            } else {
-                executeFull(event, executionPrice);
-            }
-
-            log.info("Mock execution completed for trade: {}", event.getTradeId());
-
-        } catch (Exception e) {
-            log.error("Failed to execute trade: {} - {}", event.getTradeId(), e.getMessage(), e);
-            try {
-                tradeService.failTrade(event.getTradeId(), "Mock execution failed: " + e.getMessage(), "EXEC_ERROR");
-            } catch (Exception ex) {
-                log.error("Failed to mark trade as failed: {}", event.getTradeId(), ex);
-            }
-        }
+    public void submit(TradePlacedEvent event) {
+        log.info("Starting mock execution for trade: {}", event.getTradeId());
+        inFlight.incrementAndGet();
+        schedule(new Execution(event), latencyMs());
     }
 
     /**
-     * Execute trade with 70/30 partial fill simulation.
+     * Trades submitted and not yet filled, closed or failed.
      */
-    private void executeWithPartialFills(TradePlacedEvent event, BigDecimal executionPrice) {
-        BigDecimal totalQty = event.getQuantity();
-
-        // First fill (e.g., 70%)
-        int firstFillPercent = properties.getPartialFillPercent();
-        BigDecimal firstFillQty = totalQty.multiply(BigDecimal.valueOf(firstFillPercent))
-                .divide(BigDecimal.valueOf(100), 0, RoundingMode.DOWN);
-
-        // Ensure at least 1 for first fill
-        if (firstFillQty.compareTo(BigDecimal.ONE) < 0) {
-            firstFillQty = BigDecimal.ONE;
-        }
-
-        BigDecimal secondFillQty = totalQty.subtract(firstFillQty);
-
-        log.info("Trade {}: Executing partial fill - first: {}, second: {}",
-                event.getTradeId(), firstFillQty, secondFillQty);
-
-        // First partial fill
-        tradeService.handleExecutionUpdate(event.getTradeId(), firstFillQty, executionPrice, true);
-        log.info("Trade {}: First partial fill completed ({}/{})",
-                event.getTradeId(), firstFillQty, totalQty);
-
-        // Delay between fills
-        simulateDelay();
+    public int getInFlight() {
+        return inFlight.get();
+    }
 
-        // Second fill (remaining quantity)
-        if (secondFillQty.compareTo(BigDecimal.ZERO) > 0) {
-            // Slight price variation for second fill
-            BigDecimal secondFillPrice = applySlightVariation(executionPrice);
-            tradeService.handleExecutionUpdate(event.getTradeId(), secondFillQty, secondFillPrice, false);
-            log.info("Trade {}: Second fill completed at {} ({}/{})",
-                    event.getTradeId(), secondFillPrice, totalQty, totalQty);
+    private void schedule(Execution execution, long delayMs) {
+        if (stopping) {
+            execution.abandon();
+            return;
         }
-
-        // Auto-close if enabled
-        if (properties.isAutoClose()) {
-            tradeService.closeTrade(event.getTradeId());
-            log.info("Trade {} closed", event.getTradeId());
+        try {
+            scheduler.schedule(execution::fillNext, delayMs + paceDelayMs(), TimeUnit.MILLISECONDS);
+        } catch (RuntimeException e) {
+            if (stopping || scheduler.isShutdown()) {
+                execution.abandon();
+            } else {
+                execution.fail(e);
+            }
         }
     }
 
     /**
-     * Execute full trade without partial fills.
+     * Simulated network latency for one fill.
      */
-    private void executeFull(TradePlacedEvent event, BigDecimal executionPrice) {
-        tradeService.handleExecutionUpdate(event.getTradeId(), event.getQuantity(), executionPrice, false);
-        log.info("Trade {} fully executed at {}", event.getTradeId(), executionPrice);
-
-        if (properties.isAutoClose()) {
-            tradeService.closeTrade(event.getTradeId());
-            log.info("Trade {} closed", event.getTradeId());
-        }
+    private long latencyMs() {
+        return ThreadLocalRandom.current().nextInt(properties.getMinDelayMs(), properties.getMaxDelayMs() + 1);
     }
 
     /**
-     * Get execution price from market service or fall back to order price.
-     * Applies slippage based on order side.
+     * Reserve the next free fill slot under the throughput ceiling and return
+     * how far away it is.
      */
-    private BigDecimal getExecutionPrice(String symbol, BigDecimal orderPrice, OrderSide side) {
-        BigDecimal marketPrice = fetchMarketPrice(symbol);
-
-        if (marketPrice == null) {
-            log.warn("No market price available for {}, using order price: {}", symbol, orderPrice);
-            marketPrice = orderPrice;
+    private long paceDelayMs() {
+        int rate = properties.getMaxFillsPerSecond();
+        if (rate <= 0) {
+            return 0;
         }
-
-        // Apply slippage
-        double slippagePercent = random.nextDouble() * properties.getMaxSlippagePercent();
-        BigDecimal slippage = marketPrice.multiply(BigDecimal.valueOf(slippagePercent / 100));
-
-        // BUY orders: price increases (worse for buyer)
-        // SELL orders: price decreases (worse for seller)
-        BigDecimal executionPrice = side == OrderSide.BUY
-                ? marketPrice.add(slippage)
-                : marketPrice.subtract(slippage);
-
-        log.debug("Symbol {}: Market={}, Slippage={}%, Execution={}",
-                symbol, marketPrice, String.format("%.4f", slippagePercent), executionPrice);
-
-        return executionPrice.setScale(2, RoundingMode.HALF_UP);
+        long interval = TimeUnit.SECONDS.toNanos(1) / rate;
+        long now = System.nanoTime();
+        long slot = nextFillSlotNanos.getAndUpdate(previous -> Math.max(previous, now) + interval);
+        return Math.max(0, TimeUnit.NANOSECONDS.toMillis(slot - now));
     }
 
     /**
-     * Fetch current market price from market-service via gRPC.
+     * One trade working through its fills. Each fill runs as its own
+     * scheduled task, so only one step of a trade runs at a time.
      */
-    private BigDecimal fetchMarketPrice(String symbol) {
-        return marketDataGrpcClient.getQuote(symbol);
-    }
+    private final class Execution {
 
-    /**
-     * Simulate network delay.
-     */
-    private void simulateDelay() {
-        int delayMs = ThreadLocalRandom.current().nextInt(
-                properties.getMinDelayMs(),
-                properties.getMaxDelayMs() + 1);
+        private final TradePlacedEvent event;
+        private BigDecimal remaining;
+        private int slices;
 
-        try {
-            Thread.sleep(delayMs);
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-            log.warn("Delay interrupted");
+        private Execution(TradePlacedEvent event) {
+            this.event = event;
+            this.remaining = event.getQuantity();
         }
-    }
 
-    /**
-     * Apply slight price variation for subsequent fills.
-     */
-    private BigDecimal applySlightVariation(BigDecimal price) {
-        // ±0.02% variation
-        double variation = (random.nextDouble() - 0.5) * 0.0004;
-        return price.multiply(BigDecimal.valueOf(1 + variation))
-                .setScale(2, RoundingMode.HALF_UP);
+        private void fillNext() {
+            try {
+                MarketDataUpdate quote = marketDataGrpcClient.getMarketData(event.getSymbol());
+                BigDecimal referencePrice = quote != null ? BigDecimal.valueOf(quote.getLastPrice()) : null;
+                if (referencePrice == null) {
+                    log.warn("No market price available for {}, using order price: {}",
+                            event.getSymbol(), event.getPrice());
+                    referencePrice = event.getPrice();
+                }
+
+                slices++;
+                boolean partialAllowed = properties.isPartialFillEnabled()
+                        && slices < properties.getLiquidity().getMaxSlices();
+                Fill fill = liquidityModel.take(event.getSymbol(), event.getSide(), referencePrice,
+                        quote != null ? quote.getVolume() : 0, remaining, partialAllowed);
+                remaining = remaining.subtract(fill.quantity());
+                boolean partial = remaining.signum() > 0;
+
+                tradeService.handleExecutionUpdate(event.getTradeId(), fill.quantity(), fill.price(), partial);
+                fills.increment();
+                log.info("Trade {}: Filled {} at {} (market {}), remaining {}",
+                        event.getTradeId(), fill.quantity(), fill.price(), referencePrice, remaining);
+
+                if (partial) {
+                    schedule(this, fill.refillDelayMs() + latencyMs());
+                    return;
+                }
+
+                // Auto-close if enabled
+                if (properties.isAutoClose()) {
+                    tradeService.closeTrade(event.getTradeId());
+                    log.info("Trade {} closed", event.getTradeId());
+                }
+
+                inFlight.decrementAndGet();
+                log.info("Mock execution completed for trade: {}", event.getTradeId());
+
+            } catch (Exception e) {
+                fail(e);
+            }
+        }
+
+        /**
+         * Stop working the trade without touching its state, on shutdown.
+         */
+        private void abandon() {
+            inFlight.decrementAndGet();
+            log.warn("Mock execution stopping, trade {} left with {} unfilled", event.getTradeId(), remaining);
+        }
+
+        private void fail(Exception e) {
+            inFlight.decrementAndGet();
+            log.error("Failed to execute trade: {} - {}", event.getTradeId(), e.getMessage(), e);
+            try {
+                tradeService.failTrade(event.getTradeId(), "Mock execution failed: " + e.getMessage(), "EXEC_ERROR");
+            } catch (Exception ex) {
+                log.error("Failed to mark trade as failed: {}", event.getTradeId(), ex);
+            }
+        }
     }
 }
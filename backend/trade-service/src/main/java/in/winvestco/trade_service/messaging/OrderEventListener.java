@@ -3,6 +3,8 @@ package in.winvestco.trade_service.messaging;
 import com.rabbitmq.client.Channel;
 import in.winvestco.common.config.RabbitMQConfig;
 import in.winvestco.common.event.OrderCancelledEvent;
+import in.winvestco.common.event.OrderTriggeredEvent;
+import in.winvestco.trade_service.dto.CreateTradeRequest;
 import in.winvestco.trade_service.model.Trade;
 import in.winvestco.trade_service.repository.TradeRepository;
 import in.winvestco.trade_service.service.TradeService;
@@ -66,4 +68,39 @@ public class OrderEventListener {
             }
         }
     }
+
+    /**
+     * Handle OrderTriggeredEvent - the market crossed a resting limit/stop
+     * order's price, so release its trade for execution.
+     */
+    @RabbitListener(queues = RabbitMQConfig.ORDER_TRIGGERED_TRADE_QUEUE)
+    public void handleOrderTriggered(OrderTriggeredEvent event, Channel channel,
+            @Header(AmqpHeaders.DELIVERY_TAG) long deliveryTag) {
+        log.info("Received OrderTriggeredEvent for order: {}, symbol: {}, market price: {}",
+                event.getOrderId(), event.getSymbol(), event.getMarketPrice());
+
+        try {
+            tradeService.placeTriggeredTrade(CreateTradeRequest.builder()
+                    .orderId(event.getOrderId())
+                    .userId(event.getUserId())
+                    .symbol(event.getSymbol())
+                    .side(event.getSide())
+                    .tradeType(event.getOrderType())
+                    .quantity(event.getQuantity())
+                    .price(event.getPrice())
+                    .build());
+
+            // Acknowledge message
+            channel.basicAck(deliveryTag, false);
+
+        } catch (Exception e) {
+            log.error("Failed to process OrderTriggeredEvent for order: {}", event.getOrderId(), e);
+            try {
+                // Reject and requeue for retry
+                channel.basicNack(deliveryTag, false, true);
+            } catch (Exception nackEx) {
+                log.error("Failed to nack message for order trigger: {}", event.getOrderId(), nackEx);
+            }
+        }
+    }
 }
@@ -0,0 +1,119 @@
+package in.winvestco.trade_service.messaging;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.trade_service.config.MockExecutionProperties;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-symbol liquidity for the mock execution engine.
+ *
+ * Each symbol shows a depth at the touch derived from the quote's day volume.
+ * A fill consumes depth and pays slippage that grows with the share of depth
+ * it takes; consumed depth refills linearly over the replenish window. Large
+ * or concurrent orders on one symbol therefore fill in slices, at worse
+ * prices, and wait for the book to come back.
+ */
+@Component
+public class SimulatedLiquidityModel {
+
+    private final MockExecutionProperties properties;
+    private final LongSupplier clockMillis;
+    private final Map<String, Book> books = new ConcurrentHashMap<>();
+
+    @Autowired
+    public SimulatedLiquidityModel(MockExecutionProperties properties) {
+        this(properties, System::currentTimeMillis);
+    }
+
+    SimulatedLiquidityModel(MockExecutionProperties properties, LongSupplier clockMillis) {
+        this.properties = properties;
+        this.clockMillis = clockMillis;
+    }
+
+    /**
+     * Take up to {@code wanted} from the symbol's book.
+     *
+     * @param referencePrice last traded price the fill is priced against
+     * @param dayVolume      quote day volume, 0 if unknown
+     * @param partialAllowed false to take the whole quantity regardless of depth
+     * @return the slice filled and how long the book needs before the rest can
+     *         fill at normal depth
+     */
+    public Fill take(String symbol, OrderSide side, BigDecimal referencePrice, long dayVolume,
+            BigDecimal wanted, boolean partialAllowed) {
+        MockExecutionProperties.Liquidity liquidity = properties.getLiquidity();
+        double depth = Math.max(liquidity.getMinDepth(), dayVolume * liquidity.getDepthVolumeFraction());
+        Book book = books.computeIfAbsent(symbol, s -> new Book(depth, clockMillis.getAsLong()));
+
+        BigDecimal quantity;
+        long refillDelayMs;
+        synchronized (book) {
+            book.refill(depth, liquidity.getReplenishMs(), clockMillis.getAsLong());
+
+            quantity = wanted;
+            if (partialAllowed) {
+                // Whole shares only, and always at least one so a drained book still makes progress
+                BigDecimal available = BigDecimal.valueOf(Math.max(0, Math.floor(book.available)));
+                quantity = wanted.min(available.max(BigDecimal.ONE));
+            }
+            book.available -= quantity.doubleValue();
+
+            double remaining = wanted.subtract(quantity).doubleValue();
+            double shortfall = Math.min(remaining, depth) - book.available;
+            refillDelayMs = shortfall > 0 ? (long) Math.ceil(shortfall / depth * liquidity.getReplenishMs()) : 0;
+        }
+
+        double spreadPercent = ThreadLocalRandom.current().nextDouble() * properties.getMaxSlippagePercent();
+        double impactPercent = Math.min(1.0, quantity.doubleValue() / depth) * liquidity.getImpactPercent();
+        BigDecimal slippage = referencePrice.multiply(BigDecimal.valueOf((spreadPercent + impactPercent) / 100));
+
+        // BUY orders: price increases (worse for buyer)
+        // SELL orders: price decreases (worse for seller)
+        BigDecimal price = side == OrderSide.BUY
+                ? referencePrice.add(slippage)
+                : referencePrice.subtract(slippage);
+
+        return new Fill(quantity, price.setScale(2, RoundingMode.HALF_UP), refillDelayMs);
+    }
+
+    /**
+     * Quantity currently displayed for a symbol, for tests and diagnostics.
+     */
+    double available(String symbol) {
+        Book book = books.get(symbol);
+        return book == null ? Double.NaN : book.available;
+    }
+
+    /**
+     * One slice of an execution.
+     */
+    public record Fill(BigDecimal quantity, BigDecimal price, long refillDelayMs) {
+    }
+
+    private static final class Book {
+        private double available;
+        private long refilledAt;
+
+        private Book(double depth, long now) {
+            this.available = depth;
+            this.refilledAt = now;
+        }
+
+        private void refill(double depth, long replenishMs, long now) {
+            long elapsed = now - refilledAt;
+            if (elapsed > 0) {
+                double regained = replenishMs > 0 ? depth * elapsed / replenishMs : depth;
+                available = Math.min(depth, available + regained);
+                refilledAt = now;
+            }
+        }
+    }
+}
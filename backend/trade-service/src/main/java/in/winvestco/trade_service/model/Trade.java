@@ -4,10 +4,13 @@ import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.enums.TradeStatus;
+import in.winvestco.common.statemachine.StatusTransition;
 import jakarta.persistence.*;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
 import lombok.*;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.annotation.LastModifiedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
@@ -15,6 +18,8 @@ import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 import java.io.Serializable;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Trade entity representing a trade in the system.
@@ -118,8 +123,32 @@ public class Trade implements Serializable {
     @Column(name = "closed_at")
     private Instant closedAt;
 
+    /**
+     * Every status the trade has passed through, including the ones applied
+     * and left within a single write.
+     */
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "status_history")
+    @Builder.Default
+    private List<StatusTransition> statusHistory = new ArrayList<>();
+
     // ==================== Lifecycle Methods ====================
 
+    /**
+     * Move to a new status in memory and record the step in the status
+     * history; repeating the current status (another partial fill) is not a
+     * step and is not recorded. The trade is persisted by the caller, once per operation.
+     */
+    public void transitionTo(TradeStatus next, Instant at) {
+        if (statusHistory == null) {
+            statusHistory = new ArrayList<>();
+        }
+        if (next != status) {
+            statusHistory.add(StatusTransition.of(status, next, at));
+        }
+        status = next;
+    }
+
     /**
      * Get remaining quantity to be executed
      */
@@ -1,6 +1,7 @@
 package in.winvestco.trade_service.service;
 
 import in.winvestco.common.config.RabbitMQConfig;
+import in.winvestco.common.enums.TradeStatus;
 import in.winvestco.common.event.*;
 import in.winvestco.common.messaging.outbox.OutboxService;
 import in.winvestco.trade_service.model.Trade;
@@ -9,6 +10,7 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
+import java.util.List;
 
 /**
  * Service for publishing trade events using the outbox pattern.
@@ -26,7 +28,39 @@ public class TradeEventPublisher {
      * Publish TradeCreatedEvent using outbox pattern
      */
     public void publishTradeCreated(Trade trade) {
-        TradeCreatedEvent event = TradeCreatedEvent.builder()
+        log.info("Capturing TradeCreatedEvent in outbox for trade: {}, order: {}", 
+                trade.getTradeId(), trade.getOrderId());
+        outboxService.captureEvent("Trade", trade.getTradeId(),
+                RabbitMQConfig.TRADE_EXCHANGE, RabbitMQConfig.TRADE_CREATED_ROUTING_KEY,
+                tradeCreatedEvent(trade, trade.getStatus()));
+    }
+
+    /**
+     * Publish TradePlacedEvent using outbox pattern
+     */
+    public void publishTradePlaced(Trade trade) {
+        log.info("Capturing TradePlacedEvent in outbox for trade: {}", trade.getTradeId());
+        outboxService.captureEvent("Trade", trade.getTradeId(),
+                RabbitMQConfig.TRADE_EXCHANGE, RabbitMQConfig.TRADE_PLACED_ROUTING_KEY, tradePlacedEvent(trade));
+    }
+
+    /**
+     * Publish TradeCreatedEvent and TradePlacedEvent for a trade that was
+     * created and placed in one step, with a single outbox insert. The created
+     * event still reports the CREATED status.
+     */
+    public void publishTradeCreatedAndPlaced(Trade trade) {
+        log.info("Capturing TradeCreatedEvent and TradePlacedEvent in outbox for trade: {}, order: {}",
+                trade.getTradeId(), trade.getOrderId());
+        outboxService.captureEvents("Trade", trade.getTradeId(), List.of(
+                new OutboxService.PendingEvent(RabbitMQConfig.TRADE_EXCHANGE,
+                        RabbitMQConfig.TRADE_CREATED_ROUTING_KEY, tradeCreatedEvent(trade, TradeStatus.CREATED)),
+                new OutboxService.PendingEvent(RabbitMQConfig.TRADE_EXCHANGE,
+                        RabbitMQConfig.TRADE_PLACED_ROUTING_KEY, tradePlacedEvent(trade))));
+    }
+
+    private TradeCreatedEvent tradeCreatedEvent(Trade trade, TradeStatus status) {
+        return TradeCreatedEvent.builder()
                 .tradeId(trade.getTradeId())
                 .orderId(trade.getOrderId())
                 .userId(trade.getUserId())
@@ -35,21 +69,13 @@ public class TradeEventPublisher {
                 .tradeType(trade.getTradeType())
                 .quantity(trade.getQuantity())
                 .price(trade.getPrice())
-                .status(trade.getStatus())
+                .status(status)
                 .createdAt(trade.getCreatedAt())
                 .build();
-
-        log.info("Capturing TradeCreatedEvent in outbox for trade: {}, order: {}", 
-                trade.getTradeId(), trade.getOrderId());
-        outboxService.captureEvent("Trade", trade.getTradeId(),
-                RabbitMQConfig.TRADE_EXCHANGE, RabbitMQConfig.TRADE_CREATED_ROUTING_KEY, event);
     }
 
-    /**
-     * Publish TradePlacedEvent using outbox pattern
-     */
-    public void publishTradePlaced(Trade trade) {
-        TradePlacedEvent event = TradePlacedEvent.builder()
+    private TradePlacedEvent tradePlacedEvent(Trade trade) {
+        return TradePlacedEvent.builder()
                 .tradeId(trade.getTradeId())
                 .orderId(trade.getOrderId())
                 .userId(trade.getUserId())
@@ -60,10 +86,6 @@ public class TradeEventPublisher {
                 .status(trade.getStatus())
                 .placedAt(trade.getPlacedAt())
                 .build();
-
-        log.info("Capturing TradePlacedEvent in outbox for trade: {}", trade.getTradeId());
-        outboxService.captureEvent("Trade", trade.getTradeId(),
-                RabbitMQConfig.TRADE_EXCHANGE, RabbitMQConfig.TRADE_PLACED_ROUTING_KEY, event);
     }
 
     /**
@@ -1,6 +1,8 @@
 package in.winvestco.trade_service.service;
 
+import in.winvestco.common.enums.OrderType;
 import in.winvestco.common.enums.TradeStatus;
+import in.winvestco.common.statemachine.StatusTransition;
 import in.winvestco.trade_service.dto.CreateTradeRequest;
 import in.winvestco.trade_service.dto.TradeDTO;
 import in.winvestco.trade_service.exception.InvalidTradeStateException;
@@ -22,6 +24,7 @@ import java.math.BigDecimal;
 import java.math.RoundingMode;
 import java.time.Duration;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.UUID;
 
@@ -32,7 +35,8 @@ import java.util.UUID;
  * - Accept trade intent from validated orders
  * - Validate trade business rules
  * - Manage trade state machine (CREATED → VALIDATED → PLACED → EXECUTED →
- * CLOSED)
+ * CLOSED). Chained transitions are applied in memory and the trade is
+ * written once per operation, with every step kept in its status history
  * - Trigger execution via events
  * - Emit trade lifecycle events
  * 
@@ -57,11 +61,16 @@ public class TradeService {
     private static final List<TradeStatus> TERMINAL_STATUSES = List.of(
             TradeStatus.CLOSED, TradeStatus.CANCELLED, TradeStatus.FAILED);
 
+    // Rest in the order book until order-service reports the price crossed
+    private static final List<OrderType> PRICE_TRIGGERED_TYPES = List.of(
+            OrderType.LIMIT, OrderType.STOP_LOSS, OrderType.STOP_LIMIT);
+
     // ==================== Trade Creation ====================
 
     /**
      * Create a new trade from a validated order.
-     * Called when FundsLockedEvent is received.
+     * Called when FundsLockedEvent is received. Market orders are placed at
+     * once; limit and stop orders are held VALIDATED until they trigger.
      */
     @Transactional
     public TradeDTO createTradeFromOrder(CreateTradeRequest request) {
@@ -73,10 +82,63 @@ public class TradeService {
             return tradeMapper.toDTO(tradeRepository.findByOrderId(request.getOrderId()).orElseThrow());
         }
 
+        if (PRICE_TRIGGERED_TYPES.contains(request.getTradeType())) {
+            Trade trade = tradeRepository.save(newValidatedTrade(request, Instant.now()));
+            log.info("Trade {} created and held until order {} triggers", trade.getTradeId(), request.getOrderId());
+            eventPublisher.publishTradeCreated(trade);
+            return tradeMapper.toDTO(trade);
+        }
+        return createAndPlace(request);
+    }
+
+    /**
+     * Release the trade of a limit or stop order whose price was crossed.
+     * Called when OrderTriggeredEvent is received. Creates and places the
+     * trade if the order's FundsLockedEvent has not been handled yet; a
+     * trade already placed is left alone.
+     */
+    @Transactional
+    public TradeDTO placeTriggeredTrade(CreateTradeRequest request) {
+        Trade trade = tradeRepository.findByOrderId(request.getOrderId()).orElse(null);
+        if (trade == null) {
+            log.info("Order {} triggered before its trade was created, placing it now", request.getOrderId());
+            return createAndPlace(request);
+        }
+        if (!trade.canBePlaced()) {
+            log.info("Trade {} for triggered order {} already {}, nothing to place",
+                    trade.getTradeId(), request.getOrderId(), trade.getStatus());
+            return tradeMapper.toDTO(trade);
+        }
+        return placeTrade(trade);
+    }
+
+    /**
+     * Create a trade and place it for execution at once.
+     * Transitions: CREATED → VALIDATED → PLACED, written once
+     */
+    private TradeDTO createAndPlace(CreateTradeRequest request) {
+        Instant now = Instant.now();
+        Trade trade = newValidatedTrade(request, now);
+        trade.transitionTo(TradeStatus.PLACED, now);
+        trade.setPlacedAt(now);
+
+        trade = tradeRepository.save(trade);
+        log.info("Trade {} created, validated and placed for execution", trade.getTradeId());
+
+        // Publish trade created and placed events (placed triggers execution engine)
+        eventPublisher.publishTradeCreatedAndPlaced(trade);
+
+        return tradeMapper.toDTO(trade);
+    }
+
+    /**
+     * Build a trade for the request and take it through CREATED → VALIDATED
+     * in memory.
+     */
+    private Trade newValidatedTrade(CreateTradeRequest request, Instant now) {
         // Validate trade request
         validationService.validate(request);
 
-        // Create trade entity
         Trade trade = Trade.builder()
                 .tradeId(UUID.randomUUID().toString())
                 .orderId(request.getOrderId())
@@ -87,23 +149,14 @@ public class TradeService {
                 .quantity(request.getQuantity())
                 .price(request.getPrice())
                 .status(TradeStatus.CREATED)
+                .statusHistory(new ArrayList<>(List.of(StatusTransition.of(null, TradeStatus.CREATED, now))))
                 .executedQuantity(BigDecimal.ZERO)
                 .build();
 
-        trade = tradeRepository.save(trade);
-        log.info("Trade created: {} with status CREATED", trade.getTradeId());
-
-        // Publish trade created event
-        eventPublisher.publishTradeCreated(trade);
-
-        // Immediately transition to VALIDATED (validation passed above)
-        trade.setStatus(TradeStatus.VALIDATED);
-        trade.setValidatedAt(Instant.now());
-        trade = tradeRepository.save(trade);
-        log.info("Trade {} transitioned to VALIDATED", trade.getTradeId());
-
-        // Auto-place trade for execution
-        return placeTrade(trade);
+        // CREATED → VALIDATED (validation passed above), applied in memory
+        trade.transitionTo(TradeStatus.VALIDATED, now);
+        trade.setValidatedAt(now);
+        return trade;
     }
 
     // ==================== Trade Placement ====================
@@ -118,8 +171,9 @@ public class TradeService {
             throw new InvalidTradeStateException(trade.getTradeId(), trade.getStatus(), "place");
         }
 
-        trade.setStatus(TradeStatus.PLACED);
-        trade.setPlacedAt(Instant.now());
+        Instant now = Instant.now();
+        trade.transitionTo(TradeStatus.PLACED, now);
+        trade.setPlacedAt(now);
         trade = tradeRepository.save(trade);
 
         log.info("Trade {} placed for execution", trade.getTradeId());
@@ -151,7 +205,7 @@ public class TradeService {
 
                     // Update to EXECUTING if not already
                     if (trade.getStatus() == TradeStatus.PLACED) {
-                        trade.setStatus(TradeStatus.EXECUTING);
+                        trade.transitionTo(TradeStatus.EXECUTING, Instant.now());
                     }
 
                     // Calculate new filled quantity
@@ -173,10 +227,10 @@ public class TradeService {
 
                     // Determine new status
                     if (trade.isFullyFilled()) {
-                        trade.setStatus(TradeStatus.FILLED);
+                        trade.transitionTo(TradeStatus.FILLED, Instant.now());
                         log.info("Trade {} fully filled at avg price {}", tradeId, trade.getAveragePrice());
                     } else {
-                        trade.setStatus(TradeStatus.PARTIALLY_FILLED);
+                        trade.transitionTo(TradeStatus.PARTIALLY_FILLED, Instant.now());
                         log.info("Trade {} partially filled: {}/{}", tradeId, newFilledQty, trade.getQuantity());
                     }
 
@@ -211,7 +265,7 @@ public class TradeService {
             throw new InvalidTradeStateException(tradeId, trade.getStatus(), "close");
         }
 
-        trade.setStatus(TradeStatus.CLOSED);
+        trade.transitionTo(TradeStatus.CLOSED, Instant.now());
         trade.setClosedAt(Instant.now());
         trade = tradeRepository.save(trade);
 
@@ -241,7 +295,7 @@ public class TradeService {
             throw new InvalidTradeStateException(tradeId, trade.getStatus(), "cancel");
         }
 
-        trade.setStatus(TradeStatus.CANCELLED);
+        trade.transitionTo(TradeStatus.CANCELLED, Instant.now());
         trade.setFailureReason("Cancelled: " + reason);
         trade = tradeRepository.save(trade);
 
@@ -267,7 +321,7 @@ public class TradeService {
             return tradeMapper.toDTO(trade);
         }
 
-        trade.setStatus(TradeStatus.FAILED);
+        trade.transitionTo(TradeStatus.FAILED, Instant.now());
         trade.setFailureReason(reason);
         trade = tradeRepository.save(trade);
 
@@ -0,0 +1,2 @@
+-- Statuses a trade passed through, including the ones applied and left within one write
+ALTER TABLE trades ADD COLUMN status_history JSONB NOT NULL DEFAULT '[]'::jsonb;
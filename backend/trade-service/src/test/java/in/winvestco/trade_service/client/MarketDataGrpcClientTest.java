@@ -1,28 +1,38 @@
 package in.winvestco.trade_service.client;
 
 import in.winvestco.common.grpc.market.MarketDataServiceGrpc;
+import in.winvestco.common.grpc.market.MarketDataSubscription;
 import in.winvestco.common.grpc.market.MarketDataUpdate;
 import in.winvestco.common.grpc.market.QuoteRequest;
 import in.winvestco.common.grpc.market.QuoteResponse;
-import io.grpc.StatusRuntimeException;
+import in.winvestco.trade_service.config.QuoteCacheProperties;
 import io.grpc.Status;
+import io.grpc.StatusRuntimeException;
+import io.grpc.stub.ClientCallStreamObserver;
+import io.grpc.stub.ClientResponseObserver;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.test.util.ReflectionTestUtils;
 
 import java.math.BigDecimal;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.when;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for MarketDataGrpcClient.
- * Tests the gRPC client wrapper for market data quote lookups.
+ * Tests the quote cache, its stream feed and the unary fallback.
  */
 @ExtendWith(MockitoExtension.class)
 @DisplayName("MarketDataGrpcClient Tests")
@@ -31,28 +41,36 @@ class MarketDataGrpcClientTest {
     @Mock
     private MarketDataServiceGrpc.MarketDataServiceBlockingStub marketDataStub;
 
+    @Mock
+    private MarketDataServiceGrpc.MarketDataServiceStub marketDataStreamStub;
+
+    @Mock
+    private ClientCallStreamObserver<MarketDataSubscription> call;
+
+    private final AtomicLong clock = new AtomicLong(1_000_000);
+    private QuoteCacheProperties properties;
+    private SimpleMeterRegistry meterRegistry;
     private MarketDataGrpcClient grpcClient;
 
     @BeforeEach
     void setUp() {
-        grpcClient = new MarketDataGrpcClient();
+        properties = new QuoteCacheProperties();
+        meterRegistry = new SimpleMeterRegistry();
+        grpcClient = new MarketDataGrpcClient(properties, meterRegistry, clock::get);
         ReflectionTestUtils.setField(grpcClient, "marketDataStub", marketDataStub);
+        ReflectionTestUtils.setField(grpcClient, "marketDataStreamStub", marketDataStreamStub);
+        lenient().when(marketDataStub.withDeadlineAfter(anyLong(), any(TimeUnit.class))).thenReturn(marketDataStub);
+    }
+
+    @AfterEach
+    void tearDown() {
+        grpcClient.stop();
     }
 
     @Test
     @DisplayName("Should return price when gRPC call succeeds and stock is found")
     void getQuote_WhenFound_ShouldReturnPrice() {
-        MarketDataUpdate update = MarketDataUpdate.newBuilder()
-                .setSymbol("RELIANCE")
-                .setLastPrice(2500.50)
-                .build();
-
-        QuoteResponse response = QuoteResponse.newBuilder()
-                .setQuote(update)
-                .setFound(true)
-                .build();
-
-        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(response);
+        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(found(update("RELIANCE", 2500.50, 1)));
 
         BigDecimal result = grpcClient.getQuote("RELIANCE");
 
@@ -95,4 +113,115 @@ class MarketDataGrpcClientTest {
 
         assertThat(result).isNull();
     }
+
+    @Test
+    @DisplayName("Should cache the unary result and serve repeat lookups locally")
+    void getQuote_Repeated_ShouldCallUnaryOnce() {
+        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(found(update("RELIANCE", 2500.50, 1)));
+
+        grpcClient.getQuote("RELIANCE");
+        clock.addAndGet(1000);
+        BigDecimal result = grpcClient.getQuote("reliance");
+
+        assertThat(result.doubleValue()).isEqualTo(2500.50);
+        verify(marketDataStub, times(1)).getQuote(any(QuoteRequest.class));
+        assertThat(meterRegistry.counter("trade.quote.cache.requests", "result", "hit").count()).isEqualTo(1);
+        assertThat(meterRegistry.counter("trade.quote.cache.requests", "result", "miss").count()).isEqualTo(1);
+        assertThat(meterRegistry.get("trade.quote.cache.hit.ratio").gauge().value()).isEqualTo(0.5);
+        assertThat(meterRegistry.get("trade.quote.age").timer().max(TimeUnit.MILLISECONDS)).isEqualTo(1000);
+    }
+
+    @Test
+    @DisplayName("Should serve streamed quotes without any unary call")
+    void getQuote_FromStream_ShouldNotCallUnary() {
+        ClientResponseObserver<MarketDataSubscription, MarketDataUpdate> observer = startStream();
+
+        observer.onNext(update("TCS", 3900.00, 1));
+        observer.onNext(update("TCS", 3905.25, 2));
+
+        assertThat(grpcClient.getQuote("TCS").doubleValue()).isEqualTo(3905.25);
+        verifyNoInteractions(marketDataStub);
+    }
+
+    @Test
+    @DisplayName("Should refresh over unary once a cached quote is past the staleness bound")
+    void getQuote_WhenStale_ShouldFallBackToUnary() {
+        ClientResponseObserver<MarketDataSubscription, MarketDataUpdate> observer = startStream();
+        observer.onNext(update("TCS", 3900.00, 1));
+        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(found(update("TCS", 3950.00, 2)));
+
+        clock.addAndGet(properties.getMaxAgeMs() + 1);
+        BigDecimal result = grpcClient.getQuote("TCS");
+
+        assertThat(result.doubleValue()).isEqualTo(3950.00);
+        assertThat(meterRegistry.counter("trade.quote.cache.requests", "result", "stale").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Should apply the tighter staleness bound while the stream is down")
+    void getQuote_WhenDisconnected_ShouldUseShorterBound() {
+        ClientResponseObserver<MarketDataSubscription, MarketDataUpdate> observer = startStream();
+        observer.onNext(update("TCS", 3900.00, 1));
+        observer.onError(new StatusRuntimeException(Status.UNAVAILABLE));
+        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(found(update("TCS", 3950.00, 2)));
+
+        clock.addAndGet(properties.getDisconnectedMaxAgeMs() + 1);
+        BigDecimal result = grpcClient.getQuote("TCS");
+
+        assertThat(grpcClient.isConnected()).isFalse();
+        assertThat(result.doubleValue()).isEqualTo(3950.00);
+    }
+
+    @Test
+    @DisplayName("Should keep a newer streamed quote over an older unary response")
+    void getQuote_ShouldNotOverwriteNewerQuote() {
+        ClientResponseObserver<MarketDataSubscription, MarketDataUpdate> observer = startStream();
+        observer.onNext(update("TCS", 3900.00, 1));
+        when(marketDataStub.getQuote(any(QuoteRequest.class))).thenReturn(found(update("TCS", 3800.00, 0)));
+
+        clock.addAndGet(properties.getMaxAgeMs() + 1);
+        grpcClient.getQuote("TCS");
+        observer.onNext(update("TCS", 3910.00, 3));
+
+        assertThat(grpcClient.getQuote("TCS").doubleValue()).isEqualTo(3910.00);
+    }
+
+    @Test
+    @DisplayName("Should not open a stream when the cache is disabled")
+    void start_WhenDisabled_ShouldNotSubscribe() {
+        properties.setEnabled(false);
+
+        grpcClient.start();
+
+        verifyNoInteractions(marketDataStreamStub);
+        assertThat(grpcClient.isConnected()).isFalse();
+    }
+
+    @SuppressWarnings("unchecked")
+    private ClientResponseObserver<MarketDataSubscription, MarketDataUpdate> startStream() {
+        grpcClient.start();
+        ArgumentCaptor<ClientResponseObserver<MarketDataSubscription, MarketDataUpdate>> observer =
+                ArgumentCaptor.forClass(ClientResponseObserver.class);
+        verify(marketDataStreamStub).subscribeMarketData(
+                eq(MarketDataSubscription.newBuilder().setSubscribeAll(true).build()), observer.capture());
+        observer.getValue().beforeStart(call);
+        assertThat(grpcClient.isConnected()).isTrue();
+        return observer.getValue();
+    }
+
+    private static MarketDataUpdate update(String symbol, double lastPrice, long timestamp) {
+        return MarketDataUpdate.newBuilder()
+                .setSymbol(symbol)
+                .setLastPrice(lastPrice)
+                .setTimestamp(timestamp)
+                .build();
+    }
+
+    private static QuoteResponse found(MarketDataUpdate update) {
+        return QuoteResponse.newBuilder()
+                .setQuote(update)
+                .setFound(true)
+                .setSymbol(update.getSymbol())
+                .build();
+    }
 }
@@ -4,23 +4,28 @@ import com.rabbitmq.client.Channel;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.TradeStatus;
 import in.winvestco.common.event.TradePlacedEvent;
-import in.winvestco.trade_service.client.MarketServiceClient;
+import in.winvestco.common.grpc.market.MarketDataUpdate;
+import in.winvestco.trade_service.client.MarketDataGrpcClient;
 import in.winvestco.trade_service.config.MockExecutionProperties;
 import in.winvestco.trade_service.dto.TradeDTO;
 import in.winvestco.trade_service.service.TradeService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.test.util.ReflectionTestUtils;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.ArgumentMatchers.*;
@@ -28,6 +33,10 @@ import static org.mockito.Mockito.*;
 
 /**
  * Unit tests for MockExecutionEngine.
+ *
+ * The scheduler is a mock that records each delay, advances the liquidity
+ * model's clock by it and runs the task inline, so executions complete
+ * synchronously.
  */
 @ExtendWith(MockitoExtension.class)
 class MockExecutionEngineTest {
@@ -36,31 +45,46 @@ class MockExecutionEngineTest {
     private TradeService tradeService;
 
     @Mock
-    private MarketServiceClient marketServiceClient;
+    private MarketDataGrpcClient marketDataGrpcClient;
+
+    @Mock
+    private ScheduledExecutorService scheduler;
 
     @Mock
     private Channel channel;
 
-    @InjectMocks
     private MockExecutionEngine mockExecutionEngine;
 
     private MockExecutionProperties properties;
     private TradePlacedEvent testEvent;
+    private final AtomicLong clock = new AtomicLong();
+    private final List<Long> delays = new ArrayList<>();
 
     @BeforeEach
     void setUp() {
         // Set up properties
         properties = new MockExecutionProperties();
         properties.setEnabled(true);
-        properties.setMinDelayMs(1); // Very low for fast tests
+        properties.setMinDelayMs(1);
         properties.setMaxDelayMs(2);
         properties.setMaxSlippagePercent(0.1);
         properties.setAutoClose(true);
         properties.setPartialFillEnabled(true);
-        properties.setPartialFillPercent(70);
-
-        // Inject properties into engine
-        ReflectionTestUtils.setField(mockExecutionEngine, "properties", properties);
+        properties.getLiquidity().setMinDepth(1000);
+        properties.getLiquidity().setImpactPercent(0);
+
+        lenient().when(scheduler.schedule(any(Runnable.class), anyLong(), eq(TimeUnit.MILLISECONDS)))
+                .thenAnswer(invocation -> {
+                    long delay = invocation.getArgument(1);
+                    delays.add(delay);
+                    clock.addAndGet(delay);
+                    ((Runnable) invocation.getArgument(0)).run();
+                    return null;
+                });
+
+        mockExecutionEngine = new MockExecutionEngine(tradeService, marketDataGrpcClient,
+                new SimulatedLiquidityModel(properties, clock::get), properties, new SimpleMeterRegistry(),
+                scheduler);
 
         // Set up test event
         testEvent = TradePlacedEvent.builder()
@@ -80,20 +104,20 @@ class MockExecutionEngineTest {
     @DisplayName("Should execute trade when mock execution is enabled")
     void shouldExecuteTradeWhenEnabled() throws Exception {
         // Given
-        properties.setPartialFillEnabled(false);
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(
-                "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2505.50\"}");
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2505.50, 0));
         when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
                 .thenReturn(mockTradeDTO());
         when(tradeService.closeTrade(anyString())).thenReturn(mockTradeDTO());
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.handleTradePlaced(testEvent, channel, 1L);
 
         // Then
         verify(tradeService).handleExecutionUpdate(eq("TRADE-001"), eq(BigDecimal.TEN), any(BigDecimal.class),
                 eq(false));
         verify(tradeService).closeTrade("TRADE-001");
+        verify(channel).basicAck(1L, false);
+        assertThat(mockExecutionEngine.getInFlight()).isZero();
     }
 
     @Test
@@ -107,23 +131,54 @@ class MockExecutionEngineTest {
 
         // Then
         verify(tradeService, never()).handleExecutionUpdate(anyString(), any(), any(), anyBoolean());
+        verifyNoInteractions(scheduler);
         verify(channel).basicAck(1L, false);
     }
 
+    @Test
+    @DisplayName("Should wait on a scheduled timer instead of a sleeping thread")
+    void shouldScheduleLatency() {
+        // Given
+        properties.setMinDelayMs(100);
+        properties.setMaxDelayMs(100);
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
+
+        // When
+        mockExecutionEngine.submit(testEvent);
+
+        // Then
+        assertThat(delays).containsExactly(100L);
+    }
+
+    @Test
+    @DisplayName("Should space fills to the throughput ceiling")
+    void shouldPaceFillsToThroughputTarget() {
+        // Given - 10 fills/sec = one slot every 100ms
+        properties.setMaxFillsPerSecond(10);
+        properties.setMinDelayMs(0);
+        properties.setMaxDelayMs(0);
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
+
+        // When
+        for (int i = 0; i < 3; i++) {
+            mockExecutionEngine.submit(testEvent);
+        }
+
+        // Then - later submissions are pushed into later slots, at most one interval apart
+        assertThat(delays).hasSize(3);
+        assertThat(delays.get(1)).isBetween(1L, 100L);
+        assertThat(delays.get(2)).isGreaterThan(delays.get(1)).isLessThanOrEqualTo(200L);
+    }
+
     @Test
     @DisplayName("Should apply slippage to execution price")
     void shouldApplySlippage() throws Exception {
         // Given
-        properties.setPartialFillEnabled(false);
         properties.setMaxSlippagePercent(1.0); // 1% max slippage for visibility
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(
-                "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2500.00\"}");
-        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
-                .thenReturn(mockTradeDTO());
-        when(tradeService.closeTrade(anyString())).thenReturn(mockTradeDTO());
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
         // Then
         ArgumentCaptor<BigDecimal> priceCaptor = ArgumentCaptor.forClass(BigDecimal.class);
@@ -143,14 +198,10 @@ class MockExecutionEngineTest {
     @DisplayName("Should use fallback price when market service unavailable")
     void shouldUseFallbackPriceWhenMarketUnavailable() throws Exception {
         // Given
-        properties.setPartialFillEnabled(false);
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(null);
-        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
-                .thenReturn(mockTradeDTO());
-        when(tradeService.closeTrade(anyString())).thenReturn(mockTradeDTO());
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(null);
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
         // Then
         ArgumentCaptor<BigDecimal> priceCaptor = ArgumentCaptor.forClass(BigDecimal.class);
@@ -164,21 +215,16 @@ class MockExecutionEngineTest {
     }
 
     @Test
-    @DisplayName("Should execute partial fills when enabled")
+    @DisplayName("Should fill in slices when the order exceeds displayed liquidity")
     void shouldExecutePartialFills() throws Exception {
-        // Given
-        properties.setPartialFillEnabled(true);
-        properties.setPartialFillPercent(70);
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(
-                "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2500.00\"}");
-        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
-                .thenReturn(mockTradeDTO());
-        when(tradeService.closeTrade(anyString())).thenReturn(mockTradeDTO());
+        // Given - only 7 shares displayed at the touch
+        properties.getLiquidity().setMinDepth(7);
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
-        // Then - should have 2 execution calls (70% + 30%)
+        // Then - 7 now, 3 once the book has replenished
         ArgumentCaptor<BigDecimal> qtyCaptor = ArgumentCaptor.forClass(BigDecimal.class);
         ArgumentCaptor<Boolean> partialCaptor = ArgumentCaptor.forClass(Boolean.class);
 
@@ -188,30 +234,40 @@ class MockExecutionEngineTest {
                 any(BigDecimal.class),
                 partialCaptor.capture());
 
-        // First call should be partial (70% of 10 = 7)
         assertThat(qtyCaptor.getAllValues().get(0)).isEqualByComparingTo(new BigDecimal("7"));
         assertThat(partialCaptor.getAllValues().get(0)).isTrue();
-
-        // Second call should be full (remaining 30% = 3)
         assertThat(qtyCaptor.getAllValues().get(1)).isEqualByComparingTo(new BigDecimal("3"));
         assertThat(partialCaptor.getAllValues().get(1)).isFalse();
 
+        // Second fill waited for 3/7 of the replenish window on top of latency
+        assertThat(delays.get(1)).isGreaterThanOrEqualTo(429L);
         verify(tradeService).closeTrade("TRADE-001");
     }
 
+    @Test
+    @DisplayName("Should fill in one go when partial fills are disabled")
+    void shouldFillFullyWhenPartialFillsDisabled() throws Exception {
+        // Given
+        properties.setPartialFillEnabled(false);
+        properties.getLiquidity().setMinDepth(7);
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
+
+        // When
+        mockExecutionEngine.submit(testEvent);
+
+        // Then
+        verify(tradeService).handleExecutionUpdate(eq("TRADE-001"), eq(BigDecimal.TEN), any(), eq(false));
+    }
+
     @Test
     @DisplayName("Should not auto-close when autoClose is disabled")
     void shouldNotAutoCloseWhenDisabled() throws Exception {
         // Given
-        properties.setPartialFillEnabled(false);
         properties.setAutoClose(false);
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(
-                "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2500.00\"}");
-        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
-                .thenReturn(mockTradeDTO());
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
         // Then
         verify(tradeService).handleExecutionUpdate(anyString(), any(), any(), anyBoolean());
@@ -222,14 +278,56 @@ class MockExecutionEngineTest {
     @DisplayName("Should fail trade on execution error")
     void shouldFailTradeOnError() throws Exception {
         // Given
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenThrow(new RuntimeException("Service error"));
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
+        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
+                .thenThrow(new RuntimeException("Service error"));
         when(tradeService.failTrade(anyString(), anyString(), anyString())).thenReturn(mockTradeDTO());
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
         // Then
         verify(tradeService).failTrade(eq("TRADE-001"), contains("Mock execution failed"), eq("EXEC_ERROR"));
+        assertThat(mockExecutionEngine.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should leave a partially filled trade as is when shut down mid-execution")
+    void shouldNotFailTradesOnShutdown() throws Exception {
+        // Given - the engine stops after the first of two slices
+        properties.getLiquidity().setMinDepth(7);
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
+        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
+                .thenAnswer(invocation -> {
+                    mockExecutionEngine.shutdown();
+                    return mockTradeDTO();
+                });
+        when(scheduler.awaitTermination(anyLong(), any())).thenReturn(true);
+
+        // When
+        mockExecutionEngine.submit(testEvent);
+
+        // Then
+        verify(tradeService, times(1)).handleExecutionUpdate(eq("TRADE-001"), any(), any(), eq(true));
+        verify(tradeService, never()).failTrade(anyString(), anyString(), anyString());
+        verify(tradeService, never()).closeTrade(anyString());
+        assertThat(mockExecutionEngine.getInFlight()).isZero();
+    }
+
+    @Test
+    @DisplayName("Should requeue trades placed while shutting down")
+    void shouldRequeueTradesPlacedWhileStopping() throws Exception {
+        // Given
+        when(scheduler.awaitTermination(anyLong(), any())).thenReturn(true);
+        mockExecutionEngine.shutdown();
+
+        // When
+        mockExecutionEngine.handleTradePlaced(testEvent, channel, 1L);
+
+        // Then
+        verify(channel).basicNack(1L, false, true);
+        verify(channel, never()).basicAck(anyLong(), anyBoolean());
+        verifyNoInteractions(tradeService);
     }
 
     @Test
@@ -248,16 +346,11 @@ class MockExecutionEngineTest {
                 .placedAt(Instant.now())
                 .build();
 
-        properties.setPartialFillEnabled(false);
         properties.setMaxSlippagePercent(1.0); // 1% max slippage
-        when(marketServiceClient.getStockQuote("RELIANCE")).thenReturn(
-                "{\"symbol\":\"RELIANCE\",\"lastPrice\":\"2500.00\"}");
-        when(tradeService.handleExecutionUpdate(anyString(), any(), any(), anyBoolean()))
-                .thenReturn(mockTradeDTO());
-        when(tradeService.closeTrade(anyString())).thenReturn(mockTradeDTO());
+        when(marketDataGrpcClient.getMarketData("RELIANCE")).thenReturn(quote(2500.00, 0));
 
         // When
-        mockExecutionEngine.asyncExecuteTrade(testEvent);
+        mockExecutionEngine.submit(testEvent);
 
         // Then
         ArgumentCaptor<BigDecimal> priceCaptor = ArgumentCaptor.forClass(BigDecimal.class);
@@ -270,6 +363,14 @@ class MockExecutionEngineTest {
         assertThat(executionPrice.compareTo(marketPrice)).isLessThanOrEqualTo(0);
     }
 
+    private static MarketDataUpdate quote(double lastPrice, long volume) {
+        return MarketDataUpdate.newBuilder()
+                .setSymbol("RELIANCE")
+                .setLastPrice(lastPrice)
+                .setVolume(volume)
+                .build();
+    }
+
     private TradeDTO mockTradeDTO() {
         return TradeDTO.builder()
                 .tradeId("TRADE-001")
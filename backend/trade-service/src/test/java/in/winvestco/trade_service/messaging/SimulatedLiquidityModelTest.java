@@ -0,0 +1,94 @@
+package in.winvestco.trade_service.messaging;
+
+import in.winvestco.common.enums.OrderSide;
+import in.winvestco.trade_service.config.MockExecutionProperties;
+import in.winvestco.trade_service.messaging.SimulatedLiquidityModel.Fill;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Unit tests for SimulatedLiquidityModel.
+ */
+class SimulatedLiquidityModelTest {
+
+    private static final BigDecimal PRICE = new BigDecimal("1000.00");
+
+    private MockExecutionProperties properties;
+    private final AtomicLong clock = new AtomicLong();
+    private SimulatedLiquidityModel model;
+
+    @BeforeEach
+    void setUp() {
+        properties = new MockExecutionProperties();
+        properties.setMaxSlippagePercent(0);
+        properties.getLiquidity().setDepthVolumeFraction(0.001);
+        properties.getLiquidity().setMinDepth(10);
+        properties.getLiquidity().setReplenishMs(1000);
+        properties.getLiquidity().setImpactPercent(1.0);
+        model = new SimulatedLiquidityModel(properties, clock::get);
+    }
+
+    @Test
+    @DisplayName("Should size depth from day volume")
+    void take_ShouldDeriveDepthFromVolume() {
+        // 0.1% of 100,000 = 100 shares at the touch
+        Fill fill = model.take("TCS", OrderSide.BUY, PRICE, 100_000, new BigDecimal("250"), true);
+
+        assertThat(fill.quantity()).isEqualByComparingTo("100");
+        assertThat(fill.refillDelayMs()).isEqualTo(1000);
+        assertThat(model.available("TCS")).isZero();
+    }
+
+    @Test
+    @DisplayName("Should charge more slippage for taking more of the book")
+    void take_ShouldScaleImpactWithSize() {
+        Fill small = model.take("INFY", OrderSide.BUY, PRICE, 100_000, new BigDecimal("10"), true);
+        Fill large = model.take("WIPRO", OrderSide.BUY, PRICE, 100_000, new BigDecimal("100"), true);
+        Fill sell = model.take("HDFC", OrderSide.SELL, PRICE, 100_000, new BigDecimal("100"), true);
+
+        // 10% of depth -> 0.1% impact, all of it -> 1%
+        assertThat(small.price()).isEqualByComparingTo("1001.00");
+        assertThat(large.price()).isEqualByComparingTo("1010.00");
+        assertThat(sell.price()).isEqualByComparingTo("990.00");
+    }
+
+    @Test
+    @DisplayName("Should replenish consumed depth over the replenish window")
+    void take_ShouldReplenishOverTime() {
+        model.take("TCS", OrderSide.BUY, PRICE, 0, new BigDecimal("10"), true);
+
+        clock.addAndGet(500);
+        Fill fill = model.take("TCS", OrderSide.BUY, PRICE, 0, new BigDecimal("10"), true);
+
+        assertThat(fill.quantity()).isEqualByComparingTo("5");
+        assertThat(fill.refillDelayMs()).isEqualTo(500);
+    }
+
+    @Test
+    @DisplayName("Should still fill one share from a drained book")
+    void take_FromDrainedBook_ShouldMakeProgress() {
+        model.take("TCS", OrderSide.BUY, PRICE, 0, new BigDecimal("10"), true);
+
+        Fill fill = model.take("TCS", OrderSide.BUY, PRICE, 0, new BigDecimal("10"), true);
+
+        assertThat(fill.quantity()).isEqualByComparingTo("1");
+        assertThat(model.available("TCS")).isEqualTo(-1.0);
+    }
+
+    @Test
+    @DisplayName("Should take the whole quantity when partial fills are not allowed")
+    void take_WithoutPartial_ShouldFillEverything() {
+        Fill fill = model.take("TCS", OrderSide.BUY, PRICE, 0, new BigDecimal("25"), false);
+
+        assertThat(fill.quantity()).isEqualByComparingTo("25");
+        assertThat(fill.refillDelayMs()).isZero();
+        // Impact is capped at the full-depth rate
+        assertThat(fill.price()).isEqualByComparingTo("1010.00");
+    }
+}
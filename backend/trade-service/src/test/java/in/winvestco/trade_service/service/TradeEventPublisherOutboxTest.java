@@ -1,16 +1,23 @@
 package in.winvestco.trade_service.service;
 
+import in.winvestco.common.enums.TradeStatus;
 import in.winvestco.common.event.TradeCreatedEvent;
+import in.winvestco.common.event.TradePlacedEvent;
 import in.winvestco.common.messaging.outbox.OutboxService;
+import in.winvestco.common.messaging.outbox.OutboxService.PendingEvent;
 import in.winvestco.trade_service.model.Trade;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.verify;
@@ -46,4 +53,30 @@ class TradeEventPublisherOutboxTest {
                 any(TradeCreatedEvent.class)
         );
     }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void shouldCaptureCreatedAndPlacedEventsInOneOutboxInsert() {
+        // Given - created and placed in one step, so the entity is already PLACED
+        Trade trade = Trade.builder()
+                .tradeId("TRD-001")
+                .orderId("ORD-001")
+                .userId(123L)
+                .symbol("AAPL")
+                .status(TradeStatus.PLACED)
+                .build();
+
+        // When
+        tradeEventPublisher.publishTradeCreatedAndPlaced(trade);
+
+        // Then
+        ArgumentCaptor<List<PendingEvent>> events = ArgumentCaptor.forClass(List.class);
+        verify(outboxService).captureEvents(eq("Trade"), eq("TRD-001"), events.capture());
+        assertEquals(List.of("trade.created", "trade.placed"),
+                events.getValue().stream().map(PendingEvent::routingKey).toList());
+        TradeCreatedEvent created = assertInstanceOf(TradeCreatedEvent.class, events.getValue().get(0).event());
+        assertEquals(TradeStatus.CREATED, created.getStatus());
+        TradePlacedEvent placed = assertInstanceOf(TradePlacedEvent.class, events.getValue().get(1).event());
+        assertEquals(TradeStatus.PLACED, placed.getStatus());
+    }
 }
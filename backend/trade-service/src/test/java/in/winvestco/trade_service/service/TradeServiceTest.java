@@ -6,6 +6,7 @@ import io.micrometer.observation.ObservationRegistry;
 import in.winvestco.common.enums.OrderSide;
 import in.winvestco.common.enums.TradeStatus;
 import in.winvestco.common.enums.OrderType;
+import in.winvestco.common.statemachine.StatusTransition;
 import in.winvestco.trade_service.dto.CreateTradeRequest;
 import in.winvestco.trade_service.dto.TradeDTO;
 import in.winvestco.trade_service.exception.TradeNotFoundException;
@@ -15,12 +16,14 @@ import in.winvestco.trade_service.repository.TradeRepository;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 
 import java.math.BigDecimal;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -86,17 +89,86 @@ class TradeServiceTest {
 
     @Test
     void createTradeFromOrder_ShouldCreateAndPlaceTrade() {
+        tradeRequest.setTradeType(OrderType.MARKET);
         when(tradeRepository.existsByOrderId(anyString())).thenReturn(false);
-        when(tradeRepository.save(any(Trade.class))).thenReturn(testTrade);
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
         when(tradeMapper.toDTO(any(Trade.class))).thenReturn(new TradeDTO());
 
         TradeDTO result = tradeService.createTradeFromOrder(tradeRequest);
 
         assertNotNull(result);
         verify(validationService).validate(tradeRequest);
-        verify(tradeRepository, atLeastOnce()).save(any(Trade.class));
-        verify(eventPublisher).publishTradeCreated(any(Trade.class));
-        verify(eventPublisher).publishTradePlaced(any(Trade.class));
+
+        // One write, already PLACED, with every intermediate status recorded
+        ArgumentCaptor<Trade> saved = ArgumentCaptor.forClass(Trade.class);
+        verify(tradeRepository, times(1)).save(saved.capture());
+        assertEquals(TradeStatus.PLACED, saved.getValue().getStatus());
+        assertEquals(List.of("CREATED", "VALIDATED", "PLACED"),
+                saved.getValue().getStatusHistory().stream().map(StatusTransition::to).toList());
+        assertNull(saved.getValue().getStatusHistory().get(0).from());
+        assertNotNull(saved.getValue().getValidatedAt());
+        assertNotNull(saved.getValue().getPlacedAt());
+
+        // Both events captured together
+        verify(eventPublisher).publishTradeCreatedAndPlaced(saved.getValue());
+        verify(eventPublisher, never()).publishTradeCreated(any(Trade.class));
+        verify(eventPublisher, never()).publishTradePlaced(any(Trade.class));
+    }
+
+    @Test
+    void createTradeFromOrder_WithLimitOrder_ShouldHoldTradeUntilTriggered() {
+        when(tradeRepository.existsByOrderId(anyString())).thenReturn(false);
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tradeMapper.toDTO(any(Trade.class))).thenReturn(new TradeDTO());
+
+        tradeService.createTradeFromOrder(tradeRequest);
+
+        ArgumentCaptor<Trade> saved = ArgumentCaptor.forClass(Trade.class);
+        verify(tradeRepository).save(saved.capture());
+        assertEquals(TradeStatus.VALIDATED, saved.getValue().getStatus());
+        assertNull(saved.getValue().getPlacedAt());
+        verify(eventPublisher).publishTradeCreated(saved.getValue());
+        verify(eventPublisher, never()).publishTradePlaced(any(Trade.class));
+        verify(eventPublisher, never()).publishTradeCreatedAndPlaced(any(Trade.class));
+    }
+
+    @Test
+    void placeTriggeredTrade_ShouldPlaceHeldTrade() {
+        testTrade.setStatus(TradeStatus.VALIDATED);
+        when(tradeRepository.findByOrderId("ORDER-123")).thenReturn(Optional.of(testTrade));
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tradeMapper.toDTO(any(Trade.class))).thenReturn(new TradeDTO());
+
+        tradeService.placeTriggeredTrade(tradeRequest);
+
+        assertEquals(TradeStatus.PLACED, testTrade.getStatus());
+        verify(eventPublisher).publishTradePlaced(testTrade);
+    }
+
+    @Test
+    void placeTriggeredTrade_BeforeFundsLockedHandled_ShouldCreateAndPlaceTrade() {
+        when(tradeRepository.findByOrderId("ORDER-123")).thenReturn(Optional.empty());
+        when(tradeRepository.save(any(Trade.class))).thenAnswer(invocation -> invocation.getArgument(0));
+        when(tradeMapper.toDTO(any(Trade.class))).thenReturn(new TradeDTO());
+
+        tradeService.placeTriggeredTrade(tradeRequest);
+
+        ArgumentCaptor<Trade> saved = ArgumentCaptor.forClass(Trade.class);
+        verify(tradeRepository).save(saved.capture());
+        assertEquals(TradeStatus.PLACED, saved.getValue().getStatus());
+        verify(eventPublisher).publishTradeCreatedAndPlaced(saved.getValue());
+    }
+
+    @Test
+    void placeTriggeredTrade_WhenAlreadyPlaced_ShouldDoNothing() {
+        testTrade.setStatus(TradeStatus.EXECUTING);
+        when(tradeRepository.findByOrderId("ORDER-123")).thenReturn(Optional.of(testTrade));
+        when(tradeMapper.toDTO(any(Trade.class))).thenReturn(new TradeDTO());
+
+        tradeService.placeTriggeredTrade(tradeRequest);
+
+        verify(tradeRepository, never()).save(any(Trade.class));
+        verifyNoInteractions(eventPublisher);
     }
 
     @Test